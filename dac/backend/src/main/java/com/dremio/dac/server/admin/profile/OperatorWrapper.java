@@ -106,7 +106,8 @@ public class OperatorWrapper {
   public static final String[] SLOW_IO_INFO_COLUMNS = { "FilePath" , "IO Time (ns)", "IO Size", "Offset", "Operation Type"};
 
   public static final String[] RUNTIMEFILTER_INFO_COLUMNS_IN_JOIN = {"Probe Target", "Is Partitioned Column",
-    "Is Non Partitioned Column", "Probe Field Name", "(Approx) Number Of Values", "Number of Hashfunctions"};
+    "Is Non Partitioned Column", "Probe Field Name", "(Approx) Number Of Values", "Number of Hashfunctions",
+    "Expected False Positive Rate"};
 
   private static final String[] RUNTIMEFILTER_INFO_COLUMNS_IN_SCAN = {"Minor Fragment Id", "Join Source", "Is Partitioned Column",
     "Probe Field Name", "(Approx) Number Of Values", "Number of Hashfunctions", "Output Records Before Pruning", "Is Dropped"};
@@ -411,6 +412,8 @@ public class OperatorWrapper {
           builder.appendString(String.join(",", runTimeFilterInfo.getProbeFieldNamesList()));
           builder.appendInteger(runTimeFilterInfo.getNumberOfValues());
           builder.appendInteger(runTimeFilterInfo.getNumberOfHashFunctions());
+          builder.appendString(runTimeFilterInfo.hasExpectedFpp()
+            ? String.format("%.4f", runTimeFilterInfo.getExpectedFpp()) : "-");
           builder.endEntry();
         }
       builder.end();
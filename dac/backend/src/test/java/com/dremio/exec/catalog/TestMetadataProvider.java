@@ -237,7 +237,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(32, tables.size());
+    assertEquals(34, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -246,6 +246,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("INFORMATION_SCHEMA", "TABLES", iterator.next());
     verifyTable("INFORMATION_SCHEMA", "VIEWS", iterator.next());
     verifyTable("sys", "boot", iterator.next());
+    verifyTable("sys", "data_cache", iterator.next());
     verifyTable("sys", "fragments", iterator.next());
     verifyTable("sys", "jobs", iterator.next());
     verifyTable("sys", "jobs_recent", iterator.next());
@@ -254,6 +255,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "memory", iterator.next());
     verifyTable("sys", "nodes", iterator.next());
     verifyTable("sys", "options", iterator.next());
+    verifyTable("sys", "parquet_footer_cache", iterator.next());
     verifyTable("sys", "privileges", iterator.next());
     verifyTable("sys", "reflection_dependencies", iterator.next());
     verifyTable("sys", "reflections", iterator.next());
@@ -295,7 +297,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(31, tables.size());
+    assertEquals(33, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -304,6 +306,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("INFORMATION_SCHEMA", "TABLES", iterator.next());
     verifyTable("INFORMATION_SCHEMA", "VIEWS", iterator.next());
     verifyTable("sys", "boot", iterator.next());
+    verifyTable("sys", "data_cache", iterator.next());
     verifyTable("sys", "fragments", iterator.next());
     verifyTable("sys", "jobs", iterator.next());
     verifyTable("sys", "jobs_recent", iterator.next());
@@ -312,6 +315,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "memory", iterator.next());
     verifyTable("sys", "nodes", iterator.next());
     verifyTable("sys", "options", iterator.next());
+    verifyTable("sys", "parquet_footer_cache", iterator.next());
     verifyTable("sys", "privileges", iterator.next());
     verifyTable("sys", "reflection_dependencies", iterator.next());
     verifyTable("sys", "reflections", iterator.next());
@@ -340,7 +344,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(20, tables.size());
+    assertEquals(21, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -353,6 +357,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "memory", iterator.next());
     verifyTable("sys", "nodes", iterator.next());
     verifyTable("sys", "options", iterator.next());
+    verifyTable("sys", "parquet_footer_cache", iterator.next());
     verifyTable("sys", "reflection_dependencies", iterator.next());
     verifyTable("sys", "reflections", iterator.next());
     verifyTable("sys", "roles", iterator.next());
@@ -391,7 +396,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     assertEquals(RequestStatus.OK, resp1.getStatus());
 
     final List<ColumnMetadata> columns1 = resp1.getColumnsList();
-    assertEquals(323, columns1.size());
+    assertEquals(343, columns1.size());
     assertTrue("incremental update column shouldn't be returned",
       columns1.stream().noneMatch(input -> input.getColumnName().equals(IncrementalUpdateUtils.UPDATE_COLUMN)));
   }
@@ -405,7 +410,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<ColumnMetadata> columns = resp.getColumnsList();
-    assertEquals(25, columns.size());
+    assertEquals(27, columns.size());
 
     Iterator<ColumnMetadata> iterator = columns.iterator();
     verifyColumn("INFORMATION_SCHEMA", "COLUMNS", "ORDINAL_POSITION", iterator.next());
@@ -416,6 +421,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     verifyColumn("cp", "tpch/customer.parquet", "c_phone", iterator.next());
 
+    verifyColumn("sys", "data_cache", "fabric_port", iterator.next());
     verifyColumn("sys", "fragments", "rows_processed", iterator.next());
     verifyColumn("sys", "jobs", "execution_planning_ts", iterator.next());
     verifyColumn("sys", "jobs", "execution_planning_epoch_millis", iterator.next());
@@ -426,6 +432,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyColumn("sys", "memory", "fabric_port", iterator.next());
     verifyColumn("sys", "nodes", "user_port", iterator.next());
     verifyColumn("sys", "nodes", "fabric_port", iterator.next());
+    verifyColumn("sys", "parquet_footer_cache", "fabric_port", iterator.next());
     verifyColumn("sys", "reflection_dependencies", "dependency_path", iterator.next());
     verifyColumn("sys", "services", "user_port", iterator.next());
     verifyColumn("sys", "services", "fabric_port", iterator.next());
@@ -157,6 +157,16 @@ public class TestSystemTable extends BaseTestQuery {
     test("select * from sys.memory");
   }
 
+  @Test
+  public void parquetFooterCacheTable() throws Exception {
+    test("select * from sys.parquet_footer_cache");
+  }
+
+  @Test
+  public void dataCacheTable() throws Exception {
+    test("select * from sys.data_cache");
+  }
+
   @Test
   public void fragmentsTable() throws Exception {
     test("select * from sys.fragments");
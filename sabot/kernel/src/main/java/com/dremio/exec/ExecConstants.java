@@ -36,6 +36,8 @@ import com.dremio.options.TypeValidators.RangeDoubleValidator;
 import com.dremio.options.TypeValidators.RangeLongValidator;
 import com.dremio.options.TypeValidators.StringValidator;
 import com.dremio.sabot.op.common.hashtable.HashTable;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillCodec;
 import com.dremio.sabot.task.Observer;
 import com.dremio.service.spill.DefaultSpillServiceOptions;
 
@@ -206,6 +208,14 @@ public interface ExecConstants {
   String PARQUET_MAX_FOOTER_LEN = "store.parquet.max_footer_length";
   LongValidator PARQUET_MAX_FOOTER_LEN_VALIDATOR = new LongValidator(PARQUET_MAX_FOOTER_LEN, 16*1024*1024);
 
+  // Maximum size in bytes of the executor wide parquet footer cache. 0 disables the cache.
+  RangeLongValidator PARQUET_FOOTER_CACHE_SIZE = new RangeLongValidator("store.parquet.footer_cache.max_size_bytes", 0, Integer.MAX_VALUE, 64*1024*1024);
+
+  // Serve async reads of sources with caching enabled from the executor local data cache.
+  BooleanValidator DATA_CACHE_ENABLED = new BooleanValidator("store.data_cache.enabled", false);
+  // Maximum size in bytes of the executor local data cache.
+  RangeLongValidator DATA_CACHE_SIZE = new RangeLongValidator("store.data_cache.max_size_bytes", 0, Long.MAX_VALUE, 10L*1024*1024*1024);
+
   String PARQUET_MEMORY_THRESHOLD = "store.parquet.memory_threshold";
   LongValidator PARQUET_MEMORY_THRESHOLD_VALIDATOR = new LongValidator(PARQUET_MEMORY_THRESHOLD, 512*1024*1024);
 
@@ -257,6 +267,8 @@ public interface ExecConstants {
   BooleanValidator JSON_WRITER_UGLIFY = new BooleanValidator("store.json.writer.uglify", false);
   DoubleValidator TEXT_ESTIMATED_ROW_SIZE = new RangeDoubleValidator(
       "store.text.estimated_row_size_bytes", 1, Long.MAX_VALUE, 10.0);
+  // Scan text values a word at a time and append runs of bytes without delimiters or quotes in bulk
+  BooleanValidator TEXT_BULK_SCAN = new BooleanValidator("store.text.bulk_scan.enabled", true);
 
   /**
    * The column label (for directory levels) in results when querying files in a directory
@@ -270,6 +282,8 @@ public interface ExecConstants {
 
   String JSON_READ_NUMBERS_AS_DOUBLE = "store.json.read_numbers_as_double";
   BooleanValidator JSON_READ_NUMBERS_AS_DOUBLE_VALIDATOR = new BooleanValidator(JSON_READ_NUMBERS_AS_DOUBLE, false);
+  // Drop unprojected top level members of JSON records with a structural scan, before they reach the parser
+  BooleanValidator JSON_STRUCTURAL_PROJECTION = new BooleanValidator("store.json.structural_projection.enabled", false);
 
   /* Mongo configurations */
   // option used to enable/disable conversions of complex types or incompatible data types to varchar
@@ -397,6 +411,11 @@ public interface ExecConstants {
 
   String ENABLE_WINDOW_FUNCTIONS = "window.enable";
   OptionValidator ENABLE_WINDOW_FUNCTIONS_VALIDATOR = new BooleanValidator(ENABLE_WINDOW_FUNCTIONS, true);
+  BooleanValidator WINDOW_ENABLE_SPILL = new BooleanValidator("exec.operator.window.enable_spill", false);
+  // window spills buffered partition batches once less than this fraction of its memory is left.
+  DoubleValidator WINDOW_SPILL_MIN_HEADROOM_RATIO = new RangeDoubleValidator("exec.operator.window.spill.min_headroom_ratio", 0.0, 1.0, 0.2);
+  // allow ROWS BETWEEN n PRECEDING AND CURRENT ROW frames, their aggregates are evaluated incrementally
+  BooleanValidator ENABLE_WINDOW_SLIDING_FRAMES = new BooleanValidator("window.enable_sliding_frames", false);
 
   String NODE_CONTROL_INJECTIONS = "dremio.exec.testing.controls";
   OptionValidator NODE_CONTROLS_VALIDATOR =
@@ -421,6 +440,9 @@ public interface ExecConstants {
    */
   BooleanValidator SHOULD_IGNORE_LEAF_AFFINITY = new BooleanValidator("planner.assignment.ignore_leaf_affinity", false);
 
+  // place the receivers of hash exchanges on the nodes of their senders so that more batches stay in process
+  BooleanValidator COLOCATE_HASH_RECEIVERS = new BooleanValidator("planner.assignment.colocate_hash_receivers", false);
+
   BooleanValidator SHOULD_ASSIGN_FRAGMENT_PRIORITY = new BooleanValidator("planner.assign_priority", true);
 
   /**
@@ -445,6 +467,11 @@ public interface ExecConstants {
   LongValidator PARQUET_SINGLE_STREAM_COLUMN_THRESHOLD = new LongValidator("store.parquet.single_stream_column_threshold", 40);
   LongValidator PARQUET_MULTI_STREAM_SIZE_LIMIT = new LongValidator("store.parquet.multi_stream_limit", 1024*1024);
   BooleanValidator PARQUET_MULTI_STREAM_SIZE_LIMIT_ENABLE = new BooleanValidator("store.parquet.multi_stream_limit.enable", true);
+  // Fetch the projected column chunks of a row group up front with concurrent requests, merging chunks closer than
+  // the gap, instead of opening a stream per column. At most the buffer size is fetched per file.
+  BooleanValidator PARQUET_VECTORED_READ = new BooleanValidator("store.parquet.vectored_read.enabled", false);
+  LongValidator PARQUET_VECTORED_READ_MAX_GAP = new RangeLongValidator("store.parquet.vectored_read.max_gap_bytes", 0, Integer.MAX_VALUE, 1024*1024);
+  LongValidator PARQUET_VECTORED_READ_MAX_BUFFER = new RangeLongValidator("store.parquet.vectored_read.max_buffer_bytes", 0, Long.MAX_VALUE, 64*1024*1024);
   LongValidator PARQUET_FULL_FILE_READ_THRESHOLD = new RangeLongValidator("store.parquet.full_file_read.threshold", 0, Integer.MAX_VALUE, 0);
   DoubleValidator PARQUET_FULL_FILE_READ_COLUMN_RATIO = new RangeDoubleValidator("store.parquet.full_file_read.column_ratio", 0.0, 1.0, 0.25);
   BooleanValidator PARQUET_CACHED_ENTITY_SET_FILE_SIZE = new BooleanValidator("store.parquet.set_file_length",true);
@@ -480,12 +507,17 @@ public interface ExecConstants {
 
   BooleanValidator EXTERNAL_SORT_COMPRESS_SPILL_FILES = new BooleanValidator("exec.operator.sort.external.compress_spill_files", true);
   BooleanValidator EXTERNAL_SORT_ENABLE_SPLAY_SORT = new BooleanValidator("exec.operator.sort.external.enable_splay_sort", false);
+  BooleanValidator EXTERNAL_SORT_ENABLE_NORMALIZED_KEY_SORT = new BooleanValidator("exec.operator.sort.external.enable_normalized_key_sort", false);
   BooleanValidator EXTERNAL_SORT_ENABLE_MICRO_SPILL = new BooleanValidator("exec.operator.sort.external.enable_micro_spill", true);
   PositiveLongValidator SORT_MAX_WRITE_BATCH = new PositiveLongValidator("exec.operator.sort.external.spill_batch_records", Character.MAX_VALUE, Character.MAX_VALUE);
   BooleanValidator EXTERNAL_SORT_ARROW_ENCODING = new BooleanValidator("exec.operator.sort.external.arrow_encoding", true);
   BooleanValidator EXTERNAL_SORT_DIRECT_WRITE = new BooleanValidator("exec.operator.sort.external.direct_write", true);
+  // discard rows whose first sort key can't beat the boundary of a full TopN heap before inserting them
+  BooleanValidator TOPN_ENABLE_THRESHOLD_FILTER = new BooleanValidator("exec.operator.topn.threshold_filter", true);
   BooleanValidator EXTERNAL_SORT_VECTOR_COPIER = new BooleanValidator("exec.operator.sort.external.vector_copier", true);
   DoubleValidator EXTERNAL_SORT_SPILL_ALLOCATION_DENSITY = new RangeDoubleValidator("exec.operator.sort.external.spill.allocation_density", 0.0, Double.MAX_VALUE, 0.01);
+  // read the next batch of each disk run asynchronously while the current one is being merged
+  BooleanValidator EXTERNAL_SORT_ENABLE_READ_AHEAD = new BooleanValidator("exec.operator.sort.external.read_ahead", false);
 
   PositiveLongValidator EXTERNAL_SORT_BATCHSIZE_MULTIPLIER = new PositiveLongValidator("exec.operator.sort.external.batchsize_multiplier", Character.MAX_VALUE, 2);
 
@@ -602,9 +634,18 @@ public interface ExecConstants {
   PositiveLongValidator SLICING_THREAD_MIGRATION_MULTIPLE = new com.dremio.options.TypeValidators.PositiveLongValidator("dremio.sliced.migration_multiple", Long.MAX_VALUE, 50);
   PositiveLongValidator SLICING_THREAD_SPINDOWN_MULTIPLE = new com.dremio.options.TypeValidators.PositiveLongValidator("dremio.sliced.spindown_multiple", Long.MAX_VALUE, 100);
 
+  // number of worker threads of the work stealing task pool, 0 to use one per core
+  RangeLongValidator WORK_STEALING_NUM_THREADS = new RangeLongValidator("dremio.work_stealing.num_threads", 0, 1024, 0);
+  // how long a task of the work stealing task pool runs before yielding to the other runnable tasks
+  PositiveLongValidator WORK_STEALING_TIME_SLICE_MS = new PositiveLongValidator("dremio.work_stealing.time_slice_ms", 1000, 10);
+
   // warning threshold for spilling
   PositiveLongValidator SPILL_IO_WARN_MAX_RUNTIME_MS = new PositiveLongValidator("dremio.spill.warn_max_runtime", Long.MAX_VALUE, 3000);
 
+  // codec used by the spilling operators for compressed spill files
+  EnumValidator<SpillCodec> SPILL_COMPRESSION_CODEC = new EnumValidator<>("exec.spill.compression.codec", SpillCodec.class, SpillCodec.LZ4);
+  RangeLongValidator SPILL_COMPRESSION_ZSTD_LEVEL = new RangeLongValidator("exec.spill.compression.zstd.level", -7, 22, 1);
+
   // warning threshold for long IO time
   LongValidator STORE_IO_TIME_WARN_THRESH_MILLIS = new LongValidator("store.io_time_warn_thresh_millis", 10000);
 
@@ -634,14 +675,21 @@ public interface ExecConstants {
   BooleanValidator ENABLE_RUNTIME_FILTER_ON_NON_PARTITIONED_PARQUET =  new BooleanValidator("exec.non_partitioned_parquet.enable_runtime_filter", true);
   RangeLongValidator RUNTIME_FILTER_VALUE_FILTER_MAX_SIZE = new RangeLongValidator("exec.non_partitioned_parquet.runtime_filter.max_size", 10, 1_000_000, 10000);
   RangeLongValidator RUNTIME_FILTER_KEY_MAX_SIZE = new RangeLongValidator("exec.runtime_filter.max_key_size", 32, 1_024, 128);
+  // Size the partition column bloom filter from the build key cardinality rather than always using the maximum size
+  BooleanValidator RUNTIME_FILTER_NDV_SIZING = new BooleanValidator("exec.runtime_filter.ndv_sizing", false);
   BooleanValidator ENABLE_ROW_LEVEL_RUNTIME_FILTERING = new BooleanValidator("exec.row_level.runtime_filter.enable", true);
   String ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS_KEY = "exec.parquet.enable_vectorized_complex";
   BooleanValidator ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS = new BooleanValidator(ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS_KEY, true);
   BooleanValidator PREFETCH_READER = new BooleanValidator("store.parquet.prefetch_reader", true);
   BooleanValidator READ_COLUMN_INDEXES = new BooleanValidator("store.parquet.read_column_indexes", true);
+  // Decode the columns of the pushed down filters first and only materialize the other columns for the matching rows
+  BooleanValidator PARQUET_LATE_MATERIALIZATION = new BooleanValidator("store.parquet.late_materialization.enabled", false);
   // Increasing this will increase the number of splits that are prefetched. Unfortunately, it can also lead to multiple footer reads
   // if the future splits are from the same file
   RangeLongValidator NUM_SPLITS_TO_PREFETCH = new RangeLongValidator("store.parquet.num_splits_to_prefetch", 1, 20L, 1);
+  // Fetch the projected column chunks of the prefetched splits in the background, the chunks read ahead for all the
+  // prefetched splits holding at most the vectored read buffer limit
+  BooleanValidator PARQUET_SPLIT_READ_AHEAD = new BooleanValidator("store.parquet.split_read_ahead.enabled", false);
 
   // Use this as a factor to scale the rowcount estimation of number of rows in a data file
   DoubleValidator DELTALAKE_ROWCOUNT_ESTIMATION_FACTOR = new RangeDoubleValidator("store.delta.rowcount_estimation_factor", 0.8d, 2.0d, 1.25d);
@@ -719,6 +767,16 @@ public interface ExecConstants {
 
   BooleanValidator ENABLE_IN_PROCESS_TUNNEL = new BooleanValidator("dremio.exec.inprocess.tunnel.enabled", true);
 
+  // hand the vector buffers over to the receivers in the same process instead of copying them, the receivers then
+  // share the memory of the vectors the sender has sent
+  BooleanValidator ENABLE_IN_PROCESS_TUNNEL_ZERO_COPY = new BooleanValidator("dremio.exec.inprocess.tunnel.zero_copy.enabled", false);
+
+  // codec used to compress the buffers of the batches sent to other nodes by the exchanges, NONE to send them as is
+  EnumValidator<ExchangeCompressor.Codec> EXCHANGE_COMPRESSION_CODEC = new EnumValidator<>("exec.exchange.compression.codec", ExchangeCompressor.Codec.class, ExchangeCompressor.Codec.NONE);
+  RangeLongValidator EXCHANGE_COMPRESSION_ZSTD_LEVEL = new RangeLongValidator("exec.exchange.compression.zstd.level", -7, 22, 1);
+  // batches that don't shrink by at least this ratio are sent uncompressed, and compression is backed off for a while
+  DoubleValidator EXCHANGE_COMPRESSION_MIN_RATIO = new RangeDoubleValidator("exec.exchange.compression.min_ratio", 1.0, 100.0, 1.2);
+
   PositiveLongValidator ORPHANAGE_ENTRY_CLEAN_PERIOD_MINUTES  = new PositiveLongValidator("dremio.orphanage.entry_cleanup_period_minutes",  Long.MAX_VALUE, 5);
   RangeLongValidator ORPHANAGE_PROCESSING_THREAD_COUNT = new RangeLongValidator("dremio.orphanage.processing_thread_count", 1, 100000, 3);
 
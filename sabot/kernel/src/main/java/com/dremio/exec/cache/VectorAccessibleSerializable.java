@@ -283,6 +283,65 @@ public class VectorAccessibleSerializable extends AbstractStreamSerializable {
     }
   }
 
+  /**
+   * Loads a batch from its definition and the buffers written after it, as read from a stream positioned right after
+   * the definition. Vectors are loaded with slices of {@code body}, without copying it: they keep a reference to it
+   * until they are released.
+   * @param batchDef the definition of the batch
+   * @param body the buffers of the batch, of {@link #getBodyLength(UserBitShared.RecordBatchDef)} bytes
+   * @throws IOException
+   */
+  public void readFromBuffer(UserBitShared.RecordBatchDef batchDef, ArrowBuf body) throws IOException {
+    Preconditions.checkState(!useCodec, "Compressed batches can't be loaded from a buffer");
+    try (RollbackCloseable rollback = new RollbackCloseable()) {
+      final VectorContainer container = rollback.add(new VectorContainer());
+      recordCount = batchDef.getRecordCount();
+      long position = 0;
+      if (batchDef.hasCarriesTwoByteSelectionVector() && batchDef.getCarriesTwoByteSelectionVector()) {
+
+        if (sv2 == null) {
+          sv2 = rollback.add(new SelectionVector2(allocator));
+        }
+        final int sv2Length = recordCount * SelectionVector2.RECORD_SIZE;
+        sv2.allocateNew(sv2Length);
+        sv2.getBuffer().setBytes(0, body, 0, sv2Length);
+        position += sv2Length;
+        svMode = BatchSchema.SelectionVectorMode.TWO_BYTE;
+      }
+      final List<ValueVector> vectorList = Lists.newArrayList();
+      for (SerializedField metaData : batchDef.getFieldList()) {
+        final int rawDataLength = metaData.getBufferLength();
+        final ValueVector vector = TypeHelper.getNewVector(SerializedFieldHelper.create(metaData), allocator);
+        rollback.add(vector);
+        TypeHelper.load(vector, metaData, body.slice(position, rawDataLength));
+        position += rawDataLength;
+        vectorList.add(vector);
+      }
+      container.addCollection(vectorList);
+      container.buildSchema(svMode);
+      container.setRecordCount(recordCount);
+      va = container;
+
+      rollback.commit();
+    } catch (Exception e) {
+      throw new IOException("Failed to deserialize vector batch", e);
+    }
+  }
+
+  /**
+   * Number of bytes written after the definition of an uncompressed batch.
+   */
+  public static long getBodyLength(UserBitShared.RecordBatchDef batchDef) {
+    long length = 0;
+    if (batchDef.hasCarriesTwoByteSelectionVector() && batchDef.getCarriesTwoByteSelectionVector()) {
+      length += (long) batchDef.getRecordCount() * SelectionVector2.RECORD_SIZE;
+    }
+    for (SerializedField metaData : batchDef.getFieldList()) {
+      length += metaData.getBufferLength();
+    }
+    return length;
+  }
+
   /**
    * Serializes the VectorAccessible va and writes it to an output stream
    * @param output the OutputStream to write to
@@ -32,12 +32,15 @@ import com.google.common.annotations.VisibleForTesting;
 @JsonTypeName("hash-aggregate")
 public class HashAggregate extends AbstractSingle {
 
+  private static final int DEFAULT_HASH_TABLE_BATCH_SIZE = 3968;
+
   private final List<NamedExpression> groupByExprs;
   private final List<NamedExpression> aggrExprs;
   private final boolean vectorize;
   private final boolean useSpill;
   private final float cardinality;
   private final int hashTableBatchSize;
+  private final boolean partialAggregation;
 
   /* testing related parameters */
   private VectorizedHashAggSpillStats spillStats;
@@ -51,7 +54,8 @@ public class HashAggregate extends AbstractSingle {
       @JsonProperty("vectorize") boolean vectorize,
       @JsonProperty("useSpill") boolean useSpill,
       @JsonProperty("cardinality") float cardinality,
-      @JsonProperty("hashTableBatchSize") int hashTableBatchSize
+      @JsonProperty("hashTableBatchSize") int hashTableBatchSize,
+      @JsonProperty("partialAggregation") boolean partialAggregation
       ) {
     super(props, child);
     this.groupByExprs = groupByExprs;
@@ -60,6 +64,19 @@ public class HashAggregate extends AbstractSingle {
     this.useSpill = useSpill;
     this.cardinality = cardinality;
     this.hashTableBatchSize = hashTableBatchSize;
+    this.partialAggregation = partialAggregation;
+  }
+
+  public HashAggregate(
+    OpProps props,
+    PhysicalOperator child,
+    List<NamedExpression> groupByExprs,
+    List<NamedExpression> aggrExprs,
+    boolean vectorize,
+    boolean useSpill,
+    float cardinality,
+    int hashTableBatchSize) {
+    this(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality, hashTableBatchSize, false);
   }
 
   // for testing only
@@ -71,7 +88,7 @@ public class HashAggregate extends AbstractSingle {
     boolean vectorize,
     boolean useSpill,
     float cardinality) {
-    this(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality, 3968);
+    this(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality, DEFAULT_HASH_TABLE_BATCH_SIZE);
   }
 
   public boolean isVectorize(){
@@ -101,7 +118,8 @@ public class HashAggregate extends AbstractSingle {
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new HashAggregate(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality);
+    return new HashAggregate(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality,
+      DEFAULT_HASH_TABLE_BATCH_SIZE, partialAggregation);
   }
 
   @Override
@@ -113,6 +131,14 @@ public class HashAggregate extends AbstractSingle {
     return hashTableBatchSize;
   }
 
+  /**
+   * @return true if this is the first phase of a two phase aggregation, whose output is
+   * re-aggregated downstream and therefore may contain more than one row per group.
+   */
+  public boolean isPartialAggregation() {
+    return partialAggregation;
+  }
+
   @VisibleForTesting
   public VectorizedHashAggSpillStats getSpillStats() {
     return spillStats;
@@ -18,8 +18,12 @@ package com.dremio.exec.physical.config;
 
 import java.util.List;
 
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexWindowBound;
 
+import com.dremio.common.exceptions.UserException;
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.logical.data.Order;
 import com.dremio.common.logical.data.Order.Ordering;
@@ -35,6 +39,7 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 
 @JsonTypeName("window")
 public class WindowPOP extends AbstractSingle {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WindowPOP.class);
 
   private final List<NamedExpression> withins;
   private final List<NamedExpression> aggregations;
@@ -126,9 +131,52 @@ public class WindowPOP extends AbstractSingle {
     public long getOffset() {
       return offset;
     }
+
+    /**
+     * @return true for a "n PRECEDING" bound, its offset is -n
+     */
+    @JsonIgnore
+    public boolean isBoundedPreceding() {
+      return !unbounded && offset < 0;
+    }
   }
 
   public static Bound newBound(RexWindowBound windowBound) {
     return new Bound(windowBound.isUnbounded(), windowBound.isCurrentRow() ? 0 : Long.MIN_VALUE); //TODO: Get offset to work
   }
+
+  /**
+   * Creates a bound that also carries the offset of "n PRECEDING" and "n FOLLOWING" bounds. Offsets of a window group
+   * are references to the window's constants, which follow the fields of its input.
+   *
+   * @param windowBound bound of the window group
+   * @param constants constants of the window
+   * @param inputFieldCount number of fields of the window's input
+   */
+  public static Bound newBound(RexWindowBound windowBound, List<RexLiteral> constants, int inputFieldCount) {
+    if (windowBound.isUnbounded() || windowBound.isCurrentRow()) {
+      return newBound(windowBound);
+    }
+
+    RexLiteral literal = null;
+    final RexNode offset = windowBound.getOffset();
+    if (offset instanceof RexLiteral) {
+      literal = (RexLiteral) offset;
+    } else if (offset instanceof RexInputRef) {
+      final int index = ((RexInputRef) offset).getIndex() - inputFieldCount;
+      if (index >= 0 && index < constants.size()) {
+        literal = constants.get(index);
+      }
+    }
+
+    if (literal == null || !(literal.getValue() instanceof Number)) {
+      // the legacy bound would carry Long.MIN_VALUE as offset, which is not a frame the operator can evaluate.
+      throw UserException.unsupportedError()
+        .message("Window frame offset %s must be a constant", offset)
+        .build(logger);
+    }
+
+    final long rows = ((Number) literal.getValue()).longValue();
+    return new Bound(false, windowBound.isPreceding() ? -rows : rows);
+  }
 }
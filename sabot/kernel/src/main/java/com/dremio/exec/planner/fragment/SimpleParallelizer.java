@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -41,6 +43,7 @@ import com.dremio.exec.physical.base.Exchange.ParallelizationDependency;
 import com.dremio.exec.physical.base.FragmentRoot;
 import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.physical.base.Receiver;
+import com.dremio.exec.physical.config.HashToRandomExchange;
 import com.dremio.exec.planner.PhysicalPlanReader;
 import com.dremio.exec.planner.fragment.Fragment.ExchangeFragmentPair;
 import com.dremio.exec.planner.fragment.Materializer.IndexedFragmentNode;
@@ -106,6 +109,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
   private ExecutorSelectionService executorSelectionService;  // NB: re-assigned in unit tests, hence not final
   private final int targetNumFragsPerNode;
   private final boolean shouldIgnoreLeafAffinity;
+  private final boolean colocateHashReceivers;
   private ExecutorSelectionHandle handleWithAllExecutors = null;
 
   public SimpleParallelizer(QueryContext context, MaestroObserver observer, ExecutorSelectionService executorSelectionService) {
@@ -131,6 +135,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
     this.executorSelectionService = executorSelectionService;
     this.targetNumFragsPerNode = Ints.saturatedCast(optionManager.getOption(ExecutorSelectionService.TARGET_NUM_FRAGS_PER_NODE));
     this.shouldIgnoreLeafAffinity = optionManager.getOption(ExecConstants.SHOULD_IGNORE_LEAF_AFFINITY);
+    this.colocateHashReceivers = optionManager.getOption(ExecConstants.COLOCATE_HASH_RECEIVERS);
     handleWithAllExecutors = executorSelectionService.getAllActiveExecutors(new ExecutorSelectionContext(resourceSchedulingDecisionInfo));
     this.executionMap = new ExecutionNodeMap(handleWithAllExecutors.getExecutors());
     computeMaxWidthPerNode(groupResourceInformation);
@@ -160,6 +165,20 @@ public class SimpleParallelizer implements ParallelizationParameters {
                             boolean useNewAssignmentCreator,
                             double assignmentCreatorBalanceFactor,
                             boolean shouldIgnoreLeafAffinity) {
+    this(parallelizationThreshold, maxWidthPerNode, maxGlobalWidth, affinityFactor, observer, useNewAssignmentCreator,
+      assignmentCreatorBalanceFactor, shouldIgnoreLeafAffinity, false);
+  }
+
+  @VisibleForTesting
+  SimpleParallelizer(long parallelizationThreshold,
+                     int maxWidthPerNode,
+                     int maxGlobalWidth,
+                     double affinityFactor,
+                     MaestroObserver observer,
+                     boolean useNewAssignmentCreator,
+                     double assignmentCreatorBalanceFactor,
+                     boolean shouldIgnoreLeafAffinity,
+                     boolean colocateHashReceivers) {
     this.executionMap = new ExecutionNodeMap(Collections.<NodeEndpoint>emptyList());
     this.parallelizationThreshold = parallelizationThreshold;
     this.maxWidthPerNode = maxWidthPerNode;
@@ -173,6 +192,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
     this.targetNumFragsPerNode = 1;
     this.resourceSchedulingDecisionInfo = null;
     this.shouldIgnoreLeafAffinity = shouldIgnoreLeafAffinity;
+    this.colocateHashReceivers = colocateHashReceivers;
   }
 
   @Override
@@ -490,7 +510,46 @@ public class SimpleParallelizer implements ParallelizationParameters {
 
     fragmentWrapper.getStats().getDistributionAffinity()
       .getFragmentParallelizer()
-      .parallelizeFragment(fragmentWrapper, this, activeEndpoints);
+      .parallelizeFragment(fragmentWrapper, this, getCandidateEndpoints(fragmentWrapper, activeEndpoints));
+  }
+
+  /**
+   * Gets the endpoints a fragment can be assigned to. Fragments with hard affinity keep all the active endpoints, the
+   * others are restricted to the endpoints of their hash senders if planner.assignment.colocate_hash_receivers is set.
+   */
+  @VisibleForTesting
+  Collection<NodeEndpoint> getCandidateEndpoints(Wrapper fragmentWrapper, Collection<NodeEndpoint> activeEndpoints) {
+    if (!colocateHashReceivers
+      || fragmentWrapper.getStats().getDistributionAffinity() == DistributionAffinity.HARD) {
+      return activeEndpoints;
+    }
+    return getHashSenderEndpoints(fragmentWrapper, activeEndpoints);
+  }
+
+  /**
+   * Restricts the endpoints of a fragment receiving from hash exchanges to the endpoints of the senders, so that the
+   * partitions sent to the receivers running on the same node go through the in process tunnel.
+   *
+   * @return the active endpoints the senders of the hash exchanges are assigned to, or all the active endpoints if the
+   * fragment doesn't receive from any hash exchange
+   */
+  private static Collection<NodeEndpoint> getHashSenderEndpoints(Wrapper fragmentWrapper,
+                                                                 Collection<NodeEndpoint> activeEndpoints) {
+    final Set<NodeEndpoint> active = new HashSet<>(activeEndpoints);
+    final Set<NodeEndpoint> senderEndpoints = new LinkedHashSet<>();
+    for (Wrapper dependency : fragmentWrapper.getFragmentDependencies()) {
+      final ExchangeFragmentPair sendingPair = dependency.getNode().getSendingExchangePair();
+      if (sendingPair == null || sendingPair.getNode() != fragmentWrapper.getNode()
+        || !(sendingPair.getExchange() instanceof HashToRandomExchange)) {
+        continue;
+      }
+      for (NodeEndpoint endpoint : dependency.getAssignedEndpoints()) {
+        if (active.contains(endpoint)) {
+          senderEndpoints.add(endpoint);
+        }
+      }
+    }
+    return senderEndpoints.isEmpty() ? activeEndpoints : senderEndpoints;
   }
 
   /**
@@ -40,6 +40,7 @@ import com.dremio.exec.planner.common.MoreRelOptUtil;
 import com.dremio.exec.planner.logical.AggregateRel;
 import com.dremio.exec.planner.logical.RelOptHelper;
 import com.dremio.exec.planner.physical.AggregatePrel.OperatorPhase;
+import com.dremio.exec.planner.physical.DistributionTrait.DistributionField;
 import com.google.common.collect.ImmutableList;
 
 public class HashAggPrule extends AggPruleBase {
@@ -146,9 +147,32 @@ public class HashAggPrule extends AggPruleBase {
           getUpdatedPhase1AggregateCall(aggregate),
           OperatorPhase.PHASE_1of2);
 
-      HashToRandomExchangePrel exch =
-          new HashToRandomExchangePrel(phase1Agg.getCluster(), phase1Agg.getTraitSet().plus(Prel.PHYSICAL).plus(distOnAllKeys),
-              phase1Agg, ImmutableList.copyOf(getDistributionField(aggregate, true)));
+      final ImmutableList<DistributionField> fields = ImmutableList.copyOf(getDistributionField(aggregate, true));
+      final boolean saltHotKeys = PrelUtil.getPlannerSettings(phase1Agg.getCluster()).isHashAggSaltHotKeysEnabled()
+          && isRemergeable(phase1Agg.getPhase2AggCalls());
+      final RelNode exch;
+      if (saltHotKeys) {
+        // the adaptive sender may spread the rows of a key across several receivers, either the hot keys found by
+        // its skew detector or all the keys once it switches to round-robin. Each receiver merges the partial
+        // aggregates it gets, and the merged rows are hash distributed again to the final aggregation.
+        final DistributionTrait adaptiveDist =
+            new DistributionTrait(DistributionTrait.DistributionType.ADAPTIVE_HASH_DISTRIBUTED, fields);
+        final AdaptiveHashExchangePrel saltedExch = new AdaptiveHashExchangePrel(phase1Agg.getCluster(),
+            phase1Agg.getTraitSet().plus(Prel.PHYSICAL).plus(adaptiveDist), phase1Agg, fields);
+        final HashAggPrel mergeAgg = HashAggPrel.create(
+            saltedExch.getCluster(),
+            saltedExch.getTraitSet(),
+            saltedExch,
+            phase1Agg.getPhase2GroupSet(),
+            null,
+            Pair.left(phase1Agg.getPhase2AggCalls()),
+            OperatorPhase.PHASE_2of2);
+        exch = new HashToRandomExchangePrel(mergeAgg.getCluster(), mergeAgg.getTraitSet().plus(Prel.PHYSICAL).plus(distOnAllKeys),
+            mergeAgg, fields);
+      } else {
+        exch = new HashToRandomExchangePrel(phase1Agg.getCluster(), phase1Agg.getTraitSet().plus(Prel.PHYSICAL).plus(distOnAllKeys),
+            phase1Agg, fields);
+      }
 
       final RexBuilder rexBuilder = aggregate.getCluster().getRexBuilder();
       final List<AggregateCall> phase2Calls = new ArrayList<>();
@@ -198,6 +222,29 @@ public class HashAggPrule extends AggPruleBase {
     }
   }
 
+  /**
+   * @return true if the phase 2 calls can be applied again to their own output, which keeps the same layout as the
+   * phase 1 output: the group keys followed by one column per call
+   */
+  private static boolean isRemergeable(List<Pair<AggregateCall, RexLiteral>> phase2Calls) {
+    for (Pair<AggregateCall, RexLiteral> aggPair : phase2Calls) {
+      final AggregateCall call = aggPair.getKey();
+      if (aggPair.getValue() != null || call.isDistinct() || call.filterArg >= 0) {
+        return false;
+      }
+      switch (call.getAggregation().getKind()) {
+        case SUM:
+        case SUM0:
+        case MIN:
+        case MAX:
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
   private void createTransformRequest(RelOptRuleCall call, AggregateRel aggregate,
                                       RelNode input, RelTraitSet traits) throws InvalidRelException {
 
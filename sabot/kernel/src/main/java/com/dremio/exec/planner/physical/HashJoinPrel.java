@@ -33,6 +33,7 @@ import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.util.ImmutableBitSet;
 
 import com.dremio.common.expression.CompleteType;
 import com.dremio.common.expression.LogicalExpression;
@@ -237,9 +238,28 @@ public class HashJoinPrel extends JoinPrel {
     return new RuntimeFilterInfo.Builder()
       .isBroadcastJoin(runtimeFilterId.isBroadcastJoin())
       .setRuntimeFilterProbeTargets(runtimeFilterProbeTargets.build())
+      .setBuildKeyNdvEstimate(estimateBuildKeyNdv())
       .build();
   }
 
+  /**
+   * Estimates the number of distinct build side join keys, used to size the runtime filter bloom filter.
+   * Falls back to the build side row count when no distinct count is available. Returns 0 if unknown.
+   */
+  private long estimateBuildKeyNdv() {
+    final RelNode buildSide = swapped ? left : right;
+    final List<Integer> buildKeys = swapped ? leftKeys : rightKeys;
+    final RelMetadataQuery mq = getCluster().getMetadataQuery();
+    Double ndv = buildKeys.isEmpty() ? null : mq.getDistinctRowCount(buildSide, ImmutableBitSet.of(buildKeys), null);
+    if (ndv == null || ndv.isNaN() || ndv.isInfinite()) {
+      ndv = mq.getRowCount(buildSide);
+    }
+    if (ndv == null || ndv.isNaN() || ndv <= 0) {
+      return 0;
+    }
+    return (long) Math.ceil(Math.min(ndv, Long.MAX_VALUE));
+  }
+
   private boolean canVectorize(FunctionLookupContext functionLookup, PhysicalOperator leftPop, PhysicalOperator rightPop, List<JoinCondition> conditions){
     BatchSchema left = leftPop.getProps().getSchema();
     BatchSchema right = rightPop.getProps().getSchema();
@@ -115,11 +115,14 @@ public class PlannerSettings implements Context{
   public static final RangeDoubleValidator HASH_JOIN_SWAP_MARGIN_FACTOR = new RangeDoubleValidator("planner.join.hash_join_swap_margin_factor", 0, 100, 10d);
   public static final LongValidator STREAM_AGG_MAX_GROUP = new PositiveLongValidator("planner.streamagg.max_group_key", Long.MAX_VALUE, 64);
   public static final BooleanValidator STREAM_AGG_WITH_GROUPS = new BooleanValidator("planner.streamagg.allow_grouping", false);
+  public static final BooleanValidator STREAM_AGG_ON_ICEBERG_SORT_ORDER = new BooleanValidator("planner.streamagg.iceberg_sort_order", false);
+  public static final BooleanValidator HASH_AGG_SALT_HOT_KEYS = new BooleanValidator("planner.hashagg.salt_hot_keys", false);
   public static final String ENABLE_DECIMAL_DATA_TYPE_KEY = "planner.enable_decimal_data_type";
   public static final LongValidator HEP_PLANNER_MATCH_LIMIT = new PositiveLongValidator("planner.hep_match_limit", Integer.MAX_VALUE, Integer.MAX_VALUE);
   public static final BooleanValidator ENHANCED_FILTER_JOIN_PUSHDOWN = new BooleanValidator("planner.enhanced_filter_join_pushdown", true);
   public static final BooleanValidator TRANSITIVE_FILTER_JOIN_PUSHDOWN = new BooleanValidator("planner.filter.transitive_pushdown", true);
   public static final BooleanValidator ENABLE_RUNTIME_FILTER = new BooleanValidator("planner.filter.runtime_filter", true);
+  public static final BooleanValidator ENABLE_TRANSITIVE_RUNTIME_FILTER = new BooleanValidator("planner.filter.runtime_filter.transitive", false);
 
   public static final BooleanValidator CSE_BEFORE_RF = new BooleanValidator("planner.cse_before_rf", true);
   public static final BooleanValidator ENABLE_TRANSPOSE_PROJECT_FILTER_LOGICAL = new BooleanValidator("planner.experimental.tpf_logical", false);
@@ -310,6 +313,7 @@ public class PlannerSettings implements Context{
                               Integer.MAX_VALUE, DEFAULT_IDENTIFIER_MAX_LENGTH);
 
   public static final BooleanValidator ENABLE_GLOBAL_DICTIONARY = new BooleanValidator("planner.enable_global_dictionary", true);
+  public static final BooleanValidator GLOBAL_DICTIONARY_ENCODED_KEYS = new BooleanValidator("planner.global_dictionary.encoded_keys", false);
 
   public static final DoubleValidator FLATTEN_EXPANSION_AMOUNT = new TypeValidators.RangeDoubleValidator("planner.flatten.expansion_size", 0, Double.MAX_VALUE, 10.0d);
 
@@ -614,6 +618,10 @@ public class PlannerSettings implements Context{
     return options.getOption(ENABLE_RUNTIME_FILTER);
   }
 
+  public boolean isTransitiveRuntimeFilterEnabled() {
+    return options.getOption(ENABLE_TRANSITIVE_RUNTIME_FILTER);
+  }
+
   public boolean isCSEEnabled() {
     return options.getOption(ENABLE_CSE);
   }
@@ -781,6 +789,10 @@ public class PlannerSettings implements Context{
     return options.getOption(ENABLE_GLOBAL_DICTIONARY);
   }
 
+  public boolean isGlobalDictionaryEncodedKeysEnabled() {
+    return options.getOption(GLOBAL_DICTIONARY_ENCODED_KEYS);
+  }
+
   public boolean isStreamAggEnabled() {
     return options.getOption(STREAMAGG);
   }
@@ -789,6 +801,14 @@ public class PlannerSettings implements Context{
     return options.getOption(STREAM_AGG_MAX_GROUP);
   }
 
+  public boolean isStreamAggOnIcebergSortOrderEnabled() {
+    return options.getOption(STREAM_AGG_ON_ICEBERG_SORT_ORDER);
+  }
+
+  public boolean isHashAggSaltHotKeysEnabled() {
+    return options.getOption(HASH_AGG_SALT_HOT_KEYS);
+  }
+
   public boolean isHashJoinEnabled() {
     return options.getOption(HASHJOIN);
   }
@@ -33,6 +33,7 @@ import org.apache.calcite.rel.RelCollationTraitDef;
 import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
 import org.apache.calcite.rel.core.Aggregate;
 import org.apache.calcite.rel.core.AggregateCall;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
@@ -57,14 +58,23 @@ public class StreamAggPrel extends AggregatePrel implements Prel{
   public static final LongValidator RESERVE = new PositiveLongValidator("planner.op.streamingagg.reserve_bytes", Long.MAX_VALUE, DEFAULT_RESERVE);
   public static final LongValidator LIMIT = new PositiveLongValidator("planner.op.streamingagg.limit_bytes", Long.MAX_VALUE, DEFAULT_LIMIT);
 
+  /*
+   * Input is only clustered on the group keys in runs (e.g. the data files of a table written with a
+   * sort order), not globally sorted. A group may then be output more than once, which is only valid
+   * for the first phase of a two phase aggregation.
+   */
+  private final boolean clusteredInput;
+
   private StreamAggPrel(RelOptCluster cluster,
                        RelTraitSet traits,
                        RelNode child,
                        ImmutableBitSet groupSet,
                        List<ImmutableBitSet> groupSets,
                        List<AggregateCall> aggCalls,
-                       OperatorPhase phase) throws InvalidRelException {
+                       OperatorPhase phase,
+                       boolean clusteredInput) throws InvalidRelException {
     super(cluster, traits, child, groupSet, groupSets, aggCalls, phase);
+    this.clusteredInput = clusteredInput;
   }
 
   public static StreamAggPrel create(RelOptCluster cluster,
@@ -84,7 +94,22 @@ public class StreamAggPrel extends AggregatePrel implements Prel{
           return collation(groupSet);
         });
 
-    return new StreamAggPrel(cluster, adjustedTraits, child, groupSet, groupSets, aggCalls, phase);
+    return new StreamAggPrel(cluster, adjustedTraits, child, groupSet, groupSets, aggCalls, phase, false);
+  }
+
+  /**
+   * Creates the first phase of a two phase streaming aggregate over input which is clustered,
+   * but not sorted, on the group keys. The output carries no collation.
+   */
+  public static StreamAggPrel createOnClusteredInput(RelOptCluster cluster,
+                       RelTraitSet traits,
+                       RelNode child,
+                       ImmutableBitSet groupSet,
+                       List<AggregateCall> aggCalls) throws InvalidRelException {
+    final RelTraitSet adjustedTraits = AggregatePrel.adjustTraits(traits, child, groupSet)
+        .replaceIf(RelCollationTraitDef.INSTANCE, () -> RelCollations.EMPTY);
+
+    return new StreamAggPrel(cluster, adjustedTraits, child, groupSet, null, aggCalls, OperatorPhase.PHASE_1of2, true);
   }
 
   /**
@@ -125,12 +150,24 @@ public class StreamAggPrel extends AggregatePrel implements Prel{
   @Override
   public Aggregate copy(RelTraitSet traitSet, RelNode input, ImmutableBitSet groupSet, List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls) {
     try {
+      if (clusteredInput) {
+        return StreamAggPrel.createOnClusteredInput(getCluster(), traitSet, input, groupSet, aggCalls);
+      }
       return StreamAggPrel.create(getCluster(), traitSet, input, groupSet, groupSets, aggCalls, this.getOperatorPhase());
     } catch (InvalidRelException e) {
       throw new AssertionError(e);
     }
   }
 
+  public boolean isClusteredInput() {
+    return clusteredInput;
+  }
+
+  @Override
+  public RelWriter explainTerms(RelWriter pw) {
+    return super.explainTerms(pw).itemIf("clusteredInput", true, clusteredInput);
+  }
+
   @Override
   public RelOptCost computeSelfCost(RelOptPlanner planner, RelMetadataQuery mq) {
     if(PrelUtil.getSettings(getCluster()).useDefaultCosting()) {
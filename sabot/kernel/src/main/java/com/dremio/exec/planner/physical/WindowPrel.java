@@ -129,9 +129,11 @@ public class WindowPrel extends WindowRelBase implements Prel {
     }
     SchemaBuilder schemaBuilder = ExpressionTreeMaterializer.materializeFields(exprs, childSchema, creator.getFunctionLookupContext())
             .setSelectionVectorMode(childSchema.getSelectionVectorMode());
+    final WindowPOP.Bound lowerBound = WindowPOP.newBound(window.lowerBound, constants, childFields.size());
+    final WindowPOP.Bound upperBound = WindowPOP.newBound(window.upperBound, constants, childFields.size());
     try (ErrorCollector collector = new ErrorCollectorImpl()) {
       for (NamedExpression expr : aggs) {
-        WindowFunction func = WindowFunction.fromExpression(expr);
+        WindowFunction func = WindowFunction.fromExpression(expr, lowerBound);
         schemaBuilder.addField(func.materialize(expr, childSchema, collector, creator.getFunctionLookupContext()));
       }
     }
@@ -144,8 +146,8 @@ public class WindowPrel extends WindowRelBase implements Prel {
         aggs,
         orderings,
         window.isRows,
-        WindowPOP.newBound(window.lowerBound),
-        WindowPOP.newBound(window.upperBound)
+        lowerBound,
+        upperBound
         );
   }
 
@@ -28,15 +28,22 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 public class RuntimeFilterInfo {
   private final List<RuntimeFilterProbeTarget> runtimeFilterProbeTargets;
   private final boolean isBroadcastJoin;
+  private final long buildKeyNdvEstimate;
+
+  public RuntimeFilterInfo(List<RuntimeFilterProbeTarget> runtimeFilterProbeTargets, boolean isBroadcastJoin) {
+    this(runtimeFilterProbeTargets, isBroadcastJoin, 0);
+  }
 
   @JsonCreator
   public RuntimeFilterInfo(
       @JsonProperty("runtimeFilterProbeTargets")List<RuntimeFilterProbeTarget> runtimeFilterProbeTargets,
-      @JsonProperty("broadcastJoin") boolean isBroadcastJoin) {
+      @JsonProperty("broadcastJoin") boolean isBroadcastJoin,
+      @JsonProperty("buildKeyNdvEstimate") long buildKeyNdvEstimate) {
     this.runtimeFilterProbeTargets = runtimeFilterProbeTargets == null
       ? new ArrayList<>(0)
       : runtimeFilterProbeTargets;
     this.isBroadcastJoin = isBroadcastJoin;
+    this.buildKeyNdvEstimate = buildKeyNdvEstimate;
   }
 
   public List<RuntimeFilterProbeTarget> getRuntimeFilterProbeTargets() {
@@ -47,6 +54,14 @@ public class RuntimeFilterInfo {
     return isBroadcastJoin;
   }
 
+  /**
+   * Planner estimate of the number of distinct build side join keys, or 0 if unknown. Used to size the
+   * partition column bloom filter consistently across all fragments of the join.
+   */
+  public long getBuildKeyNdvEstimate() {
+    return buildKeyNdvEstimate;
+  }
+
   @Override
   public String toString() {
     if (runtimeFilterProbeTargets.isEmpty()) {
@@ -59,6 +74,7 @@ public class RuntimeFilterInfo {
   public static class Builder {
     private List<RuntimeFilterProbeTarget> runtimeFilterProbeTargets;
     private boolean isBroadcastJoin;
+    private long buildKeyNdvEstimate;
 
     public Builder() {
     }
@@ -74,8 +90,13 @@ public class RuntimeFilterInfo {
       return this;
     }
 
+    public Builder setBuildKeyNdvEstimate(long buildKeyNdvEstimate) {
+      this.buildKeyNdvEstimate = buildKeyNdvEstimate;
+      return this;
+    }
+
     public RuntimeFilterInfo build() {
-      return new RuntimeFilterInfo(runtimeFilterProbeTargets, isBroadcastJoin);
+      return new RuntimeFilterInfo(runtimeFilterProbeTargets, isBroadcastJoin, buildKeyNdvEstimate);
     }
 
   }
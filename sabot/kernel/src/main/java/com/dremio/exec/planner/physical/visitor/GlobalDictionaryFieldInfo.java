@@ -15,6 +15,8 @@
  */
 package com.dremio.exec.planner.physical.visitor;
 
+import java.util.Objects;
+
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.calcite.rel.type.RelDataTypeField;
 
@@ -85,6 +87,15 @@ public class GlobalDictionaryFieldInfo {
     return fieldName;
   }
 
+  /**
+   * Whether both fields are encoded with the same dictionary, in which case equal ids stand for equal values.
+   */
+  public boolean sharesDictionaryWith(GlobalDictionaryFieldInfo other) {
+    return dictionaryVersion == other.dictionaryVersion
+      && Objects.equals(dictionaryPath, other.dictionaryPath)
+      && Objects.equals(storagePluginId, other.storagePluginId);
+  }
+
   @JsonIgnore
   public RelDataTypeField getRelDataTypeField() {
     return relDataTypeField;
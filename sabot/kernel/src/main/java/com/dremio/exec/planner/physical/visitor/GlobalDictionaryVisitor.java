@@ -43,6 +43,7 @@ import com.dremio.exec.planner.physical.AggregatePrel;
 import com.dremio.exec.planner.physical.DistributionTrait.DistributionField;
 import com.dremio.exec.planner.physical.ExchangePrel;
 import com.dremio.exec.planner.physical.FilterPrel;
+import com.dremio.exec.planner.physical.HashJoinPrel;
 import com.dremio.exec.planner.physical.HashToMergeExchangePrel;
 import com.dremio.exec.planner.physical.HashToRandomExchangePrel;
 import com.dremio.exec.planner.physical.JoinPrel;
@@ -72,13 +73,32 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
 
   private final RelDataType dictionaryDataType;
 
+  // Whether hash exchanges feeding aggregates and hash joins may distribute on dictionary ids, and hash joins may
+  // compare ids of keys sharing a dictionary.
+  private boolean encodedKeys;
+  // Set once an exchange distributed rows on dictionary ids. Joins rely on both inputs being distributed the same way,
+  // so they only keep this when all their keys are compared as ids.
+  private boolean distributedOnIds;
 
   public GlobalDictionaryVisitor(RelOptCluster cluster) {
-    dictionaryDataType = cluster.getTypeFactory().createSqlType(SqlTypeName.INTEGER);
+    this(cluster, false);
+  }
+
+  public GlobalDictionaryVisitor(RelOptCluster cluster, boolean encodedKeys) {
+    this.dictionaryDataType = cluster.getTypeFactory().createSqlType(SqlTypeName.INTEGER);
+    this.encodedKeys = encodedKeys;
   }
 
   public static Prel useGlobalDictionaries(Prel prel) {
-    final PrelWithDictionaryInfo p =  prel.accept(new GlobalDictionaryVisitor(prel.getCluster()), null);
+    return useGlobalDictionaries(prel, false);
+  }
+
+  /**
+   * @param encodedKeys if true, grouping and hash join keys stay dictionary encoded through hash exchanges and joins
+   *                    when possible, and are only decoded by the operators that need their values.
+   */
+  public static Prel useGlobalDictionaries(Prel prel, boolean encodedKeys) {
+    final PrelWithDictionaryInfo p =  prel.accept(new GlobalDictionaryVisitor(prel.getCluster(), encodedKeys), null);
     return p.getPrel();
   }
 
@@ -93,6 +113,15 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
   // Decode HashTo*, pass through others
   @Override
   public PrelWithDictionaryInfo visitExchange(ExchangePrel exchangePrel, Void value) throws RuntimeException {
+    return visitExchange(exchangePrel, value, false);
+  }
+
+  /**
+   * Visits an exchange, which distributes rows on the dictionary ids of its encoded distribution fields if
+   * keepDistributionEncoded is set. Ids of the same dictionary are equal if and only if the values are, so rows with
+   * the same values still end up in the same fragment.
+   */
+  private PrelWithDictionaryInfo visitExchange(ExchangePrel exchangePrel, Void value, boolean keepDistributionEncoded) {
     assert exchangePrel.getInputs().size() == 1;
     PrelWithDictionaryInfo newInput = ((Prel)exchangePrel.getInput()).accept(this, value);
 
@@ -107,10 +136,17 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
       } else {
         distributionFields = ((HashToRandomExchangePrel) exchangePrel).getFields();
       }
-      // decode used inputs by this filter
-      newInput = newInput.decodeFields(distributionFields.stream()
+      final List<Integer> distributionFieldIds = distributionFields.stream()
         .map(DistributionField::getFieldId)
-        .collect(Collectors.toList()));
+        .collect(Collectors.toList());
+      if (keepDistributionEncoded && encodedKeys && exchangePrel instanceof HashToRandomExchangePrel) {
+        for (int fieldId : distributionFieldIds) {
+          distributedOnIds |= newInput.hasGlobalDictionary(fieldId);
+        }
+      } else {
+        // decode used inputs by this filter
+        newInput = newInput.decodeFields(distributionFieldIds);
+      }
     }
     // pass thr rest of exchanges, exchange uses child input's row data type.
     return new PrelWithDictionaryInfo(
@@ -121,10 +157,41 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
   @Override
   public PrelWithDictionaryInfo visitJoin(JoinPrel joinPrel, Void value) throws RuntimeException {
     assert joinPrel.getInputs().size() == 2;
+    final boolean distributedBefore = distributedOnIds;
+    distributedOnIds = false;
+
+    PrelWithDictionaryInfo result = visitJoin(joinPrel, value, true);
+    if (distributedOnIds && result == null) {
+      // an input is distributed on ids of a key compared by value, which must be distributed on values on both sides
+      final boolean encodedKeysBefore = encodedKeys;
+      encodedKeys = false;
+      try {
+        result = visitJoin(joinPrel, value, false);
+      } finally {
+        encodedKeys = encodedKeysBefore;
+      }
+      distributedOnIds = false;
+    }
+    distributedOnIds |= distributedBefore;
+    return result;
+  }
+
+  /**
+   * Visits the inputs of the join, and compares the ids of the key pairs sharing a dictionary.
+   *
+   * @return the new join, or null if requireSharedKeys is set and an input was distributed on ids while a key pair
+   *         does not share a dictionary.
+   */
+  private PrelWithDictionaryInfo visitJoin(JoinPrel joinPrel, Void value, boolean requireSharedKeys) {
+    final boolean hashJoin = joinPrel instanceof HashJoinPrel;
     // visit left
-    PrelWithDictionaryInfo leftInput = ((Prel)joinPrel.getLeft()).accept(this, value);
+    PrelWithDictionaryInfo leftInput = hashJoin
+      ? visitKeyedInput((Prel) joinPrel.getLeft(), joinPrel.getLeftKeys(), value)
+      : ((Prel) joinPrel.getLeft()).accept(this, value);
     // visit right
-    PrelWithDictionaryInfo rightInput = ((Prel)joinPrel.getRight()).accept(this, value);
+    PrelWithDictionaryInfo rightInput = hashJoin
+      ? visitKeyedInput((Prel) joinPrel.getRight(), joinPrel.getRightKeys(), value)
+      : ((Prel) joinPrel.getRight()).accept(this, value);
     if ((joinPrel.getLeft() == leftInput.getPrel()) && (joinPrel.getRight() == rightInput.getPrel())) {
       return new PrelWithDictionaryInfo(joinPrel);
     }
@@ -154,6 +221,16 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
       }
     }
 
+    final Set<Integer> sharedLeftKeys = new HashSet<>();
+    final Set<Integer> sharedRightKeys = new HashSet<>();
+    final boolean allKeysShared = hashJoin && encodedKeys
+      && findSharedKeys((HashJoinPrel) joinPrel, leftInput, rightInput, sharedLeftKeys, sharedRightKeys);
+    if (requireSharedKeys && distributedOnIds && !allKeysShared) {
+      return null;
+    }
+    leftFieldsUsed.removeAll(sharedLeftKeys);
+    rightFieldsUsed.removeAll(sharedRightKeys);
+
     leftInput = leftInput.decodeFields(leftFieldsUsed);
     rightInput = rightInput.decodeFields(rightFieldsUsed);
 
@@ -164,8 +241,101 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
     for (int i = 0; i < rightFieldCount; ++i) {
       reorderedFields[leftFieldCount + i] = rightInput.getGlobalDictionaryFieldInfo(i);
     }
-    return new PrelWithDictionaryInfo((Prel)joinPrel.copy(joinPrel.getTraitSet(),
-      ImmutableList.of(leftInput.getPrel(), rightInput.getPrel())), reorderedFields);
+
+    if (sharedLeftKeys.isEmpty()) {
+      return new PrelWithDictionaryInfo((Prel)joinPrel.copy(joinPrel.getTraitSet(),
+        ImmutableList.of(leftInput.getPrel(), rightInput.getPrel())), reorderedFields);
+    }
+
+    // the keys compared as ids are now integers
+    final RelDataType leftRowType = leftInput.getPrel().getRowType();
+    final RelDataType rightRowType = rightInput.getPrel().getRowType();
+    final RexNode condition = joinPrel.getCondition().accept(new RexShuttle() {
+      @Override
+      public RexNode visitInputRef(RexInputRef inputRef) {
+        final int index = inputRef.getIndex() - systemFieldCount;
+        if (index >= 0 && index < leftFieldCount && sharedLeftKeys.contains(index)) {
+          return new RexInputRef(inputRef.getIndex(), leftRowType.getFieldList().get(index).getType());
+        }
+        if (index >= leftFieldCount && sharedRightKeys.contains(index - leftFieldCount)) {
+          return new RexInputRef(inputRef.getIndex(), rightRowType.getFieldList().get(index - leftFieldCount).getType());
+        }
+        return inputRef;
+      }
+    });
+    return new PrelWithDictionaryInfo((Prel)joinPrel.copy(joinPrel.getTraitSet(), condition,
+      leftInput.getPrel(), rightInput.getPrel(), joinPrel.getJoinType(), joinPrel.isSemiJoinDone()), reorderedFields);
+  }
+
+  /**
+   * Collects the join keys that can be compared as dictionary ids: each key pair must share a dictionary, and keys
+   * are only kept encoded if all the pairs they belong to do and the rest of the condition does not use them.
+   *
+   * @return true if all the key pairs are compared as ids
+   */
+  private static boolean findSharedKeys(HashJoinPrel joinPrel, PrelWithDictionaryInfo leftInput,
+                                        PrelWithDictionaryInfo rightInput, Set<Integer> sharedLeftKeys,
+                                        Set<Integer> sharedRightKeys) {
+    final List<Integer> leftKeys = joinPrel.getLeftKeys();
+    final List<Integer> rightKeys = joinPrel.getRightKeys();
+    final Set<Integer> decodedLeftKeys = new HashSet<>();
+    final Set<Integer> decodedRightKeys = new HashSet<>();
+    if (joinPrel.getExtraCondition() != null) {
+      final Set<Integer> extraFieldsUsed = new HashSet<>();
+      joinPrel.getExtraCondition().accept(new InputReferenceRexVisitor(extraFieldsUsed));
+      final int leftFieldCount = leftInput.getFields().length;
+      for (int fieldIndex : extraFieldsUsed) {
+        if (fieldIndex < leftFieldCount) {
+          decodedLeftKeys.add(fieldIndex);
+        } else {
+          decodedRightKeys.add(fieldIndex - leftFieldCount);
+        }
+      }
+    }
+    for (int i = 0; i < leftKeys.size(); i++) {
+      final GlobalDictionaryFieldInfo left = leftInput.getGlobalDictionaryFieldInfo(leftKeys.get(i));
+      final GlobalDictionaryFieldInfo right = rightInput.getGlobalDictionaryFieldInfo(rightKeys.get(i));
+      if (left == null || right == null || !left.sharesDictionaryWith(right)) {
+        decodedLeftKeys.add(leftKeys.get(i));
+        decodedRightKeys.add(rightKeys.get(i));
+      }
+    }
+
+    // a key decoded for one pair must be decoded in all of them
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 0; i < leftKeys.size(); i++) {
+        if (decodedLeftKeys.contains(leftKeys.get(i)) != decodedRightKeys.contains(rightKeys.get(i))) {
+          decodedLeftKeys.add(leftKeys.get(i));
+          decodedRightKeys.add(rightKeys.get(i));
+          changed = true;
+        }
+      }
+    }
+
+    boolean allShared = true;
+    for (int i = 0; i < leftKeys.size(); i++) {
+      if (decodedLeftKeys.contains(leftKeys.get(i))) {
+        allShared = false;
+      } else {
+        sharedLeftKeys.add(leftKeys.get(i));
+        sharedRightKeys.add(rightKeys.get(i));
+      }
+    }
+    return allShared;
+  }
+
+  /**
+   * Visits the input of an operator matching rows on the given keys. A hash exchange distributing the input on some
+   * of these keys may distribute on their ids.
+   */
+  private PrelWithDictionaryInfo visitKeyedInput(Prel input, List<Integer> keys, Void value) {
+    if (input instanceof HashToRandomExchangePrel && ((HashToRandomExchangePrel) input).getFields().stream()
+        .allMatch(field -> keys.contains(field.getFieldId()))) {
+      return visitExchange((ExchangePrel) input, value, true);
+    }
+    return input.accept(this, value);
   }
 
   @Override
@@ -263,7 +433,8 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
   @Override
   public PrelWithDictionaryInfo visitAggregate(AggregatePrel aggPrel, Void value) throws RuntimeException {
     assert aggPrel.getInputs().size() == 1;
-    PrelWithDictionaryInfo newInput = ((Prel)aggPrel.getInput()).accept(this, value);
+    // group by keys may be distributed on their ids
+    PrelWithDictionaryInfo newInput = visitKeyedInput((Prel) aggPrel.getInput(), aggPrel.getGroupSet().asList(), value);
 
     if (aggPrel.getInput() == newInput.getPrel()) {
       return new PrelWithDictionaryInfo(aggPrel);
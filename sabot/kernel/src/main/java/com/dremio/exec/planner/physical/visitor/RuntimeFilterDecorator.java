@@ -53,16 +53,27 @@ import com.google.common.collect.ImmutableList;
 public class RuntimeFilterDecorator {
 
   public static Prel addRuntimeFilterToHashJoin(Prel prel, boolean nonParitionRuntimeFiltersEnabled) {
-    JoinVisitor instance = new JoinVisitor(nonParitionRuntimeFiltersEnabled);
+    return addRuntimeFilterToHashJoin(prel, nonParitionRuntimeFiltersEnabled, false);
+  }
+
+  /**
+   * @param transitiveRuntimeFiltersEnabled if set, a filter on a probe key also reaches the scans of columns
+   *                                        that the key is equi-joined with through intermediate inner joins
+   */
+  public static Prel addRuntimeFilterToHashJoin(Prel prel, boolean nonParitionRuntimeFiltersEnabled,
+                                                boolean transitiveRuntimeFiltersEnabled) {
+    JoinVisitor instance = new JoinVisitor(nonParitionRuntimeFiltersEnabled, transitiveRuntimeFiltersEnabled);
     return prel.accept(instance, null);
   }
 
   private static class JoinVisitor extends BasePrelVisitor<Prel, Void, RuntimeException> {
 
     private boolean nonParitionRuntimeFiltersEnabled;
+    private boolean transitiveRuntimeFiltersEnabled;
 
-    private JoinVisitor(boolean nonParitionRuntimeFiltersEnabled) {
+    private JoinVisitor(boolean nonParitionRuntimeFiltersEnabled, boolean transitiveRuntimeFiltersEnabled) {
       this.nonParitionRuntimeFiltersEnabled = nonParitionRuntimeFiltersEnabled;
+      this.transitiveRuntimeFiltersEnabled = transitiveRuntimeFiltersEnabled;
     }
 
     @Override
@@ -145,7 +156,7 @@ public class RuntimeFilterDecorator {
         Integer buildKey = keyPair.right;
         String buildFieldName = rightFields.get(buildKey);
         List<ColumnOriginScan> probeSideColumnOriginList =
-          ((Prel) probeSideRel).accept(new FindScanVisitor(), probeKey);
+          ((Prel) probeSideRel).accept(new FindScanVisitor(transitiveRuntimeFiltersEnabled), probeKey);
         for (ColumnOriginScan probeSideColumnOrigin : probeSideColumnOriginList) {
           RuntimeFilteredRel scanPrel = probeSideColumnOrigin.filteredRel;
           String probeFieldName = probeSideColumnOrigin.fieldName;
@@ -196,6 +207,12 @@ public class RuntimeFilterDecorator {
 
   private static class FindScanVisitor extends BasePrelVisitor<List<ColumnOriginScan>,Integer,RuntimeException> {
 
+    private final boolean transitive;
+
+    private FindScanVisitor(boolean transitive) {
+      this.transitive = transitive;
+    }
+
     @Override
     public List<ColumnOriginScan> visitPrel(Prel prel, Integer idx) {
       if (prel instanceof SelectionVectorRemoverPrel) {
@@ -259,19 +276,41 @@ public class RuntimeFilterDecorator {
 
     @Override
     public List<ColumnOriginScan> visitJoin(JoinPrel join, Integer outputIndex) {
-      if (outputIndex < join.getLeft().getRowType().getFieldCount()) {
+      final int leftFieldCount = join.getLeft().getRowType().getFieldCount();
+      if (outputIndex < leftFieldCount) {
         if (join.getJoinType() == JoinRelType.INNER || join.getJoinType() == JoinRelType.LEFT) {
-          return visitRel(join.getLeft(), outputIndex);
+          return withTransitiveKeys(join, visitRel(join.getLeft(), outputIndex),
+            join.getLeftKeys(), join.getRightKeys(), outputIndex, join.getRight());
         }
       } else {
         if (join.getJoinType() == JoinRelType.INNER || join.getJoinType() == JoinRelType.RIGHT) {
-          int newIdx = outputIndex - join.getLeft().getRowType().getFieldCount();
-          return visitRel(join.getRight(), newIdx);
+          int newIdx = outputIndex - leftFieldCount;
+          return withTransitiveKeys(join, visitRel(join.getRight(), newIdx),
+            join.getRightKeys(), join.getLeftKeys(), newIdx, join.getLeft());
         }
       }
       return ImmutableList.of();
     }
 
+    /**
+     * For an inner join, rows that survive have equal values in each pair of equi-join keys, so a filter on one key
+     * of a pair is also valid for the other key of that pair.
+     */
+    private List<ColumnOriginScan> withTransitiveKeys(JoinPrel join, List<ColumnOriginScan> origins,
+                                                      List<Integer> keys, List<Integer> otherKeys, int idx,
+                                                      RelNode otherInput) {
+      if (!transitive || join.getJoinType() != JoinRelType.INNER || !keys.contains(idx)) {
+        return origins;
+      }
+      ImmutableList.Builder<ColumnOriginScan> builder = ImmutableList.<ColumnOriginScan>builder().addAll(origins);
+      for (Pair<Integer, Integer> keyPair : Pair.zip(keys, otherKeys)) {
+        if (keyPair.left == idx) {
+          builder.addAll(visitRel(otherInput, keyPair.right));
+        }
+      }
+      return builder.build();
+    }
+
     @Override
     public List<ColumnOriginScan> visitTableFunction(TableFunctionPrel prel, Integer idx) {
       if (prel.isDataScan()) {
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.physical.visitor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.calcite.rel.InvalidRelException;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+
+import com.dremio.exec.planner.physical.AggregatePrel;
+import com.dremio.exec.planner.physical.AggregatePrel.OperatorPhase;
+import com.dremio.exec.planner.physical.FilterPrel;
+import com.dremio.exec.planner.physical.HashAggPrel;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.physical.ProjectPrel;
+import com.dremio.exec.planner.physical.StreamAggPrel;
+import com.dremio.exec.store.iceberg.IcebergScanPrel;
+import com.dremio.exec.store.iceberg.IcebergUtils;
+import com.dremio.options.OptionManager;
+
+/**
+ * Replaces the first phase of a two phase hash aggregate with a streaming aggregate when its input
+ * comes straight (through filters and column projections) from an iceberg table whose sort order
+ * starts with the group keys.
+ *
+ * Data files of such tables are written sorted, so rows of a group arrive in runs and the streaming
+ * aggregate reduces them with constant memory. Across files, and for files written before the sort
+ * order was set, groups may repeat; the second phase merges them as it does for any partial aggregate.
+ *
+ * This has to run before {@link com.dremio.exec.planner.physical.PrelFinalizer} expands the iceberg scan.
+ */
+public class SortOrderStreamAggVisitor extends BasePrelVisitor<Prel, Void, RuntimeException> {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SortOrderStreamAggVisitor.class);
+
+  private final PlannerSettings settings;
+  private final OptionManager options;
+
+  private SortOrderStreamAggVisitor(PlannerSettings settings, OptionManager options) {
+    this.settings = settings;
+    this.options = options;
+  }
+
+  public static Prel useStreamAggOnSortedScans(Prel prel, PlannerSettings settings, OptionManager options) {
+    return prel.accept(new SortOrderStreamAggVisitor(settings, options), null);
+  }
+
+  @Override
+  public Prel visitPrel(Prel prel, Void value) throws RuntimeException {
+    final List<RelNode> children = new ArrayList<>();
+    boolean changed = false;
+    for (Prel child : prel) {
+      final Prel newChild = child.accept(this, value);
+      changed |= newChild != child;
+      children.add(newChild);
+    }
+
+    return changed ? (Prel) prel.copy(prel.getTraitSet(), children) : prel;
+  }
+
+  @Override
+  public Prel visitAggregate(AggregatePrel prel, Void value) throws RuntimeException {
+    final Prel newPrel = visitPrel(prel, value);
+    if (!(newPrel instanceof HashAggPrel)) {
+      return newPrel;
+    }
+
+    final HashAggPrel agg = (HashAggPrel) newPrel;
+    if (agg.getOperatorPhase() != OperatorPhase.PHASE_1of2
+      || agg.getGroupSet().isEmpty()
+      || agg.getGroupCount() > settings.streamAggMaxGroupKey()
+      || !hasOnlySimpleAggCalls(agg)) {
+      return agg;
+    }
+
+    final List<Integer> keyFields = new ArrayList<>(agg.getGroupSet().asList());
+    if (!isClusteredOn(agg.getInput(), keyFields)) {
+      return agg;
+    }
+
+    try {
+      return StreamAggPrel.createOnClusteredInput(agg.getCluster(), agg.getTraitSet(), agg.getInput(),
+        agg.getGroupSet(), agg.getAggCallList());
+    } catch (InvalidRelException e) {
+      logger.debug("Unable to use streaming aggregate on sorted input", e);
+      return agg;
+    }
+  }
+
+  private static boolean hasOnlySimpleAggCalls(AggregatePrel agg) {
+    for (AggregateCall call : agg.getAggCallList()) {
+      if (call.isDistinct()) {
+        return false;
+      }
+      switch (call.getAggregation().getKind()) {
+        case SUM:
+        case SUM0:
+        case COUNT:
+        case MIN:
+        case MAX:
+          continue;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the given fields of node map to iceberg columns that form a prefix of the table sort order.
+   * Only identity sort fields count: a file sorted on a transform of a column, such as a bucket or a day,
+   * does not keep equal values of the column itself together.
+   */
+  private boolean isClusteredOn(RelNode node, List<Integer> fields) {
+    if (node instanceof FilterPrel) {
+      return isClusteredOn(((FilterPrel) node).getInput(), fields);
+    }
+
+    if (node instanceof ProjectPrel) {
+      final List<RexNode> projects = ((ProjectPrel) node).getProjects();
+      final List<Integer> inputFields = new ArrayList<>(fields.size());
+      for (int field : fields) {
+        final RexNode expr = projects.get(field);
+        if (!(expr instanceof RexInputRef)) {
+          return false;
+        }
+        inputFields.add(((RexInputRef) expr).getIndex());
+      }
+      return isClusteredOn(((ProjectPrel) node).getInput(), inputFields);
+    }
+
+    if (!(node instanceof IcebergScanPrel)) {
+      return false;
+    }
+
+    final IcebergScanPrel scan = (IcebergScanPrel) node;
+    final List<String> sortColumns = IcebergUtils.getIdentitySortOrderColumns(
+      scan.getTableMetadata().getDatasetConfig(), options);
+    if (sortColumns.size() < fields.size()) {
+      return false;
+    }
+
+    final Set<String> keyColumns = new HashSet<>();
+    for (int field : fields) {
+      keyColumns.add(scan.getRowType().getFieldNames().get(field).toLowerCase(Locale.ROOT));
+    }
+    final Set<String> sortPrefix = new HashSet<>();
+    for (String column : sortColumns.subList(0, fields.size())) {
+      sortPrefix.add(column.toLowerCase(Locale.ROOT));
+    }
+    return keyColumns.equals(sortPrefix);
+  }
+}
@@ -66,6 +66,7 @@ import com.dremio.exec.planner.physical.visitor.RelUniqifier;
 import com.dremio.exec.planner.physical.visitor.RuntimeFilterDecorator;
 import com.dremio.exec.planner.physical.visitor.SelectionVectorPrelVisitor;
 import com.dremio.exec.planner.physical.visitor.SimpleLimitExchangeRemover;
+import com.dremio.exec.planner.physical.visitor.SortOrderStreamAggVisitor;
 import com.dremio.exec.planner.physical.visitor.SplitCountChecker;
 import com.dremio.exec.planner.physical.visitor.SplitUpComplexExpressions;
 import com.dremio.exec.planner.physical.visitor.StarColumnConverter;
@@ -102,7 +103,12 @@ public final class PrelTransformer {
       final Stopwatch watch = Stopwatch.createStarted();
       final RelNode prel1 = PlannerUtil.transform(config, PlannerType.VOLCANO, PlannerPhase.PHYSICAL, drel, traits, true);
 
-      final RelNode prel2 = PlannerUtil.transform(config, PlannerType.HEP_AC, PlannerPhase.PHYSICAL_HEP, prel1, prel1.getTraitSet(), true);
+      RelNode prel2 = PlannerUtil.transform(config, PlannerType.HEP_AC, PlannerPhase.PHYSICAL_HEP, prel1, prel1.getTraitSet(), true);
+      if (config.getContext().getPlannerSettings().isStreamAggOnIcebergSortOrderEnabled()) {
+        // needs the iceberg scans, so run before they are finalized
+        prel2 = SortOrderStreamAggVisitor.useStreamAggOnSortedScans((Prel) prel2,
+          config.getContext().getPlannerSettings(), config.getContext().getOptions());
+      }
       phyRelNode = (Prel) prel2.accept(new PrelFinalizer());
       if(config.getContext().getWorkloadType() == UserBitShared.WorkloadType.ACCELERATOR){
         phyRelNode = (Prel) phyRelNode.accept(new IncrementalRefreshByPartitionFinalizeShuttle());
@@ -271,7 +277,8 @@ public final class PrelTransformer {
      * Encode columns using dictionary encoding during scans and insert lookup before consuming dictionary ids.
      */
     if (plannerSettings.isGlobalDictionariesEnabled()) {
-      phyRelNode = GlobalDictionaryVisitor.useGlobalDictionaries(phyRelNode);
+      phyRelNode = GlobalDictionaryVisitor.useGlobalDictionaries(phyRelNode,
+        plannerSettings.isGlobalDictionaryEncodedKeysEnabled());
     }
 
     /* 7.8)
@@ -309,7 +316,8 @@ public final class PrelTransformer {
         phyRelNode = RuntimeFilterDecorator
           .addRuntimeFilterToHashJoin(
             phyRelNode,
-            plannerSettings.getOptions().getOption(ENABLE_RUNTIME_FILTER_ON_NON_PARTITIONED_PARQUET));
+            plannerSettings.getOptions().getOption(ENABLE_RUNTIME_FILTER_ON_NON_PARTITIONED_PARQUET),
+            plannerSettings.isTransitiveRuntimeFilterEnabled());
       }
     } else {
       /*
@@ -320,7 +328,8 @@ public final class PrelTransformer {
         phyRelNode = RuntimeFilterDecorator
           .addRuntimeFilterToHashJoin(
             phyRelNode,
-            plannerSettings.getOptions().getOption(ENABLE_RUNTIME_FILTER_ON_NON_PARTITIONED_PARQUET));
+            plannerSettings.getOptions().getOption(ENABLE_RUNTIME_FILTER_ON_NON_PARTITIONED_PARQUET),
+            plannerSettings.isTransitiveRuntimeFilterEnabled());
       }
 
       /* 9.2)
@@ -17,7 +17,6 @@ package com.dremio.exec.planner.sql.parser;
 
 import static com.dremio.exec.calcite.SqlNodes.DREMIO_DIALECT;
 
-import java.util.Collections;
 import java.util.List;
 
 import javax.annotation.Nullable;
@@ -29,19 +28,13 @@ import org.apache.calcite.sql.SqlWriter;
 import org.apache.calcite.sql.parser.SqlParserPos;
 import org.apache.calcite.sql.pretty.SqlPrettyWriter;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.iceberg.PartitionField;
 import org.apache.iceberg.PartitionSpec;
-import org.apache.iceberg.Schema;
-import org.apache.iceberg.SortOrder;
 import org.apache.iceberg.transforms.Transform;
 
 import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.ExecConstants;
-import com.dremio.exec.record.BatchSchema;
-import com.dremio.exec.store.iceberg.IcebergSerDe;
 import com.dremio.exec.store.iceberg.IcebergUtils;
-import com.dremio.exec.store.iceberg.SchemaConverter;
 import com.dremio.options.OptionManager;
 import com.dremio.service.namespace.NamespaceKey;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
@@ -49,8 +42,6 @@ import com.dremio.service.namespace.dataset.proto.IcebergMetadata;
 import com.dremio.service.namespace.dataset.proto.PartitionProtobuf;
 import com.dremio.service.namespace.dataset.proto.TableProperties;
 
-import io.protostuff.ByteString;
-
 /*
  * Generating the table definition
  */
@@ -231,24 +222,7 @@ public class TableDefinitionGenerator {
   }
 
   private List<String> getSortColumnListFromIcebergMetadata() {
-    IcebergMetadata icebergMetadata = datasetConfig.getPhysicalDataset().getIcebergMetadata();
-    if (icebergMetadata == null || icebergMetadata.getSortOrder() == null) {
-      return Collections.EMPTY_LIST;
-    }
-    String sortOrder = icebergMetadata.getSortOrder();
-
-    ByteString recordSchema = datasetConfig.getRecordSchema();
-    if (recordSchema == null || ArrayUtils.isEmpty(recordSchema.toByteArray())) {
-      return Collections.EMPTY_LIST;
-    }
-
-    Schema icebergSchema = SchemaConverter
-      .getBuilder()
-      .build()
-      .toIcebergSchema(BatchSchema.deserialize(recordSchema.toByteArray()) );
-
-    SortOrder deserializedSortOrder = IcebergSerDe.deserializeSortOrderFromJson(icebergSchema, sortOrder);
-    return IcebergUtils.getColumnsFromSortOrder(deserializedSortOrder, optionManager);
+    return IcebergUtils.getSortOrderColumns(datasetConfig, optionManager);
   }
 
   private void generateTableProperties(SqlWriter writer) {
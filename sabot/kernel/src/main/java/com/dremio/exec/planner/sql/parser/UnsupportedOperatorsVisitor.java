@@ -141,6 +141,16 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
         isSupported = true;
       }
 
+      // ROWS BETWEEN n PRECEDING AND CURRENT ROW
+      // is supported with an ORDER BY clause when sliding frames are enabled
+      if (window.isRows()
+          && window.getOrderList().size() != 0
+          && isBoundedPreceding(lowerBound)
+          && (upperBound == null || SqlWindow.isCurrentRow(upperBound))
+          && context.getOptions().getOption(ExecConstants.ENABLE_WINDOW_SLIDING_FRAMES)) {
+        isSupported = true;
+      }
+
       // RANGE BETWEEN CURRENT ROW AND CURRENT ROW
       // is supported with and without an ORDER BY clause
       if (!window.isRows() &&
@@ -382,6 +392,19 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
     }
   }
 
+  /**
+   * @return true if the bound is "n PRECEDING" with a non negative numeric literal n
+   */
+  private static boolean isBoundedPreceding(SqlNode bound) {
+    if (bound == null || bound.getKind() != SqlKind.PRECEDING || SqlWindow.isUnboundedPreceding(bound)) {
+      return false;
+    }
+    final SqlNode offset = ((SqlCall) bound).operand(0);
+    return offset instanceof SqlNumericLiteral
+        && ((SqlNumericLiteral) offset).isInteger()
+        && ((SqlNumericLiteral) offset).longValue(true) >= 0;
+  }
+
   private boolean checkDirExplorers(SqlNode sqlNode) {
     final ExprFinder dirExplorersFinder = new ExprFinder(DIR_EXPLORERS_CONDITION);
     sqlNode.accept(dirExplorersFinder);
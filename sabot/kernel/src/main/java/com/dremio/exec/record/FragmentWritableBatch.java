@@ -29,6 +29,7 @@ import org.apache.arrow.vector.types.pojo.Field;
 
 import com.dremio.exec.proto.ExecRPC.FragmentRecordBatch;
 import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.google.common.base.Function;
 import com.google.common.collect.FluentIterable;
 import com.google.flatbuffers.FlatBufferBuilder;
@@ -51,8 +52,26 @@ public class FragmentWritableBatch{
     final int receiveMajorFragmentId,
     final VectorAccessible batch,
     final int receiveMinorFragmentId) {
+    return create(queryId, sendMajorFragmentId, sendMinorFragmentId, receiveMajorFragmentId, batch,
+      receiveMinorFragmentId, null);
+  }
+
+  /**
+   * Creates a batch whose buffers are compressed by the given compressor, if any.
+   */
+  public static FragmentWritableBatch create(
+    final QueryId queryId,
+    final int sendMajorFragmentId,
+    final int sendMinorFragmentId,
+    final int receiveMajorFragmentId,
+    final VectorAccessible batch,
+    final int receiveMinorFragmentId,
+    final ExchangeCompressor compressor) {
 
     ArrowRecordBatch recordBatch = getArrowRecordBatch(batch);
+    if (compressor != null) {
+      recordBatch = compressor.compress(recordBatch);
+    }
 
     return new FragmentWritableBatch(
       queryId,
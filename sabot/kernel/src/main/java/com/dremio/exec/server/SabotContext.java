@@ -52,6 +52,7 @@ import com.dremio.exec.server.options.SystemOptionManager;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.exec.store.dfs.FileSystemWrapper;
 import com.dremio.exec.store.dfs.LoggedFileSystemWrapper;
+import com.dremio.exec.store.dfs.cache.DataCacheFileSystemWrapper;
 import com.dremio.exec.store.sys.accel.AccelerationListManager;
 import com.dremio.exec.store.sys.accel.AccelerationManager;
 import com.dremio.exec.store.sys.accesscontrol.AccessControlListingManager;
@@ -229,15 +230,18 @@ public class SabotContext implements AutoCloseable {
     this.queryPlanningAllocator = queryPlanningAllocator;
     this.spillService = spillService;
     this.fileSystemWrapper = new LoggedFileSystemWrapper(
-        config.getInstance(
-            FileSystemWrapper.FILE_SYSTEM_WRAPPER_CLASS,
-            FileSystemWrapper.class,
-            (fs, storageId, conf, operatorContext, enableAsync, isMetadataEnabled) -> fs,
+        new DataCacheFileSystemWrapper(
+            config.getInstance(
+                FileSystemWrapper.FILE_SYSTEM_WRAPPER_CLASS,
+                FileSystemWrapper.class,
+                (fs, storageId, conf, operatorContext, enableAsync, isMetadataEnabled) -> fs,
+                dremioConfig,
+                this.optionManager,
+                allocator,
+                new ServiceSetDecorator(coord.getServiceSet(Role.EXECUTOR)),
+                endpoint),
             dremioConfig,
-            this.optionManager,
-            allocator,
-            new ServiceSetDecorator(coord.getServiceSet(Role.EXECUTOR)),
-            endpoint),
+            this.optionManager),
         this.optionManager);
     this.credentialsService = credentialsService;
     this.jobResultInfoProvider = jobResultInfoProvider;
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.dremio.io.AsyncByteReader;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * An {@link AsyncByteReader} serving reads from the {@link DataCache} when possible, and offering the ranges read
+ * from the underlying reader to the cache otherwise.
+ * <p>
+ * Offering a range only copies it when it is admitted, the cache file is written on the writer of the cache, so the
+ * returned futures complete as soon as the underlying reads do.
+ * <p>
+ * Cached ranges are read from their local file by the given reader executor, so that a read never blocks the caller.
+ */
+class CachingAsyncByteReader implements AsyncByteReader {
+  private final AsyncByteReader delegate;
+  private final FileKey fileKey;
+  private final DataCache cache;
+  private final Executor reader;
+
+  CachingAsyncByteReader(AsyncByteReader delegate, FileKey fileKey, DataCache cache, Executor reader) {
+    this.delegate = delegate;
+    this.fileKey = fileKey;
+    this.cache = cache;
+    this.reader = reader;
+  }
+
+  @Override
+  public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+    if (!cache.contains(fileKey, offset, len)) {
+      return readThrough(offset, dst, dstOffset, len);
+    }
+
+    final CompletableFuture<Boolean> hit;
+    try {
+      hit = CompletableFuture.supplyAsync(() -> cache.read(fileKey, offset, dst, dstOffset, len), reader);
+    } catch (RejectedExecutionException e) {
+      // the cache is closing
+      return readThrough(offset, dst, dstOffset, len);
+    }
+    // the range may have been evicted in the meantime
+    return hit.thenCompose(read -> read ? completedFuture : readThrough(offset, dst, dstOffset, len));
+  }
+
+  private CompletableFuture<Void> readThrough(long offset, ByteBuf dst, int dstOffset, int len) {
+    return delegate.readFully(offset, dst, dstOffset, len)
+        .thenRun(() -> cache.offer(fileKey, offset, dst, dstOffset, len));
+  }
+
+  @Override
+  public CompletableFuture<Void> checkVersion(String version) {
+    return delegate.checkVersion(version);
+  }
+
+  @Override
+  public List<ReaderStat> getStats() {
+    return delegate.getStats();
+  }
+
+  @Override
+  public void close() throws Exception {
+    delegate.close();
+  }
+}
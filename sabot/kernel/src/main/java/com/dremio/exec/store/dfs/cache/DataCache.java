@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.dremio.io.AsyncByteReader.FileKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Executor local cache of byte ranges read from remote files, kept as one file per range under a local directory.
+ * <p>
+ * Ranges are keyed by file path, version and exact offset and length. Async readers fetch whole parquet column
+ * chunks (or page ranges) with a single read, so a key is a column chunk of a given version of a file, and a
+ * rewritten file is never served stale data.
+ * <p>
+ * A range is only admitted on its second miss within the recent history tracked by a {@link FrequencySketch}, so
+ * that one-off full scans do not flush frequently read data. Admitted ranges are then evicted by total size, using
+ * the window TinyLFU policy of the index.
+ * <p>
+ * Admitted ranges are copied and written to their file by the given executor, off the read path. Ranges waiting to
+ * be written are bounded in size, and further ones are rejected until the writes catch up.
+ * <p>
+ * The index is kept on heap and the directory is emptied when the cache is created, so the cache does not survive
+ * a restart of the executor.
+ */
+public class DataCache implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DataCache.class);
+
+  // number of misses within the sketch history after which a range is cached
+  private static final int ADMISSION_FREQUENCY = 2;
+  // a single range may use at most this fraction of the cache
+  private static final int MAX_RANGE_FRACTION = 8;
+  private static final int EXPECTED_RANGE_SIZE = 1024 * 1024;
+  // size of the copies of the admitted ranges waiting to be written
+  private static final long MAX_PENDING_BYTES = 64L * 1024 * 1024;
+  private static final String UNKNOWN_DATASET = "<unknown>";
+
+  private final Path directory;
+  private final Cache<RangeKey, CachedRange> index;
+  private final FrequencySketch sketch;
+  private final ConcurrentMap<String, DatasetStats> stats = new ConcurrentHashMap<>();
+  private final AtomicLong fileIds = new AtomicLong();
+  private final AtomicLong pendingBytes = new AtomicLong();
+  private final Executor writer;
+
+  public DataCache(Path directory, long maxSizeBytes, Executor writer) throws IOException {
+    this.directory = directory;
+    this.writer = writer;
+    Files.createDirectories(directory);
+    deleteFiles(directory);
+    this.index = Caffeine.newBuilder()
+        .maximumWeight(maxSizeBytes)
+        .weigher((RangeKey key, CachedRange range) -> range.length)
+        .executor(Runnable::run)
+        .removalListener(this::onRemoval)
+        .build();
+    this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, Math.max(1, maxSizeBytes / EXPECTED_RANGE_SIZE)));
+  }
+
+  /**
+   * @return true if the range is cached, it may still be evicted before it is read.
+   */
+  public boolean contains(FileKey fileKey, long offset, int len) {
+    return index.getIfPresent(new RangeKey(fileKey.getPath().toString(), fileKey.getVersion(), offset, len)) != null;
+  }
+
+  /**
+   * Copies the cached range into the buffer if present. This reads a local file, callers that must not block
+   * should call it from another thread.
+   *
+   * @return true if the range was served from the cache.
+   */
+  public boolean read(FileKey fileKey, long offset, ByteBuf dst, int dstOffset, int len) {
+    final RangeKey key = new RangeKey(fileKey.getPath().toString(), fileKey.getVersion(), offset, len);
+    final CachedRange range = index.getIfPresent(key);
+    if (range == null) {
+      return false;
+    }
+
+    final ByteBuffer target = dst.nioBuffer(dstOffset, len);
+    try (FileChannel channel = FileChannel.open(range.file, StandardOpenOption.READ)) {
+      long position = 0;
+      while (target.hasRemaining()) {
+        final int read = channel.read(target, position);
+        if (read < 0) {
+          throw new IOException("Unexpected end of cached range " + range.file);
+        }
+        position += read;
+      }
+    } catch (NoSuchFileException e) {
+      // evicted in the meantime
+      return false;
+    } catch (IOException e) {
+      logger.warn("Failed to read cached range of {}, dropping it", fileKey.getPath(), e);
+      index.asMap().remove(key, range);
+      return false;
+    }
+
+    sketch.increment(key);
+    final DatasetStats datasetStats = statsOf(fileKey);
+    datasetStats.hits.increment();
+    datasetStats.hitBytes.add(len);
+    return true;
+  }
+
+  /**
+   * Records a miss for the range that was just read into the buffer, and caches it if it is requested often enough.
+   * The buffer is not used once this returns.
+   */
+  public void offer(FileKey fileKey, long offset, ByteBuf src, int srcOffset, int len) {
+    final RangeKey key = new RangeKey(fileKey.getPath().toString(), fileKey.getVersion(), offset, len);
+    final DatasetStats datasetStats = statsOf(fileKey);
+    datasetStats.misses.increment();
+    datasetStats.missBytes.add(len);
+
+    sketch.increment(key);
+    if (sketch.frequency(key) < ADMISSION_FREQUENCY || len > getMaxSizeBytes() / MAX_RANGE_FRACTION) {
+      datasetStats.rejections.increment();
+      return;
+    }
+    if (pendingBytes.addAndGet(len) > MAX_PENDING_BYTES) {
+      // the writes are falling behind
+      pendingBytes.addAndGet(-len);
+      datasetStats.rejections.increment();
+      return;
+    }
+
+    final byte[] bytes = new byte[len];
+    src.getBytes(srcOffset, bytes);
+    try {
+      writer.execute(() -> {
+        try {
+          write(fileKey, key, bytes, datasetStats);
+        } finally {
+          pendingBytes.addAndGet(-len);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // closing
+      pendingBytes.addAndGet(-len);
+      datasetStats.rejections.increment();
+    }
+  }
+
+  private void write(FileKey fileKey, RangeKey key, byte[] bytes, DatasetStats datasetStats) {
+    final Path file = directory.resolve(Long.toString(fileIds.incrementAndGet()));
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+      final ByteBuffer source = ByteBuffer.wrap(bytes);
+      while (source.hasRemaining()) {
+        channel.write(source);
+      }
+    } catch (IOException e) {
+      logger.warn("Failed to cache range of {}", fileKey.getPath(), e);
+      deleteQuietly(file);
+      return;
+    }
+
+    datasetStats.admissions.increment();
+    datasetStats.cachedBytes.add(bytes.length);
+    index.put(key, new CachedRange(file, bytes.length, datasetStats));
+  }
+
+  /**
+   * Adjusts the capacity of the cache, evicting ranges if needed.
+   */
+  public void setMaxSizeBytes(long maxSizeBytes) {
+    index.policy().eviction().ifPresent(eviction -> {
+      if (eviction.getMaximum() != maxSizeBytes) {
+        eviction.setMaximum(maxSizeBytes);
+      }
+    });
+  }
+
+  public long getMaxSizeBytes() {
+    return index.policy().eviction().map(Policy.Eviction::getMaximum).orElse(0L);
+  }
+
+  public long getSizeBytes() {
+    return index.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+  }
+
+  public long getEntries() {
+    return index.estimatedSize();
+  }
+
+  public Collection<DatasetStats> getDatasetStats() {
+    return stats.values();
+  }
+
+  @Override
+  public void close() throws IOException {
+    index.invalidateAll();
+    index.cleanUp();
+    deleteFiles(directory);
+  }
+
+  void cleanUp() {
+    index.cleanUp();
+  }
+
+  private DatasetStats statsOf(FileKey fileKey) {
+    final List<String> datasetKey = fileKey.getDatasetKey();
+    final String dataset = datasetKey == null || datasetKey.isEmpty() ? UNKNOWN_DATASET : String.join(".", datasetKey);
+    return stats.computeIfAbsent(dataset, DatasetStats::new);
+  }
+
+  private void onRemoval(RangeKey key, CachedRange range, RemovalCause cause) {
+    if (range != null) {
+      range.stats.cachedBytes.add(-range.length);
+      deleteQuietly(range.file);
+    }
+  }
+
+  private static void deleteFiles(Path directory) throws IOException {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      logger.warn("Failed to delete cached range {}", file, e);
+    }
+  }
+
+  /**
+   * Hit and miss counters of the ranges of a dataset.
+   */
+  public static final class DatasetStats {
+    private final String dataset;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder hitBytes = new LongAdder();
+    private final LongAdder missBytes = new LongAdder();
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder cachedBytes = new LongAdder();
+
+    private DatasetStats(String dataset) {
+      this.dataset = dataset;
+    }
+
+    public String getDataset() {
+      return dataset;
+    }
+
+    public long getHits() {
+      return hits.sum();
+    }
+
+    public long getMisses() {
+      return misses.sum();
+    }
+
+    public long getHitBytes() {
+      return hitBytes.sum();
+    }
+
+    public long getMissBytes() {
+      return missBytes.sum();
+    }
+
+    public long getAdmissions() {
+      return admissions.sum();
+    }
+
+    public long getRejections() {
+      return rejections.sum();
+    }
+
+    public long getCachedBytes() {
+      return cachedBytes.sum();
+    }
+  }
+
+  private static final class CachedRange {
+    private final Path file;
+    private final int length;
+    private final DatasetStats stats;
+
+    private CachedRange(Path file, int length, DatasetStats stats) {
+      this.file = file;
+      this.length = length;
+      this.stats = stats;
+    }
+  }
+
+  private static final class RangeKey {
+    private final String path;
+    private final String version;
+    private final long offset;
+    private final int length;
+
+    private RangeKey(String path, String version, long offset, int length) {
+      this.path = path;
+      this.version = version;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      RangeKey key = (RangeKey) o;
+      return offset == key.offset && length == key.length && Objects.equals(path, key.path)
+          && Objects.equals(version, key.version);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, version, offset, length);
+    }
+  }
+}
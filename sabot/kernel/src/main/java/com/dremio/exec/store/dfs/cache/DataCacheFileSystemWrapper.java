@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.dremio.common.concurrent.CloseableSchedulerThreadPool;
+import com.dremio.common.concurrent.NamedThreadFactory;
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.store.dfs.AsyncStreamConf;
+import com.dremio.exec.store.dfs.FileSystemWrapper;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.FilterFileSystem;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorContext;
+
+/**
+ * A {@link FileSystemWrapper} implementation which serves the async reads of sources requesting caching from the
+ * executor local {@link DataCache}, when {@link ExecConstants#DATA_CACHE_ENABLED} is set.
+ * <p>
+ * The cache is created on first use, in the {@code data_cache} directory of the first executor cache path, along
+ * with the thread writing the admitted ranges to it and the threads reading the cached ranges from it.
+ */
+public class DataCacheFileSystemWrapper implements FileSystemWrapper {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DataCacheFileSystemWrapper.class);
+
+  private static final String CACHE_DIRECTORY = "data_cache";
+  private static final int READER_THREADS = 4;
+
+  private final FileSystemWrapper defaultWrapper;
+  private final DremioConfig config;
+  private final OptionManager globalOptions;
+
+  private DataCache cache;
+  private ExecutorService writer;
+  private ExecutorService readers;
+  private boolean failed;
+
+  public DataCacheFileSystemWrapper(FileSystemWrapper defaultWrapper, DremioConfig config, OptionManager globalOptions) {
+    this.defaultWrapper = defaultWrapper;
+    this.config = config;
+    this.globalOptions = globalOptions;
+  }
+
+  @Override
+  public FileSystem wrap(FileSystem fs, String storageId, AsyncStreamConf conf, OperatorContext context,
+      boolean enableAsync, boolean isMetadataRefresh) throws IOException {
+    final FileSystem wrappedFs = defaultWrapper.wrap(fs, storageId, conf, context, enableAsync, isMetadataRefresh);
+    if (!enableAsync || isMetadataRefresh || conf == null) {
+      return wrappedFs;
+    }
+
+    // use options from the OperatorContext if available, otherwise fall back to global options
+    final OptionManager options = context != null && context.getOptions() != null ? context.getOptions() : globalOptions;
+    if (options == null || !options.getOption(ExecConstants.DATA_CACHE_ENABLED)
+        || !conf.getCacheProperties().isCachingEnabled(options)) {
+      return wrappedFs;
+    }
+
+    final DataCache dataCache;
+    final ExecutorService cacheReaders;
+    synchronized (this) {
+      dataCache = getCache(options.getOption(ExecConstants.DATA_CACHE_SIZE));
+      cacheReaders = readers;
+    }
+    if (dataCache == null) {
+      return wrappedFs;
+    }
+    return new FilterFileSystem(wrappedFs) {
+      @Override
+      public AsyncByteReader getAsyncByteReader(AsyncByteReader.FileKey fileKey, Map<String, String> options)
+          throws IOException {
+        return new CachingAsyncByteReader(super.getAsyncByteReader(fileKey, options), fileKey, dataCache, cacheReaders);
+      }
+    };
+  }
+
+  /**
+   * Returns the cache of this node, or null if it has not been used yet.
+   */
+  public synchronized DataCache getCache() {
+    return cache;
+  }
+
+  private synchronized DataCache getCache(long maxSizeBytes) {
+    if (cache == null && !failed) {
+      if (config == null || !config.hasPath(DremioConfig.CACHE_FS_PATH_LIST)) {
+        failed = true;
+        return null;
+      }
+      final List<String> paths = config.getStringList(DremioConfig.CACHE_FS_PATH_LIST);
+      if (paths.isEmpty()) {
+        failed = true;
+        return null;
+      }
+      final ExecutorService cacheWriter = Executors.newSingleThreadExecutor(new NamedThreadFactory("data-cache-writer-"));
+      try {
+        cache = new DataCache(Paths.get(paths.get(0), CACHE_DIRECTORY), maxSizeBytes, cacheWriter);
+        writer = cacheWriter;
+        readers = Executors.newFixedThreadPool(READER_THREADS, new NamedThreadFactory("data-cache-reader-"));
+        logger.info("Created data cache in {} with a capacity of {} bytes", paths.get(0), maxSizeBytes);
+      } catch (IOException e) {
+        logger.warn("Failed to create data cache in {}, reads will not be cached", paths.get(0), e);
+        cacheWriter.shutdownNow();
+        failed = true;
+      }
+    }
+    if (cache != null) {
+      cache.setMaxSizeBytes(maxSizeBytes);
+    }
+    return cache;
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> clazz) {
+    if (clazz.isInstance(this)) {
+      return clazz.cast(this);
+    }
+
+    return defaultWrapper.unwrap(clazz);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> clazz) {
+    return clazz.isInstance(this) || defaultWrapper.isWrapperFor(clazz);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      synchronized (this) {
+        if (readers != null) {
+          CloseableSchedulerThreadPool.close(readers, logger);
+          readers = null;
+        }
+        if (writer != null) {
+          // let the pending writes finish before the files are removed
+          CloseableSchedulerThreadPool.close(writer, logger);
+          writer = null;
+        }
+        if (cache != null) {
+          cache.close();
+          cache = null;
+        }
+      }
+    } finally {
+      defaultWrapper.close();
+    }
+  }
+}
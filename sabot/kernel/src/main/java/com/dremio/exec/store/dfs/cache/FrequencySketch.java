@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often a key was seen recently, as used by TinyLFU.
+ * <p>
+ * Each long of the table holds sixteen counters, and a key is counted in four of them. Once the number of
+ * increments reaches the sample size all the counters are halved, so that the estimate favours recent history.
+ */
+final class FrequencySketch {
+  private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MAX_COUNT = 15;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(int expectedEntries) {
+    final int length = Integer.highestOneBit(Math.max(expectedEntries, 16) - 1) << 1;
+    this.table = new long[length];
+    this.tableMask = length - 1;
+    this.sampleSize = 10 * length;
+  }
+
+  /**
+   * Returns the estimated number of occurrences of the key, up to 15.
+   */
+  synchronized int frequency(Object key) {
+    final int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    for (int i = 0; i < SEEDS.length; i++) {
+      final long count = (table[indexOf(hash, i)] >>> offsetOf(hash, i)) & 0xfL;
+      frequency = Math.min(frequency, (int) count);
+    }
+    return frequency;
+  }
+
+  /**
+   * Counts one more occurrence of the key.
+   */
+  synchronized void increment(Object key) {
+    final int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int i = 0; i < SEEDS.length; i++) {
+      final int index = indexOf(hash, i);
+      final int offset = offsetOf(hash, i);
+      if (((table[index] >>> offset) & 0xfL) < MAX_COUNT) {
+        table[index] += 1L << offset;
+        added = true;
+      }
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size /= 2;
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return ((int) h) & tableMask;
+  }
+
+  private static int offsetOf(int hash, int i) {
+    return ((hash >>> (i << 3)) & 0xf) << 2;
+  }
+
+  private static int spread(int hash) {
+    int h = hash * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.arrow;
+
+import java.util.Objects;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.exec.proto.UserBitShared.RecordBatchDef;
+import com.dremio.io.file.Path;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.base.Preconditions;
+
+/**
+ * Cache of the recently read batches of Arrow files, so that fetching the same pages of job results again doesn't
+ * go back to the file system.
+ * <p>
+ * Batches are kept in their serialized form, in buffers of the cache allocator, and are bounded by their size in
+ * bytes. Cached buffers are shared by all the readers of a file and must not be modified: readers load their vectors
+ * from a copy (see {@link ArrowFileReader}), so that the vectors handed to consumers can be written to.
+ * <p>
+ * Cached files are expected to be immutable.
+ */
+public class ArrowBatchCache implements AutoCloseable {
+  private final BufferAllocator allocator;
+  private final Cache<Key, CachedBatch> cache;
+
+  public ArrowBatchCache(BufferAllocator allocator, long maxSizeBytes) {
+    Preconditions.checkArgument(maxSizeBytes > 0, "Invalid cache size %s", maxSizeBytes);
+    this.allocator = allocator;
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(maxSizeBytes)
+        .weigher((Key key, CachedBatch batch) -> (int) Math.min(Integer.MAX_VALUE, batch.getBody().capacity()))
+        // release evicted buffers right away, while holding the lock of this cache
+        .executor(Runnable::run)
+        .removalListener((Key key, CachedBatch batch, RemovalCause cause) -> {
+          if (batch != null) {
+            batch.getBody().close();
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Allocator to use for the bodies of the batches added to the cache.
+   */
+  public BufferAllocator getAllocator() {
+    return allocator;
+  }
+
+  /**
+   * Returns the batch starting at the given offset of the file, if cached. The body of the returned batch is
+   * retained for the caller, who must close it.
+   */
+  synchronized CachedBatch get(Path file, long offset) {
+    final CachedBatch batch = cache.getIfPresent(new Key(file.toString(), offset));
+    if (batch != null) {
+      batch.getBody().getReferenceManager().retain();
+    }
+    return batch;
+  }
+
+  /**
+   * Adds the batch starting at the given offset of the file to the cache. The cache takes its own reference on the
+   * body, the caller keeps its own.
+   */
+  synchronized void put(Path file, long offset, CachedBatch batch) {
+    batch.getBody().getReferenceManager().retain();
+    cache.put(new Key(file.toString(), offset), batch);
+  }
+
+  /**
+   * Drops the batches of all the files under the given directory.
+   */
+  public synchronized void invalidate(Path directory) {
+    final String prefix = directory.toString() + Path.SEPARATOR;
+    cache.asMap().keySet().removeIf(key -> key.file.startsWith(prefix));
+  }
+
+  @Override
+  public synchronized void close() {
+    cache.invalidateAll();
+    cache.cleanUp();
+  }
+
+  /**
+   * A serialized batch: its definition, and the buffers that follow it in the file.
+   */
+  static final class CachedBatch {
+    private final RecordBatchDef batchDef;
+    private final ArrowBuf body;
+
+    CachedBatch(RecordBatchDef batchDef, ArrowBuf body) {
+      this.batchDef = batchDef;
+      this.body = body;
+    }
+
+    RecordBatchDef getBatchDef() {
+      return batchDef;
+    }
+
+    ArrowBuf getBody() {
+      return body;
+    }
+  }
+
+  private static final class Key {
+    private final String file;
+    private final long offset;
+
+    private Key(String file, long offset) {
+      this.file = file;
+      this.offset = offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key that = (Key) o;
+      return offset == that.offset && file.equals(that.file);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(file, offset);
+    }
+  }
+}
@@ -23,11 +23,18 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.ForeignAllocation;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.commons.io.IOUtils;
 
@@ -52,6 +59,7 @@ import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.RecordBatchData;
 import com.dremio.exec.record.RecordBatchHolder;
 import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.store.easy.arrow.ArrowBatchCache.CachedBatch;
 import com.dremio.io.FSInputStream;
 import com.dremio.io.file.FileAttributes;
 import com.dremio.io.file.FileSystem;
@@ -59,8 +67,14 @@ import com.dremio.io.file.Path;
 import com.google.common.collect.Lists;
 import com.google.common.primitives.Longs;
 
+import io.netty.util.internal.PlatformDependent;
+
 /**
  * Reader which takes a file and reads the record batches.
+ * <p>
+ * The batch containing the first requested record is found with a binary search over the cumulative record counts
+ * of the batches. Batches of files on the local file system are memory-mapped, and loaded into vectors without
+ * copying. When given a {@link ArrowBatchCache}, batches are served from it when possible.
  */
 public class ArrowFileReader implements AutoCloseable {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ArrowFileReader.class);
@@ -69,15 +83,31 @@ public class ArrowFileReader implements AutoCloseable {
   private final ArrowFileMetadata metadata;
   private final BufferAllocator allocator;
   private final Path path;
+  private final ArrowBatchCache batchCache;
 
   private FSInputStream inputStream;
+  // number of records up to the end of each batch
+  private long[] batchEndRecords;
 
   public ArrowFileReader(final FileSystem dfs, Path basePath, final ArrowFileMetadata metadata,
                    final BufferAllocator allocator) {
+    this(dfs, basePath, metadata, allocator, null);
+  }
+
+  public ArrowFileReader(final FileSystem dfs, Path basePath, final ArrowFileMetadata metadata,
+                         final BufferAllocator allocator, final ArrowBatchCache batchCache) {
     this.dfs = dfs;
     this.metadata = metadata;
     this.allocator = allocator;
     this.path = basePath.resolve(metadata.getPath());
+    this.batchCache = batchCache;
+  }
+
+  private FSInputStream getInputStream() throws IOException {
+    if (inputStream == null) {
+      openFile();
+    }
+    return inputStream;
   }
 
   private void openFile() throws IOException {
@@ -135,39 +165,24 @@ public class ArrowFileReader implements AutoCloseable {
         "Invalid start index (%s) and limit (%s) combination. Record count in file (%s)",
         start, limit, metadata.getRecordCount());
 
-    openFile();
-
-    final VectorAccessibleSerializable vectorAccessibleSerializable = new VectorAccessibleSerializable(allocator);
     final List<RecordBatchHolder> batches = Lists.newArrayList();
-    final ArrowFileFooter footer = metadata.getFooter();
+    final List<ArrowRecordBatchSummary> batchList = metadata.getFooter().getBatchList() == null
+        ? Collections.emptyList() : metadata.getFooter().getBatchList();
+    final long[] batchEndRecords = getBatchEndRecords(batchList);
 
-    long runningCount = 0;
     long remaining = limit;
-    final int numBatches = footer.getBatchList() == null ? 0 : footer.getBatchList().size();
-    for(int batchIndex = 0; batchIndex < numBatches; batchIndex++) {
-      ArrowRecordBatchSummary batchSummary = footer.getBatchList().get(batchIndex);
+    for(int batchIndex = findBatch(batchEndRecords, start); batchIndex < batchList.size(); batchIndex++) {
+      ArrowRecordBatchSummary batchSummary = batchList.get(batchIndex);
       // Skip past empty batches
       if (batchSummary.getRecordCount() == 0) {
         continue;
       }
 
-      runningCount += batchSummary.getRecordCount();
-
-      // Skip batches until we reach a batch that contains the start index
-      if (start >= runningCount) {
-        // valid indices in up until the current batch are in range [0, runningCount - 1]
-        continue;
-      }
-
       final long currentBatchCount = batchSummary.getRecordCount();
-
-      // Seek to the place where the batch starts and read
-      inputStream.setPosition(batchSummary.getOffset());
-      vectorAccessibleSerializable.readFromStream(inputStream);
-      final VectorContainer vectorContainer = vectorAccessibleSerializable.get();
+      final VectorContainer vectorContainer = readBatch(batchSummary.getOffset());
 
       // Find the start and end indices within the batch.
-      final int batchStart = Math.max(0, (int) (start - (runningCount - currentBatchCount)));
+      final int batchStart = Math.max(0, (int) (start - (batchEndRecords[batchIndex] - currentBatchCount)));
       final int batchEnd = (int) Math.min(currentBatchCount, batchStart + remaining);
 
       final RecordBatchHolder batchHolder = newRecordBatchHolder(
@@ -192,6 +207,135 @@ public class ArrowFileReader implements AutoCloseable {
     return batches;
   }
 
+  private long[] getBatchEndRecords(List<ArrowRecordBatchSummary> batchList) {
+    if (batchEndRecords == null) {
+      final long[] endRecords = new long[batchList.size()];
+      long runningCount = 0;
+      for (int i = 0; i < endRecords.length; i++) {
+        runningCount += batchList.get(i).getRecordCount();
+        endRecords[i] = runningCount;
+      }
+      batchEndRecords = endRecords;
+    }
+    return batchEndRecords;
+  }
+
+  /**
+   * Finds the first batch which ends after the given record, i.e. the batch containing it.
+   * @return the index of the batch, or the number of batches if the record is past the last one
+   */
+  static int findBatch(long[] batchEndRecords, long record) {
+    int low = 0;
+    int high = batchEndRecords.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (batchEndRecords[mid] <= record) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Reads the batch starting at the given offset of the file.
+   */
+  private VectorContainer readBatch(long offset) throws IOException {
+    final VectorAccessibleSerializable vectorAccessibleSerializable = new VectorAccessibleSerializable(allocator);
+    final boolean mapped = isLocalFile();
+    if (batchCache == null && !mapped) {
+      // Seek to the place where the batch starts and read
+      final FSInputStream input = getInputStream();
+      input.setPosition(offset);
+      vectorAccessibleSerializable.readFromStream(input);
+      return vectorAccessibleSerializable.get();
+    }
+
+    CachedBatch batch = batchCache == null ? null : batchCache.get(path, offset);
+    if (batch == null) {
+      final FSInputStream input = getInputStream();
+      input.setPosition(offset);
+      final UserBitShared.RecordBatchDef batchDef = UserBitShared.RecordBatchDef.parseDelimitedFrom(input);
+      final long bodyLength = VectorAccessibleSerializable.getBodyLength(batchDef);
+      // cached bodies outlive this reader
+      final BufferAllocator bodyAllocator = batchCache == null ? allocator : batchCache.getAllocator();
+      final ArrowBuf body;
+      if (mapped) {
+        body = mapBody(bodyAllocator, input.getPosition(), bodyLength);
+      } else {
+        body = bodyAllocator.buffer(bodyLength);
+        try {
+          VectorAccessibleSerializable.readIntoArrowBuf(input, body, bodyLength);
+        } catch (IOException e) {
+          body.close();
+          throw e;
+        }
+      }
+      batch = new CachedBatch(batchDef, body);
+      if (batchCache != null) {
+        batchCache.put(path, offset, batch);
+      }
+    }
+
+    try (ArrowBuf body = batchCache == null ? batch.getBody() : copyBody(batch.getBody())) {
+      vectorAccessibleSerializable.readFromBuffer(batch.getBatchDef(), body);
+    }
+    return vectorAccessibleSerializable.get();
+  }
+
+  /**
+   * Copies a cached body into a buffer of this reader, and releases the reference on the cached one. Cached bodies
+   * are shared by all the readers of the file, while the vectors loaded from a body can be written to by their
+   * consumers.
+   */
+  private ArrowBuf copyBody(ArrowBuf cached) {
+    try (ArrowBuf shared = cached) {
+      final long length = shared.capacity();
+      final ArrowBuf copy = allocator.buffer(length);
+      copy.setBytes(0, shared, 0, length);
+      copy.writerIndex(length);
+      return copy;
+    }
+  }
+
+  private boolean isLocalFile() {
+    return "file".equals(dfs.getScheme());
+  }
+
+  /**
+   * Maps the given region of the file into a buffer of the given allocator.
+   */
+  private ArrowBuf mapBody(BufferAllocator bodyAllocator, long position, long length) throws IOException {
+    if (length == 0) {
+      return bodyAllocator.getEmpty();
+    }
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(Paths.get(path.toURI().getPath()), StandardOpenOption.READ)) {
+      // private mapping, so that vectors loaded from it can be written to
+      buffer = channel.map(FileChannel.MapMode.PRIVATE, position, length);
+    }
+    return bodyAllocator.wrapForeignAllocation(new MappedAllocation(buffer));
+  }
+
+  /**
+   * A memory-mapped region of a file, unmapped as soon as the buffer is released.
+   */
+  private static final class MappedAllocation extends ForeignAllocation {
+    private MappedByteBuffer buffer;
+
+    private MappedAllocation(MappedByteBuffer buffer) {
+      super(buffer.capacity(), PlatformDependent.directBufferAddress(buffer));
+      this.buffer = buffer;
+    }
+
+    @Override
+    protected void release0() {
+      PlatformDependent.freeDirectBuffer(buffer);
+      buffer = null;
+    }
+  }
+
   @Override
   public void close() throws IOException {
     if (inputStream != null) {
@@ -208,13 +352,14 @@ public class ArrowFileReader implements AutoCloseable {
   private RecordBatchHolder getEmptyBatch() throws IOException {
     final FileAttributes fileAttributes = dfs.getFileAttributes(path);
     final long size = fileAttributes.size();
-    inputStream.setPosition(size - (MAGIC_STRING_LENGTH + FOOTER_OFFSET_SIZE));
+    final FSInputStream input = getInputStream();
+    input.setPosition(size - (MAGIC_STRING_LENGTH + FOOTER_OFFSET_SIZE));
 
-    final long footerOffset = readLong(inputStream);
+    final long footerOffset = readLong(input);
 
     // Read the footer
-    inputStream.setPosition(footerOffset);
-    ArrowFileFormat.ArrowFileFooter footer = ArrowFileFormat.ArrowFileFooter.parseDelimitedFrom(inputStream);
+    input.setPosition(footerOffset);
+    ArrowFileFormat.ArrowFileFooter footer = ArrowFileFormat.ArrowFileFooter.parseDelimitedFrom(input);
     return getEmptyBatch(footer,
                          allocator);
   }
@@ -208,6 +208,9 @@ public class JSONRecordReader extends AbstractRecordReader {
     try{
       if (fsPath != null) {
         this.stream = FileSystemUtils.openPossiblyCompressedStream(codecFactory, fileSystem, fsPath);
+        if (useStructuralProjection()) {
+          this.stream = new ProjectingJsonInputStream(stream, getColumns());
+        }
       }
 
       this.writer = new VectorContainerWriter(output);
@@ -236,6 +239,15 @@ public class JSONRecordReader extends AbstractRecordReader {
     }
   }
 
+  /**
+   * Whether unprojected members can be dropped before parsing. Not done when all columns are read, when
+   * nothing is materialized, or when every field has to be checked against a schema.
+   */
+  private boolean useStructuralProjection() {
+    return context.getOptions().getOption(ExecConstants.JSON_STRUCTURAL_PROJECTION)
+      && !isStarQuery() && !isSkipQuery() && !schemaImposedMode && !isValidationMode;
+  }
+
   private void setupParser() throws IOException {
     if(fsPath != null){
       jsonReader.setSource(stream);
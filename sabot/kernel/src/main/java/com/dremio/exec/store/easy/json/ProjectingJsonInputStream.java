@@ -0,0 +1,486 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.dremio.common.expression.SchemaPath;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * An {@code InputStream} over JSON records that drops the top level members of each top level object
+ * which are not projected, before the content reaches the Jackson parser.
+ *
+ * The bytes are scanned structurally only (strings, escapes, comments and nesting depth are tracked), so the
+ * value of an unprojected member is skipped without being tokenized, however deeply nested it is. Line breaks
+ * of dropped regions are kept so that parse errors still report the right line. Members whose name contains an
+ * escape sequence are always kept.
+ *
+ * If the content does not start with an object (e.g. a top level array), or if something is found that is not
+ * understood (e.g. an unquoted field name or malformed content), the remaining bytes are passed through as they
+ * are and left to the parser. The bytes of the member being dropped are held back until its value ends, so that
+ * they can be passed through as well, and the parser sees the exact input it would have seen without projection.
+ * Only the first {@link #MAX_DROPPED_VALUE_REPLAY} bytes of a value are held back. Past that, the value is dropped
+ * for good and its line breaks are emitted as they are read. If it turns out to be malformed, only its member name
+ * is given back before the passthrough, which is enough for the parser to still fail on it.
+ */
+class ProjectingJsonInputStream extends InputStream {
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int INITIAL_DROPPED_VALUE_SIZE = 64;
+  @VisibleForTesting
+  static final int MAX_DROPPED_VALUE_REPLAY = 4 * 1024;
+
+  // outside of any top level value
+  private static final int TOP_LEVEL = 0;
+  // after the opening brace of a top level object
+  private static final int OBJECT_START = 1;
+  // after the comma separating two members
+  private static final int EXPECT_KEY = 2;
+  // inside a member name
+  private static final int KEY = 3;
+  // after a member name, before the colon
+  private static final int AFTER_KEY = 4;
+  // inside a member value, up to the comma or closing brace that ends it
+  private static final int VALUE = 5;
+  // copy everything as is
+  private static final int PASSTHROUGH = 6;
+
+  private static final int NO_COMMENT = 0;
+  private static final int SLASH = 1;
+  private static final int LINE_COMMENT = 2;
+  private static final int BLOCK_COMMENT = 3;
+  private static final int BLOCK_COMMENT_STAR = 4;
+
+  private final InputStream in;
+  private final Set<String> projectedColumns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+  private final byte[] input = new byte[BUFFER_SIZE];
+  private byte[] output = new byte[BUFFER_SIZE];
+  private int outputPosition;
+  private int outputLimit;
+  private boolean endOfInput;
+
+  private int state = TOP_LEVEL;
+  private int comment = NO_COMMENT;
+  private byte[] key = new byte[64];
+  private int keyLength;
+  // the bytes of the value of the member being dropped, as read so far
+  private byte[] droppedValue = new byte[INITIAL_DROPPED_VALUE_SIZE];
+  private int droppedValueLength;
+  // true once the value of the member being dropped is too long to be held back
+  private boolean droppedValueCommitted;
+  private boolean keyEscaped;
+  private boolean firstMember;
+  private boolean keepValue;
+  private boolean valueStarted;
+  private boolean inString;
+  private boolean escape;
+  private int depth;
+
+  ProjectingJsonInputStream(InputStream in, Collection<SchemaPath> columns) {
+    this.in = in;
+    for (SchemaPath column : columns) {
+      projectedColumns.add(column.getRootSegment().getPath());
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!fill()) {
+      return -1;
+    }
+    return output[outputPosition++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    final int toRead = Math.min(len, outputLimit - outputPosition);
+    System.arraycopy(output, outputPosition, b, off, toRead);
+    outputPosition += toRead;
+    return toRead;
+  }
+
+  @Override
+  public int available() {
+    return outputLimit - outputPosition;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private boolean fill() throws IOException {
+    while (outputPosition == outputLimit) {
+      if (endOfInput) {
+        return false;
+      }
+      final int read = in.read(input, 0, input.length);
+      if (read < 0) {
+        endOfInput = true;
+        if (state != PASSTHROUGH) {
+          // let the parser report truncated content as it is
+          fallBack();
+        }
+        continue;
+      }
+      outputPosition = 0;
+      outputLimit = 0;
+      transform(read);
+    }
+    return true;
+  }
+
+  private void transform(int length) {
+    int i = 0;
+    while (i < length) {
+      if (state == PASSTHROUGH) {
+        emit(input, i, length - i);
+        return;
+      }
+      if (!accept(input[i])) {
+        // reprocess the current byte as is
+        fallBack();
+        continue;
+      }
+      i++;
+    }
+  }
+
+  /**
+   * Processes the next byte of the input.
+   *
+   * @return false if the byte is not understood in the current state
+   */
+  private boolean accept(byte b) {
+    if (comment != NO_COMMENT) {
+      return acceptComment(b);
+    }
+
+    switch (state) {
+    case TOP_LEVEL:
+      if (b == '{') {
+        emit(b);
+        state = OBJECT_START;
+        firstMember = true;
+        return true;
+      }
+      return acceptSeparator(b);
+
+    case OBJECT_START:
+      if (b == '}') {
+        emit(b);
+        state = TOP_LEVEL;
+        return true;
+      }
+      // fall through
+    case EXPECT_KEY:
+      if (b == '"') {
+        keyLength = 0;
+        keyEscaped = false;
+        escape = false;
+        state = KEY;
+        return true;
+      }
+      return acceptSeparator(b);
+
+    case KEY:
+      if (escape) {
+        escape = false;
+      } else if (b == '\\') {
+        escape = true;
+        keyEscaped = true;
+      } else if (b == '"') {
+        state = AFTER_KEY;
+        return true;
+      }
+      appendKey(b);
+      return true;
+
+    case AFTER_KEY:
+      if (b == ':') {
+        keepValue = keyEscaped || projectedColumns.contains(new String(key, 0, keyLength, UTF_8));
+        if (keepValue) {
+          emitKey();
+          emit(b);
+          firstMember = false;
+        }
+        state = VALUE;
+        depth = 0;
+        inString = false;
+        escape = false;
+        valueStarted = false;
+        droppedValueLength = 0;
+        droppedValueCommitted = false;
+        return true;
+      }
+      return acceptSeparator(b);
+
+    case VALUE:
+      return acceptValue(b);
+
+    default:
+      throw new IllegalStateException("Unexpected state " + state);
+    }
+  }
+
+  private boolean acceptValue(byte b) {
+    if (inString) {
+      if (escape) {
+        escape = false;
+      } else if (b == '\\') {
+        escape = true;
+      } else if (b == '"') {
+        inString = false;
+      }
+      emitIfKept(b);
+      return true;
+    }
+
+    switch (b) {
+    case '"':
+      inString = true;
+      valueStarted = true;
+      break;
+    case '{':
+    case '[':
+      depth++;
+      valueStarted = true;
+      break;
+    case '}':
+    case ']':
+      if (depth == 0) {
+        if (b == ']' || !valueStarted) {
+          return false;
+        }
+        endValue();
+        emit(b);
+        state = TOP_LEVEL;
+        return true;
+      }
+      depth--;
+      break;
+    case ',':
+      if (depth == 0) {
+        if (!valueStarted) {
+          return false;
+        }
+        endValue();
+        state = EXPECT_KEY;
+        return true;
+      }
+      break;
+    case '/':
+      comment = SLASH;
+      break;
+    case ' ':
+    case '\t':
+    case '\r':
+    case '\n':
+      break;
+    default:
+      valueStarted = true;
+    }
+    emitIfKept(b);
+    return true;
+  }
+
+  /**
+   * Accepts whitespace and the start of comments between tokens.
+   */
+  private boolean acceptSeparator(byte b) {
+    switch (b) {
+    case '/':
+      comment = SLASH;
+      // fall through
+    case ' ':
+    case '\t':
+    case '\r':
+    case '\n':
+      emitIfKept(b);
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private boolean acceptComment(byte b) {
+    switch (comment) {
+    case SLASH:
+      if (b == '/') {
+        comment = LINE_COMMENT;
+      } else if (b == '*') {
+        comment = BLOCK_COMMENT;
+      } else {
+        return false;
+      }
+      break;
+    case LINE_COMMENT:
+      if (b == '\n' || b == '\r') {
+        comment = NO_COMMENT;
+      }
+      break;
+    case BLOCK_COMMENT:
+      if (b == '*') {
+        comment = BLOCK_COMMENT_STAR;
+      }
+      break;
+    case BLOCK_COMMENT_STAR:
+      if (b == '/') {
+        comment = NO_COMMENT;
+      } else if (b != '*') {
+        comment = BLOCK_COMMENT;
+      }
+      break;
+    default:
+      throw new IllegalStateException("Unexpected comment state " + comment);
+    }
+    emitIfKept(b);
+    return true;
+  }
+
+  /**
+   * Emits the line breaks of the value of a dropped member, once it has ended.
+   */
+  private void endValue() {
+    if (keepValue) {
+      return;
+    }
+    for (int i = 0; i < droppedValueLength; i++) {
+      if (droppedValue[i] == '\n') {
+        emit((byte) '\n');
+      }
+    }
+  }
+
+  /**
+   * Emits whatever was consumed but held back for the current member, and switches to passthrough.
+   */
+  private void fallBack() {
+    final boolean kept = isKept();
+    switch (state) {
+    case EXPECT_KEY:
+      if (!firstMember) {
+        emit((byte) ',');
+      }
+      break;
+    case KEY:
+      if (!firstMember) {
+        emit((byte) ',');
+      }
+      emit((byte) '"');
+      emit(key, 0, keyLength);
+      break;
+    case AFTER_KEY:
+      emitKey();
+      break;
+    case VALUE:
+      if (!kept) {
+        emitKey();
+        emit((byte) ':');
+        if (!droppedValueCommitted) {
+          emit(droppedValue, 0, droppedValueLength);
+        } else if (comment == SLASH) {
+          emit((byte) '/');
+        }
+      }
+      break;
+    default:
+      break;
+    }
+    if (comment == SLASH && !kept && state != VALUE) {
+      emit((byte) '/');
+    }
+    state = PASSTHROUGH;
+  }
+
+  private boolean isKept() {
+    return state == TOP_LEVEL || (state == VALUE && keepValue);
+  }
+
+  private void emitIfKept(byte b) {
+    if (isKept()) {
+      emit(b);
+    } else if (state == VALUE) {
+      appendDroppedValue(b);
+    } else if (b == '\n') {
+      emit(b);
+    }
+  }
+
+  private void emitKey() {
+    if (!firstMember) {
+      emit((byte) ',');
+    }
+    emit((byte) '"');
+    emit(key, 0, keyLength);
+    emit((byte) '"');
+  }
+
+  private void appendKey(byte b) {
+    if (keyLength == key.length) {
+      key = Arrays.copyOf(key, key.length * 2);
+    }
+    key[keyLength++] = b;
+  }
+
+  private void appendDroppedValue(byte b) {
+    if (!droppedValueCommitted && droppedValueLength == MAX_DROPPED_VALUE_REPLAY) {
+      // stop holding the value back, only its line breaks are emitted from now on
+      endValue();
+      droppedValue = new byte[INITIAL_DROPPED_VALUE_SIZE];
+      droppedValueLength = 0;
+      droppedValueCommitted = true;
+    }
+    if (droppedValueCommitted) {
+      if (b == '\n') {
+        emit(b);
+      }
+      return;
+    }
+    if (droppedValueLength == droppedValue.length) {
+      droppedValue = Arrays.copyOf(droppedValue, droppedValue.length * 2);
+    }
+    droppedValue[droppedValueLength++] = b;
+  }
+
+  private void emit(byte b) {
+    if (outputLimit == output.length) {
+      output = Arrays.copyOf(output, output.length * 2);
+    }
+    output[outputLimit++] = b;
+  }
+
+  private void emit(byte[] bytes, int offset, int length) {
+    if (outputLimit + length > output.length) {
+      output = Arrays.copyOf(output, Math.max(output.length * 2, outputLimit + length));
+    }
+    System.arraycopy(bytes, offset, output, outputLimit, length);
+    outputLimit += length;
+  }
+}
@@ -169,6 +169,8 @@ public class CompliantTextRecordReader extends AbstractRecordReader {
         readBuffer = this.context.getAllocator().buffer(READ_BUFFER);
         whitespaceBuffer = this.context.getAllocator().buffer(WHITE_SPACE_BUFFER);
 
+        settings.setBulkScanEnabled(this.context.getOptions().getOption(ExecConstants.TEXT_BULK_SCAN));
+
         // setup Input using InputStream
         FSInputStream stream = FileSystemUtils.openPossiblyCompressedStream(codecFactory, dfs, Path.of(split.getPath().toUri()));
         TextInput input = new TextInput(settings, stream, readBuffer, split.getStart(), split.getStart() + split.getLength());
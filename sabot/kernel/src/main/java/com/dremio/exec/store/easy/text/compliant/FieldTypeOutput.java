@@ -22,6 +22,8 @@ import org.apache.arrow.vector.ValueVector;
 import com.dremio.common.exceptions.FieldSizeLimitExceptionHelper;
 import com.dremio.exec.exception.SchemaChangeException;
 
+import io.netty.util.internal.PlatformDependent;
+
 /**
  * Abstract Class, responsible for generating record batches for text file inputs.
  */
@@ -102,6 +104,18 @@ abstract class FieldTypeOutput extends TextOutput {
     rowHasData =true;
   }
 
+  @Override
+  public void append(long address, int length) {
+    if (!collect || length == 0) {
+      return;
+    }
+
+    FieldSizeLimitExceptionHelper.checkSizeLimit(currentDataPointer + length, maxCellLimit, currentFieldIndex, logger);
+    PlatformDependent.copyMemory(address, fieldBytes, currentDataPointer, length);
+    currentDataPointer += length;
+    rowHasData = true;
+  }
+
   @Override
   public boolean endField() {
     fieldOpen = false;
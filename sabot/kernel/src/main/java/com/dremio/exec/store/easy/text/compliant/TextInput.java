@@ -34,6 +34,7 @@ package com.dremio.exec.store.easy.text.compliant;
 import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BoundsChecking;
@@ -55,8 +56,14 @@ final class TextInput {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TextInput.class);
 
 //  private static final int READ_CHARS_LIMIT = 1024*64;
+  private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+  private static final long LOW_7_BITS = 0x7F7F7F7F7F7F7F7FL;
+
   private final byte[] lineSeparator;
   private final byte normalizedLineSeparator;
+  private final byte[] fieldSeparator;
+  // reused by nextChar() to avoid an allocation per byte
+  private final byte[] byteNType = new byte[2];
   private final TextParsingSettings settings;
 
   private long lineCount;
@@ -104,6 +111,7 @@ final class TextInput {
    */
   public TextInput(TextParsingSettings settings, FSInputStream input, ArrowBuf readBuffer, long startPos, long endPos) {
     this.lineSeparator = settings.getNewLineDelimiter();
+    this.fieldSeparator = settings.getDelimiter();
     byte normalizedLineSeparator = settings.getNormalizedNewLine();
     boolean isCompressed = input instanceof CompressedFSInputStream ;
     Preconditions.checkArgument(!isCompressed || startPos == 0, "Cannot use split on compressed stream.");
@@ -267,10 +275,9 @@ final class TextInput {
    * @throws IOException Reached End of Input
    */
   public byte[] nextChar() throws IOException {
-    byte[] byteNType =  new byte[2];
     byte byteChar = nextCharNoNewLineCheck();
+    byteNType[0] = 0;
     byteNType[1] = byteChar;
-    byte[] fieldSeparator = settings.getDelimiter();
     if (match(byteChar, lineSeparator)) {
       byteNType[0] = 1;
       lineCount++;
@@ -317,6 +324,71 @@ final class TextInput {
     return byteChar;
   }
 
+  /**
+   * Counts the bytes, starting with the next byte to read, that do not match any of the given patterns. The count
+   * stops before the last byte of the loaded buffer, so that those bytes can be consumed without reloading it.
+   * The buffer is scanned a word at a time, comparing its 8 bytes at once against each pattern.
+   *
+   * @param patterns bytes to stop at, each broadcast to the 8 bytes of a long with {@link #broadcast(byte)}
+   * @return number of bytes that can be consumed with {@link #consume(int)}
+   */
+  final int scanRun(long[] patterns) {
+    final int limit = length - bufferPtr;
+    if (length == -1 || limit <= 0) {
+      return 0;
+    }
+    if (BoundsChecking.BOUNDS_CHECKING_ENABLED) {
+      buffer.checkBytes(bufferPtr - 1, bufferPtr - 1 + limit);
+    }
+
+    final long start = bStartMinus1 + bufferPtr;
+    int run = 0;
+    for (; run + Long.BYTES <= limit; run += Long.BYTES) {
+      final long word = PlatformDependent.getLong(start + run);
+      long matches = 0;
+      for (long pattern : patterns) {
+        matches |= zeroBytes(word ^ pattern);
+      }
+      if (matches != 0) {
+        return run + ((LITTLE_ENDIAN ? Long.numberOfTrailingZeros(matches) : Long.numberOfLeadingZeros(matches)) >>> 3);
+      }
+    }
+    for (; run < limit; run++) {
+      final long word = broadcast(PlatformDependent.getByte(start + run));
+      for (long pattern : patterns) {
+        if (word == pattern) {
+          return run;
+        }
+      }
+    }
+    return run;
+  }
+
+  /**
+   * @return the high bit set in each byte of the word which is zero, and no other bit set
+   */
+  private static long zeroBytes(long word) {
+    return ~(((word & LOW_7_BITS) + LOW_7_BITS) | word | LOW_7_BITS);
+  }
+
+  static long broadcast(byte b) {
+    return (b & 0xFFL) * 0x0101010101010101L;
+  }
+
+  /**
+   * @return the memory address of the next byte to read
+   */
+  final long nextCharAddress() {
+    return bStartMinus1 + bufferPtr;
+  }
+
+  /**
+   * Consumes bytes counted by {@link #scanRun(long[])}. They contain no line separator.
+   */
+  final void consume(int count) {
+    bufferPtr += count;
+  }
+
   /**
    * Number of lines read since the start of this split.
    * @return
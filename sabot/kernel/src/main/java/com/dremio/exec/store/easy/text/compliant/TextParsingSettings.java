@@ -49,6 +49,7 @@ public class TextParsingSettings {
   private int skipLines = 0;
   private boolean useRepeatedVarChar = true;
   private int numberOfRecordsToRead = -1;
+  private boolean bulkScanEnabled = false;
 
 
   public void set(TextFormatConfig config){
@@ -69,6 +70,17 @@ public class TextParsingSettings {
     }
   }
 
+  /**
+   * Whether runs of bytes without delimiters or quotes are scanned a word at a time and appended in bulk
+   */
+  public boolean isBulkScanEnabled() {
+    return bulkScanEnabled;
+  }
+
+  public void setBulkScanEnabled(boolean bulkScanEnabled) {
+    this.bulkScanEnabled = bulkScanEnabled;
+  }
+
   public byte[] getComment(){
     return comment;
   }
@@ -127,6 +127,9 @@ final class TextReader implements AutoCloseable {
         }
       }
     }
+    public void append(long address, int length) {
+      if(canAppend){ output.append(address, length); }
+    }
     public void appendIgnoringWhitespace(byte cur) {
       if(canAppend) { output.appendIgnoringWhitespace(cur); }
     }
@@ -158,6 +161,10 @@ final class TextReader implements AutoCloseable {
   private int recordsRejectedCount;
   private final boolean isValidationMode;
 
+  /** Bytes ending a run of plain value bytes, null when values are parsed byte by byte **/
+  private final long[] valueStopPatterns;
+  private final long[] quotedValueStopPatterns;
+
   /**
    * The CsvParser supports all settings provided by {@link CsvParserSettings}, and requires this configuration to be
    * properly initialized.
@@ -188,6 +195,23 @@ final class TextReader implements AutoCloseable {
     this.input = input;
     this.output = new OutputWrapper(output);
     this.isValidationMode = isValidationMode;
+
+    // runs of value bytes are consumed in bulk, up to the next byte which may start a delimiter or a quote
+    if (settings.isBulkScanEnabled() && fieldDelimiter.length == 1) {
+      this.valueStopPatterns = new long[] {
+        TextInput.broadcast(fieldDelimiter[0]),
+        TextInput.broadcast(lineDelimiter[0]),
+        TextInput.broadcast(settings.getNormalizedNewLine())};
+      this.quotedValueStopPatterns = quote.length == 1 && quoteEscape.length == 1 ? new long[] {
+        TextInput.broadcast(fieldDelimiter[0]),
+        TextInput.broadcast(lineDelimiter[0]),
+        TextInput.broadcast(settings.getNormalizedNewLine()),
+        TextInput.broadcast(quote[0]),
+        TextInput.broadcast(quoteEscape[0])} : null;
+    } else {
+      this.valueStopPatterns = null;
+      this.quotedValueStopPatterns = null;
+    }
   }
 
   public TextReader(TextParsingSettings settings, TextInput input, TextOutput output, ArrowBuf workBuf, String filePath,
@@ -285,6 +309,9 @@ final class TextReader implements AutoCloseable {
           }
         } else {
           output.append(ch);
+          if (valueStopPatterns != null) {
+            appendRun(valueStopPatterns);
+          }
         }
         parseNextChar();
       }
@@ -365,9 +392,15 @@ final class TextReader implements AutoCloseable {
           } else {
             isPrevQuoteEscape = false;
             output.append(ch);
+            if (quotedValueStopPatterns != null) {
+              appendRun(quotedValueStopPatterns);
+            }
           }
         } else {
           output.append(ch);
+          if (quotedValueStopPatterns != null) {
+            appendRun(quotedValueStopPatterns);
+          }
         }
       } else {
         if (!quoteNescapeSame) {
@@ -394,6 +427,18 @@ final class TextReader implements AutoCloseable {
     }
   }
 
+  /**
+   * Appends the bytes following the current one up to the next byte matching one of the patterns, without going
+   * through the per byte delimiter checks.
+   */
+  private void appendRun(long[] stopPatterns) {
+    final int run = input.scanRun(stopPatterns);
+    if (run > 0) {
+      output.append(input.nextCharAddress(), run);
+      input.consume(run);
+    }
+  }
+
   private boolean isEndOfQuotedField() throws IOException {
     if (isWhite(ch)) {
       // Handles whitespaces after quoted value:
@@ -96,6 +96,7 @@ import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.PartitionStatsFileLocations;
 import org.apache.iceberg.PartitionStatsMetadataUtil;
 import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortField;
 import org.apache.iceberg.SortOrder;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableMetadataParser;
@@ -666,6 +667,56 @@ public class IcebergUtils {
     }
   }
 
+  /**
+   * Returns the sort order columns recorded in the iceberg metadata of the dataset, or an empty list
+   * if the table has no sort order.
+   */
+  public static List<String> getSortOrderColumns(DatasetConfig datasetConfig, OptionManager options) {
+    return getColumnsFromSortOrder(getSortOrder(datasetConfig), options);
+  }
+
+  /**
+   * Returns the leading sort order columns of the dataset that are sorted on their values, that is with an
+   * identity transform. Columns after the first transformed one are left out, since rows are only ordered on
+   * them within runs of equal transformed values.
+   */
+  public static List<String> getIdentitySortOrderColumns(DatasetConfig datasetConfig, OptionManager options) {
+    SortOrder sortOrder = getSortOrder(datasetConfig);
+    if (sortOrder == null || !isIcebergSortOrderFeatureEnabled(options)) {
+      return Collections.emptyList();
+    }
+    List<String> columns = new ArrayList<>();
+    for (SortField field : sortOrder.fields()) {
+      if (!field.transform().isIdentity()) {
+        break;
+      }
+      columns.add(sortOrder.schema().findField(field.sourceId()).name());
+    }
+    return columns;
+  }
+
+  private static SortOrder getSortOrder(DatasetConfig datasetConfig) {
+    if (datasetConfig.getPhysicalDataset() == null) {
+      return null;
+    }
+    IcebergMetadata icebergMetadata = datasetConfig.getPhysicalDataset().getIcebergMetadata();
+    if (icebergMetadata == null || icebergMetadata.getSortOrder() == null) {
+      return null;
+    }
+
+    ByteString recordSchema = datasetConfig.getRecordSchema();
+    if (recordSchema == null || recordSchema.size() == 0) {
+      return null;
+    }
+
+    Schema icebergSchema = SchemaConverter
+      .getBuilder()
+      .build()
+      .toIcebergSchema(BatchSchema.deserialize(recordSchema.toByteArray()));
+
+    return IcebergSerDe.deserializeSortOrderFromJson(icebergSchema, icebergMetadata.getSortOrder());
+  }
+
   public static List<String> getColumnsFromSortOrder(SortOrder sortOrder, OptionManager options) {
     if (sortOrder == null || !isIcebergSortOrderFeatureEnabled(options)) {
       return Collections.emptyList();
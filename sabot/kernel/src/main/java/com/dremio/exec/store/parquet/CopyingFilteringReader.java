@@ -197,7 +197,7 @@ public class CopyingFilteringReader implements RecordReader {
     AutoCloseables.close(copier, copyOutput, readerOutput, delegate);
   }
 
-  private static class ContainerAndSV2 implements VectorAccessible {
+  static class ContainerAndSV2 implements VectorAccessible {
     private final VectorAccessible inner;
     private final SelectionVector2 sv2;
     private final BatchSchema schema;
@@ -244,7 +244,7 @@ public class CopyingFilteringReader implements RecordReader {
     }
   }
 
-  private static class SV2Holder implements VectorAccessible {
+  static class SV2Holder implements VectorAccessible {
 
     private final SelectionVector2 sv2;
 
@@ -36,6 +36,21 @@ public interface InputStreamProvider extends AutoCloseable {
    */
   BulkInputStream getStream(ColumnChunkMetaData column) throws IOException;
 
+  /**
+   * Hints that the given column chunks are about to be read, so that the provider may fetch them up front.
+   * Fetched ranges are accounted in the given stats.
+   */
+  default void prefetch(List<ColumnChunkMetaData> columns, ParquetReaderStats stats) throws IOException {
+  }
+
+  /**
+   * Hints that the given column chunks will be read later on, so that the provider may start fetching them in the
+   * background. Unlike {@link #prefetch}, this does not wait for the data. The bytes read ahead are taken from the
+   * given budget, which is shared by the splits read ahead by a scan.
+   */
+  default void readAhead(List<ColumnChunkMetaData> columns, ReadAheadBudget budget) {
+  }
+
   /**
    * Returns the path corresponding to this stream
    * @return
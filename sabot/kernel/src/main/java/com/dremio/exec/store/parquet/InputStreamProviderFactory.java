@@ -60,10 +60,19 @@ public interface InputStreamProviderFactory {
                 // if full file is read, it should be a single stream
               readFullFile;
 
+      // the column chunks fetched ahead are served from memory, so they don't need a stream each
+      final boolean readAhead = options.getOption(ExecConstants.PARQUET_SPLIT_READ_AHEAD) && !readFullFile && fs.supportsAsync();
+
       final long maxFooterLen = context.getOptions().getOption(ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR);
-      return useSingleStream
-        ? new SingleStreamProvider(fs, path, fileLength, maxFooterLen, readFullFile, footerIfKnown, context, readColumnIndices, parquetFilters, parquetFilterCreator)
-        : new StreamPerColumnProvider(fs, path, fileLength, maxFooterLen, footerIfKnown, context, readColumnIndices, parquetFilters, parquetFilterCreator);
+      if (useSingleStream && !readAhead) {
+        return new SingleStreamProvider(fs, path, fileLength, mTime, maxFooterLen, readFullFile, footerIfKnown, context, readColumnIndices, parquetFilters, parquetFilterCreator);
+      }
+      if (readAhead || options.getOption(ExecConstants.PARQUET_VECTORED_READ)) {
+        return new VectoredReadStreamProvider(fs, path, fileLength, mTime, dataset, maxFooterLen, footerIfKnown, context, readColumnIndices,
+          parquetFilters, parquetFilterCreator, options.getOption(ExecConstants.PARQUET_VECTORED_READ_MAX_GAP),
+          options.getOption(ExecConstants.PARQUET_VECTORED_READ_MAX_BUFFER));
+      }
+      return new StreamPerColumnProvider(fs, path, fileLength, mTime, maxFooterLen, footerIfKnown, context, readColumnIndices, parquetFilters, parquetFilterCreator);
     }
   };
 
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.util.CallBack;
+import org.apache.arrow.vector.util.TransferPair;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.expr.ClassGenerator;
+import com.dremio.exec.expr.ReturnValueExpression;
+import com.dremio.exec.expr.TypeHelper;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.exec.store.RecordReader;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.copier.Copier;
+import com.dremio.sabot.op.copier.CopierOperator;
+import com.dremio.sabot.op.filter.Filterer;
+import com.dremio.sabot.op.filter.VectorContainerWithSV;
+import com.dremio.sabot.op.scan.MutatorSchemaChangeCallBack;
+import com.dremio.sabot.op.scan.OutputMutator;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.dremio.sabot.op.scan.ScanOperator.ScanMutator;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Maps;
+
+/**
+ * Implementation of {@link RecordReader} that reads a row group in two phases: the filter columns are decoded and the
+ * pushed down filter is evaluated on them first, then the other columns are only materialized for the matching rows.
+ *
+ * The payload reader is driven by the deltas vector: for each matching row it holds the number of rows to skip since
+ * the previous matching row, the same contract as between the vectorized and the rowwise readers.
+ */
+public class LateMaterializingParquetReader implements RecordReader {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(LateMaterializingParquetReader.class);
+
+  private final OperatorContext context;
+  private final RecordReader filterColumnsReader;
+  private final RecordReader payloadReader;
+  private final SimpleIntVector deltas;
+  private final Set<String> filterColumns;
+  private final LogicalExpression filterCondition;
+
+  private final Map<String, ValueVector> fieldVectorMap = Maps.newHashMap();
+  private final List<TransferPair> copierToOutputTransfers = new ArrayList<>();
+
+  // see CopyingFilteringReader, the filter columns reader writes to an internal container
+  private final MutatorSchemaChangeCallBack innerCallback = new MutatorSchemaChangeCallBack();
+  private CallBack externalCallback;
+
+  private VectorContainer readerOutput = new VectorContainer();
+  private VectorContainer copyOutput;
+  private ScanMutator mutator;
+  private SelectionVector2 filteredSV2;
+  private Filterer filter;
+  private Copier copier;
+
+  // rows skipped since the last matching row, carried over to the next batch
+  private int pendingSkippedRows;
+  private long filteredRows;
+  private long materializedRows;
+
+  /**
+   * @param filterColumnsReader reader of the columns referenced by the filter
+   * @param payloadReader reader of the other projected columns, using the given deltas to skip rows
+   * @param deltas deltas vector shared with the payload reader, owned by this reader
+   * @param filterColumns lower case names of the columns returned by the filter columns reader
+   * @param filterCondition filter evaluated on the output of the filter columns reader
+   */
+  public LateMaterializingParquetReader(OperatorContext context, RecordReader filterColumnsReader, RecordReader payloadReader,
+                                        SimpleIntVector deltas, Set<String> filterColumns, LogicalExpression filterCondition) {
+    this.context = context;
+    this.filterColumnsReader = filterColumnsReader;
+    this.payloadReader = payloadReader;
+    this.deltas = deltas;
+    this.filterColumns = filterColumns;
+    this.filterCondition = filterCondition;
+  }
+
+  @Override
+  public void setup(OutputMutator output) throws ExecutionSetupException {
+    this.externalCallback = output.getCallBack();
+
+    readerOutput = new VectorContainerWithSV(context.getAllocator(), new SelectionVector2(context.getAllocator()));
+    mutator = new ScanMutator(readerOutput, fieldVectorMap, context, innerCallback);
+    for (ValueVector v : output.getVectors()) {
+      final Field f = v.getField();
+      if (filterColumns.contains(f.getName().toLowerCase())) {
+        mutator.addField(f, (Class<? extends ValueVector>) TypeHelper.getValueVectorClass(f));
+      }
+    }
+    innerCallback.getSchemaChangedAndReset();
+    readerOutput.buildSchema();
+
+    filterColumnsReader.setup(mutator);
+
+    final ClassGenerator<Filterer> cg = context.getClassProducer().createGenerator(Filterer.TEMPLATE_DEFINITION2).getRoot();
+    final LogicalExpression expr = context.getClassProducer().materializeAndAllowComplex(filterCondition, readerOutput);
+    cg.addExpr(new ReturnValueExpression(expr), ClassGenerator.BlockCreateMode.MERGE);
+
+    filteredSV2 = new SelectionVector2(context.getAllocator());
+    this.filter = cg.getCodeGenerator().getImplementationClass();
+    filter.setup(context.getClassProducer().getFunctionContext(), readerOutput, new CopyingFilteringReader.SV2Holder(filteredSV2));
+
+    final CopyingFilteringReader.ContainerAndSV2 copyInput = new CopyingFilteringReader.ContainerAndSV2(readerOutput, filteredSV2);
+    copyOutput = VectorContainer.create(context.getAllocator(), readerOutput.getSchema());
+    copyOutput.setInitialCapacity(context.getTargetBatchSize());
+    copier = CopierOperator.getGenerated2Copier(context.getClassProducer(), copyInput, copyOutput);
+    for (VectorWrapper<?> wrapper : copyOutput) {
+      final Field field = wrapper.getField();
+      copierToOutputTransfers.add(wrapper.getValueVector().makeTransferPair(output.getVector(field.getName())));
+    }
+
+    deltas.allocateNew(context.getTargetBatchSize());
+    payloadReader.setup(output);
+  }
+
+  @Override
+  public void allocate(Map<String, ValueVector> vectorMap) throws OutOfMemoryException {
+    payloadReader.allocate(vectorMap);
+  }
+
+  @Override
+  public int next() {
+    final Stopwatch copyWatch = Stopwatch.createUnstarted();
+    final Stopwatch filterWatch = Stopwatch.createUnstarted();
+
+    filterColumnsReader.allocate(fieldVectorMap);
+
+    int recordCount;
+    int selectedCount = 0;
+    while ((recordCount = filterColumnsReader.next()) > 0) {
+      if (mutator.getAndResetSchemaChanged()) {
+        externalCallback.doWork();
+      }
+
+      filteredRows += recordCount;
+      filterWatch.start();
+      selectedCount = filter.filterBatch(recordCount);
+      filterWatch.stop();
+      updateDeltas(recordCount, selectedCount);
+      if (selectedCount > 0) {
+        break;
+      }
+
+      readerOutput.allocateNew();
+      filterColumnsReader.allocate(fieldVectorMap);
+    }
+    context.getStats().addLongStat(ScanOperator.Metric.FILTER_NS, filterWatch.elapsed(TimeUnit.NANOSECONDS));
+    if (recordCount == 0) {
+      return 0;
+    }
+
+    // payload columns first, their writer sets the value count of every output vector
+    final int materialized = payloadReader.next();
+    if (materialized != selectedCount) {
+      throw new IllegalStateException(String.format("Inconsistent row count. Payload reader %s returned %d while " +
+        "%d rows passed the filter", payloadReader.toString(), materialized, selectedCount));
+    }
+    materializedRows += materialized;
+
+    copyOutput.allocateNew();
+    copyWatch.start();
+    final int copied = copier.copyRecords(0, selectedCount);
+    copyWatch.stop();
+    if (copied != selectedCount) {
+      throw UserException.memoryError().message("Ran out of memory while trying to copy the records.").build(logger);
+    }
+    copyOutput.setAllCount(selectedCount);
+    for (TransferPair t : copierToOutputTransfers) {
+      t.transfer();
+    }
+
+    context.getStats().addLongStat(ScanOperator.Metric.COPY_NS, copyWatch.elapsed(TimeUnit.NANOSECONDS));
+    return selectedCount;
+  }
+
+  /**
+   * Fills the deltas with, for each matching row, the number of rows skipped since the previous matching row.
+   */
+  private void updateDeltas(int recordCount, int selectedCount) {
+    int previous = -1;
+    for (int i = 0; i < selectedCount; i++) {
+      final int index = filteredSV2.getIndex(i);
+      deltas.setSafe(i, pendingSkippedRows + index - previous - 1);
+      pendingSkippedRows = 0;
+      previous = index;
+    }
+    deltas.setValueCount(selectedCount);
+    pendingSkippedRows += recordCount - previous - 1;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (context.getStats() != null) {
+      context.getStats().addLongStat(ScanOperator.Metric.LATE_MATERIALIZATION_FILTERED_ROWS, filteredRows);
+      context.getStats().addLongStat(ScanOperator.Metric.LATE_MATERIALIZATION_MATERIALIZED_ROWS, materializedRows);
+    }
+    AutoCloseables.close(copier, copyOutput, filteredSV2, readerOutput, filterColumnsReader, payloadReader, deltas);
+  }
+}
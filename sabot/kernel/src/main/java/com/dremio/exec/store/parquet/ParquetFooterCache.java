@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Executor wide cache of parquet footers, shared by all the readers running on the node.
+ * <p>
+ * Entries are keyed by the filesystem URI, file path, length and modification time, so files of different
+ * filesystems never share an entry and a rewritten file is never served a stale footer. Footers are kept serialized
+ * (thrift compact protocol) on heap, which is several times smaller than the parsed metadata. Each lookup parses its
+ * own copy, since readers trim the parsed footer in place (see {@link MutableParquetMetadata}).
+ * <p>
+ * The cache is bounded by {@link ExecConstants#PARQUET_FOOTER_CACHE_SIZE} bytes, set through {@link #configure}, and
+ * is disabled when the option is set to 0.
+ */
+public final class ParquetFooterCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetFooterCache.class);
+
+  private static final Cache<Key, byte[]> CACHE = Caffeine.newBuilder()
+      .maximumWeight(ExecConstants.PARQUET_FOOTER_CACHE_SIZE.getDefault().getNumVal())
+      .weigher((Key key, byte[] footer) -> footer.length)
+      .recordStats()
+      .build();
+
+  private ParquetFooterCache() {
+    // Not to be instantiated
+  }
+
+  /**
+   * Sizes the cache from the system options, and keeps it in sync with later changes of the option.
+   */
+  public static void configure(OptionManager systemOptions) {
+    setMaxSizeBytes(systemOptions.getOption(ExecConstants.PARQUET_FOOTER_CACHE_SIZE));
+    systemOptions.addOptionChangeListener(
+      () -> setMaxSizeBytes(systemOptions.getOption(ExecConstants.PARQUET_FOOTER_CACHE_SIZE)));
+  }
+
+  private static void setMaxSizeBytes(long maxSize) {
+    CACHE.policy().eviction().ifPresent(eviction -> {
+      if (eviction.getMaximum() != maxSize) {
+        logger.debug("Resizing parquet footer cache to {} bytes", maxSize);
+        eviction.setMaximum(maxSize);
+      }
+    });
+  }
+
+  public static boolean isEnabled(OptionManager options) {
+    return options != null && options.getOption(ExecConstants.PARQUET_FOOTER_CACHE_SIZE) > 0;
+  }
+
+  /**
+   * Returns the parsed footer of the given file, reading its serialized form with the loader on a miss.
+   */
+  public static ParquetMetadata getFooter(URI fsUri, String path, long fileLength, long mTime,
+                                          Callable<byte[]> loader) throws IOException {
+    final byte[] footer;
+    try {
+      footer = CACHE.get(new Key(fsUri, path, fileLength, mTime), k -> load(loader));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return ParquetFormatPlugin.parquetMetadataConverter.readParquetMetadata(
+      new ByteArrayInputStream(footer), ParquetMetadataConverter.NO_FILTER);
+  }
+
+  private static byte[] load(Callable<byte[]> loader) {
+    try {
+      return loader.call();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public static long getEntries() {
+    return CACHE.estimatedSize();
+  }
+
+  public static long getSizeBytes() {
+    return CACHE.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+  }
+
+  public static long getMaxSizeBytes() {
+    return CACHE.policy().eviction().map(Policy.Eviction::getMaximum).orElse(0L);
+  }
+
+  public static CacheStats getStats() {
+    return CACHE.stats();
+  }
+
+  static void invalidateAll() {
+    logger.debug("Clearing parquet footer cache");
+    CACHE.invalidateAll();
+  }
+
+  /**
+   * Runs the pending maintenance of the cache, such as evictions and size accounting.
+   */
+  static void cleanUp() {
+    CACHE.cleanUp();
+  }
+
+  private static final class Key {
+    private final URI fsUri;
+    private final String path;
+    private final long length;
+    private final long mTime;
+
+    private Key(URI fsUri, String path, long length, long mTime) {
+      this.fsUri = fsUri;
+      this.path = path;
+      this.length = length;
+      this.mTime = mTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return length == key.length && mTime == key.mTime && Objects.equals(fsUri, key.fsUri)
+        && Objects.equals(path, key.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(fsUri, path, length, mTime);
+    }
+  }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexFilter;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+import com.dremio.common.expression.BooleanOperator;
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.expression.ValueExpressions.DoubleExpression;
+import com.dremio.common.expression.ValueExpressions.FloatExpression;
+import com.dremio.common.expression.ValueExpressions.IntExpression;
+import com.dremio.common.expression.ValueExpressions.LongExpression;
+import com.dremio.common.expression.ValueExpressions.QuotedString;
+
+/**
+ * Evaluates pushed down filter conditions against the column indexes of a row group, to find the rows that are in
+ * pages that may contain matches. Pages outside of these rows can be skipped by the readers.
+ * <p>
+ * Only comparisons between a top level primitive column and a literal of the same type are used, along with
+ * is [not] null checks and their AND/OR combinations (so IN lists too). Conditions that can't be converted are left
+ * out of the conjunction, which only makes the row ranges wider.
+ */
+public final class ParquetPageFilter {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetPageFilter.class);
+
+  private ParquetPageFilter() {
+  }
+
+  /**
+   * Computes the row ranges of the block that may match the conditions. The filtered columns are table columns, and
+   * are mapped to the columns of the file through the column resolver.
+   *
+   * @return the row ranges, or null if the conditions can't be evaluated against the indexes of the block.
+   */
+  public static RowRanges getRowRanges(List<ParquetFilterCondition> conditions, MessageType fileSchema,
+                                       ParquetColumnResolver columnResolver, BlockMetaData block,
+                                       ColumnIndexProvider columnIndexProvider,
+                                       OffsetIndexProvider offsetIndexProvider) {
+    final FilterPredicate predicate = toPredicate(conditions, fileSchema, columnResolver);
+    if (predicate == null || columnIndexProvider == null || offsetIndexProvider == null) {
+      return null;
+    }
+
+    final Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+    for (ColumnChunkMetaData chunk : block.getColumns()) {
+      chunks.put(chunk.getPath(), chunk);
+    }
+
+    final ColumnIndexStore indexStore = new ColumnIndexStore() {
+      @Override
+      public ColumnIndex getColumnIndex(ColumnPath column) {
+        final ColumnChunkMetaData chunk = chunks.get(column);
+        return chunk == null ? null : columnIndexProvider.getColumnIndex(chunk);
+      }
+
+      @Override
+      public OffsetIndex getOffsetIndex(ColumnPath column) {
+        final ColumnChunkMetaData chunk = chunks.get(column);
+        final OffsetIndex offsetIndex = chunk == null ? null : offsetIndexProvider.getOffsetIndex(chunk);
+        if (offsetIndex == null) {
+          throw new MissingOffsetIndexException(column);
+        }
+        return offsetIndex;
+      }
+    };
+
+    try {
+      return ColumnIndexFilter.calculateRowRanges(FilterCompat.get(predicate), indexStore, chunks.keySet(),
+        block.getRowCount());
+    } catch (ColumnIndexStore.MissingOffsetIndexException e) {
+      logger.debug("Offset index missing, reading all the pages", e);
+      return null;
+    }
+  }
+
+  static FilterPredicate toPredicate(List<ParquetFilterCondition> conditions, MessageType fileSchema,
+                                     ParquetColumnResolver columnResolver) {
+    FilterPredicate predicate = null;
+    for (ParquetFilterCondition condition : conditions) {
+      final FilterPredicate converted = toPredicate(condition.getExpr(), fileSchema, columnResolver);
+      if (converted != null) {
+        predicate = predicate == null ? converted : FilterApi.and(predicate, converted);
+      }
+    }
+    return predicate;
+  }
+
+  private static FilterPredicate toPredicate(LogicalExpression expr, MessageType fileSchema,
+                                             ParquetColumnResolver columnResolver) {
+    if (!(expr instanceof FunctionCall)) {
+      return null;
+    }
+    final FunctionCall call = (FunctionCall) expr;
+
+    if (call instanceof BooleanOperator) {
+      final boolean isAnd = "booleanAnd".equals(call.getName());
+      FilterPredicate predicate = null;
+      for (LogicalExpression arg : call.args) {
+        final FilterPredicate converted = toPredicate(arg, fileSchema, columnResolver);
+        if (converted == null) {
+          if (isAnd) {
+            continue;
+          }
+          return null;
+        }
+        predicate = predicate == null ? converted
+          : isAnd ? FilterApi.and(predicate, converted) : FilterApi.or(predicate, converted);
+      }
+      return predicate;
+    }
+
+    switch (call.getName()) {
+      case "isnull":
+      case "isnotnull":
+        return call.args.size() == 1 ? toNullCheck(call.getName(), call.args.get(0), fileSchema, columnResolver) : null;
+      default:
+        if (call.args.size() != 2) {
+          return null;
+        }
+        if (call.args.get(0) instanceof SchemaPath) {
+          return toComparison(call.getName(), (SchemaPath) call.args.get(0), call.args.get(1), fileSchema,
+            columnResolver);
+        }
+        if (call.args.get(1) instanceof SchemaPath) {
+          final String mirrored = mirror(call.getName());
+          return mirrored == null ? null
+            : toComparison(mirrored, (SchemaPath) call.args.get(1), call.args.get(0), fileSchema,
+              columnResolver);
+        }
+        return null;
+    }
+  }
+
+  private static String mirror(String function) {
+    switch (function) {
+      case "equal":
+      case "not_equal":
+        return function;
+      case "less_than":
+        return "greater_than";
+      case "less_than_or_equal_to":
+        return "greater_than_or_equal_to";
+      case "greater_than":
+        return "less_than";
+      case "greater_than_or_equal_to":
+        return "less_than_or_equal_to";
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Finds the file column of a filtered table column. The resolver gives the name of the column in the file (columns
+   * of Iceberg tables may have been renamed since the file was written), which is then matched exactly if possible.
+   */
+  private static PrimitiveType findColumn(SchemaPath path, MessageType fileSchema, ParquetColumnResolver columnResolver) {
+    if (!path.isSimplePath()) {
+      return null;
+    }
+    final String name = columnResolver.getParquetColumnName(path.getRootSegment().getPath());
+    if (name == null) {
+      return null;
+    }
+    Type column = fileSchema.containsField(name) ? fileSchema.getType(name) : null;
+    if (column == null) {
+      for (Type field : fileSchema.getFields()) {
+        if (field.getName().equalsIgnoreCase(name)) {
+          column = field;
+          break;
+        }
+      }
+    }
+    if (column == null || !column.isPrimitive() || column.isRepetition(Type.Repetition.REPEATED) ||
+      column.getName().contains(".")) {
+      return null;
+    }
+    return column.asPrimitiveType();
+  }
+
+  private static FilterPredicate toNullCheck(String function, LogicalExpression arg, MessageType fileSchema,
+                                             ParquetColumnResolver columnResolver) {
+    if (!(arg instanceof SchemaPath)) {
+      return null;
+    }
+    final PrimitiveType column = findColumn((SchemaPath) arg, fileSchema, columnResolver);
+    if (column == null) {
+      return null;
+    }
+    final boolean isNull = "isnull".equals(function);
+    final String name = column.getName();
+    switch (column.getPrimitiveTypeName()) {
+      case INT32:
+        return isNull ? FilterApi.eq(FilterApi.intColumn(name), null) : FilterApi.notEq(FilterApi.intColumn(name), null);
+      case INT64:
+        return isNull ? FilterApi.eq(FilterApi.longColumn(name), null) : FilterApi.notEq(FilterApi.longColumn(name), null);
+      case FLOAT:
+        return isNull ? FilterApi.eq(FilterApi.floatColumn(name), null) : FilterApi.notEq(FilterApi.floatColumn(name), null);
+      case DOUBLE:
+        return isNull ? FilterApi.eq(FilterApi.doubleColumn(name), null) : FilterApi.notEq(FilterApi.doubleColumn(name), null);
+      case BINARY:
+        return isNull ? FilterApi.eq(FilterApi.binaryColumn(name), null) : FilterApi.notEq(FilterApi.binaryColumn(name), null);
+      default:
+        return null;
+    }
+  }
+
+  private static FilterPredicate toComparison(String function, SchemaPath path, LogicalExpression literal,
+                                              MessageType fileSchema, ParquetColumnResolver columnResolver) {
+    final PrimitiveType column = findColumn(path, fileSchema, columnResolver);
+    if (column == null) {
+      return null;
+    }
+    final String name = column.getName();
+    final LogicalTypeAnnotation annotation = column.getLogicalTypeAnnotation();
+    switch (column.getPrimitiveTypeName()) {
+      case INT32:
+        if (annotation != null || !(literal instanceof IntExpression)) {
+          return null;
+        }
+        return compare(function, FilterApi.intColumn(name), ((IntExpression) literal).getInt());
+      case INT64:
+        if (annotation != null) {
+          return null;
+        }
+        if (literal instanceof LongExpression) {
+          return compare(function, FilterApi.longColumn(name), ((LongExpression) literal).getLong());
+        }
+        if (literal instanceof IntExpression) {
+          return compare(function, FilterApi.longColumn(name), (long) ((IntExpression) literal).getInt());
+        }
+        return null;
+      case FLOAT:
+        if (!(literal instanceof FloatExpression)) {
+          return null;
+        }
+        return compare(function, FilterApi.floatColumn(name), ((FloatExpression) literal).getFloat());
+      case DOUBLE:
+        if (literal instanceof DoubleExpression) {
+          return compare(function, FilterApi.doubleColumn(name), ((DoubleExpression) literal).getDouble());
+        }
+        if (literal instanceof FloatExpression) {
+          return compare(function, FilterApi.doubleColumn(name), (double) ((FloatExpression) literal).getFloat());
+        }
+        return null;
+      case BINARY:
+        if (!(annotation instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation) || !(literal instanceof QuotedString)) {
+          return null;
+        }
+        return compare(function, FilterApi.binaryColumn(name), Binary.fromString(((QuotedString) literal).getString()));
+      default:
+        return null;
+    }
+  }
+
+  private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt> FilterPredicate compare(
+    String function, C column, T value) {
+    switch (function) {
+      case "equal":
+        return FilterApi.eq(column, value);
+      case "not_equal":
+        return FilterApi.notEq(column, value);
+      case "less_than":
+        return FilterApi.lt(column, value);
+      case "less_than_or_equal_to":
+        return FilterApi.ltEq(column, value);
+      case "greater_than":
+        return FilterApi.gt(column, value);
+      case "greater_than_or_equal_to":
+        return FilterApi.gtEq(column, value);
+      default:
+        return null;
+    }
+  }
+}
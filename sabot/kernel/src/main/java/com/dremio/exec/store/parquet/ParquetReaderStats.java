@@ -38,6 +38,13 @@ public class ParquetReaderStats {
   public long timeDictPagesDecompressed;
   public long timePagesDecompressed;
 
+  public long numPagesSkipped;
+  public long totalPageSkippedBytes;
+
+  public long numVectoredReads;
+  public long totalVectoredReadBytes;
+  public long totalVectoredOverReadBytes;
+
   public ParquetReaderStats() {
   }
 
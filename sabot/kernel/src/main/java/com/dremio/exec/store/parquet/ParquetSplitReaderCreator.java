@@ -15,6 +15,7 @@
  */
 package com.dremio.exec.store.parquet;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -25,6 +26,7 @@ import java.util.function.Function;
 
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.InvalidMetadataErrorContext;
@@ -61,6 +63,8 @@ import com.google.common.collect.Sets;
  * construction.
  */
 public class ParquetSplitReaderCreator extends SplitReaderCreator implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetSplitReaderCreator.class);
+
   private SplitAndPartitionInfo datasetSplit;
   // set to true while creating input stream provider. When true, the footer is trimmed and unneeded row groups are removed from the footer
   private boolean trimFooter = false;
@@ -89,6 +93,8 @@ public class ParquetSplitReaderCreator extends SplitReaderCreator implements Aut
   private final boolean ignoreSchemaLearning;
   private final boolean isConvertedIcebergDataset;
   private final UserDefinedSchemaSettings userDefinedSchemaSettings;
+  private final boolean readAhead;
+  private boolean readAheadStarted;
 
   private final BiConsumer<InputStreamProvider, MutableParquetMetadata> depletionListener = (inputStreamProvider, footer) -> {
     if (!prefetchReader || !fs.supportsAsync()) {
@@ -99,6 +105,7 @@ public class ParquetSplitReaderCreator extends SplitReaderCreator implements Aut
     int numPrefetched = 0;
     while (nextCreator != null) {
       nextCreator.createInputStreamProvider(inputStreamProvider, footer);
+      ((ParquetSplitReaderCreator)nextCreator).readAhead();
       nextCreator = ((ParquetSplitReaderCreator)nextCreator).next;
       numPrefetched++;
       if (numPrefetched == numSplitsToPrefetch) {
@@ -173,6 +180,7 @@ public class ParquetSplitReaderCreator extends SplitReaderCreator implements Aut
     this.ignoreSchemaLearning = ignoreSchemaLearning;
     this.isConvertedIcebergDataset = isConvertedIcebergDataset;
     this.userDefinedSchemaSettings = userDefinedSchemaSettings;
+    this.readAhead = context.getOptions().getOption(ExecConstants.PARQUET_SPLIT_READ_AHEAD);
   }
 
   @Override
@@ -232,6 +240,43 @@ public class ParquetSplitReaderCreator extends SplitReaderCreator implements Aut
     parquetSplitReaderCreatorIterator.setLastInputStreamProvider(inputStreamProvider);
   }
 
+  /**
+   * Starts fetching the projected column chunks of this split, so that its data is in memory by the time its reader
+   * is created.
+   */
+  private void readAhead() {
+    if (!readAhead || readAheadStarted || inputStreamProvider == null) {
+      return;
+    }
+    readAheadStarted = true;
+
+    final BlockMetaData block;
+    try {
+      final List<BlockMetaData> blocks = inputStreamProvider.getFooter().getBlocks();
+      final int rowGroupIndex = splitXAttr.getRowGroupIndex();
+      block = rowGroupIndex < blocks.size() ? blocks.get(rowGroupIndex) : null;
+    } catch (IOException e) {
+      // reported when the split is read
+      logger.debug("Failed to read the footer of {}", path, e);
+      return;
+    }
+    if (block == null) {
+      return;
+    }
+
+    final Set<String> columnNames = new HashSet<>();
+    for (SchemaPath field : realFields) {
+      columnNames.add(field.getRootSegment().getPath().toLowerCase());
+    }
+    final List<ColumnChunkMetaData> projectedChunks = new ArrayList<>();
+    for (ColumnChunkMetaData column : block.getColumns()) {
+      if (columnNames.contains(column.getPath().iterator().next().toLowerCase())) {
+        projectedChunks.add(column);
+      }
+    }
+    inputStreamProvider.readAhead(projectedChunks, parquetSplitReaderCreatorIterator.getReadAheadBudget());
+  }
+
   @Override
   public RecordReader createRecordReader(MutableParquetMetadata footer) {
     Preconditions.checkNotNull(inputStreamProvider);
@@ -104,6 +104,7 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
   private final boolean trimRowGroups;
   private final boolean supportsColocatedReads;
   private final int numSplitsToPrefetch;
+  private final ReadAheadBudget readAheadBudget;
   private final Map<String, GlobalDictionaryFieldInfo> globalDictionaryEncodedColumns;
   private final CompositeReaderConfig readerConfig;
   private final OperatorContext context;
@@ -167,6 +168,7 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
     this.factory = context.getConfig().getInstance(InputStreamProviderFactory.KEY, InputStreamProviderFactory.class, InputStreamProviderFactory.DEFAULT);
     this.prefetchReader = context.getOptions().getOption(ExecConstants.PREFETCH_READER);
     this.numSplitsToPrefetch = (int) context.getOptions().getOption(ExecConstants.NUM_SPLITS_TO_PREFETCH);
+    this.readAheadBudget = new ReadAheadBudget(context.getOptions().getOption(ExecConstants.PARQUET_VECTORED_READ_MAX_BUFFER));
     this.trimRowGroups = context.getOptions().getOption(ExecConstants.TRIM_ROWGROUPS_FROM_FOOTER);
     this.plugin = fragmentExecContext.getStoragePlugin(config.getPluginId());
     try {
@@ -234,6 +236,7 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
     this.factory = context.getConfig().getInstance(InputStreamProviderFactory.KEY, InputStreamProviderFactory.class, InputStreamProviderFactory.DEFAULT);
     this.prefetchReader = context.getOptions().getOption(ExecConstants.PREFETCH_READER);
     this.numSplitsToPrefetch = (int) context.getOptions().getOption(ExecConstants.NUM_SPLITS_TO_PREFETCH);
+    this.readAheadBudget = new ReadAheadBudget(context.getOptions().getOption(ExecConstants.PARQUET_VECTORED_READ_MAX_BUFFER));
     this.trimRowGroups = context.getOptions().getOption(ExecConstants.TRIM_ROWGROUPS_FROM_FOOTER);
     this.plugin = fragmentExecContext.getStoragePlugin(config.getFunctionContext().getPluginId());
     try {
@@ -554,6 +557,13 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
     return creator;
   }
 
+  /**
+   * Returns the budget of the column chunks read ahead for the next splits, shared by all the splits of the scan.
+   */
+  ReadAheadBudget getReadAheadBudget() {
+    return readAheadBudget;
+  }
+
   public void setLastInputStreamProvider(InputStreamProvider lastInputStreamProvider) {
     this.lastInputStreamProvider = lastInputStreamProvider;
   }
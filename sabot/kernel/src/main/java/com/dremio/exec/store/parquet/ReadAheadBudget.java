@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+/**
+ * Bytes that the column chunks read ahead for the next splits of a scan may hold in total. The budget is shared by the
+ * input stream providers of the splits, which reserve the bytes of the ranges they read ahead and release them once the
+ * buffers of these ranges are released.
+ * <p>
+ * Only used by the thread of the scan.
+ */
+public final class ReadAheadBudget {
+  private final long maxBytes;
+  private long reservedBytes;
+
+  public ReadAheadBudget(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  public long getAvailableBytes() {
+    return Math.max(0, maxBytes - reservedBytes);
+  }
+
+  public long getReservedBytes() {
+    return reservedBytes;
+  }
+
+  void reserve(long bytes) {
+    reservedBytes += bytes;
+  }
+
+  void release(long bytes) {
+    reservedBytes -= bytes;
+  }
+}
@@ -40,6 +40,7 @@ public class SingleStreamProvider implements InputStreamProvider {
   private final Path path;
   private final BufferAllocator allocator;
   private final long fileLength;
+  private final long mTime;
   private final long maxFooterLen;
   private final boolean readFullFile;
   private BulkInputStream stream;
@@ -53,9 +54,19 @@ public class SingleStreamProvider implements InputStreamProvider {
 
   public SingleStreamProvider(FileSystem fs, Path path, long fileLength, long maxFooterLen, boolean readFullFile, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndices, ParquetFilters parquetFilters,
                               ParquetFilterCreator parquetFilterCreator) {
+    this(fs, path, fileLength, -1, maxFooterLen, readFullFile, footer, context, readColumnOffsetIndices, parquetFilters, parquetFilterCreator);
+  }
+
+  /**
+   * @param mTime modification time of the file, used to look up its footer in {@link ParquetFooterCache}. 0 stands
+   *              for immutable files, the cache is bypassed when it is negative.
+   */
+  public SingleStreamProvider(FileSystem fs, Path path, long fileLength, long mTime, long maxFooterLen, boolean readFullFile, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndices, ParquetFilters parquetFilters,
+                              ParquetFilterCreator parquetFilterCreator) {
     this.fs = fs;
     this.path = path;
     this.fileLength = fileLength;
+    this.mTime = mTime;
     this.maxFooterLen = maxFooterLen;
     this.readFullFile = readFullFile;
     this.footer = footer;
@@ -155,7 +166,8 @@ public class SingleStreamProvider implements InputStreamProvider {
   public MutableParquetMetadata getFooter() throws IOException {
     if(footer == null) {
       SingletonParquetFooterCache footerCache = new SingletonParquetFooterCache();
-      footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), fileLength, fs, maxFooterLen), path.getName());
+      footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), fileLength, mTime, fs,
+        maxFooterLen, context != null ? context.getOptions() : null), path.getName());
     }
     return footer;
   }
@@ -31,6 +31,7 @@ import com.dremio.common.exceptions.UserException;
 import com.dremio.io.file.FileAttributes;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
+import com.dremio.options.OptionManager;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 
@@ -50,10 +51,24 @@ public class SingletonParquetFooterCache {
   private String lastFile;
 
   public ParquetMetadata getFooter(BulkInputStream is, String path, long fileLength, FileSystem fs, long maxFooterLen) {
+    return getFooter(is, path, fileLength, -1, fs, maxFooterLen, null);
+  }
+
+  /**
+   * Same as {@link #getFooter(BulkInputStream, String, long, FileSystem, long)}, but goes through the executor wide
+   * {@link ParquetFooterCache} when it is enabled and the modification time of the file is known (0 for immutable files).
+   */
+  public ParquetMetadata getFooter(BulkInputStream is, String path, long fileLength, long mTime, FileSystem fs,
+                                   long maxFooterLen, OptionManager options) {
     if (footer == null || !lastFile.equals(path)) {
       String non_Parquet_Error_Message = "not a parquet file";
       try {
-        footer = readFooter(is, path, fileLength, fs, maxFooterLen);
+        if (mTime >= 0 && fileLength > 0 && fs != null && ParquetFooterCache.isEnabled(options)) {
+          footer = ParquetFooterCache.getFooter(fs.getUri(), path, fileLength, mTime,
+            () -> readFooterBytes(is, path, fileLength, fs, maxFooterLen));
+        } else {
+          footer = readFooter(is, path, fileLength, fs, maxFooterLen);
+        }
       } catch (IOException ioe) {
         if(ioe.getMessage() != null && ioe.getMessage().toLowerCase().contains(non_Parquet_Error_Message)){
           throw UserException.dataReadError()
@@ -105,6 +120,15 @@ public class SingletonParquetFooterCache {
 
   private static ParquetMetadata readFooter(BulkInputStream file, String path, long fileLength, MetadataFilter filter, FileSystem fs,
                                             long maxFooterLen) throws IOException {
+    final byte[] footerBytes = readFooterBytes(file, path, fileLength, fs, maxFooterLen);
+    return ParquetFormatPlugin.parquetMetadataConverter.readParquetMetadata(new ByteArrayInputStream(footerBytes), filter);
+  }
+
+  /**
+   * Reads the serialized footer, without the trailing length and magic bytes.
+   */
+  static byte[] readFooterBytes(BulkInputStream file, String path, long fileLength, FileSystem fs,
+                                long maxFooterLen) throws IOException {
     Preconditions.checkArgument(fileLength >= MIN_FILE_SIZE || fileLength == -1, "%s is not a Parquet file (too small)", path);
     Stopwatch w = Stopwatch.createStarted();
     if (fileLength == -1) {
@@ -138,6 +162,6 @@ public class SingletonParquetFooterCache {
       footerBytes = ArrayUtils.subarray(footerBytes, start, start + size);
     }
     logger.debug("Read footer of {} of length {} in {} ms ", path, size, w.elapsed(TimeUnit.MILLISECONDS));
-    return ParquetFormatPlugin.parquetMetadataConverter.readParquetMetadata(new ByteArrayInputStream(footerBytes), filter);
+    return footerBytes;
   }
 }
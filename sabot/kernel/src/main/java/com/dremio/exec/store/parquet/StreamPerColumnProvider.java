@@ -37,6 +37,7 @@ public class StreamPerColumnProvider implements InputStreamProvider {
   private final FileSystem fs;
   private final Path path;
   private final long length;
+  private final long mTime;
   private MutableParquetMetadata footer;
   private final long maxFooterLen;
   private boolean readColumnOffsetIndexes;
@@ -50,9 +51,19 @@ public class StreamPerColumnProvider implements InputStreamProvider {
 
   public StreamPerColumnProvider(FileSystem fs, Path path, long length, long maxFooterLen, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndexes,
                                  ParquetFilters parquetFilters, ParquetFilterCreator parquetFilterCreator) {
+    this(fs, path, length, -1, maxFooterLen, footer, context, readColumnOffsetIndexes, parquetFilters, parquetFilterCreator);
+  }
+
+  /**
+   * @param mTime modification time of the file, used to look up its footer in {@link ParquetFooterCache}. 0 stands
+   *              for immutable files, the cache is bypassed when it is negative.
+   */
+  public StreamPerColumnProvider(FileSystem fs, Path path, long length, long mTime, long maxFooterLen, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndexes,
+                                 ParquetFilters parquetFilters, ParquetFilterCreator parquetFilterCreator) {
     this.fs = fs;
     this.path = path;
     this.length = length;
+    this.mTime = mTime;
     this.maxFooterLen = maxFooterLen;
     this.footer = footer;
     this.readColumnOffsetIndexes = readColumnOffsetIndexes;
@@ -135,7 +146,8 @@ public class StreamPerColumnProvider implements InputStreamProvider {
   public MutableParquetMetadata getFooter() throws IOException {
     if(footer == null) {
       SingletonParquetFooterCache footerCache = new SingletonParquetFooterCache();
-      footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), length, fs, maxFooterLen), path.getName());
+      footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), length, mTime, fs,
+        maxFooterLen, context != null ? context.getOptions() : null), path.getName());
     }
     return footer;
   }
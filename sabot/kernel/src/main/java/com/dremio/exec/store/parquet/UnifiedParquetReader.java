@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.OutOfMemoryException;
@@ -44,6 +45,7 @@ import org.apache.parquet.compression.CompressionCodecFactory;
 import org.apache.parquet.hadoop.CodecFactory;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
 import org.apache.parquet.io.InvalidRecordException;
 import org.apache.parquet.schema.MessageType;
 import org.apache.parquet.schema.OriginalType;
@@ -353,16 +355,114 @@ public class UnifiedParquetReader implements RecordReader {
       return delegate;
     }
 
+    final LogicalExpression filterExpr = getExactFilterExpression();
+    if (filterExpr == null) {
+      return delegate;
+    }
+    return new CopyingFilteringReader(delegate, context, filterExpr);
+  }
+
+  /**
+   * @return conjunction of the exact pushed down filters, null if there are none
+   */
+  private LogicalExpression getExactFilterExpression() {
     final List<LogicalExpression> logicalExpressions = filters.getPushdownFilters().stream()
       .filter(f -> f.getFilter().exact())
       .map(c -> c.getExpr()).collect(Collectors.toList());
     if (logicalExpressions.isEmpty()) {
-      return delegate;
+      return null;
     }
 
-    final LogicalExpression filterExpr = logicalExpressions.size() == 1 ? logicalExpressions.get(0)
+    return logicalExpressions.size() == 1 ? logicalExpressions.get(0)
       : FunctionCallFactory.createBooleanOperator("and", logicalExpressions);
-    return new CopyingFilteringReader(delegate, context, filterExpr);
+  }
+
+  /**
+   * Creates a reader that evaluates the exact pushed down filters on their own columns first, and only materializes
+   * the other projected columns for the matching rows.
+   *
+   * @return the reader, or null if late materialization does not apply to this row group
+   */
+  private RecordReader newLateMaterializingReader() {
+    if (!context.getOptions().getOption(ExecConstants.PARQUET_LATE_MATERIALIZATION) || filterCreator.filterMayChange() ||
+      filters.hasPositionalDeleteFilter() || tableSchema.findFieldIgnoreCase(ColumnUtils.ROW_INDEX_COLUMN_NAME).isPresent()) {
+      return null;
+    }
+    final LogicalExpression filterExpr = getExactFilterExpression();
+    if (filterExpr == null) {
+      return null;
+    }
+
+    final Set<String> filterColumnNames = filters.getPushdownFilters().stream()
+      .filter(f -> f.getFilter().exact())
+      .map(c -> c.getPath().getRootSegment().getPath().toLowerCase())
+      .collect(Collectors.toSet());
+    final List<SchemaPath> readColumns = Stream.concat(vectorizableReaderColumns.stream(), nonVectorizableReaderColumns.stream())
+      .collect(Collectors.toList());
+    final Set<String> readFilterColumnNames = new HashSet<>();
+    final List<SchemaPath> filterColumns = new ArrayList<>();
+    final List<SchemaPath> payloadColumns = new ArrayList<>();
+    for (SchemaPath column : columnResolver.getBatchSchemaColumns(readColumns)) {
+      final String name = column.getRootSegment().getPath().toLowerCase();
+      if (filterColumnNames.contains(name)) {
+        readFilterColumnNames.add(name);
+        filterColumns.add(column);
+      } else {
+        payloadColumns.add(column);
+      }
+    }
+    // all filtered columns must come from the file, and some columns must be left to materialize
+    if (!readFilterColumnNames.equals(filterColumnNames) || payloadColumns.isEmpty()) {
+      return null;
+    }
+
+    final ParquetRowiseReader filterColumnsReader = new ParquetRowiseReader(context, footer, readEntry.getRowGroupIndex(),
+      readEntry.getPath(), projectedColumns.cloneForSchemaPaths(filterColumns, isConvertedIcebergDataset), fs, schemaHelper,
+      null, inputStreamProvider, codecFactory, false, tableSchema);
+    final SimpleIntVector deltas = new SimpleIntVector("deltas", context.getAllocator());
+    final ParquetRowiseReader payloadReader = new ParquetRowiseReader(context, footer, readEntry.getRowGroupIndex(),
+      readEntry.getPath(), projectedColumns.cloneForSchemaPaths(payloadColumns, isConvertedIcebergDataset), fs, schemaHelper,
+      deltas, inputStreamProvider, codecFactory, false, tableSchema);
+    restrictToMatchingPages(readColumns, filterColumnsReader, payloadReader);
+
+    return new LateMaterializingParquetReader(context, filterColumnsReader, payloadReader, deltas, filterColumnNames,
+      filterExpr);
+  }
+
+  /**
+   * Skips the pages that cannot match the pushed down filters, according to the column indexes. The same row ranges
+   * are given to all the readers so that they stay aligned, which requires an offset index for every column read.
+   */
+  private void restrictToMatchingPages(List<SchemaPath> readColumns, ParquetRowiseReader... readers) {
+    final BlockMetaData block = footer.getBlocks().get(readEntry.getRowGroupIndex());
+    final MessageType schema = footer.getFileMetaData().getSchema();
+    // the read columns are file columns, while the filters are on table columns
+    final Set<String> readColumnNames = Stream.concat(
+        readColumns.stream().map(c -> c.getRootSegment().getPath()),
+        filters.getPushdownFilters().stream()
+          .map(c -> columnResolver.getParquetColumnName(c.getPath().getRootSegment().getPath()))
+          .filter(Objects::nonNull))
+      .map(String::toLowerCase)
+      .collect(Collectors.toSet());
+    final List<ColumnChunkMetaData> chunks = block.getColumns().stream()
+      .filter(c -> readColumnNames.contains(c.getPath().toArray()[0].toLowerCase()))
+      .collect(Collectors.toList());
+    if (chunks.stream().anyMatch(c -> schema.getColumnDescription(c.getPath().toArray()).getMaxRepetitionLevel() > 0)) {
+      return;
+    }
+
+    final OffsetIndexProvider offsetIndexProvider = inputStreamProvider.getOffsetIndexProvider(chunks);
+    if (offsetIndexProvider == null || chunks.stream().anyMatch(c -> offsetIndexProvider.getOffsetIndex(c) == null)) {
+      return;
+    }
+    final RowRanges rowRanges = ParquetPageFilter.getRowRanges(filters.getPushdownFilters(), schema, columnResolver,
+      block, inputStreamProvider.getColumnIndexProvider(chunks), offsetIndexProvider);
+    if (rowRanges == null || rowRanges.rowCount() == block.getRowCount()) {
+      return;
+    }
+    for (ParquetRowiseReader reader : readers) {
+      reader.setRowRanges(rowRanges, offsetIndexProvider);
+    }
   }
 
   @Override
@@ -790,6 +890,12 @@ public class UnifiedParquetReader implements RecordReader {
       public List<RecordReader> getReaders(UnifiedParquetReader unifiedReader) {
 
         List<RecordReader> returnList = new ArrayList<>();
+        RecordReader lateMaterializingReader = unifiedReader.newLateMaterializingReader();
+        if (lateMaterializingReader != null) {
+          returnList.add(getWrappedReader(lateMaterializingReader, unifiedReader));
+          return returnList;
+        }
+
         int rowGroupIndex = unifiedReader.readEntry.getRowGroupIndex();
         SimpleIntVector deltas = null;
         if (unifiedReader.filters.hasPositionalDeleteFilter()) {
@@ -814,7 +920,9 @@ public class UnifiedParquetReader implements RecordReader {
           unifiedReader.inputStreamProvider,
           unifiedReader.codecFactory,
           false,
-          unifiedReader.tableSchema
+          unifiedReader.tableSchema,
+          // pages may only be skipped using conditions that are known to hold for every row returned
+          unifiedReader.filterCreator.filterMayChange() ? ParquetFilters.NONE : unifiedReader.filters
         );
 
         returnList.add(unifiedReader.addFilterIfNecessary(getWrappedReader(reader, unifiedReader)));
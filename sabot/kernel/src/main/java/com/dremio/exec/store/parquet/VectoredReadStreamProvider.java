@@ -0,0 +1,588 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.io.SeekableInputStream;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.io.ArrowBufFSInputStream;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.FilterFSInputStream;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
+
+import io.netty.buffer.NettyArrowBuf;
+
+/**
+ * An InputStreamProvider that fetches the column chunks of a row group up front, and serves each column from a slice
+ * of the fetched buffers.
+ * <p>
+ * Chunks separated by less than the gap threshold are merged into a single range, and the ranges are requested
+ * concurrently when the file system supports async reads. At most {@code maxBufferBytes} are held at a time, the
+ * columns past that limit are read with a stream per column, as are the columns that were not prefetched.
+ * <p>
+ * The buffers of the ranges fetched together are released, and their bytes given back to the budget, once each of
+ * their chunks has been read to its end or its stream closed.
+ * <p>
+ * The chunks may also be read ahead: their ranges are then requested in the background, and the reads are only waited
+ * for once the chunks are needed. The bytes read ahead are also bounded by the budget shared with the other splits read
+ * ahead by the scan.
+ */
+public class VectoredReadStreamProvider extends StreamPerColumnProvider {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(VectoredReadStreamProvider.class);
+
+  private final FileSystem fs;
+  private final Path path;
+  private final long mTime;
+  private final List<String> dataset;
+  private final OperatorContext context;
+  private final BufferAllocator allocator;
+  private final long maxGap;
+  private final long maxBufferBytes;
+
+  // fetched chunks not read yet by starting position, slices of the buffers of the ranges
+  private final Map<Long, Chunk> chunks = new HashMap<>();
+  private final List<Fetch> fetches = new ArrayList<>();
+  private final List<BulkInputStream> streams = new ArrayList<>();
+  private long bufferedBytes;
+  private PendingRead pendingRead;
+
+  public VectoredReadStreamProvider(FileSystem fs, Path path, long length, long mTime, List<String> dataset,
+                                    long maxFooterLen, MutableParquetMetadata footer, OperatorContext context,
+                                    boolean readColumnOffsetIndexes, ParquetFilters parquetFilters,
+                                    ParquetFilterCreator parquetFilterCreator, long maxGap, long maxBufferBytes) {
+    super(fs, path, length, mTime, maxFooterLen, footer, context, readColumnOffsetIndexes, parquetFilters, parquetFilterCreator);
+    this.fs = fs;
+    this.path = path;
+    this.mTime = mTime;
+    this.dataset = dataset;
+    this.context = context;
+    this.allocator = context != null ? context.getAllocator() : null;
+    this.maxGap = maxGap;
+    this.maxBufferBytes = maxBufferBytes;
+  }
+
+  @Override
+  public void prefetch(List<ColumnChunkMetaData> columns, ParquetReaderStats stats) throws IOException {
+    awaitReadAhead();
+    final List<Range> ranges = selectRanges(columns, maxBufferBytes - bufferedBytes);
+    final Fetch fetch = allocate(ranges);
+    if (fetch == null) {
+      return;
+    }
+    fetch(ranges, fetch.buffers);
+    addChunks(ranges, fetch);
+
+    for (Range range : ranges) {
+      for (Range chunk : range.chunks) {
+        stats.totalVectoredOverReadBytes -= chunk.length;
+      }
+      stats.numVectoredReads++;
+      stats.totalVectoredReadBytes += range.length;
+      stats.totalVectoredOverReadBytes += range.length;
+    }
+  }
+
+  @Override
+  public void readAhead(List<ColumnChunkMetaData> columns, ReadAheadBudget budget) {
+    if (pendingRead != null || !fs.supportsAsync()) {
+      return;
+    }
+    final List<Range> ranges = selectRanges(columns, Math.min(maxBufferBytes - bufferedBytes, budget.getAvailableBytes()));
+    final Fetch fetch = allocate(ranges);
+    if (fetch == null) {
+      return;
+    }
+    fetch.reserve(budget);
+
+    final AsyncByteReader reader;
+    try {
+      reader = fs.getAsyncByteReader(fileKey(), Collections.emptyMap());
+    } catch (IOException e) {
+      // the chunks will be read when needed
+      logger.debug("Failed to read ahead {}", path, e);
+      fetch.close();
+      return;
+    }
+    final CompletableFuture<?>[] futures = new CompletableFuture<?>[ranges.size()];
+    long readAheadBytes = 0;
+    for (int i = 0; i < ranges.size(); i++) {
+      final Range range = ranges.get(i);
+      try {
+        futures[i] = reader.readFully(range.start, NettyArrowBuf.unwrapBuffer(fetch.buffers.get(i)), 0, (int) range.length);
+      } catch (RuntimeException e) {
+        // reported when waiting for the reads
+        final CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(e);
+        futures[i] = failed;
+      }
+      readAheadBytes += range.length;
+    }
+    pendingRead = new PendingRead(ranges, fetch, reader, CompletableFuture.allOf(futures));
+    addStat(ScanOperator.Metric.NUM_READ_AHEAD_SPLITS, 1);
+    addStat(ScanOperator.Metric.READ_AHEAD_BYTES, readAheadBytes);
+  }
+
+  /**
+   * Waits for the chunks read ahead, if any, and makes them available to {@link #getStream}.
+   */
+  private void awaitReadAhead() throws IOException {
+    if (pendingRead == null) {
+      return;
+    }
+
+    final long start = System.nanoTime();
+    final Fetch fetch = pendingRead.fetch;
+    boolean fetched = false;
+    try {
+      pendingRead.future.get();
+      addChunks(pendingRead.ranges, fetch);
+      fetched = true;
+    } catch (InterruptedException e) {
+      // the reads are still waited for on close, before releasing their buffers
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading " + path, e);
+    } catch (ExecutionException e) {
+      // the chunks are read with a stream per column instead
+      logger.debug("Failed to read ahead {}", path, e.getCause());
+    } finally {
+      addStat(ScanOperator.Metric.READ_AHEAD_WAIT_TIME_NS, System.nanoTime() - start);
+    }
+    closePendingRead();
+    if (!fetched) {
+      fetch.close();
+    }
+  }
+
+  private void closePendingRead() throws IOException {
+    final PendingRead read = pendingRead;
+    pendingRead = null;
+    try {
+      // buffers can't be released while being written to
+      read.future.join();
+    } catch (RuntimeException e) {
+      // already reported, or the read was abandoned
+    }
+    try {
+      read.reader.close();
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Returns the merged ranges of the given chunks that were not fetched yet and fit in the given number of bytes.
+   */
+  private List<Range> selectRanges(List<ColumnChunkMetaData> columns, long maxBytes) {
+    if (allocator == null) {
+      return Collections.emptyList();
+    }
+    final List<Range> chunkRanges = new ArrayList<>();
+    long budget = maxBytes;
+    for (ColumnChunkMetaData column : columns) {
+      if (column == null || chunks.containsKey(column.getStartingPos()) || column.getTotalSize() > budget
+          || column.getTotalSize() > Integer.MAX_VALUE) {
+        continue;
+      }
+      budget -= column.getTotalSize();
+      chunkRanges.add(new Range(column.getStartingPos(), column.getTotalSize()));
+    }
+    return coalesce(chunkRanges, maxGap, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Allocates a buffer per range, and accounts them in the buffer budget.
+   *
+   * @return the buffers, or null if there is nothing to fetch or not enough memory, in which case the chunks are
+   *         read with a stream per column
+   */
+  private Fetch allocate(List<Range> ranges) {
+    if (ranges.isEmpty()) {
+      return null;
+    }
+    final List<ArrowBuf> rangeBuffers = new ArrayList<>(ranges.size());
+    try {
+      for (Range range : ranges) {
+        rangeBuffers.add(allocator.buffer(range.length));
+      }
+    } catch (OutOfMemoryException e) {
+      AutoCloseables.close(RuntimeException.class, rangeBuffers);
+      return null;
+    }
+    final Fetch fetch = new Fetch(rangeBuffers, ranges.stream().mapToLong(Range::getLength).sum());
+    fetches.add(fetch);
+    bufferedBytes += fetch.bytes;
+    return fetch;
+  }
+
+  private void addChunks(List<Range> ranges, Fetch fetch) {
+    for (int i = 0; i < ranges.size(); i++) {
+      final Range range = ranges.get(i);
+      for (Range chunk : range.chunks) {
+        chunks.put(chunk.start, new Chunk(fetch.buffers.get(i).slice(chunk.start - range.start, chunk.length), fetch));
+        fetch.unreadChunks++;
+      }
+    }
+  }
+
+  private AsyncByteReader.FileKey fileKey() {
+    return AsyncByteReader.FileKey.of(path, Long.toString(mTime), AsyncByteReader.FileKey.FileType.PARQUET, dataset);
+  }
+
+  private void addStat(ScanOperator.Metric metric, long value) {
+    if (context != null && context.getStats() != null) {
+      context.getStats().addLongStat(metric, value);
+    }
+  }
+
+  private void fetch(List<Range> ranges, List<ArrowBuf> rangeBuffers) throws IOException {
+    if (fs.supportsAsync()) {
+      try (AsyncByteReader reader = fs.getAsyncByteReader(fileKey(), Collections.emptyMap())) {
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+          final Range range = ranges.get(i);
+          futures[i] = reader.readFully(range.start, NettyArrowBuf.unwrapBuffer(rangeBuffers.get(i)), 0, (int) range.length);
+        }
+        CompletableFuture.allOf(futures).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while reading " + path, e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new IOException("Failed to read " + path, e.getCause());
+      } catch (IOException | RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new IOException(e);
+      }
+      return;
+    }
+
+    try (SeekableInputStream is = Streams.wrap(fs.open(path))) {
+      for (int i = 0; i < ranges.size(); i++) {
+        final Range range = ranges.get(i);
+        final ByteBuffer buffer = rangeBuffers.get(i).nioBuffer(0, (int) range.length);
+        is.seek(range.start);
+        is.readFully(buffer);
+      }
+    }
+  }
+
+  @Override
+  public BulkInputStream getStream(ColumnChunkMetaData column) throws IOException {
+    awaitReadAhead();
+    final Chunk chunk = column != null ? chunks.get(column.getStartingPos()) : null;
+    if (chunk == null || chunk.buffer.capacity() != column.getTotalSize()) {
+      return super.getStream(column);
+    }
+    // each chunk is served once, so that its buffer can be released once read
+    chunks.remove(column.getStartingPos());
+
+    final ArrowBuf view = chunk.buffer.slice(0, chunk.buffer.capacity());
+    view.writerIndex(chunk.buffer.capacity());
+    view.getReferenceManager().retain();
+    final BulkInputStream stream = BulkInputStream.wrap(Streams.wrap(
+      new ChunkInputStream(new ArrowBufFSInputStream(view), column.getStartingPos(), chunk.fetch)));
+    streams.add(stream);
+    return stream;
+  }
+
+  @VisibleForTesting
+  long getBufferedBytes() {
+    return bufferedBytes;
+  }
+
+  @Override
+  public void close() throws IOException {
+    chunks.clear();
+    try {
+      if (pendingRead != null) {
+        closePendingRead();
+      }
+    } finally {
+      closeBuffers();
+    }
+  }
+
+  private void closeBuffers() throws IOException {
+    try {
+      // the streams first, as closing them may release their fetch
+      AutoCloseables.close(IOException.class, Iterables.<AutoCloseable>concat(streams, new ArrayList<>(fetches)));
+    } finally {
+      super.close();
+    }
+  }
+
+  /**
+   * Merges the ranges separated by at most maxGap bytes, as long as the merged range is not longer than maxLength.
+   */
+  @VisibleForTesting
+  static List<Range> coalesce(List<Range> ranges, long maxGap, long maxLength) {
+    final List<Range> sorted = new ArrayList<>(ranges);
+    sorted.sort(Comparator.comparingLong(r -> r.start));
+
+    final List<Range> merged = new ArrayList<>();
+    Range current = null;
+    for (Range range : sorted) {
+      if (current != null && range.start - current.end() <= maxGap && range.end() - current.start <= maxLength) {
+        current = new Range(current.start, Math.max(current.end(), range.end()) - current.start, current.chunks);
+        current.chunks.add(range);
+        merged.set(merged.size() - 1, current);
+      } else {
+        current = new Range(range.start, range.length, new ArrayList<>());
+        current.chunks.add(range);
+        merged.add(current);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * A range of bytes of the file, and the column chunks it holds once merged.
+   */
+  @VisibleForTesting
+  static final class Range {
+    private final long start;
+    private final long length;
+    private final List<Range> chunks;
+
+    Range(long start, long length) {
+      this(start, length, Collections.emptyList());
+    }
+
+    private Range(long start, long length, List<Range> chunks) {
+      this.start = start;
+      this.length = length;
+      this.chunks = chunks;
+    }
+
+    long getStart() {
+      return start;
+    }
+
+    long getLength() {
+      return length;
+    }
+
+    List<Range> getChunks() {
+      return chunks;
+    }
+
+    private long end() {
+      return start + length;
+    }
+  }
+
+  /**
+   * Ranges being read ahead in the background.
+   */
+  private static final class PendingRead {
+    private final List<Range> ranges;
+    private final Fetch fetch;
+    private final AsyncByteReader reader;
+    private final CompletableFuture<Void> future;
+
+    private PendingRead(List<Range> ranges, Fetch fetch, AsyncByteReader reader,
+                        CompletableFuture<Void> future) {
+      this.ranges = ranges;
+      this.fetch = fetch;
+      this.reader = reader;
+      this.future = future;
+    }
+  }
+
+  /**
+   * The buffers of the ranges fetched together, released once all their chunks have been read.
+   */
+  private final class Fetch implements AutoCloseable {
+    private final List<ArrowBuf> buffers;
+    private final long bytes;
+    private int unreadChunks;
+    private boolean closed;
+    // the read ahead budget the bytes are taken from, if read ahead
+    private ReadAheadBudget budget;
+
+    private Fetch(List<ArrowBuf> buffers, long bytes) {
+      this.buffers = buffers;
+      this.bytes = bytes;
+    }
+
+    private void reserve(ReadAheadBudget budget) {
+      this.budget = budget;
+      budget.reserve(bytes);
+    }
+
+    private void chunkRead() {
+      if (--unreadChunks == 0) {
+        close();
+      }
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      AutoCloseables.close(RuntimeException.class, buffers);
+      fetches.remove(this);
+      bufferedBytes -= bytes;
+      if (budget != null) {
+        budget.release(bytes);
+      }
+    }
+  }
+
+  /**
+   * A fetched column chunk, and the fetch holding its buffer.
+   */
+  private static final class Chunk {
+    private final ArrowBuf buffer;
+    private final Fetch fetch;
+
+    private Chunk(ArrowBuf buffer, Fetch fetch) {
+      this.buffer = buffer;
+      this.fetch = fetch;
+    }
+  }
+
+  /**
+   * Stream over a column chunk, addressed by position in the file. The chunk is released as soon as it has been read
+   * to its end, and can't be read anymore.
+   */
+  private static final class ChunkInputStream extends FilterFSInputStream {
+    private final long start;
+    private final Fetch fetch;
+    private boolean released;
+
+    private ChunkInputStream(FSInputStream in, long start, Fetch fetch) {
+      super(in);
+      this.start = start;
+      this.fetch = fetch;
+    }
+
+    @Override
+    public int read() throws IOException {
+      checkNotReleased();
+      final int read = super.read();
+      releaseIfRead();
+      return read;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException {
+      return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      checkNotReleased();
+      final int read = super.read(b, off, len);
+      releaseIfRead();
+      return read;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      checkNotReleased();
+      final int read = super.read(dst);
+      releaseIfRead();
+      return read;
+    }
+
+    @Override
+    public int read(long position, ByteBuffer dst) throws IOException {
+      checkNotReleased();
+      final int read = super.read(position - start, dst);
+      releaseIfRead();
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      checkNotReleased();
+      final long skipped = super.skip(n);
+      releaseIfRead();
+      return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+      release();
+    }
+
+    private void checkNotReleased() throws IOException {
+      if (released) {
+        throw new IOException(String.format("Column chunk at %d was already read", start));
+      }
+    }
+
+    private void releaseIfRead() throws IOException {
+      if (super.available() == 0) {
+        release();
+      }
+    }
+
+    private void release() throws IOException {
+      if (released) {
+        return;
+      }
+      released = true;
+      try {
+        super.close();
+      } finally {
+        fetch.chunkRead();
+      }
+    }
+
+    @Override
+    public long getPosition() throws IOException {
+      return start + super.getPosition();
+    }
+
+    @Override
+    public void setPosition(long position) throws IOException {
+      if (position < start) {
+        throw new IOException(String.format("Position %d is before the start %d of the column chunk", position, start));
+      }
+      super.setPosition(position - start);
+    }
+  }
+}
@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -42,6 +43,7 @@ import org.apache.parquet.hadoop.ColumnChunkIncReadStore;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
 import org.apache.parquet.io.ColumnIOFactory;
 import org.apache.parquet.io.EmptyRecordReader;
 import org.apache.parquet.io.InvalidRecordException;
@@ -60,9 +62,14 @@ import com.dremio.common.expression.SchemaPath;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.parquet.AbstractParquetReader;
 import com.dremio.exec.store.parquet.BigIntAutoIncrementer;
+import com.dremio.exec.store.parquet.ColumnIndexProvider;
 import com.dremio.exec.store.parquet.InputStreamProvider;
 import com.dremio.exec.store.parquet.MutableParquetMetadata;
+import com.dremio.exec.store.parquet.OffsetIndexProvider;
 import com.dremio.exec.store.parquet.ParquetColumnResolver;
+import com.dremio.exec.store.parquet.ParquetFilters;
+import com.dremio.exec.store.parquet.ParquetPageFilter;
+import com.dremio.exec.store.parquet.ParquetReaderStats;
 import com.dremio.exec.store.parquet.ParquetScanProjectedColumns;
 import com.dremio.exec.store.parquet.SchemaDerivationHelper;
 import com.dremio.exec.util.ColumnUtils;
@@ -70,6 +77,7 @@ import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.scan.OutputMutator;
+import com.dremio.sabot.op.scan.ScanOperator;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -111,12 +119,27 @@ public class ParquetRowiseReader extends AbstractParquetReader {
   private VectorizedBasedFilter vectorizedBasedFilter;
   private final BatchSchema tableSchema;
   private final BigIntAutoIncrementer rowIndexGenerator;
+  // pushed down filters, used to skip pages with the column indexes
+  private final ParquetFilters filters;
+  private final ParquetReaderStats readerStats = new ParquetReaderStats();
+  // row ranges imposed by the caller, to keep several readers of the same row group aligned
+  private RowRanges sharedRowRanges;
+  private OffsetIndexProvider sharedOffsetIndexProvider;
 
   public ParquetRowiseReader(OperatorContext context, MutableParquetMetadata footer, int rowGroupIndex, String path,
                              ParquetScanProjectedColumns projectedColumns, FileSystem fileSystem, SchemaDerivationHelper schemaHelper,
                              SimpleIntVector deltas, InputStreamProvider inputStreamProvider, CompressionCodecFactory codec,
                              boolean readEvenIfSchemaChanges, BatchSchema tableSchema) {
+    this(context, footer, rowGroupIndex, path, projectedColumns, fileSystem, schemaHelper, deltas, inputStreamProvider, codec,
+      readEvenIfSchemaChanges, tableSchema, ParquetFilters.NONE);
+  }
+
+  public ParquetRowiseReader(OperatorContext context, MutableParquetMetadata footer, int rowGroupIndex, String path,
+                             ParquetScanProjectedColumns projectedColumns, FileSystem fileSystem, SchemaDerivationHelper schemaHelper,
+                             SimpleIntVector deltas, InputStreamProvider inputStreamProvider, CompressionCodecFactory codec,
+                             boolean readEvenIfSchemaChanges, BatchSchema tableSchema, ParquetFilters filters) {
     super(context, projectedColumns.getBatchSchemaProjectedColumns(), deltas);
+    this.filters = filters;
     this.footer = footer;
     this.fileSystem = fileSystem;
     this.rowGroupIndex = rowGroupIndex;
@@ -299,18 +322,28 @@ public class ParquetRowiseReader extends AbstractParquetReader {
         for (ColumnChunkMetaData md : footer.getBlocks().get(rowGroupIndex).getColumns()) {
           paths.put(md.getPath(), md);
         }
+        final List<ColumnDescriptor> projectedDescriptors = new ArrayList<>();
+        final List<ColumnChunkMetaData> projectedChunks = new ArrayList<>();
         for (String[] path : projection.getPaths()) {
           Type type = schema.getType(path);
           if (type.isPrimitive()) {
-            ColumnChunkMetaData md = paths.get(ColumnPath.get(path));
-            pageReadStore.addColumn(schema.getColumnDescription(path), md);
+            projectedDescriptors.add(schema.getColumnDescription(path));
+            projectedChunks.add(paths.get(ColumnPath.get(path)));
           }
         }
+        setupPageSkipping(footer.getBlocks().get(rowGroupIndex), columnResolver, projectedDescriptors, projectedChunks);
+        if (!pageReadStore.getRowIndexes().isPresent()) {
+          // whole chunks are read when no page is skipped
+          inputStreamProvider.prefetch(projectedChunks, readerStats);
+        }
+        for (int i = 0; i < projectedDescriptors.size(); i++) {
+          pageReadStore.addColumn(projectedDescriptors.get(i), projectedChunks.get(i));
+        }
 
         ColumnIOFactory factory = new ColumnIOFactory(false);
         MessageColumnIO columnIO = factory.getColumnIO(projection, schema);
 
-        if (footer.getBlocks().get(rowGroupIndex).getRowCount() > 0) {
+        if (recordCount > 0) {
           if (deltas != null) {
             recordReader = columnIO.getRecordReader(pageReadStore, recordMaterializer, new UnboundRecordFilter() {
               @Override
@@ -332,6 +365,59 @@ public class ParquetRowiseReader extends AbstractParquetReader {
     }
   }
 
+  /**
+   * Restricts the read to the given row ranges of the row group, regardless of the filters of this reader. Used when
+   * several readers of a row group must return the same rows. All projected columns need an offset index.
+   */
+  public void setRowRanges(RowRanges rowRanges, OffsetIndexProvider offsetIndexProvider) {
+    this.sharedRowRanges = Preconditions.checkNotNull(rowRanges);
+    this.sharedOffsetIndexProvider = Preconditions.checkNotNull(offsetIndexProvider);
+  }
+
+  /**
+   * Restricts the read to the rows in pages that may match the pushed down filters, according to the column indexes.
+   * Rows are dropped, so this is only done when nothing relies on the row positions of the row group.
+   */
+  private void setupPageSkipping(BlockMetaData block, ParquetColumnResolver columnResolver,
+                                 List<ColumnDescriptor> projectedDescriptors, List<ColumnChunkMetaData> projectedChunks) {
+    if (sharedRowRanges != null) {
+      pageReadStore.setRowRanges(sharedRowRanges, sharedOffsetIndexProvider, readerStats);
+      recordCount = sharedRowRanges.rowCount();
+      return;
+    }
+    if (!filters.hasPushdownFilters() || deltas != null || rowIndexGenerator != null ||
+      projectedDescriptors.stream().anyMatch(d -> d.getMaxRepetitionLevel() > 0)) {
+      return;
+    }
+
+    // only read the indexes of the projected and filtered columns, the filters being on table column names
+    final Set<String> filteredColumns = filters.getPushdownFilters().stream()
+      .map(c -> columnResolver.getParquetColumnName(c.getPath().getRootSegment().getPath()))
+      .filter(Objects::nonNull)
+      .map(String::toLowerCase)
+      .collect(Collectors.toSet());
+    final List<ColumnChunkMetaData> indexedChunks = new ArrayList<>(projectedChunks);
+    for (ColumnChunkMetaData chunk : block.getColumns()) {
+      if (!projectedChunks.contains(chunk) && filteredColumns.contains(chunk.getPath().toArray()[0].toLowerCase())) {
+        indexedChunks.add(chunk);
+      }
+    }
+
+    final ColumnIndexProvider columnIndexProvider = inputStreamProvider.getColumnIndexProvider(indexedChunks);
+    final OffsetIndexProvider offsetIndexProvider = inputStreamProvider.getOffsetIndexProvider(indexedChunks);
+    final RowRanges rowRanges = ParquetPageFilter.getRowRanges(filters.getPushdownFilters(), schema, columnResolver,
+      block, columnIndexProvider, offsetIndexProvider);
+    if (rowRanges == null || rowRanges.rowCount() == block.getRowCount() ||
+      projectedChunks.stream().anyMatch(c -> c == null || offsetIndexProvider.getOffsetIndex(c) == null)) {
+      return;
+    }
+
+    logger.debug("Reading {} out of {} rows of row group {} in {}", rowRanges.rowCount(), block.getRowCount(),
+      rowGroupIndex, path);
+    pageReadStore.setRowRanges(rowRanges, offsetIndexProvider, readerStats);
+    recordCount = rowRanges.rowCount();
+  }
+
   private void setupRowIndexGenerator(OutputMutator output) {
     if (rowIndexGenerator == null) {
       return;
@@ -569,6 +655,20 @@ public class ParquetRowiseReader extends AbstractParquetReader {
 
   @Override
   public void close() {
+    if (readerStats.numPagesSkipped > 0 && context != null && context.getStats() != null) {
+      context.getStats().addLongStat(ScanOperator.Metric.NUM_PAGES_PRUNED, readerStats.numPagesSkipped);
+      context.getStats().addLongStat(ScanOperator.Metric.PAGE_PRUNED_BYTES, readerStats.totalPageSkippedBytes);
+      readerStats.numPagesSkipped = 0;
+      readerStats.totalPageSkippedBytes = 0;
+    }
+    if (readerStats.numVectoredReads > 0 && context != null && context.getStats() != null) {
+      context.getStats().addLongStat(ScanOperator.Metric.NUM_VECTORED_READS, readerStats.numVectoredReads);
+      context.getStats().addLongStat(ScanOperator.Metric.VECTORED_READ_BYTES, readerStats.totalVectoredReadBytes);
+      context.getStats().addLongStat(ScanOperator.Metric.VECTORED_OVER_READ_BYTES, readerStats.totalVectoredOverReadBytes);
+      readerStats.numVectoredReads = 0;
+      readerStats.totalVectoredReadBytes = 0;
+      readerStats.totalVectoredOverReadBytes = 0;
+    }
     try {
       if (pageReadStore != null) {
         pageReadStore.close();
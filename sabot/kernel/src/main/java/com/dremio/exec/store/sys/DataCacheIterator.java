@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.sys;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.server.SabotContext;
+import com.dremio.exec.store.dfs.FileSystemWrapper;
+import com.dremio.exec.store.dfs.cache.DataCache;
+import com.dremio.exec.store.dfs.cache.DataCacheFileSystemWrapper;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.google.common.collect.Iterators;
+
+/**
+ * Iterator that returns a {@link DataCacheInfo} for every dataset read through the data cache of this node.
+ */
+public class DataCacheIterator implements Iterator<Object> {
+
+  private final NodeEndpoint endpoint;
+  private final Iterator<DataCache.DatasetStats> iter;
+
+  public DataCacheIterator(final SabotContext dbContext, final OperatorContext context) {
+    this.endpoint = dbContext.getEndpoint();
+    final FileSystemWrapper wrapper = dbContext.getFileSystemWrapper();
+    final DataCache cache = wrapper.isWrapperFor(DataCacheFileSystemWrapper.class)
+        ? wrapper.unwrap(DataCacheFileSystemWrapper.class).getCache()
+        : null;
+    this.iter = cache == null
+        ? Collections.emptyIterator()
+        : Iterators.forArray(cache.getDatasetStats().toArray(new DataCache.DatasetStats[0]));
+  }
+
+  @Override
+  public boolean hasNext() {
+    return iter.hasNext();
+  }
+
+  @Override
+  public Object next() {
+    final DataCache.DatasetStats stats = iter.next();
+    final DataCacheInfo info = new DataCacheInfo();
+    info.node_id = endpoint.getAddress() + ":" + endpoint.getFabricPort();
+    info.hostname = endpoint.getAddress();
+    info.fabric_port = endpoint.getFabricPort();
+    info.dataset = stats.getDataset();
+    info.cached_bytes = stats.getCachedBytes();
+    info.hits = stats.getHits();
+    info.misses = stats.getMisses();
+    info.hit_bytes = stats.getHitBytes();
+    info.miss_bytes = stats.getMissBytes();
+    info.admissions = stats.getAdmissions();
+    info.rejections = stats.getRejections();
+    return info;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static class DataCacheInfo {
+    public String node_id;
+    public String hostname;
+    public long fabric_port;
+    public String dataset;
+    public long cached_bytes;
+    public long hits;
+    public long misses;
+    public long hit_bytes;
+    public long miss_bytes;
+    public long admissions;
+    public long rejections;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.sys;
+
+import java.util.Iterator;
+
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.server.SabotContext;
+import com.dremio.exec.store.parquet.ParquetFooterCache;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Iterator that returns a single {@link FooterCacheInfo} with the state of the parquet footer cache of this node.
+ */
+public class ParquetFooterCacheIterator implements Iterator<Object> {
+
+  private boolean beforeFirst = true;
+  private final SabotContext dbContext;
+
+  public ParquetFooterCacheIterator(final SabotContext dbContext, final OperatorContext context) {
+    this.dbContext = dbContext;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return beforeFirst;
+  }
+
+  @Override
+  public Object next() {
+    if (!beforeFirst) {
+      throw new IllegalStateException();
+    }
+    beforeFirst = false;
+    final FooterCacheInfo info = new FooterCacheInfo();
+
+    final NodeEndpoint endpoint = dbContext.getEndpoint();
+    info.node_id = endpoint.getAddress() + ":" + endpoint.getFabricPort();
+    info.hostname = endpoint.getAddress();
+    info.fabric_port = endpoint.getFabricPort();
+
+    final CacheStats stats = ParquetFooterCache.getStats();
+    info.entries = ParquetFooterCache.getEntries();
+    info.size_bytes = ParquetFooterCache.getSizeBytes();
+    info.max_size_bytes = ParquetFooterCache.getMaxSizeBytes();
+    info.hits = stats.hitCount();
+    info.misses = stats.missCount();
+    info.evictions = stats.evictionCount();
+    return info;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static class FooterCacheInfo {
+    public String node_id;
+    public String hostname;
+    public long fabric_port;
+    public long entries;
+    public long size_bytes;
+    public long max_size_bytes;
+    public long hits;
+    public long misses;
+    public long evictions;
+  }
+}
@@ -268,6 +268,20 @@ public enum SystemTable implements DatasetHandle, DatasetMetadata, PartitionChun
     public Iterator<?> getIterator(final SabotContext sContext, final OperatorContext context) {
       return sContext.getUserDefinedFunctionListManagerProvider().get().functionInfos().iterator();
     }
+  },
+
+  PARQUET_FOOTER_CACHE(true, ParquetFooterCacheIterator.FooterCacheInfo.class, "parquet_footer_cache") {
+    @Override
+    public Iterator<?> getIterator(final SabotContext sContext, final OperatorContext context) {
+      return new ParquetFooterCacheIterator(sContext, context);
+    }
+  },
+
+  DATA_CACHE(true, DataCacheIterator.DataCacheInfo.class, "data_cache") {
+    @Override
+    public Iterator<?> getIterator(final SabotContext sContext, final OperatorContext context) {
+      return new DataCacheIterator(sContext, context);
+    }
   }
   ;
 
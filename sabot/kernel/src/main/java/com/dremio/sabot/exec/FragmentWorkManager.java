@@ -42,6 +42,7 @@ import com.dremio.exec.server.BootStrapContext;
 import com.dremio.exec.server.SabotContext;
 import com.dremio.exec.service.executor.ExecutorServiceImpl;
 import com.dremio.exec.store.CatalogService;
+import com.dremio.exec.store.parquet.ParquetFooterCache;
 import com.dremio.exec.work.SafeExit;
 import com.dremio.exec.work.WorkStats;
 import com.dremio.options.OptionManager;
@@ -332,6 +333,7 @@ public class FragmentWorkManager implements Service, SafeExit {
 
     if (bitContext.isExecutor()) {
       heapLowMemController = SpillingOperatorHeapController.create();
+      ParquetFooterCache.configure(bitContext.getOptionManager());
     }
 
     final FragmentExecutorBuilder builder = new FragmentExecutorBuilder(
@@ -401,7 +403,8 @@ public class FragmentWorkManager implements Service, SafeExit {
 
     public ExecTunnel getTunnel(NodeEndpoint endpoint) {
       return this.options.getOption(ExecConstants.ENABLE_IN_PROCESS_TUNNEL) && isInProcessTarget(endpoint) ?
-        new InProcessExecTunnel(fragmentExecutors, allocator) :
+        new InProcessExecTunnel(fragmentExecutors, allocator,
+          this.options.getOption(ExecConstants.ENABLE_IN_PROCESS_TUNNEL_ZERO_COPY)) :
         new FabricExecTunnel(factory.getCommandRunner(endpoint.getAddress(), endpoint.getFabricPort()));
     }
 
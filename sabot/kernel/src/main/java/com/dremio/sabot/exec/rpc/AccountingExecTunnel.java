@@ -44,6 +44,13 @@ public class AccountingExecTunnel {
     this.statusHandler = statusHandler;
   }
 
+  /**
+   * @return true if the batches sent through this tunnel are handed to fragments running in this process
+   */
+  public boolean isInProcess() {
+    return tunnel instanceof InProcessExecTunnel;
+  }
+
   public void sendStreamComplete(FragmentStreamComplete streamComplete) {
     monitor.increment();
     tunnel.sendStreamComplete(statusHandler, streamComplete);
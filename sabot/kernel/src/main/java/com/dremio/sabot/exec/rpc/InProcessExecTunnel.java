@@ -16,6 +16,8 @@
 package com.dremio.sabot.exec.rpc;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 import org.apache.arrow.memory.ArrowBuf;
@@ -35,6 +37,7 @@ import com.dremio.sabot.exec.fragment.OutOfBandMessage;
 import com.google.common.base.Preconditions;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.NettyArrowBuf;
 
 /**
  * Optimised exec tunnel where both the sender & receiver are in the same process. Bypasses
@@ -44,10 +47,20 @@ public class InProcessExecTunnel implements ExecTunnel {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(InProcessExecTunnel.class);
   private final FragmentExecutors fragmentExecutors;
   private final BufferAllocator allocator;
+  private final boolean zeroCopy;
 
   public InProcessExecTunnel(FragmentExecutors fragmentExecutors, BufferAllocator allocator) {
+    this(fragmentExecutors, allocator, false);
+  }
+
+  /**
+   * @param zeroCopy if true, the buffers of the batches are handed over to the receiving fragments by transferring
+   *                 their ownership instead of being copied to a single body
+   */
+  public InProcessExecTunnel(FragmentExecutors fragmentExecutors, BufferAllocator allocator, boolean zeroCopy) {
     this.fragmentExecutors = fragmentExecutors;
     this.allocator = allocator;
+    this.zeroCopy = zeroCopy;
   }
 
   @Override
@@ -85,25 +98,28 @@ public class InProcessExecTunnel implements ExecTunnel {
       .setRecvEpochTimestamp(System.currentTimeMillis())
       .build();
 
-    long dataBufLen = batch.getByteCount();
-    try (ArrowBuf dBodyBuf = allocator.buffer(dataBufLen)) {
-      // copy from all buffers to the single buf.
-      // TODO: avoid this copy
-      long offset = 0;
-      for (final ByteBuf byteBuf : batch.getBuffers()) {
-        int count = byteBuf.readableBytes();
-        dBodyBuf.setBytes(offset, byteBuf.nioBuffer());
-        offset += count;
+    try {
+      if (zeroCopy) {
+        // hand the buffers of the sender over as they are, the receivers take ownership of them when the batch is
+        // transferred to their allocators and the references of the sender are released below.
+        final List<ArrowBuf> buffers = new ArrayList<>(batch.getBuffers().length);
+        for (final ByteBuf byteBuf : batch.getBuffers()) {
+          buffers.add(((NettyArrowBuf) byteBuf).arrowBuf());
+        }
+        submitToFragments(new IncomingDataBatch(header, buffers, ack));
+      } else {
+        long dataBufLen = batch.getByteCount();
+        try (ArrowBuf dBodyBuf = allocator.buffer(dataBufLen)) {
+          // copy from all buffers to the single buf.
+          long offset = 0;
+          for (final ByteBuf byteBuf : batch.getBuffers()) {
+            int count = byteBuf.readableBytes();
+            dBodyBuf.setBytes(offset, byteBuf.nioBuffer());
+            offset += count;
+          }
+          submitToFragments(new IncomingDataBatch(header, dBodyBuf, ack));
+        }
       }
-      final IncomingDataBatch incomingBatch = new IncomingDataBatch(header, dBodyBuf, ack);
-      final int targetCount = header.getReceivingMinorFragmentIdCount();
-
-      // randomize who gets first transfer (and thus ownership) so memory usage
-      // is balanced when we're sharing amongst
-      // multiple fragments.
-      final int firstOwner = ThreadLocalRandom.current().nextInt(targetCount);
-      submitToFragments(incomingBatch, firstOwner, targetCount);
-      submitToFragments(incomingBatch, 0, firstOwner);
 
       // decrement the extra reference we grabbed at the top.
       ack.sendOk();
@@ -122,6 +138,17 @@ public class InProcessExecTunnel implements ExecTunnel {
     }
   }
 
+  private void submitToFragments(IncomingDataBatch incomingBatch) throws FragmentSetupException, IOException {
+    final int targetCount = incomingBatch.getHeader().getReceivingMinorFragmentIdCount();
+
+    // randomize who gets first transfer (and thus ownership) so memory usage
+    // is balanced when we're sharing amongst
+    // multiple fragments.
+    final int firstOwner = ThreadLocalRandom.current().nextInt(targetCount);
+    submitToFragments(incomingBatch, firstOwner, targetCount);
+    submitToFragments(incomingBatch, 0, firstOwner);
+  }
+
   private void submitToFragments(IncomingDataBatch incomingBatch, int minorStart, int minorStopExclusive)
     throws FragmentSetupException, IOException {
     ExecRPC.FragmentRecordBatch header = incomingBatch.getHeader();
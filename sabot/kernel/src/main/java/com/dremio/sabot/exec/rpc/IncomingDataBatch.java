@@ -15,8 +15,15 @@
  */
 package com.dremio.sabot.exec.rpc;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.ReferenceManager;
 import org.apache.arrow.memory.util.LargeMemoryUtil;
 
 import com.dremio.common.memory.AllocatorUtil;
@@ -32,6 +39,7 @@ public class IncomingDataBatch {
 
   private final FragmentRecordBatch header;
   private final ArrowBuf body;
+  private final List<ArrowBuf> buffers;
   private final AckSenderImpl sender;
 
   /**
@@ -49,6 +57,28 @@ public class IncomingDataBatch {
     Preconditions.checkNotNull(sender);
     this.header = header;
     this.body = body;
+    this.buffers = null;
+    this.sender = sender;
+  }
+
+  /**
+   * Create a new batch that hands over the buffers of a sender in the same process without copying them.
+   * Does not impact reference counts of the buffers.
+   *
+   * @param header
+   *          Batch header
+   * @param buffers
+   *          Data buffers, in the order described by the header.
+   * @param sender
+   *          AckSender to use for underlying RawFragmentBatches.
+   */
+  public IncomingDataBatch(FragmentRecordBatch header, List<ArrowBuf> buffers, AckSenderImpl sender) {
+    Preconditions.checkNotNull(header);
+    Preconditions.checkNotNull(buffers);
+    Preconditions.checkNotNull(sender);
+    this.header = header;
+    this.body = null;
+    this.buffers = buffers;
     this.sender = sender;
   }
 
@@ -61,6 +91,14 @@ public class IncomingDataBatch {
    * @return The newly created RawFragmentBatch
    */
   public RawFragmentBatch newRawFragmentBatch(final BufferAllocator allocator) {
+    if (buffers != null) {
+      final List<ArrowBuf> transferredBuffers = new ArrayList<>(buffers.size());
+      for (ArrowBuf buf : buffers) {
+        transferredBuffers.add(buf.getReferenceManager().transferOwnership(buf, allocator).getTransferredBuffer());
+      }
+      sender.increment();
+      return new RawFragmentBatch(header, transferredBuffers, sender);
+    }
     final ArrowBuf transferredBuffer = body == null ? null : body.getReferenceManager()
       .transferOwnership(body, allocator)
       .getTransferredBuffer();
@@ -83,6 +121,17 @@ public class IncomingDataBatch {
   }
 
   public int size() {
+    if (buffers != null) {
+      // several buffers can be slices of the same allocation, count each allocation once.
+      final Set<ReferenceManager> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+      long size = 0;
+      for (ArrowBuf buf : buffers) {
+        if (seen.add(buf.getReferenceManager())) {
+          size += buf.getPossibleMemoryConsumed();
+        }
+      }
+      return LargeMemoryUtil.checkedCastToInt(size);
+    }
     if (body == null){
       return 0;
     }
@@ -90,6 +90,11 @@ public class HashAggStats {
     OOB_DROP_NO_VICTIM, // Number of times OOB dropped spilling notification as all allocations were minimal.
     OOB_SPILL, // Spill was done due to oob.
     OOB_DROP_ALREADY_SPILLING, // Number of times operator dropped spilling notification as it was already spilling
+    SPILL_IO_BYTES_WRITTEN,    /* bytes written to spill files after compression */
+    SPILL_COMPRESSION_NANOS,   /* time spent compressing spilled data */
+    SPILL_DECOMPRESSION_NANOS, /* time spent decompressing spilled data */
+    PREAGG_BYPASS_FLUSHES,     /* number of times a phase-1 agg flushed its hash table early due to poor reduction */
+    PREAGG_BYPASS_RECORDS,     /* number of input records consumed in windows that were flushed early */
     ;
 
     private final DisplayType displayType;
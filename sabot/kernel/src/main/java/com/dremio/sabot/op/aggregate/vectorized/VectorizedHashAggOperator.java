@@ -189,6 +189,11 @@ import io.netty.util.internal.PlatformDependent;
  * We will be in this state as long as there are batches to spill from the
  * victim partition.
  *
+ * FLUSH_INMEMORY_PARTITIONS -- only for the first phase of a two phase aggregation.
+ * When the hash table is not reducing the input by much, the operator outputs all
+ * in-memory partitions before the input is over, resets them and goes back to
+ * consuming. The downstream aggregation merges the partial results.
+ *
  * FORCE_SPILL_INMEMORY_DATA -- when we finish an iteration and have spilled
  * some partitions, it is quite possible that some/all of the spilled partitions
  * have data in memory (the data that was inserted into the inmemory portion
@@ -377,6 +382,16 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   public static final BooleanValidator OOB_SPILL_TRIGGER_ENABLED = new BooleanValidator("exec.operator.aggregate.vectorize.oob_trigger_enabled", true);
   public final boolean oobSpillNotificationsEnabled;
   public static final BooleanValidator VECTORIZED_HASHAGG_ENABLE_MICRO_SPILLS = new BooleanValidator("exec.operator.aggregate.vectorize.enable_micro_spills", true);
+  /* compress spilled partitions with the codec chosen by exec.spill.compression.codec */
+  public static final BooleanValidator VECTORIZED_HASHAGG_COMPRESS_SPILL = new BooleanValidator("exec.operator.aggregate.vectorize.compress_spill", false);
+  /*
+   * Phase-1 (pre-exchange) aggregation bypass: every window of input records, compare the number of new groups
+   * with the number of records. If the reduction is below the minimum, flush the hash table to the sender instead
+   * of growing (and eventually spilling) it. Aggregation resumes as usual once a window reduces well again.
+   */
+  public static final BooleanValidator VECTORIZED_HASHAGG_PREAGG_BYPASS = new BooleanValidator("exec.operator.aggregate.vectorize.preagg_bypass.enabled", false);
+  public static final PositiveLongValidator VECTORIZED_HASHAGG_PREAGG_BYPASS_WINDOW = new PositiveLongValidator("exec.operator.aggregate.vectorize.preagg_bypass.window_records", Integer.MAX_VALUE, 128 * 1024);
+  public static final DoubleValidator VECTORIZED_HASHAGG_PREAGG_BYPASS_MIN_REDUCTION = new RangeDoubleValidator("exec.operator.aggregate.vectorize.preagg_bypass.min_reduction", 0.0d, 1.0d, 0.2d);
   /*
    * If variable column records size is much larger then default (15) size, let the vector created for new batches
    * can go up to 1M (256 * 4K). Config option can be used to reduce, if really needed.
@@ -487,6 +502,16 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   private int chunkOffsetMask;
   private long reservedPreallocation;
 
+  /* phase-1 aggregation bypass */
+  private final boolean preAggBypassEnabled;
+  private final long preAggBypassWindow;
+  private final double preAggBypassMinReduction;
+  private boolean preAggBypassing;
+  private long preAggWindowRecords;
+  private int preAggWindowStartGroups;
+  private long preAggBypassFlushes;
+  private long preAggBypassRecords;
+
   public static final String OUT_OF_MEMORY_MSG = "Vectorized Hash Agg ran out of memory";
 
   public static final String PREALLOC_FAILURE_PARTITIONS = "Error: Failed to preallocate minimum memory in vectorized hashagg for single batch in all partitions";
@@ -544,6 +569,9 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     this.operatorStateBeforeOOB = null;
     this.forceSpillState = null;
     this.maxFieldSizeBytes =  Math.toIntExact(context.getOptions().getOption(ExecConstants.LIMIT_FIELD_SIZE_BYTES));
+    this.preAggBypassEnabled = popConfig.isPartialAggregation() && options.getOption(VECTORIZED_HASHAGG_PREAGG_BYPASS);
+    this.preAggBypassWindow = options.getOption(VECTORIZED_HASHAGG_PREAGG_BYPASS_WINDOW);
+    this.preAggBypassMinReduction = options.getOption(VECTORIZED_HASHAGG_PREAGG_BYPASS_MIN_REDUCTION);
     logger.debug("partitions:{}, min-hashtable-size:{}, max-hashtable-batch-size:{} variable-width-key-size:{}",
       numPartitions, minHashTableSize, maxHashTableBatchSize, estimatedVariableWidthKeySize);
   }
@@ -1001,6 +1029,49 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
       VariableLengthValidator.validateVariable(v, records);
     }
     consumeDataHelper(records);
+    if (preAggBypassEnabled) {
+      checkPreAggReduction(records);
+    }
+  }
+
+  /**
+   * For the first phase of a two phase aggregation, check how much the hash table
+   * reduced the input over the last window of records. If the reduction is poor,
+   * flush all in-memory partitions downstream right away rather than keep growing
+   * a hash table that mostly holds single-row groups.
+   *
+   * Only used as long as nothing has been spilled, spilled partitions are left to
+   * the regular spill path.
+   *
+   * @param records number of records consumed in the last batch
+   */
+  private void checkPreAggReduction(final int records) {
+    preAggWindowRecords += records;
+    if (state != State.CAN_CONSUME || preAggWindowRecords < preAggBypassWindow
+      || partitionSpillHandler.getNumberOfSpills() > 0) {
+      return;
+    }
+
+    final int hashTableSize = getHashTableSize();
+    final double reduction = 1.0d - ((double) (hashTableSize - preAggWindowStartGroups) / preAggWindowRecords);
+    if (reduction < preAggBypassMinReduction) {
+      if (!preAggBypassing) {
+        logger.debug("Pre-aggregation reduced {} records by {}, flushing hash table early", preAggWindowRecords, reduction);
+      }
+      preAggBypassing = true;
+      preAggBypassFlushes++;
+      preAggBypassRecords += preAggWindowRecords;
+      preAggWindowStartGroups = 0;
+      state = State.CAN_PRODUCE;
+      internalStateMachine = InternalState.FLUSH_INMEMORY_PARTITIONS;
+    } else {
+      if (preAggBypassing) {
+        logger.debug("Pre-aggregation reduced {} records by {}, resuming aggregation", preAggWindowRecords, reduction);
+      }
+      preAggBypassing = false;
+      preAggWindowStartGroups = hashTableSize;
+    }
+    preAggWindowRecords = 0;
   }
 
   /**
@@ -2126,6 +2197,11 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     stats.setLongStat(Metric.RECURSION_DEPTH, computeRecursionDepth());
     stats.setLongStat(Metric.TOTAL_SPILLED_DATA_SIZE, partitionSpillHandler.getTotalSpilledDataSize());
     stats.setLongStat(Metric.MAX_SPILLED_DATA_SIZE, partitionSpillHandler.getMaxSpilledDataSize());
+    stats.setLongStat(Metric.SPILL_IO_BYTES_WRITTEN, partitionSpillHandler.getSpillIOBytesWritten());
+    stats.setLongStat(Metric.SPILL_COMPRESSION_NANOS, partitionSpillHandler.getSpillCompressionNanos());
+    stats.setLongStat(Metric.SPILL_DECOMPRESSION_NANOS, partitionSpillHandler.getSpillDecompressionNanos());
+    stats.setLongStat(Metric.PREAGG_BYPASS_FLUSHES, preAggBypassFlushes);
+    stats.setLongStat(Metric.PREAGG_BYPASS_RECORDS, preAggBypassRecords);
 
     stats.setLongStat(Metric.OOB_SENDS, oobSends);
     stats.setLongStat(Metric.OOB_RECEIVES, oobReceives);
@@ -2498,6 +2574,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
         forceSpillInmemoryData();
         break;
       case OUTPUT_INMEMORY_PARTITIONS:
+      case FLUSH_INMEMORY_PARTITIONS:
         records = outputPartitions();
         break;
       case TRANSITION_PARTITION_SPILL_STATE:
@@ -2538,7 +2615,13 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   private int outputPartitions() throws Exception {
 
     if (outputPartitionIndex == numPartitions) {
-      postOutputProcessing();
+      if (internalStateMachine == InternalState.FLUSH_INMEMORY_PARTITIONS) {
+        /* early flush is done, all partitions have been reset, continue with the input */
+        state = State.CAN_CONSUME;
+        internalStateMachine = InternalState.NONE;
+      } else {
+        postOutputProcessing();
+      }
       outputPartitionIndex = 0;
       return 0;
     }
@@ -2775,6 +2858,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   enum InternalState {
     NONE,
     OUTPUT_INMEMORY_PARTITIONS,
+    FLUSH_INMEMORY_PARTITIONS,
     PROCESS_SPILLED_PARTITION,
     TRANSITION_PARTITION_SPILL_STATE,
     SPILL_NEXT_BATCH,
@@ -39,6 +39,7 @@ import com.dremio.sabot.op.common.ht2.LBlockHashTable;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
+import com.google.common.io.ByteStreams;
 
 import io.netty.util.internal.PlatformDependent;
 
@@ -162,8 +163,12 @@ public class VectorizedHashAggPartitionSerializable extends AbstractStreamSerial
 
     /* STEP 3: read info on types of accumulators -- sum, min, max etc */
     final byte[] accumulatorTypes = partitionToLoadSpilledData.getAccumulatorTypes();
-    Preconditions.checkArgument(input.read(accumulatorTypes, 0, numAccumulators) == numAccumulators,
-      "ERROR: read incorrect length of accumulator types");
+    /* a compressed spill stream may return fewer bytes than requested, so read fully */
+    try {
+      ByteStreams.readFully(input, accumulatorTypes, 0, numAccumulators);
+    } catch (EOFException e) {
+      throw new IllegalArgumentException("ERROR: read incorrect length of accumulator types", e);
+    }
 
     /* STEP 4: read metadata for accumulator vectors */
     final UserBitShared.RecordBatchDef accumulatorBatchDef;
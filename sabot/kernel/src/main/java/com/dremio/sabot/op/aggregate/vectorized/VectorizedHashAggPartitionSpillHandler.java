@@ -23,9 +23,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 
-import org.apache.hadoop.fs.FSDataInputStream;
-import org.apache.hadoop.fs.FSDataOutputStream;
-
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.common.exceptions.UserException;
@@ -36,6 +33,8 @@ import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.sort.external.SpillManager;
 import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillInputStream;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillOutputStream;
 import com.dremio.service.spill.SpillService;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -114,6 +113,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
   private VectorizedHashAggPartitionSerializable inProgressSpill;
   private final OperatorStats operatorStats;
   private final long warnMaxSpillTime;
+  private final boolean compressSpill;
 
   public VectorizedHashAggPartitionSpillHandler(
     final VectorizedHashAggPartition[] hashAggPartitions,
@@ -150,6 +150,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
     this.inProgressSpill = null;
     this.operatorStats = stats;
     this.warnMaxSpillTime = optionManager.getOption(ExecConstants.SPILL_IO_WARN_MAX_RUNTIME_MS);
+    this.compressSpill = optionManager.getOption(VectorizedHashAggOperator.VECTORIZED_HASHAGG_COMPRESS_SPILL);
   }
 
   /**
@@ -413,7 +414,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
     final boolean isPartitionSpilled = victimPartition.isSpilled();
     final SpillFileHandle spillFileHandle = getSpillFileHandle(victimPartition);
     final SpillFile partitionSpillFile = spillFileHandle.partitionSpillFile;
-    final FSDataOutputStream partitionSpillFileStream = spillFileHandle.partitionSpillFileStream;
+    final SpillOutputStream partitionSpillFileStream = spillFileHandle.partitionSpillFileStream;
 
     final VectorizedHashAggPartitionSerializable partitionSerializable = new VectorizedHashAggPartitionSerializable(victimPartition,
       this.operatorStats, this.warnMaxSpillTime);
@@ -456,7 +457,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
    */
   private void updatePartitionSpillState(final VectorizedHashAggPartition victimPartition,
                                          final SpillFile partitionSpillFile,
-                                         final FSDataOutputStream partitionSpillFileStream,
+                                         final SpillOutputStream partitionSpillFileStream,
                                          final long batchesSpilled) {
     final boolean isPartitionSpilled = victimPartition.isSpilled();
     VectorizedHashAggDiskPartition partitionSpillInfo = victimPartition.getSpillInfo();
@@ -483,8 +484,8 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
    */
   private static class SpillFileHandle {
     private final SpillFile partitionSpillFile;
-    private final FSDataOutputStream partitionSpillFileStream;
-    SpillFileHandle(final SpillFile partitionSpillFile, final FSDataOutputStream partitionSpillFileStream) {
+    private final SpillOutputStream partitionSpillFileStream;
+    SpillFileHandle(final SpillFile partitionSpillFile, final SpillOutputStream partitionSpillFileStream) {
       this.partitionSpillFile = partitionSpillFile;
       this.partitionSpillFileStream = partitionSpillFileStream;
     }
@@ -499,7 +500,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
     final boolean isPartitionSpilled = victimPartition.isSpilled();
     VectorizedHashAggDiskPartition partitionSpillInfo = victimPartition.getSpillInfo();
     SpillFile partitionSpillFile;
-    FSDataOutputStream partitionSpillFileStream;
+    SpillOutputStream partitionSpillFileStream;
 
     Preconditions.checkState((isPartitionSpilled && partitionSpillInfo != null) ||
                                (!isPartitionSpilled && partitionSpillInfo == null), "Error: Detected invalid spill state of hash agg partition");
@@ -508,7 +509,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
       /* get a brand new spill file as the partition is being spilled for the first time */
       partitionSpillFile = spillManager.getSpillFile(victimPartition.getIdentifier());
       try {
-        partitionSpillFileStream = partitionSpillFile.create();
+        partitionSpillFileStream = partitionSpillFile.create(compressSpill);
       } catch (Exception e) {
         final UserException.Builder builder = UserException.resourceError(e)
           .addContext("Failed to create output stream for spill file")
@@ -536,7 +537,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
   boolean spillSingleBatchFromPartition(final VectorizedHashAggPartition victimPartition) throws Exception {
     final SpillFileHandle spillFileHandle = getSpillFileHandle(victimPartition);
     final SpillFile partitionSpillFile = spillFileHandle.partitionSpillFile;
-    final FSDataOutputStream partitionSpillFileStream = spillFileHandle.partitionSpillFileStream;
+    final SpillOutputStream partitionSpillFileStream = spillFileHandle.partitionSpillFileStream;
 
     if (inProgressSpill == null) {
       inProgressSpill = new VectorizedHashAggPartitionSerializable(victimPartition, this.operatorStats,
@@ -664,6 +665,30 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
     return totalSpilledDataSize;
   }
 
+  /**
+   * Get the number of bytes written to spill files, after compression
+   * when spill compression is enabled. Only includes closed spill files.
+   *
+   * @return bytes written to disk
+   */
+  long getSpillIOBytesWritten() {
+    return spillManager.getIOWriteBytes();
+  }
+
+  /**
+   * @return time (in nanoseconds) spent compressing spilled data
+   */
+  long getSpillCompressionNanos() {
+    return spillManager.getCompressionNanos();
+  }
+
+  /**
+   * @return time (in nanoseconds) spent decompressing spilled data
+   */
+  long getSpillDecompressionNanos() {
+    return spillManager.getDecompressionNanos();
+  }
+
   /**
    * Get the number of spilled partitions in the current iteration
    * of aggregation algorithm -- active and spilled
@@ -814,7 +839,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
       final SpillFile partitionSpillFile = partitionToSpill.getSpillFile();
       final VectorizedHashAggPartitionSerializable partitionSerializable = new VectorizedHashAggPartitionSerializable(inmemoryPartition,
         this.operatorStats, this.warnMaxSpillTime);
-      FSDataOutputStream outputStream = partitionToSpill.getSpillStream();
+      SpillOutputStream outputStream = partitionToSpill.getSpillStream();
       /* write the partition to disk */
       partitionSerializable.writeToStream(outputStream);
       /* track number of spills */
@@ -846,7 +871,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
    */
   public class SpilledPartitionIterator implements AutoCloseable {
     private final long batchCount;
-    private final FSDataInputStream inputStream;
+    private final SpillInputStream inputStream;
     private final VectorizedHashAggDiskPartition diskPartition;
     private int currentBatchIndex;
     private final OperatorStats operatorStats;
@@ -857,7 +882,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
         "Error: Partition does not have any batches spilled to disk. Not allowed to create a disk iterator");
       this.batchCount = spilledPartition.getNumberOfBatches();
       final SpillFile partitionSpillFile = spilledPartition.getSpillFile();
-      this.inputStream = partitionSpillFile.open();
+      this.inputStream = partitionSpillFile.open(compressSpill);
       this.diskPartition = spilledPartition;
       this.currentBatchIndex = 0;
       this.operatorStats = stats;
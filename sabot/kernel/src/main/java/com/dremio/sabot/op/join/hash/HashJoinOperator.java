@@ -83,6 +83,8 @@ public class HashJoinOperator implements DualInputOperator {
   // heap footprint (ArrowBuf/ValueVector).
   public static final PositiveLongValidator PAGE_SIZE =
     new TypeValidators.PositiveLongValidator("exec.op.join.spill.page_size", 1 * 1024 * 1024, 256 * 1024);
+  // Read the build files of the next spilled partition in the background while the current one is replayed.
+  public static final BooleanValidator REPLAY_READ_AHEAD = new BooleanValidator("exec.op.join.spill.replay_read_ahead", false);
 
   // For unit tests, always use with DEBUG flag only.
   public static final StringValidator TEST_SPILL_MODE = new StringValidator("exec.op.join.spill.test_spill_mode", "none");
@@ -89,7 +89,11 @@ public class HashJoinStats {
     OOB_DROP_NO_VICTIM, /* number of oob messages dropped because a victim partition wasn't found */
     OOB_DROP_LOCAL, /* number of self sent oob messages ignored */
     OOB_DROP_WRONG_STATE, /* number of oob messages dropped because it was not in build phase */
-    OOB_SPILL; /* number of spills performed */
+    OOB_SPILL, /* number of spills performed */
+    SPILL_RD_AHEAD_BYTES, /* bytes of spilled build files read ahead of their replay */
+    SPILL_WR_IO_BYTES, /* bytes written to spill files, after compression */
+    SPILL_COMPRESSION_NANOS, /* time spent compressing spilled data */
+    SPILL_DECOMPRESSION_NANOS; /* time spent decompressing spilled data */
 
     private final UserBitShared.MetricDef.DisplayType displayType;
     private final UserBitShared.MetricDef.AggregationType aggregationType;
@@ -68,6 +68,29 @@ public class RuntimeFilterUtil {
     return (int) operatorContext.getOptions().getOption(RUNTIME_FILTER_KEY_MAX_SIZE);
   }
 
+  /**
+   * Computes the size of the partition column bloom filter.
+   *
+   * For broadcast joins each fragment sends its own filter, so the locally known number of build keys is used when
+   * available. Shuffle join pieces are merged and must share a size, so they are sized from the planner's build key
+   * NDV estimate, which is the same in every fragment. Twice the estimate is reserved to absorb estimation errors;
+   * filters that still end up crossing the max FPP are dropped when sent.
+   *
+   * @param localKeyCount number of distinct build keys in this fragment, or -1 if not known yet
+   */
+  public static long getBloomFilterSize(OperatorContext operatorContext, RuntimeFilterInfo runtimeFilterInfo,
+                                        long localKeyCount) {
+    if (runtimeFilterInfo.isBroadcastJoin() && localKeyCount >= 0) {
+      return Math.min(BloomFilter.getOptimalSize(Math.max(1L, localKeyCount)), PartitionColFilters.BLOOMFILTER_MAX_SIZE);
+    }
+    final long ndvEstimate = runtimeFilterInfo.getBuildKeyNdvEstimate();
+    if (operatorContext.getOptions().getOption(ExecConstants.RUNTIME_FILTER_NDV_SIZING) && ndvEstimate > 0) {
+      final long expectedInsertions = ndvEstimate > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : ndvEstimate * 2;
+      return Math.min(BloomFilter.getOptimalSize(expectedInsertions), PartitionColFilters.BLOOMFILTER_MAX_SIZE);
+    }
+    return PartitionColFilters.BLOOMFILTER_MAX_SIZE;
+  }
+
   public static boolean shouldFragBuildRuntimeFilters(RuntimeFilterInfo runtimeFilterInfo, int minorFragment) {
     /*
      * a. For partitioned columns, a consolidated bloomfilter made on composite build keys.
@@ -173,12 +196,15 @@ public class RuntimeFilterUtil {
 
       long numberOfValuesInBloomFilter = partitionColFilter.isPresent() ? partitionColFilter.get().getNumBitsSet() : 0;
       int numberOfHashFunctions = partitionColFilter.isPresent() ? partitionColFilter.get().getNumHashFunctions() : 0;
+      double expectedFpp = partitionColFilter.map(BloomFilter::getExpectedFPP).orElse(0D);
       addRunTimeFilterInfosToProfileDetails(operatorContext,
         prepareRunTimeFilterDetailsInfos(probeTarget, runtimeFilter,
-          numberOfValuesInBloomFilter, numberOfHashFunctions));
+          numberOfValuesInBloomFilter, numberOfHashFunctions, expectedFpp));
     } else if (fmEntry != null && fmEntry.isComplete() && !fmEntry.isDropped()) {
       // All other filter pieces have already arrived. This one was last one to join.
       // Send merged filter to probe scan and close this individual piece explicitly.
+      // Capture the merged filter's FPP before the entry is removed, as that is what the probe scan applies.
+      double expectedFpp = fmEntry.getPartitionColFilter() != null ? fmEntry.getPartitionColFilter().getExpectedFPP() : 0D;
       sendRuntimeFilterToProbeScan(fmEntry.getCompositeFilter(), Optional.ofNullable(fmEntry.getPartitionColFilter()),
         fmEntry.getNonPartitionColFilters(), operatorContext, hashJoinConfig);
       runtimeFilterManager.remove(fmEntry);
@@ -187,7 +213,7 @@ public class RuntimeFilterUtil {
       int numberOfHashFunctions = partitionColFilter.isPresent() ? partitionColFilter.get().getNumHashFunctions() : 0;
       addRunTimeFilterInfosToProfileDetails(operatorContext,
         prepareRunTimeFilterDetailsInfos(probeTarget, runtimeFilter,
-          numberOfValuesInBloomFilter, numberOfHashFunctions));
+          numberOfValuesInBloomFilter, numberOfHashFunctions, expectedFpp));
     } else {
       // Send filter to merge points (minor fragments <= 2) if not complete.
       sendRuntimeFilterAtMergePoints(runtimeFilter, partitionColFilter, nonPartitionColFilters,
@@ -196,7 +222,8 @@ public class RuntimeFilterUtil {
   }
 
   public static List<UserBitShared.RunTimeFilterDetailsInfo> prepareRunTimeFilterDetailsInfos(
-    RuntimeFilterProbeTarget probeTarget, RuntimeFilter runtimeFilter, long numberOfValuesInBloomFilter, int numberOfHashFuntions) {
+    RuntimeFilterProbeTarget probeTarget, RuntimeFilter runtimeFilter, long numberOfValuesInBloomFilter, int numberOfHashFuntions,
+    double expectedFpp) {
     List<UserBitShared.RunTimeFilterDetailsInfo> runTimeFilterDetailsInfos = new ArrayList<>();
     String probeTargetScanId = String.format("%02d-%02d", probeTarget.getProbeScanMajorFragmentId(), probeTarget.getProbeScanOperatorId() & 0xFF);
     if (!probeTarget.getPartitionProbeTableKeys().isEmpty()) {
@@ -207,6 +234,7 @@ public class RuntimeFilterUtil {
         .setIsPartitionedCoulmn(true)
         .setNumberOfValues(numberOfValuesInBloomFilter)
         .setNumberOfHashFunctions(numberOfHashFuntions)
+        .setExpectedFpp(expectedFpp)
         .build();
       runTimeFilterDetailsInfos.add(runTimeFilterDetailsInfo);
     }
@@ -15,8 +15,6 @@
  */
 package com.dremio.sabot.op.join.vhash;
 
-import static com.dremio.sabot.op.join.vhash.PartitionColFilters.BLOOMFILTER_MAX_SIZE;
-
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
@@ -46,7 +44,6 @@ import com.dremio.exec.record.ExpandableHyperContainer;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
-import com.dremio.exec.util.BloomFilter;
 import com.dremio.exec.util.RuntimeFilterManager;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
@@ -647,8 +644,7 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
 
   @VisibleForTesting
   public PartitionColFilters createPartitionColFilters() {
-    final long bloomFilterSize = config.getRuntimeFilterInfo().isBroadcastJoin() ?
-      Math.min(BloomFilter.getOptimalSize(table.size()), BLOOMFILTER_MAX_SIZE) : BLOOMFILTER_MAX_SIZE;
+    final long bloomFilterSize = RuntimeFilterUtil.getBloomFilterSize(context, config.getRuntimeFilterInfo(), table.size());
     final int maxKeySize = RuntimeFilterUtil.getRuntimeFilterKeyMaxSize(context);
 
     return new PartitionColFilters(context.getAllocator(), config.getRuntimeFilterInfo().getRuntimeFilterProbeTargets(),
@@ -39,6 +39,7 @@ public class SpillStats {
   private long readProbeBatches;
   private long readProbeBatchesMerged;
   private long readNanos;
+  private long readAheadBytes;
   private int oobSends;
 
   public long getSpillCount() {
@@ -193,6 +194,14 @@ public class SpillStats {
     this.readProbeBatchesMerged += readProbeBatchesMerged;
   }
 
+  public long getReadAheadBytes() {
+    return readAheadBytes;
+  }
+
+  public void addReadAheadBytes(long readAheadBytes) {
+    this.readAheadBytes += readAheadBytes;
+  }
+
   public long getReadNanos() {
     return readNanos;
   }
@@ -16,7 +16,6 @@
 package com.dremio.sabot.op.join.vhash.spill;
 
 import static com.dremio.exec.ExecConstants.ENABLE_SPILLABLE_OPERATORS;
-import static com.dremio.sabot.op.join.vhash.PartitionColFilters.BLOOMFILTER_MAX_SIZE;
 
 import java.util.ArrayList;
 import java.util.BitSet;
@@ -383,8 +382,10 @@ public class VectorizedSpillingHashJoinOperator implements DualInputOperator, Sh
 
         /* Step 1: Create partitionColFilters, i.e BloomFilters, one for each probe target */
         logger.debug("Creating partitionColFilters...");
+        // filters are created before the build side is consumed, so only the planner estimate is available here.
         partitionColFilters = new PartitionColFilters(context.getAllocator(), probeTargets, buildKeyPivot,
-          BLOOMFILTER_MAX_SIZE, RuntimeFilterUtil.getRuntimeFilterKeyMaxSize(context));
+          RuntimeFilterUtil.getBloomFilterSize(context, config.getRuntimeFilterInfo(), -1),
+          RuntimeFilterUtil.getRuntimeFilterKeyMaxSize(context));
         rc.add(partitionColFilters);
 
         if (RuntimeFilterUtil.isRuntimeFilterEnabledForNonPartitionedCols(context)) {
@@ -885,6 +886,11 @@ public class VectorizedSpillingHashJoinOperator implements DualInputOperator, Sh
       stats.setLongStat(Metric.SPILL_RD_PROBE_BATCHES_MERGED, spillStats.getReadProbeBatchesMerged());
       stats.setLongStat(Metric.SPILL_WR_NANOS, spillStats.getWriteNanos());
       stats.setLongStat(Metric.SPILL_RD_NANOS, spillStats.getReadNanos());
+      stats.setLongStat(Metric.SPILL_RD_AHEAD_BYTES, spillStats.getReadAheadBytes());
+      final SpillManager spillManager = joinSetupParams.getSpillManager();
+      stats.setLongStat(Metric.SPILL_WR_IO_BYTES, spillManager.getIOWriteBytes());
+      stats.setLongStat(Metric.SPILL_COMPRESSION_NANOS, spillManager.getCompressionNanos());
+      stats.setLongStat(Metric.SPILL_DECOMPRESSION_NANOS, spillManager.getDecompressionNanos());
       stats.setLongStat(Metric.OOB_SENDS, spillStats.getOOBSends());
       stats.setLongStat(Metric.OOB_DROP_UNDER_THRESHOLD, oobDropUnderThreshold);
       stats.setLongStat(Metric.OOB_DROP_NO_VICTIM, oobDropNoVictim);
@@ -15,12 +15,13 @@
  */
 package com.dremio.sabot.op.join.vhash.spill.replay;
 
-import java.io.IOException;
 import java.util.LinkedList;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.op.join.hash.HashJoinOperator;
 import com.dremio.sabot.op.join.vhash.spill.JoinSetupParams;
 import com.dremio.sabot.op.join.vhash.spill.YieldingRunnable;
 import com.dremio.sabot.op.join.vhash.spill.partition.Partition;
@@ -32,16 +33,25 @@ import com.dremio.sabot.op.join.vhash.spill.partition.Partition;
  * 2. As part of (1), more replay entries can get generated and appended to the replay list if there is spilling
  *    (so, it's recursive).
  * 3. Delete the just processed entry from the replay list. Back to step (1).
+ *
+ * If read-ahead is enabled, the build files of the entry that is likely to be replayed next are read in the
+ * background while the current entry is replayed.
  */
 public class JoinRecursiveReplayer implements YieldingRunnable {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(JoinRecursiveReplayer.class);
   private final LinkedList<JoinReplayEntry> replayList;
   private final Function<JoinReplayEntry, JoinReplayer> joinReplayerFactory;
+  private final JoinSetupParams setupParams;
+  private final ExecutorService readAheadExecutor;
   private JoinReplayer currentReplayer;
+  private ReplayReadAhead readAhead;
 
   public JoinRecursiveReplayer(JoinSetupParams setupParams, Partition partition, VectorContainer outgoing, int targetOutputSize) {
+    this.setupParams = setupParams;
     this.replayList = setupParams.getReplayEntries();
     this.joinReplayerFactory = (entry) -> new JoinReplayer(entry, setupParams, partition, outgoing, targetOutputSize);
+    this.readAheadExecutor = setupParams.getContext().getOptions().getOption(HashJoinOperator.REPLAY_READ_AHEAD)
+      ? setupParams.getContext().getExecutor() : null;
   }
 
   @Override
@@ -62,15 +72,7 @@ public class JoinRecursiveReplayer implements YieldingRunnable {
       // for debug
       // dumpInfo();
 
-      // pick the entry with the smallest build size. That will have the highest probability of completing without spilling.
-      JoinReplayEntry victim = null;
-      long victimSize = Long.MAX_VALUE;
-      for (JoinReplayEntry entry : replayList) {
-        if (entry.getBuildSize() < victimSize) {
-          victimSize = entry.getBuildSize();
-          victim = entry;
-        }
-      }
+      JoinReplayEntry victim = pickSmallestEntry();
       assert victim != null;
       boolean removed = replayList.remove(victim);
       assert removed;
@@ -78,36 +80,77 @@ public class JoinRecursiveReplayer implements YieldingRunnable {
         victim.getBuildSize(), victim.getBuildNumRecords(),
         victim.getProbeSize(), victim.getProbeNumRecords());
       currentReplayer = joinReplayerFactory.apply(victim);
+      startReadAhead();
     }
     return 0;
   }
 
+  // pick the entry with the smallest build size. That will have the highest probability of completing without spilling.
+  private JoinReplayEntry pickSmallestEntry() {
+    JoinReplayEntry victim = null;
+    long victimSize = Long.MAX_VALUE;
+    for (JoinReplayEntry entry : replayList) {
+      if (entry.getBuildSize() < victimSize) {
+        victimSize = entry.getBuildSize();
+        victim = entry;
+      }
+    }
+    return victim;
+  }
+
+  /**
+   * Start reading the build files of the entry that will be picked next, unless more entries get added by the
+   * current replay. The read is bounded by the operator memory limit, beyond which the entry can't be built
+   * in-memory anyway.
+   */
+  private void startReadAhead() {
+    if (readAheadExecutor == null) {
+      return;
+    }
+    closeReadAhead();
+    JoinReplayEntry next = pickSmallestEntry();
+    if (next == null) {
+      return;
+    }
+    long maxBytes = Math.min(next.getBuildSize(), setupParams.getContext().getAllocator().getLimit());
+    if (maxBytes > 0) {
+      readAhead = new ReplayReadAhead(readAheadExecutor, next, maxBytes);
+    }
+  }
+
+  private void closeReadAhead() {
+    if (readAhead != null) {
+      readAhead.close();
+      setupParams.getSpillStats().addReadAheadBytes(readAhead.getBytesRead());
+      readAhead = null;
+    }
+  }
+
   @Override
   public boolean isFinished() {
     return currentReplayer == null && replayList.isEmpty();
   }
 
   private void dumpInfo() {
-    try {
-      long buildSize = 0;
-      long buildRecords = 0;
-      long probeSize = 0;
-      long probeRecords = 0;
+    long buildSize = 0;
+    long buildRecords = 0;
+    long probeSize = 0;
+    long probeRecords = 0;
 
-      for (JoinReplayEntry entry : replayList) {
-        buildSize += entry.getBuildSize();
-        buildRecords += entry.getBuildNumRecords();
-        probeSize += entry.getProbeSize();
-        probeRecords += entry.getProbeNumRecords();
-      }
-      logger.debug("spill has cumulative build size {} records {} probe size {} records {}, across {} replay entries",
-        buildSize, buildRecords, probeSize, probeRecords,
-        replayList.size());
-    } catch (IOException ignore) {}
+    for (JoinReplayEntry entry : replayList) {
+      buildSize += entry.getBuildSize();
+      buildRecords += entry.getBuildNumRecords();
+      probeSize += entry.getProbeSize();
+      probeRecords += entry.getProbeNumRecords();
+    }
+    logger.debug("spill has cumulative build size {} records {} probe size {} records {}, across {} replay entries",
+      buildSize, buildRecords, probeSize, probeRecords,
+      replayList.size());
   }
 
   @Override
   public void close() throws Exception {
+    closeReadAhead();
     AutoCloseables.close(currentReplayer);
     currentReplayer = null;
   }
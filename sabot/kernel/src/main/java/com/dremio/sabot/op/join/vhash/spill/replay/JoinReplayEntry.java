@@ -15,7 +15,6 @@
  */
 package com.dremio.sabot.op.join.vhash.spill.replay;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -49,7 +48,7 @@ public class JoinReplayEntry {
     );
   }
 
-  private long getCumulativeSize(List<SpillFileDescriptor> spills) throws IOException {
+  private long getCumulativeSize(List<SpillFileDescriptor> spills) {
     long total = 0;
     for (SpillFileDescriptor desc : spills) {
       total += desc.getSizeInBytes();
@@ -57,7 +56,7 @@ public class JoinReplayEntry {
     return total;
   }
 
-  private long getCumulativeNumRecords(List<SpillFileDescriptor> spills) throws IOException {
+  private long getCumulativeNumRecords(List<SpillFileDescriptor> spills) {
     long total = 0;
     for (SpillFileDescriptor desc : spills) {
       total += desc.getNumRecords();
@@ -65,19 +64,19 @@ public class JoinReplayEntry {
     return total;
   }
 
-  public long getBuildSize() throws IOException {
+  public long getBuildSize() {
     return getCumulativeSize(buildSpills);
   }
 
-  public long getBuildNumRecords() throws IOException {
+  public long getBuildNumRecords() {
     return getCumulativeNumRecords(buildSpills);
   }
 
-  public long getProbeSize() throws IOException {
+  public long getProbeSize() {
     return getCumulativeSize(probeSpills);
   }
 
-  public long getProbeNumRecords() throws IOException {
+  public long getProbeNumRecords() {
     return getCumulativeNumRecords(probeSpills);
   }
 
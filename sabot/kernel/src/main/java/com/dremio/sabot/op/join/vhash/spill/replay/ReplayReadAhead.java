@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash.spill.replay;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+
+import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
+
+/**
+ * Reads the build side spill files of a replay entry in the background, while another entry is being replayed on the
+ * fragment thread. The data is discarded; the purpose is to get the files into the file system cache so that the
+ * build phase of the entry does not have to wait on the disk when its turn comes.
+ *
+ * The read-ahead does not use the page pool or any operator allocator, which are not thread safe. It is bounded to
+ * the given number of bytes, since there is no benefit in warming more than can be held in memory when the entry is
+ * replayed.
+ *
+ * Closing the read-ahead waits for an in-flight read to stop, so that no read of the entry's files is still running
+ * when the entry is replayed and its files are deleted. The read stops at the end of the current buffer.
+ */
+class ReplayReadAhead implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ReplayReadAhead.class);
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private final JoinReplayEntry entry;
+  private final long maxBytes;
+  private final Future<?> future;
+  // claimed by the read when it starts, or by close() if it didn't start yet
+  private final AtomicBoolean claimed = new AtomicBoolean();
+  private final CountDownLatch done = new CountDownLatch(1);
+  private volatile boolean cancelled;
+  private volatile long bytesRead;
+
+  ReplayReadAhead(ExecutorService executor, JoinReplayEntry entry, long maxBytes) {
+    this.entry = entry;
+    this.maxBytes = maxBytes;
+    this.future = executor.submit(this::readFiles);
+  }
+
+  private void readFiles() {
+    if (!claimed.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      readFiles(new byte[BUFFER_SIZE]);
+    } finally {
+      done.countDown();
+    }
+  }
+
+  private void readFiles(final byte[] buffer) {
+    long total = 0;
+    for (SpillFile file : entry.getBuildFiles()) {
+      try (FSDataInputStream in = file.open()) {
+        while (!cancelled && total < maxBytes) {
+          int read = in.read(buffer, 0, (int) Math.min(buffer.length, maxBytes - total));
+          if (read < 0) {
+            break;
+          }
+          total += read;
+          bytesRead = total;
+        }
+      } catch (IOException e) {
+        // the file may have been replayed (and deleted) already, this is only an optimisation.
+        logger.debug("read-ahead of spill file {} failed", file.getPath(), e);
+      }
+      if (cancelled || total >= maxBytes) {
+        break;
+      }
+    }
+  }
+
+  long getBytesRead() {
+    return bytesRead;
+  }
+
+  @Override
+  public void close() {
+    cancelled = true;
+    future.cancel(false);
+    if (claimed.compareAndSet(false, true)) {
+      // the read never started, and won't
+      return;
+    }
+    // the read checks the flag after each buffer
+    try {
+      done.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -100,7 +100,7 @@ abstract class AbstractBridgeReaderOperator implements ProducerOperator {
       }
 
       int size = batchLoader.load(batch);
-      updateMetrics(batch.getByteCount());
+      updateMetrics(batch.getByteCount(), batch.getCompressedByteCount());
 
       final int count = batchLoader.getRecordCount();
       //logger.debug("read batch {} records", count);
@@ -116,7 +116,11 @@ abstract class AbstractBridgeReaderOperator implements ProducerOperator {
     }
   }
 
-  abstract void updateMetrics(long bytesRead);
+  /**
+   * @param bytesRead size of the loaded batch
+   * @param compressedBytesRead size of the batch as it was written when it was compressed, 0 otherwise
+   */
+  abstract void updateMetrics(long bytesRead, long compressedBytesRead);
 
   @Override
   public void close() throws Exception {
@@ -123,9 +123,7 @@ public abstract class BaseRawBatchBuffer<T> implements RawBatchBuffer {
     while (!bufferQueue.isEmpty()) {
       RawFragmentBatch batch = bufferQueue.poll();
       assertAckSent(batch);
-      if (batch.getBody() != null) {
-        batch.getBody().close();
-      }
+      batch.close();
     }
   }
 
@@ -153,9 +151,10 @@ public abstract class BaseRawBatchBuffer<T> implements RawBatchBuffer {
       upkeep(b);
 
       assertAckSent(b);
-      return b;
-
     }
+
+    // decompress outside of the shared resource lock so that the senders aren't blocked meanwhile.
+    return ExchangeDecompressor.decompress(b, allocator);
   }
 
   @Override
@@ -68,7 +68,7 @@ public class BatchBufferFromFilesProvider implements RawFragmentBatchProvider {
 
         RawFragmentBatch batch = getNextMessageFromStream();
         if (batch != null || isStreamDone) {
-          return batch;
+          return ExchangeDecompressor.decompress(batch, allocator);
         }
       }
     } catch (IOException ex) {
@@ -28,7 +28,9 @@ import com.dremio.sabot.op.spi.ProducerOperator;
  */
 public class BridgeFileReaderOperator extends AbstractBridgeReaderOperator {
   public enum Metric implements MetricDef {
-    BYTES_READ;
+    BYTES_READ,
+    BYTES_BEFORE_DECOMPRESSION,
+    BYTES_AFTER_DECOMPRESSION;
 
     @Override
     public int metricId() {
@@ -46,8 +48,12 @@ public class BridgeFileReaderOperator extends AbstractBridgeReaderOperator {
   }
 
   @Override
-  void updateMetrics(long bytesRead) {
+  void updateMetrics(long bytesRead, long compressedBytesRead) {
     getStats().addLongStat(Metric.BYTES_READ, bytesRead);
+    if (compressedBytesRead > 0) {
+      getStats().addLongStat(Metric.BYTES_BEFORE_DECOMPRESSION, compressedBytesRead);
+      getStats().addLongStat(Metric.BYTES_AFTER_DECOMPRESSION, bytesRead);
+    }
   }
 
   public static class Creator implements ReceiverCreator<BridgeFileReader> {
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.receiver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.flatbuf.BodyCompression;
+import org.apache.arrow.flatbuf.Buffer;
+import org.apache.arrow.flatbuf.FieldNode;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.util.LargeMemoryUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+import org.apache.arrow.vector.ipc.message.ArrowFieldNode;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.util.DataSizeRoundingUtil;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.proto.ExecRPC.FragmentRecordBatch;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
+import com.google.flatbuffers.FlatBufferBuilder;
+import com.google.protobuf.ByteString;
+
+/**
+ * Decompresses the batches compressed by the senders' {@link ExchangeCompressor}, so that the receivers load them as
+ * any other batch.
+ */
+public final class ExchangeDecompressor {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ExchangeDecompressor.class);
+
+  private ExchangeDecompressor() {
+  }
+
+  /**
+   * Decompresses the body of a batch if it was compressed by its sender.
+   *
+   * @param batch batch to decompress, closed if a decompressed copy is returned
+   * @param allocator allocator for the decompressed body
+   * @return the decompressed copy of the batch, or the batch itself if it wasn't compressed
+   */
+  public static RawFragmentBatch decompress(RawFragmentBatch batch, BufferAllocator allocator) {
+    if (batch == null || batch.getBuffers() != null || batch.getBody() == null) {
+      // batches handed over by a sender in the same process are never compressed
+      return batch;
+    }
+    final FragmentRecordBatch header = batch.getHeader();
+    final RecordBatch recordBatch = RecordBatch.getRootAsRecordBatch(header.getArrowRecordBatch().asReadOnlyByteBuffer());
+    final BodyCompression compression = recordBatch.compression();
+    if (compression == null) {
+      return batch;
+    }
+
+    try (RawFragmentBatch compressed = batch) {
+      final ArrowBuf body = compressed.getBody();
+      final ExchangeCompressor.Codec codec = ExchangeCompressor.Codec.fromCompressionType(compression.codec());
+      final int bufferCount = recordBatch.buffersLength();
+
+      // lay out the uncompressed buffers the way an aligned ArrowRecordBatch does
+      final ArrowBuf[] sources = new ArrowBuf[bufferCount];
+      final long[] offsets = new long[bufferCount];
+      final long[] lengths = new long[bufferCount];
+      long bodyLength = 0;
+      for (int i = 0; i < bufferCount; i++) {
+        final Buffer buffer = recordBatch.buffers(i);
+        sources[i] = body.slice(buffer.offset(), buffer.length());
+        offsets[i] = bodyLength;
+        lengths[i] = ExchangeCompressor.getUncompressedLength(sources[i]);
+        bodyLength = DataSizeRoundingUtil.roundUpTo8Multiple(bodyLength + lengths[i]);
+      }
+
+      try (ArrowBuf uncompressed = allocator.buffer(bodyLength)) {
+        final List<ArrowBuf> buffers = new ArrayList<>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) {
+          ExchangeCompressor.decompressBuffer(codec, sources[i], uncompressed, offsets[i]);
+          buffers.add(uncompressed.slice(offsets[i], lengths[i]));
+        }
+        uncompressed.writerIndex(bodyLength);
+
+        final List<ArrowFieldNode> nodes = new ArrayList<>(recordBatch.nodesLength());
+        for (int i = 0; i < recordBatch.nodesLength(); i++) {
+          final FieldNode node = recordBatch.nodes(i);
+          nodes.add(new ArrowFieldNode(node.length(), node.nullCount()));
+        }
+
+        final FlatBufferBuilder builder = new FlatBufferBuilder();
+        try (ArrowRecordBatch uncompressedBatch = new ArrowRecordBatch(
+          LargeMemoryUtil.checkedCastToInt(recordBatch.length()), nodes, buffers,
+          NoCompressionCodec.DEFAULT_BODY_COMPRESSION, true)) {
+          builder.finish(uncompressedBatch.writeTo(builder));
+        }
+        final FragmentRecordBatch uncompressedHeader = header.toBuilder()
+          .setArrowRecordBatch(ByteString.copyFrom(builder.dataBuffer()))
+          .build();
+        // the ack was sent when the compressed batch was enqueued
+        return new RawFragmentBatch(uncompressedHeader, uncompressed, null, compressed.getByteCount());
+      }
+    } catch (RuntimeException e) {
+      throw UserException.dataReadError(e)
+        .message("Failure while decompressing a batch received from fragment %d:%d",
+          header.getSendingMajorFragmentId(), header.getSendingMinorFragmentId())
+        .build(logger);
+    }
+  }
+}
@@ -211,9 +211,7 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
         }
         if(batchWrapper.state != BatchState.SPILLED) {
           batch = batchWrapper.get();
-          if (batch.getBody() != null) {
-            batch.getBody().close();
-          }
+          batch.close();
         }
       }
     }
@@ -262,8 +260,7 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
 
   @Override
   protected void upkeep(RawFragmentBatch batch) {
-    ArrowBuf body = batch.getBody();
-    final long currentBatchesInMemory = body != null ?
+    final long currentBatchesInMemory = batch.getBuffers() != null || batch.getBody() != null ?
       batchesInMemory.decrementAndGet() : batchesInMemory.get();
     if (isCurrentlySpooling() && currentBatchesInMemory < threshold * STOP_SPOOLING_FRACTION) {
       logger.debug("buffer size {} less than {}x threshold. Stop spooling.", currentBatchesInMemory, STOP_SPOOLING_FRACTION);
@@ -70,9 +70,7 @@ public class UnlimitedRawBatchBuffer extends BaseRawBatchBuffer<RawFragmentBatch
       RawFragmentBatch batch;
       while (!buffer.isEmpty()) {
         batch = buffer.poll();
-        if (batch.getBody() != null) {
-          batch.getBody().close();
-        }
+        batch.close();
       }
     }
   }
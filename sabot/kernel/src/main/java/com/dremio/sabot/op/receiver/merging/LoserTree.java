@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.receiver.merging;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A tournament tree of losers over a fixed number of inputs. Internal node n holds the input
+ * that lost the match played at n, and slot 0 holds the overall winner, so advancing the winner
+ * only replays the log2(k) matches on its path instead of re-sifting a heap.
+ */
+final class LoserTree {
+
+  /**
+   * Decides the matches played in the tree.
+   */
+  interface Match {
+    /**
+     * @return true if input left must be emitted before input right.
+     */
+    boolean beats(int left, int right);
+  }
+
+  private final int size;
+  private final int[] tree;
+  private final Match match;
+
+  LoserTree(int size, Match match) {
+    Preconditions.checkArgument(size > 0, "A loser tree needs at least one input.");
+    this.size = size;
+    this.tree = new int[size];
+    this.match = match;
+  }
+
+  /**
+   * Plays all matches bottom up. Leaf i sits at position size + i, the parent of position p is p / 2.
+   */
+  void build() {
+    final int[] winners = new int[2 * size];
+    for (int i = 0; i < size; i++) {
+      winners[size + i] = i;
+    }
+    for (int n = size - 1; n > 0; n--) {
+      final int left = winners[2 * n];
+      final int right = winners[2 * n + 1];
+      if (match.beats(right, left)) {
+        winners[n] = right;
+        tree[n] = left;
+      } else {
+        winners[n] = left;
+        tree[n] = right;
+      }
+    }
+    tree[0] = size == 1 ? 0 : winners[1];
+  }
+
+  int winner() {
+    return tree[0];
+  }
+
+  /**
+   * Replays the matches on the path of the current winner after its value changed.
+   */
+  void replay() {
+    int winner = tree[0];
+    for (int n = (winner + size) >> 1; n > 0; n >>= 1) {
+      final int challenger = tree[n];
+      if (match.beats(challenger, winner)) {
+        tree[n] = winner;
+        winner = challenger;
+      }
+    }
+    tree[0] = winner;
+  }
+
+  /**
+   * @return the input that would win if the current winner was removed, or -1 if there is a single input.
+   */
+  int runnerUp() {
+    int best = -1;
+    for (int n = (tree[0] + size) >> 1; n > 0; n >>= 1) {
+      final int challenger = tree[n];
+      if (best < 0 || match.beats(challenger, best)) {
+        best = challenger;
+      }
+    }
+    return best;
+  }
+}
@@ -18,17 +18,21 @@ package com.dremio.sabot.op.receiver.merging;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.PriorityQueue;
 
+import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.AllocationHelper;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.FixedWidthVector;
 import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
 import com.dremio.common.logical.data.Order.Ordering;
 import com.dremio.exec.compile.sig.GeneratorMapping;
 import com.dremio.exec.compile.sig.MappingSet;
@@ -44,12 +48,17 @@ import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.vector.CopyUtil;
+import com.dremio.options.Options;
+import com.dremio.options.TypeValidators;
 import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.copier.CopierFactory;
+import com.dremio.sabot.op.copier.FieldBufferCopier;
 import com.dremio.sabot.op.receiver.RawFragmentBatch;
 import com.dremio.sabot.op.receiver.RawFragmentBatchProvider;
 import com.dremio.sabot.op.receiver.ReceiverLatencyTracker;
+import com.dremio.sabot.op.sort.external.NormalizedKeySorter;
 import com.dremio.sabot.op.spi.BatchStreamProvider;
 import com.dremio.sabot.op.spi.ProducerOperator;
 import com.sun.codemodel.JConditional;
@@ -57,10 +66,27 @@ import com.sun.codemodel.JExpr;
 
 /**
  * The MergingRecordBatch merges pre-sorted record batches from remote senders.
+ *
+ * The senders are merged through a {@link LoserTree}. When the same sender wins consecutively, its
+ * rows are compared against the runner up only and the whole run is copied to the outgoing batch at once.
+ *
+ * When the first sort key is a column {@link NormalizedKeySorter} can normalize, rows are compared on its
+ * normalized value first, and the generated comparator is only used for nulls and ties.
  */
+@Options
 public class MergingReceiverOperator implements ProducerOperator {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MergingReceiverOperator.class);
 
+  // copy runs of rows won by the same sender with vectorized copiers rather than row by row.
+  public static final TypeValidators.BooleanValidator BULK_COPY = new TypeValidators.BooleanValidator("exec.op.merging_receiver.bulk_copy", true);
+  // runs shorter than this are copied row by row.
+  public static final TypeValidators.PositiveLongValidator BULK_COPY_MIN_RUN = new TypeValidators.PositiveLongValidator("exec.op.merging_receiver.bulk_copy.min_run", Character.MAX_VALUE, 8);
+
+  // compare rows on the normalized first sort key before using the generated comparator.
+  public static final TypeValidators.BooleanValidator NORMALIZED_KEY = new TypeValidators.BooleanValidator("exec.op.merging_receiver.normalized_key", true);
+
+  private static final int MAX_BATCH_RECORDS = Character.MAX_VALUE + 1;
+
   private final OperatorContext context;
   private final VectorContainer outgoingContainer;
   private final MergingReceiverPOP config;
@@ -73,8 +99,22 @@ public class MergingReceiverOperator implements ProducerOperator {
 
   private State state = State.NEEDS_SETUP;
   private OutputState outputState = OutputState.INIT_ON_NEXT;
-  private PriorityQueue<Node> pqueue;
+  private LoserTree tree;
   private Merger merger;
+  // sender whose batch was drained by the last winning row and which must be replayed once refilled.
+  private Node pending;
+  private int lastWinner = -1;
+  // ascending two byte offsets used as the selection of bulk copied runs.
+  private ArrowBuf sequence;
+  private final FieldBufferCopier.Cursor cursor = new FieldBufferCopier.Cursor();
+  private int minBulkCopyRun;
+  private long comparisons;
+  private long normalizedKeyComparisons;
+  private boolean descendingKey;
+  // whether rows with equal normalized keys must be compared on the following sort keys.
+  private boolean resolveKeyTies;
+  private long outputRecords;
+  private long bulkCopiedRecords;
 
   private int outgoingPosition = 0;
 
@@ -86,7 +126,13 @@ public class MergingReceiverOperator implements ProducerOperator {
     SUM_TX_MILLIS,
     MAX_TX_MILLIS,
     SUM_QUEUE_MILLIS,
-    MAX_QUEUE_MILLIS;
+    MAX_QUEUE_MILLIS,
+    BYTES_BEFORE_DECOMPRESSION,
+    BYTES_AFTER_DECOMPRESSION,
+    MERGE_COMPARISONS,
+    MERGE_COMPARISONS_PER_RECORD,
+    BULK_COPIED_RECORDS,
+    NORMALIZED_KEY_COMPARISONS;
 
     @Override
     public int metricId() {
@@ -122,28 +168,106 @@ public class MergingReceiverOperator implements ProducerOperator {
   public VectorAccessible setup() throws Exception {
     state.is(State.NEEDS_SETUP);
     this.merger = createMerger();
+    this.tree = new LoserTree(nodes.length, this::beats);
+
+    if (context.getOptions().getOption(NORMALIZED_KEY)
+      && NormalizedKeySorter.isSupported(config.getOrderings(), config.getSchema())) {
+      final Ordering first = config.getOrderings().get(0);
+      final String keyName = ((SchemaPath) first.getExpr()).getRootSegment().getPath();
+      descendingKey = first.getDirection() == Direction.DESCENDING;
+      resolveKeyTies = config.getOrderings().size() > 1;
+      for (Node node : nodes) {
+        node.keyVector = findKeyVector(node.loader, keyName);
+      }
+    }
 
-    // allocate the priority queue with the generated comparator
-    this.pqueue = new PriorityQueue<>(nodes.length);
+    if (context.getOptions().getOption(BULK_COPY) && isScalar(config.getSchema().getFields())) {
+      minBulkCopyRun = (int) context.getOptions().getOption(BULK_COPY_MIN_RUN);
+      sequence = context.getAllocator().buffer(MAX_BATCH_RECORDS * 2);
+      for (int i = 0; i < MAX_BATCH_RECORDS; i++) {
+        sequence.setShort(i * 2, i);
+      }
+      final CopierFactory copierFactory = CopierFactory.getInstance(context.getConfig(), context.getOptions());
+      final List<FieldVector> outgoingVectors = VectorContainer.getFieldVectors(outgoingContainer);
+      for (Node node : nodes) {
+        node.copiers = copierFactory.getTwoByteCopiers(VectorContainer.getFieldVectors(node.loader), outgoingVectors, false);
+      }
+    }
     state = State.CAN_PRODUCE;
     return outgoingContainer;
   }
 
+  private static BaseFixedWidthVector findKeyVector(VectorAccessible batch, String name) {
+    for (VectorWrapper<?> w : batch) {
+      if (w.getField().getName().equalsIgnoreCase(name)) {
+        return (BaseFixedWidthVector) w.getValueVector();
+      }
+    }
+    throw new IllegalStateException(String.format("Unable to find sort key %s in incoming batch.", name));
+  }
+
+  private static boolean isScalar(List<Field> fields) {
+    for (Field field : fields) {
+      if (field.getType().isComplex()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private boolean ensureReady() {
-    // populate the priority queue with initial values
+    // poll every stream, so that all senders with pending data get loaded before we block.
+    boolean ready = true;
     for (Node node : nodes) {
-      if(node.isReady()){
-        continue;
-      } else {
-        if(!node.nextPosition()){
-          return false;
-        }
+      if (!node.isReady() && !node.nextBatch()) {
+        ready = false;
       }
     }
 
+    if (!ready) {
+      return false;
+    }
+
+    if (pending != null) {
+      pending = null;
+      tree.replay();
+    } else if (lastWinner < 0) {
+      tree.build();
+    }
     return true;
   }
 
+  /**
+   * Orders the current rows of two senders. Drained senders lose against everyone and ties go
+   * to the lower sender so that the merge is deterministic.
+   */
+  private boolean beats(int left, int right) {
+    final Node leftNode = nodes[left];
+    final Node rightNode = nodes[right];
+    if (leftNode.done || rightNode.done) {
+      return !leftNode.done && (rightNode.done || left < right);
+    }
+    final int cmp = compare(leftNode, leftNode.valueIndex, rightNode, rightNode.valueIndex);
+    return cmp < 0 || (cmp == 0 && left < right);
+  }
+
+  /**
+   * Compares two rows on the normalized first sort key if both have one, and with the generated comparator
+   * otherwise or when they tie on it and there are more sort keys.
+   */
+  private int compare(Node left, int leftValue, Node right, int rightValue) {
+    comparisons++;
+    if (left.keyVector != null && !left.keyVector.isNull(leftValue) && !right.keyVector.isNull(rightValue)) {
+      final int cmp = Long.compareUnsigned(NormalizedKeySorter.normalize(left.keyVector, leftValue, descendingKey),
+        NormalizedKeySorter.normalize(right.keyVector, rightValue, descendingKey));
+      if (cmp != 0 || !resolveKeyTies) {
+        normalizedKeyComparisons++;
+        return cmp;
+      }
+    }
+    return merger.doEval((left.batchId << 16) + leftValue, (right.batchId << 16) + rightValue);
+  }
+
   @Override
   public int outputData() throws Exception {
     // use getState here so we can transition out of blocked.
@@ -168,24 +292,32 @@ public class MergingReceiverOperator implements ProducerOperator {
      * - when our outgoing batch is full
      * - when there are no more records.
      */
-    while (!pqueue.isEmpty()) {
-      // pop next value from pq and copy to outgoing batch
-      final Node node = pqueue.poll();
-      node.copyRecordToOutgoingBatch();
+    while (true) {
+      final int winner = tree.winner();
+      final Node node = nodes[winner];
+      if (node.done) {
+        // drained senders always lose, so all of them are drained.
+        break;
+      }
+
+      // a sender winning twice in a row is likely to win again, so extend its run up to the runner up.
+      final int end = winner == lastWinner ? node.findRunEnd(tree.runnerUp(), maxRecords - outgoingPosition) : node.valueIndex + 1;
+      lastWinner = winner;
+      node.copyRecordsToOutgoingBatch(end);
 
       if (outgoingPosition == maxRecords) {
         logger.debug("Outgoing vectors space is full; breaking");
         outputState = OutputState.INIT_ON_NEXT;
 
-        node.nextPosition();
+        advance(node);
+        updateMergeStats();
         return outgoingContainer.setAllCount(outgoingPosition);
       }
 
-      if(!node.nextPosition()){
+      if (!advance(node)) {
         state = State.BLOCKED;
         return 0;
       }
-
     }
 
     // set the value counts in the outgoing vectors
@@ -193,12 +325,32 @@ public class MergingReceiverOperator implements ProducerOperator {
       vw.getValueVector().setValueCount(outgoingPosition);
     }
     outgoingContainer.setRecordCount(outgoingPosition);
+    state = State.DONE;
+    updateMergeStats();
+
+    return outgoingPosition;
+  }
 
-    if (pqueue.isEmpty()) {
-      state = State.DONE;
+  /**
+   * Moves the winner to its next row and replays its matches.
+   * @return false if the winner is blocked on an incoming batch, in which case the replay is deferred to ensureReady.
+   */
+  private boolean advance(Node node) {
+    if (!node.nextPosition()) {
+      pending = node;
+      return false;
     }
+    tree.replay();
+    return true;
+  }
 
-    return outgoingPosition;
+  private void updateMergeStats() {
+    stats.setLongStat(Metric.MERGE_COMPARISONS, comparisons);
+    stats.setLongStat(Metric.BULK_COPIED_RECORDS, bulkCopiedRecords);
+    stats.setLongStat(Metric.NORMALIZED_KEY_COMPARISONS, normalizedKeyComparisons);
+    if (outputRecords > 0) {
+      stats.setDoubleStat(Metric.MERGE_COMPARISONS_PER_RECORD, (double) comparisons / outputRecords);
+    }
   }
 
   private void allocateOutgoing() {
@@ -281,12 +433,16 @@ public class MergingReceiverOperator implements ProducerOperator {
 
   /**
    * A SabotNode contains a reference to a single value in a specific incoming batch.  It is used
-   * as a wrapper for the priority queue.
+   * as a leaf of the loser tree.
    */
-  private class Node implements Comparable<Node>, AutoCloseable {
+  private class Node implements AutoCloseable {
     private final int batchId;      // incoming batch
     private final ArrowRecordBatchLoader loader;
     private final RawFragmentBatchProvider provider;
+    // vectorized copiers from the loaded batch to the outgoing container, null if runs are copied row by row.
+    private List<FieldBufferCopier> copiers;
+    // first sort key of the loaded batch, null if it isn't normalized.
+    private BaseFixedWidthVector keyVector;
 
     private int valueIndex;   // value within the batch
     private int outputCounts;
@@ -301,51 +457,61 @@ public class MergingReceiverOperator implements ProducerOperator {
     }
 
     private void clear(){
-      if(currentBatch != null && currentBatch.getBody() != null){
-        currentBatch.getBody().close();
+      if(currentBatch != null){
+        currentBatch.close();
+        currentBatch = null;
       }
       valueIndex = 0;
     }
 
     /**
-     * Attempt to get next value and then readd yourself to the priority queue.
-     * @return True if we were able to move forward (whether added to queue or not). False if we are blocked on an incoming message.
+     * Attempt to move to the next value, loading the next batch once the current one is drained.
+     * @return True if we were able to move forward (whether finished or not). False if we are blocked on an incoming message.
      */
     private boolean nextPosition(){
-      if(currentBatch == null || valueIndex == loader.getRecordCount() - 1){
-        clear();
+      if (valueIndex < loader.getRecordCount() - 1) {
+        valueIndex++;
+        return true;
+      }
+      clear();
+      return nextBatch();
+    }
 
+    /**
+     * Load the next non empty batch.
+     * @return True if a batch was loaded or the stream is finished. False if we are blocked on an incoming message.
+     */
+    private boolean nextBatch(){
+      while (true) {
         // get next batch.
         currentBatch = provider.getNext();
 
-
-        int size;
         // we didn't get a batch. this is because we're pending on a message or we're finished.
         if (currentBatch == null) {
           if(provider.isStreamDone()){
             done = true;
           }
           return provider.isStreamDone();
-        } else {
-          latencyTracker.updateLatencyFromBatch(currentBatch.getHeader());
-          size = loader.load(currentBatch);
-          stats.addLongStat(Metric.BYTES_RECEIVED, size);
-          stats.addLongStat(Metric.BATCHES_RECEIVED, 1);
-          valueIndex = 0;
         }
 
-        // we received actual data, let's set things up and add to priority queue.
+        latencyTracker.updateLatencyFromBatch(currentBatch.getHeader());
+        final int size = loader.load(currentBatch);
+        stats.addLongStat(Metric.BYTES_RECEIVED, size);
+        stats.addLongStat(Metric.BATCHES_RECEIVED, 1);
+        if (currentBatch.getCompressedByteCount() > 0) {
+          stats.addLongStat(Metric.BYTES_BEFORE_DECOMPRESSION, currentBatch.getCompressedByteCount());
+          stats.addLongStat(Metric.BYTES_AFTER_DECOMPRESSION, currentBatch.getByteCount());
+        }
+
+        // we received actual data, let's set things up for the next match.
         stats.batchReceived(0, loader.getRecordCount(), size);
         inputCounts += loader.getRecordCount();
         valueIndex = 0;
 
-        pqueue.add(this);
-        return true;
-
-      }else{
-        valueIndex++;
-        pqueue.add(this);
-        return true;
+        if (loader.getRecordCount() > 0) {
+          return true;
+        }
+        clear();
       }
     }
 
@@ -353,20 +519,57 @@ public class MergingReceiverOperator implements ProducerOperator {
       return done || currentBatch != null;
     }
 
-    @Override
-    public int compareTo(final Node node2) {
-      final int leftIndex = (this.batchId << 16) + this.valueIndex;
-      final int rightIndex = (node2.batchId << 16) + node2.valueIndex;
-      return merger.doEval(leftIndex, rightIndex);
+    /**
+     * Find the end of the run of rows of this node that sort before the current row of the runner up.
+     * @param runnerUp node that wins once this node loses, -1 if there is none.
+     * @param space number of rows left in the outgoing batch.
+     * @return exclusive end of the run within the current batch.
+     */
+    private int findRunEnd(int runnerUp, int space) {
+      final int maxEnd = Math.min(loader.getRecordCount(), valueIndex + space);
+      if (runnerUp < 0 || nodes[runnerUp].done) {
+        return maxEnd;
+      }
+
+      final Node runnerUpNode = nodes[runnerUp];
+      int end = valueIndex + 1;
+      while (end < maxEnd) {
+        final int cmp = compare(this, end, runnerUpNode, runnerUpNode.valueIndex);
+        if (cmp > 0 || (cmp == 0 && batchId > runnerUp)) {
+          break;
+        }
+        end++;
+      }
+      return end;
     }
 
-    private void copyRecordToOutgoingBatch() {
-      if (!(++outputCounts <= inputCounts)) {
+    /**
+     * Copy the rows from the current value up to end (exclusive) to the outgoing batch. The node
+     * is left on the last copied row.
+     */
+    private void copyRecordsToOutgoingBatch(int end) {
+      final int count = end - valueIndex;
+      outputCounts += count;
+      if (!(outputCounts <= inputCounts)) {
         throw new RuntimeException(String.format("Stream %d input count: %d output count %d", batchId, inputCounts, outputCounts));
       }
-      final int inIndex = (batchId << 16) + valueIndex;
-      merger.doCopy(inIndex, outgoingPosition);
-      outgoingPosition++;
+
+      if (copiers != null && count >= minBulkCopyRun) {
+        final long offsetAddr = sequence.memoryAddress() + valueIndex * 2;
+        for (FieldBufferCopier copier : copiers) {
+          cursor.setTargetIndex(outgoingPosition);
+          copier.copy(offsetAddr, count, cursor);
+        }
+        bulkCopiedRecords += count;
+      } else {
+        final int inStart = batchId << 16;
+        for (int i = valueIndex; i < end; i++) {
+          merger.doCopy(inStart + i, outgoingPosition + i - valueIndex);
+        }
+      }
+      outgoingPosition += count;
+      outputRecords += count;
+      valueIndex = end - 1;
     }
 
     @Override
@@ -377,7 +580,7 @@ public class MergingReceiverOperator implements ProducerOperator {
       stats.setLongStat(Metric.MAX_QUEUE_MILLIS, latencyTracker.getMaxQueueMillis());
 
       if(currentBatch != null){
-        AutoCloseables.close(currentBatch.getBody(), loader);
+        AutoCloseables.close(currentBatch, loader);
       } else {
         loader.close();
       }
@@ -395,6 +598,7 @@ public class MergingReceiverOperator implements ProducerOperator {
     List<AutoCloseable> closeables = new ArrayList<>();
     closeables.add(outgoingContainer);
     closeables.addAll(Arrays.asList(nodes));
+    closeables.add(sequence);
     AutoCloseables.close(closeables);
   }
 
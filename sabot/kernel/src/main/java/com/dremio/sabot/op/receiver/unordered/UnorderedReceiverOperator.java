@@ -51,7 +51,9 @@ public class UnorderedReceiverOperator implements ProducerOperator {
     SUM_TX_MILLIS,
     MAX_TX_MILLIS,
     SUM_QUEUE_MILLIS,
-    MAX_QUEUE_MILLIS;
+    MAX_QUEUE_MILLIS,
+    BYTES_BEFORE_DECOMPRESSION,
+    BYTES_AFTER_DECOMPRESSION;
 
     @Override
     public int metricId() {
@@ -117,6 +119,10 @@ public class UnorderedReceiverOperator implements ProducerOperator {
       int size = batchLoader.load(batch);
       stats.addLongStat(Metric.BYTES_RECEIVED, size);
       stats.addLongStat(Metric.BATCHES_RECEIVED, 1);
+      if (batch.getCompressedByteCount() > 0) {
+        stats.addLongStat(Metric.BYTES_BEFORE_DECOMPRESSION, batch.getCompressedByteCount());
+        stats.addLongStat(Metric.BYTES_AFTER_DECOMPRESSION, batch.getByteCount());
+      }
 
       final int count = batchLoader.getRecordCount();
       stats.batchReceived(0, count, size);
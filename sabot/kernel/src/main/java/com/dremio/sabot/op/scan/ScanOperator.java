@@ -178,6 +178,15 @@ public class ScanOperator implements ProducerOperator {
     ICEBERG_COMMIT_TIME,  // Time to commit an operation to Iceberg table
     ORPHAN_FILE_DISCOVERY_TIME, // Time to discover the orphan files
     NUM_ORPHAN_FILES,  // Number of orphan files
+    PAGE_PRUNED_BYTES, // Compressed size of the pages skipped using column indexes
+    LATE_MATERIALIZATION_FILTERED_ROWS, // Rows whose filter columns were decoded before the other columns
+    LATE_MATERIALIZATION_MATERIALIZED_ROWS, // Rows that passed the filters and had all their columns decoded
+    NUM_VECTORED_READS, // Number of merged column chunk ranges fetched up front
+    VECTORED_READ_BYTES, // Bytes fetched by the merged column chunk ranges
+    VECTORED_OVER_READ_BYTES, // Bytes fetched in the gaps between merged column chunks
+    NUM_READ_AHEAD_SPLITS, // Number of splits whose column chunks were fetched in the background
+    READ_AHEAD_BYTES, // Bytes fetched in the background for the upcoming splits
+    READ_AHEAD_WAIT_TIME_NS, // Time spent waiting for the background fetches to complete
     ;
 
     private final DisplayType displayType;
@@ -61,6 +61,7 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
   private final OptionManager options;
   private final SpillService spillService;
   private final SabotConfig sabotConfig;
+  private final ExchangeCompressor compressor;
 
   private State state = State.NEEDS_SETUP;
   private SpillManager spillManager;
@@ -68,7 +69,9 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
   private VectorAccessible incoming;
 
   public enum Metric implements MetricDef {
-    BYTES_SENT;
+    BYTES_SENT,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION;
     @Override
     public int metricId() {
       return ordinal();
@@ -87,6 +90,7 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
     this.options = context.getOptions();
     this.spillService = context.getSpillService();
     this.sabotConfig = context.getConfig();
+    this.compressor = ExchangeCompressor.create(context, stats, Metric.BYTES_BEFORE_COMPRESSION, Metric.BYTES_AFTER_COMPRESSION);
 
     logger.debug("uniqueId {}", uniqueId);
   }
@@ -127,13 +131,17 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
       }
     ).collect(Collectors.toList());
 
+    ArrowRecordBatch recordBatch = new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(),
+      buffers, NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false);
+    if (compressor != null) {
+      recordBatch = compressor.compress(recordBatch);
+    }
     FragmentWritableBatch batch = new FragmentWritableBatch(
       handle.getQueryId(),
       handle.getMajorFragmentId(),
       handle.getMinorFragmentId(),
       config.getReceiverMajorFragmentId(),
-      new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers,
-        NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false)
+      recordBatch
     );
 
     // write batch to the file tunnel.
@@ -0,0 +1,418 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.arrow.flatbuf.BodyCompressionMethod;
+import org.apache.arrow.flatbuf.CompressionType;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.util.LargeMemoryUtil;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.ipc.message.ArrowBodyCompression;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.MetricDef;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.github.luben.zstd.Zstd;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Compresses the buffers of the batches sent by an exchange, following the Arrow IPC body compression format:
+ * each buffer is prefixed by its uncompressed length as a little endian long, -1 when it is stored uncompressed.
+ *
+ * The compression is adaptive: a batch that doesn't shrink by at least {@link ExecConstants#EXCHANGE_COMPRESSION_MIN_RATIO}
+ * is sent uncompressed, and the following batches are sent uncompressed too before compression is tried again,
+ * backing off exponentially as long as the data doesn't compress well.
+ *
+ * Not thread safe, each sending thread should use its own compressor.
+ */
+public class ExchangeCompressor {
+  private static final long NOT_COMPRESSED = -1L;
+  private static final int LENGTH_PREFIX = 8;
+  // buffers smaller than this are stored as is
+  private static final int MIN_COMPRESSED_BUFFER_SIZE = 64;
+  private static final int MAX_SKIPPED_BATCHES = 64;
+
+  /**
+   * Codecs for the exchanged buffers.
+   */
+  public enum Codec {
+    NONE(CompressionUtil.CodecType.NO_COMPRESSION),
+    LZ4_FRAME(CompressionUtil.CodecType.LZ4_FRAME),
+    ZSTD(CompressionUtil.CodecType.ZSTD);
+
+    private final CompressionUtil.CodecType type;
+
+    Codec(CompressionUtil.CodecType type) {
+      this.type = type;
+    }
+
+    public static Codec fromCompressionType(byte compressionType) {
+      switch (compressionType) {
+        case CompressionType.LZ4_FRAME:
+          return LZ4_FRAME;
+        case CompressionType.ZSTD:
+          return ZSTD;
+        default:
+          throw new IllegalArgumentException("Unsupported compression type " + compressionType);
+      }
+    }
+  }
+
+  private final BufferAllocator allocator;
+  private final Codec codec;
+  private final int zstdLevel;
+  private final double minRatio;
+  private final OperatorStats stats;
+  private final MetricDef bytesBeforeMetric;
+  private final MetricDef bytesAfterMetric;
+  private final ArrowBodyCompression bodyCompression;
+
+  private int skippedBatches;
+  private int batchesToSkip = 1;
+
+  @VisibleForTesting
+  ExchangeCompressor(BufferAllocator allocator, Codec codec, int zstdLevel, double minRatio,
+                     OperatorStats stats, MetricDef bytesBeforeMetric, MetricDef bytesAfterMetric) {
+    Preconditions.checkArgument(codec != Codec.NONE);
+    this.allocator = allocator;
+    this.codec = codec;
+    this.zstdLevel = zstdLevel;
+    this.minRatio = minRatio;
+    this.stats = stats;
+    this.bytesBeforeMetric = bytesBeforeMetric;
+    this.bytesAfterMetric = bytesAfterMetric;
+    this.bodyCompression = new ArrowBodyCompression(codec.type.getType(), BodyCompressionMethod.BUFFER);
+  }
+
+  /**
+   * Creates a compressor for the batches sent through the given tunnel.
+   *
+   * @return the compressor, or null if compression is disabled or the tunnel doesn't leave this process
+   */
+  public static ExchangeCompressor create(OperatorContext context, AccountingExecTunnel tunnel, OperatorStats stats,
+                                          MetricDef bytesBeforeMetric, MetricDef bytesAfterMetric) {
+    if (tunnel.isInProcess()) {
+      return null;
+    }
+    return create(context, stats, bytesBeforeMetric, bytesAfterMetric);
+  }
+
+  /**
+   * Creates a compressor for the batches sent by an operator.
+   *
+   * @return the compressor, or null if compression is disabled
+   */
+  public static ExchangeCompressor create(OperatorContext context, OperatorStats stats,
+                                          MetricDef bytesBeforeMetric, MetricDef bytesAfterMetric) {
+    final OptionManager options = context.getOptions();
+    final Codec codec = Codec.valueOf(options.getOption(ExecConstants.EXCHANGE_COMPRESSION_CODEC).toUpperCase(Locale.ROOT));
+    if (codec == Codec.NONE) {
+      return null;
+    }
+    return new ExchangeCompressor(context.getAllocator(), codec,
+      (int) options.getOption(ExecConstants.EXCHANGE_COMPRESSION_ZSTD_LEVEL),
+      options.getOption(ExecConstants.EXCHANGE_COMPRESSION_MIN_RATIO),
+      stats, bytesBeforeMetric, bytesAfterMetric);
+  }
+
+  /**
+   * Compresses the buffers of a batch.
+   *
+   * @param batch the batch to compress
+   * @return a compressed copy of the batch, in which case the given batch is closed, or the batch itself if it was
+   * not worth compressing. The batch is closed if the compression fails.
+   */
+  public ArrowRecordBatch compress(ArrowRecordBatch batch) {
+    final long uncompressedSize = bodyLength(batch.getBuffers());
+    if (skippedBatches > 0) {
+      skippedBatches--;
+      updateStats(uncompressedSize, uncompressedSize);
+      return batch;
+    }
+
+    final List<ArrowBuf> buffers = new ArrayList<>(batch.getBuffers().size());
+    try {
+      long compressedSize = 0;
+      for (ArrowBuf buf : batch.getBuffers()) {
+        final ArrowBuf compressed = compressBuffer(buf);
+        buffers.add(compressed);
+        compressedSize += compressed.readableBytes();
+      }
+
+      if (compressedSize * minRatio > uncompressedSize) {
+        skippedBatches = batchesToSkip;
+        batchesToSkip = Math.min(MAX_SKIPPED_BATCHES, batchesToSkip * 2);
+        updateStats(uncompressedSize, uncompressedSize);
+        return batch;
+      }
+
+      batchesToSkip = 1;
+      final ArrowRecordBatch compressedBatch = new ArrowRecordBatch(batch.getLength(), batch.getNodes(), buffers,
+        bodyCompression, false);
+      batch.close();
+      updateStats(uncompressedSize, compressedSize);
+      return compressedBatch;
+    } catch (RuntimeException e) {
+      batch.close();
+      throw e;
+    } finally {
+      // the compressed batch holds its own references
+      for (ArrowBuf buf : buffers) {
+        buf.close();
+      }
+    }
+  }
+
+  @VisibleForTesting
+  int getSkippedBatches() {
+    return skippedBatches;
+  }
+
+  @VisibleForTesting
+  int getBatchesToSkip() {
+    return batchesToSkip;
+  }
+
+  private static long bodyLength(List<ArrowBuf> buffers) {
+    long length = 0;
+    for (ArrowBuf buf : buffers) {
+      length += buf.readableBytes();
+    }
+    return length;
+  }
+
+  private void updateStats(long bytesBefore, long bytesAfter) {
+    stats.addLongStat(bytesBeforeMetric, bytesBefore);
+    stats.addLongStat(bytesAfterMetric, bytesAfter);
+  }
+
+  private ArrowBuf compressBuffer(ArrowBuf buf) {
+    final int length = LargeMemoryUtil.checkedCastToInt(buf.readableBytes());
+    if (length == 0) {
+      final ArrowBuf out = allocator.buffer(LENGTH_PREFIX);
+      out.setLong(0, 0);
+      out.writerIndex(LENGTH_PREFIX);
+      return out;
+    }
+
+    final ArrowBuf out = allocator.buffer(LENGTH_PREFIX + Math.max(length, maxCompressedLength(length)));
+    try {
+      int compressedLength = -1;
+      if (length >= MIN_COMPRESSED_BUFFER_SIZE) {
+        final ByteBuffer src = buf.nioBuffer(buf.readerIndex(), length);
+        final ByteBuffer dst = out.nioBuffer(LENGTH_PREFIX, LargeMemoryUtil.checkedCastToInt(out.capacity() - LENGTH_PREFIX));
+        compressedLength = compress(src, length, dst);
+      }
+
+      if (compressedLength < 0 || compressedLength >= length) {
+        out.setLong(0, NOT_COMPRESSED);
+        out.setBytes(LENGTH_PREFIX, buf, buf.readerIndex(), length);
+        out.writerIndex(LENGTH_PREFIX + length);
+      } else {
+        out.setLong(0, length);
+        out.writerIndex(LENGTH_PREFIX + compressedLength);
+      }
+      return out;
+    } catch (RuntimeException e) {
+      out.close();
+      throw e;
+    }
+  }
+
+  private int maxCompressedLength(int length) {
+    switch (codec) {
+      case ZSTD:
+        return LargeMemoryUtil.checkedCastToInt(Zstd.compressBound(length));
+      case LZ4_FRAME:
+      default:
+        return Lz4Frame.maxCompressedLength(length);
+    }
+  }
+
+  /**
+   * @return the compressed length, or -1 if the buffer should be stored uncompressed
+   */
+  private int compress(ByteBuffer src, int length, ByteBuffer dst) {
+    switch (codec) {
+      case ZSTD: {
+        final long result = Zstd.compressDirectByteBuffer(dst, 0, dst.capacity(), src, 0, length, zstdLevel);
+        return Zstd.isError(result) ? -1 : (int) result;
+      }
+      case LZ4_FRAME:
+      default:
+        return Lz4Frame.compress(src, length, dst);
+    }
+  }
+
+  /**
+   * Decompresses a buffer written by {@link #compress(ArrowRecordBatch)}.
+   *
+   * @param codec codec the buffer was compressed with
+   * @param src the compressed buffer, including its length prefix
+   * @param dst where to write the uncompressed data, must have room for {@link #getUncompressedLength(ArrowBuf)} bytes
+   * @param dstOffset offset in dst to write the data at
+   */
+  public static void decompressBuffer(Codec codec, ArrowBuf src, ArrowBuf dst, long dstOffset) {
+    final int srcLength = LargeMemoryUtil.checkedCastToInt(src.readableBytes());
+    final long uncompressedLength = getUncompressedLength(src);
+    if (uncompressedLength == 0) {
+      return;
+    }
+    final int length = LargeMemoryUtil.checkedCastToInt(uncompressedLength);
+    if (src.getLong(src.readerIndex()) == NOT_COMPRESSED) {
+      dst.setBytes(dstOffset, src, src.readerIndex() + LENGTH_PREFIX, length);
+      return;
+    }
+
+    final ByteBuffer in = src.nioBuffer(src.readerIndex() + LENGTH_PREFIX, srcLength - LENGTH_PREFIX);
+    final ByteBuffer out = dst.nioBuffer(dstOffset, length);
+    final long decompressed;
+    switch (codec) {
+      case ZSTD:
+        decompressed = Zstd.decompressDirectByteBuffer(out, 0, length, in, 0, in.capacity());
+        if (Zstd.isError(decompressed)) {
+          throw new IllegalStateException("Failed to decompress buffer: " + Zstd.getErrorName(decompressed));
+        }
+        break;
+      case LZ4_FRAME:
+        decompressed = Lz4Frame.decompress(in, out);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported codec " + codec);
+    }
+    if (decompressed != length) {
+      throw new IllegalStateException(String.format("Expected %d bytes after decompression, got %d", length, decompressed));
+    }
+  }
+
+  /**
+   * @return the uncompressed length of a buffer written by {@link #compress(ArrowRecordBatch)}
+   */
+  public static long getUncompressedLength(ArrowBuf src) {
+    if (src.readableBytes() < LENGTH_PREFIX) {
+      return 0;
+    }
+    final long length = src.getLong(src.readerIndex());
+    return length == NOT_COMPRESSED ? src.readableBytes() - LENGTH_PREFIX : length;
+  }
+
+  /**
+   * Minimal writer and reader of the LZ4 frame format with independent blocks and no checksums, working on direct
+   * buffers so that the data isn't copied to the heap.
+   */
+  private static final class Lz4Frame {
+    private static final int MAGIC = 0x184D2204;
+    private static final int MAX_BLOCK_SIZE = 4 * 1024 * 1024;
+    // version 01, independent blocks
+    private static final byte FLG = 0x60;
+    // 4MB max block size
+    private static final byte BD = 0x70;
+    private static final byte HEADER_CHECKSUM = headerChecksum();
+    private static final int HEADER_SIZE = 7;
+    private static final int UNCOMPRESSED_BLOCK = 0x80000000;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private static byte headerChecksum() {
+      final byte[] descriptor = {FLG, BD};
+      return (byte) ((XXHashFactory.fastestInstance().hash32().hash(descriptor, 0, descriptor.length, 0) >> 8) & 0xFF);
+    }
+
+    static int maxCompressedLength(int length) {
+      final int blocks = Math.max(1, (length + MAX_BLOCK_SIZE - 1) / MAX_BLOCK_SIZE);
+      return HEADER_SIZE + blocks * Integer.BYTES + COMPRESSOR.maxCompressedLength(length) + Integer.BYTES;
+    }
+
+    /**
+     * @return the length of the frame, or -1 if a block doesn't compress
+     */
+    static int compress(ByteBuffer src, int length, ByteBuffer dst) {
+      dst.order(ByteOrder.LITTLE_ENDIAN);
+      dst.putInt(0, MAGIC);
+      dst.put(4, FLG);
+      dst.put(5, BD);
+      dst.put(6, HEADER_CHECKSUM);
+      int out = HEADER_SIZE;
+      for (int in = 0; in < length; in += MAX_BLOCK_SIZE) {
+        final int blockLength = Math.min(MAX_BLOCK_SIZE, length - in);
+        final int maxLength = dst.capacity() - out - 2 * Integer.BYTES;
+        if (maxLength < COMPRESSOR.maxCompressedLength(blockLength)) {
+          return -1;
+        }
+        final int compressedLength = COMPRESSOR.compress(src, in, blockLength, dst, out + Integer.BYTES, maxLength);
+        if (compressedLength >= blockLength) {
+          return -1;
+        }
+        dst.putInt(out, compressedLength);
+        out += Integer.BYTES + compressedLength;
+      }
+      // end mark
+      dst.putInt(out, 0);
+      return out + Integer.BYTES;
+    }
+
+    /**
+     * @return the number of bytes written to dst
+     */
+    static int decompress(ByteBuffer src, ByteBuffer dst) {
+      src.order(ByteOrder.LITTLE_ENDIAN);
+      if (src.getInt(0) != MAGIC) {
+        throw new IllegalStateException("Not an LZ4 frame");
+      }
+      final byte flg = src.get(4);
+      final boolean blockChecksum = (flg & 0x10) != 0;
+      final boolean contentSize = (flg & 0x08) != 0;
+      final boolean dictionaryId = (flg & 0x01) != 0;
+      int in = 6 + (contentSize ? Long.BYTES : 0) + (dictionaryId ? Integer.BYTES : 0) + 1;
+      int out = 0;
+      int blockHeader;
+      while ((blockHeader = src.getInt(in)) != 0) {
+        in += Integer.BYTES;
+        final int blockLength = blockHeader & ~UNCOMPRESSED_BLOCK;
+        if ((blockHeader & UNCOMPRESSED_BLOCK) != 0) {
+          final ByteBuffer block = src.duplicate();
+          block.limit(in + blockLength).position(in);
+          final ByteBuffer target = dst.duplicate();
+          target.position(out);
+          target.put(block);
+          out += blockLength;
+        } else {
+          out += DECOMPRESSOR.decompress(src, in, blockLength, dst, out, dst.capacity() - out);
+        }
+        in += blockLength + (blockChecksum ? Integer.BYTES : 0);
+      }
+      return out;
+    }
+  }
+}
@@ -39,6 +39,7 @@ import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.spi.TerminalOperator;
 import com.google.common.base.Function;
@@ -63,6 +64,7 @@ public class BroadcastOperator extends BaseSender {
   private final OperatorStats stats;
   private final OperatorContext context;
   private final SenderLatencyTracker latencyTracker = new SenderLatencyTracker();
+  private final ExchangeCompressor compressor;
 
   private VectorAccessible incoming;
 
@@ -71,7 +73,9 @@ public class BroadcastOperator extends BaseSender {
     BYTES_SENT,
     BATCHES_SENT,
     SUM_ACK_MILLIS,
-    MAX_ACK_MILLIS;
+    MAX_ACK_MILLIS,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION;
 
     @Override
     public int metricId() {
@@ -109,6 +113,15 @@ public class BroadcastOperator extends BaseSender {
       tunnels[i] = tunnelProvider.getExecTunnel(ep);
       i++;
     }
+
+    // batches are compressed once for all the receivers in other nodes
+    boolean hasRemoteTunnel = false;
+    for (AccountingExecTunnel tunnel : tunnels) {
+      hasRemoteTunnel |= !tunnel.isInProcess();
+    }
+    this.compressor = hasRemoteTunnel
+      ? ExchangeCompressor.create(context, stats, Metric.BYTES_BEFORE_COMPRESSION, Metric.BYTES_AFTER_COMPRESSION)
+      : null;
   }
 
   @Override
@@ -188,18 +201,40 @@ public class BroadcastOperator extends BaseSender {
       }
     }
 
-    for (int i = 0; i < tunnels.length; ++i) {
-      FragmentWritableBatch batch = new FragmentWritableBatch(
-          handle.getQueryId(),
-          handle.getMajorFragmentId(),
-          handle.getMinorFragmentId(),
-          config.getReceiverMajorFragmentId(),
-          new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers, NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false),
-          receivingMinorFragments[i]);
-      updateStats(batch);
-      tunnels[i].sendRecordBatch(batch, latencyTracker.getLatencyObserver());
-      for (ArrowBuf buf : buffers) {
-        buf.close();
+    ArrowRecordBatch compressedBatch = null;
+    if (compressor != null) {
+      final ArrowRecordBatch uncompressedBatch = new ArrowRecordBatch(arrowRecordBatch.getLength(),
+        arrowRecordBatch.getNodes(), buffers, NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false);
+      compressedBatch = compressor.compress(uncompressedBatch);
+      if (compressedBatch == uncompressedBatch) {
+        uncompressedBatch.close();
+        compressedBatch = null;
+      }
+    }
+
+    try {
+      for (int i = 0; i < tunnels.length; ++i) {
+        final ArrowRecordBatch recordBatch = compressedBatch != null && !tunnels[i].isInProcess()
+          ? new ArrowRecordBatch(compressedBatch.getLength(), compressedBatch.getNodes(), compressedBatch.getBuffers(),
+          compressedBatch.getBodyCompression(), false)
+          : new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers,
+          NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false);
+        FragmentWritableBatch batch = new FragmentWritableBatch(
+            handle.getQueryId(),
+            handle.getMajorFragmentId(),
+            handle.getMinorFragmentId(),
+            config.getReceiverMajorFragmentId(),
+            recordBatch,
+            receivingMinorFragments[i]);
+        updateStats(batch);
+        tunnels[i].sendRecordBatch(batch, latencyTracker.getLatencyObserver());
+        for (ArrowBuf buf : buffers) {
+          buf.close();
+        }
+      }
+    } finally {
+      if (compressedBatch != null) {
+        compressedBatch.close();
       }
     }
   }
@@ -103,7 +103,16 @@ public class PartitionSenderOperator extends BaseSender {
     OOB_PARTITION_COUNTERS_SENDS, // Number of times operator informed others of local seen partition counters
     OOB_PARTITION_COUNTERS_RECEIVES, // Number of times operator received a notification of partition counters from peers.
 
-    OOB_DOP; // Adjusted DOP based on oob messages
+    OOB_DOP, // Adjusted DOP based on oob messages
+
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION,
+
+    // skew detection related metrics
+    SKEW_HOT_KEYS, // Number of keys detected as hot in the sampled records
+    SKEW_HOT_KEY_RECORDS, // Number of sampled records that have one of the hot keys
+    SKEW_IMBALANCE_FACTOR, // Records of the most loaded receiver / average records per receiver
+    SKEW_SALTED_RECORDS; // Number of records of hot keys spread across several receivers
 
     @Override
     public int metricId() {
@@ -53,6 +53,7 @@ import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
 import com.google.common.base.Throwables;
@@ -246,6 +247,7 @@ public abstract class PartitionerTemplate implements Partitioner {
     private final VectorContainer vectorContainer = new VectorContainer();
     private final int oppositeMinorFragmentId;
     private final OperatorStats stats;
+    private final ExchangeCompressor compressor;
 
     private int maxRecordCount;
 
@@ -262,6 +264,8 @@ public abstract class PartitionerTemplate implements Partitioner {
       this.stats = stats;
       this.oppositeMinorFragmentId = oppositeMinorFragmentId;
       this.maxRecordCount = maxRecordCount;
+      this.compressor = ExchangeCompressor.create(context, tunnel, stats,
+        Metric.BYTES_BEFORE_COMPRESSION, Metric.BYTES_AFTER_COMPRESSION);
     }
 
     protected void copy(int inIndex) throws IOException {
@@ -330,7 +334,8 @@ public abstract class PartitionerTemplate implements Partitioner {
           handle.getMinorFragmentId(),
           operator.getReceiverMajorFragmentId(),
           vectorContainer,
-          oppositeMinorFragmentId);
+          oppositeMinorFragmentId,
+          compressor);
 
       // update the outgoing batch size if the buffer is too big
       final long batchLength = writableBatch.getByteCount();
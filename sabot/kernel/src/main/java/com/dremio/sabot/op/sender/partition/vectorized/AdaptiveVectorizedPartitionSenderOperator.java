@@ -49,6 +49,9 @@ import com.google.common.base.Preconditions;
  *    * collect partitions/counts from all peers via OOB
  *    * calculate DOP based on partitions/counts
  *
+ * When skew detection is enabled, the rows of the hot keys it detects are also spread across
+ * exec.op.partitioner.skew.hot_key_fanout receivers, while the other keys stay hash distributed.
+ *
  * Note:
  *    * DOP could be at partition value level, currently, it is a single value set for all partition values
  *    * DOP could range from 1 ~ maximal width. Currently, it is set either 1, or maximal width (when data skew is detected)
@@ -113,6 +116,12 @@ public class AdaptiveVectorizedPartitionSenderOperator extends VectorizedPartiti
   // the expected PartitionCounts OOB messages to receive
   private int expectedReceivedPartitionCountsMsgCount;
 
+  // number of receivers the rows of a hot key are spread across
+  private int hotKeyFanout;
+
+  // number of rows of hot keys that were spread across several receivers
+  private long saltedRecords = 0;
+
   // test only
   private boolean forceAdjustDop = false;
 
@@ -133,17 +142,18 @@ public class AdaptiveVectorizedPartitionSenderOperator extends VectorizedPartiti
     allowAdaptiveHash = context.getOptions().getOption(ADAPTIVE_HASH);
     dop = dopRatio == 1 ? numReceivers : (int)(dopRatio * numReceivers) + 1;
     initialDop = dop;
+    hotKeyFanout = (int) Math.min(numReceivers, context.getOptions().getOption(SKEW_HOT_KEY_FANOUT));
 
     // expect all minor fragments send partition count OOB messages
     expectedReceivedPartitionCountsMsgCount = context.getAssignments().stream().mapToInt(a -> a.getMinorFragmentIdList().size()).sum();
   }
 
   @Override
-  protected OutgoingBatch getBatch(int partition, OutgoingBatch[] modLookup) {
-    OutgoingBatch batch = super.getBatch(partition, modLookup);
+  protected OutgoingBatch getBatch(int hash, int partition, OutgoingBatch[] modLookup) {
+    OutgoingBatch batch = super.getBatch(hash, partition, modLookup);
 
     if (!allowAdaptiveHash) {
-      return batch;
+      return saltHotKey(hash, batch, modLookup);
     }
 
     long partitionValueCount = partitionCounters.put(partition, partitionCounters.computeIfAbsent(partition, p -> 0L) + 1);
@@ -172,7 +182,20 @@ public class AdaptiveVectorizedPartitionSenderOperator extends VectorizedPartiti
       return modLookup[newReceiver];
     }
 
-    return batch;
+    return saltHotKey(hash, batch, modLookup);
+  }
+
+  /**
+   * Round-robin distribution of the rows of a hot key across hotKeyFanout receivers, starting from the receiver
+   * the key is hashed to.
+   */
+  private OutgoingBatch saltHotKey(int hash, OutgoingBatch batch, OutgoingBatch[] modLookup) {
+    if (hotKeyFanout <= 1 || skewDetector == null || !skewDetector.isHot(hash)) {
+      return batch;
+    }
+    int currentReceiver = Math.min(batch.getBatchIdx(), batch.getNextBatchIdx());
+    int newReceiver = (int) ((currentReceiver + saltedRecords++ % hotKeyFanout) % numReceivers);
+    return modLookup[newReceiver];
   }
 
   private void notifyOthersOfPartitionCounts() {
@@ -349,6 +372,7 @@ public class AdaptiveVectorizedPartitionSenderOperator extends VectorizedPartiti
     stats.setLongStat(PartitionSenderOperator.Metric.OOB_PARTITION_COUNTERS_SENDS, oobSends);
     stats.setLongStat(PartitionSenderOperator.Metric.OOB_PARTITION_COUNTERS_RECEIVES, oobReceives);
     stats.setLongStat(PartitionSenderOperator.Metric.OOB_DOP, dop);
+    stats.setLongStat(PartitionSenderOperator.Metric.SKEW_SALTED_RECORDS, saltedRecords);
   }
 
   @Override
@@ -359,5 +383,6 @@ public class AdaptiveVectorizedPartitionSenderOperator extends VectorizedPartiti
     }
 
     super.noMoreToConsume();
+    updateStats();
   }
 }
@@ -33,6 +33,7 @@ import com.dremio.exec.record.VectorWrapper;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
 import com.google.common.base.Preconditions;
@@ -66,6 +67,7 @@ public class OutgoingBatch extends VectorContainer {
   /** true if receiver finished */
   private volatile boolean dropAll;
   private final SenderLatencyTracker senderLatencyTracker;
+  private final ExchangeCompressor compressor;
 
   OutgoingBatch(int batchIdx, int nextBatchIdx, int maxRecords, final VectorAccessible incoming,
                 BufferAllocator allocator, AccountingExecTunnel tunnel, HashPartitionSender config,
@@ -83,6 +85,8 @@ public class OutgoingBatch extends VectorContainer {
 
     this.stats = stats;
     this.senderLatencyTracker = senderLatencyTracker;
+    this.compressor = ExchangeCompressor.create(context, tunnel, stats,
+      Metric.BYTES_BEFORE_COMPRESSION, Metric.BYTES_AFTER_COMPRESSION);
 
     for (VectorWrapper<?> v : incoming) {
       ValueVector outgoingVector = TypeHelper.getNewVector(v.getField(), allocator);
@@ -181,7 +185,8 @@ public class OutgoingBatch extends VectorContainer {
       handle.getMinorFragmentId(),
       config.getReceiverMajorFragmentId(),
       this,
-      oppositeMinorFragmentId);
+      oppositeMinorFragmentId,
+      compressor);
 
     updateStats(writableBatch);
 
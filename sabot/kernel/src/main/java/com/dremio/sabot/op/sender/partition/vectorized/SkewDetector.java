@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender.partition.vectorized;
+
+import java.util.Arrays;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.google.common.base.Preconditions;
+
+/**
+ * Detects the hash values that account for a large share of the rows sent by a hash partition sender.<br>
+ * The hashes of the first rows are tracked with a space saving sketch, which keeps the most frequent values seen so
+ * far in a fixed number of slots. Once enough rows have been sampled, the hashes whose guaranteed count is above
+ * the hot key ratio are frozen as the hot keys. The number of rows copied to each outgoing batch is tracked for all
+ * the rows, and folded into the rows of each receiver to report how unevenly the receivers are loaded.
+ */
+public class SkewDetector {
+
+  private final int sampleRows;
+  private final double hotKeyRatio;
+
+  // space saving sketch: slot of each tracked hash, and for each slot its hash, count and overestimation
+  private final IntIntHashMap slots;
+  private final int[] keys;
+  private final long[] counts;
+  private final long[] errors;
+  private int size;
+
+  private long sampledRows;
+  private IntHashSet hotKeys;
+  private long hotKeyRows;
+
+  // rows per outgoing batch index, batch i is sent to receiver i % numReceivers
+  private final long[] batchRows;
+  private final int numReceivers;
+
+  public SkewDetector(int numSlots, int sampleRows, double hotKeyRatio, int numReceivers, int numBatches) {
+    Preconditions.checkArgument(numSlots > 0, "number of slots must be positive");
+    Preconditions.checkArgument(numBatches % numReceivers == 0,
+      "number of batches must be a multiple of the number of receivers");
+    this.sampleRows = sampleRows;
+    this.hotKeyRatio = hotKeyRatio;
+    this.slots = new IntIntHashMap(numSlots);
+    this.keys = new int[numSlots];
+    this.counts = new long[numSlots];
+    this.errors = new long[numSlots];
+    this.batchRows = new long[numBatches];
+    this.numReceivers = numReceivers;
+  }
+
+  /**
+   * Accounts for one row
+   *
+   * @param hash hash value of the distribution key of the row
+   * @param batchIdx index of the outgoing batch the row is copied to
+   */
+  public void add(int hash, int batchIdx) {
+    batchRows[batchIdx]++;
+    if (hotKeys != null) {
+      return;
+    }
+
+    final int slot = slots.getOrDefault(hash, -1);
+    if (slot >= 0) {
+      counts[slot]++;
+    } else if (size < keys.length) {
+      slots.put(hash, size);
+      keys[size] = hash;
+      counts[size] = 1;
+      errors[size] = 0;
+      size++;
+    } else {
+      // replace the least frequent hash, the new one may have been seen as many times before being evicted
+      int min = 0;
+      for (int i = 1; i < size; i++) {
+        if (counts[i] < counts[min]) {
+          min = i;
+        }
+      }
+      slots.remove(keys[min]);
+      slots.put(hash, min);
+      keys[min] = hash;
+      errors[min] = counts[min];
+      counts[min]++;
+    }
+
+    if (++sampledRows == sampleRows) {
+      freezeHotKeys();
+    }
+  }
+
+  /**
+   * @return true once enough rows have been sampled to know the hot keys
+   */
+  public boolean isDone() {
+    return hotKeys != null;
+  }
+
+  /**
+   * Stops sampling and computes the hot keys from the rows seen so far
+   */
+  public void finish() {
+    if (hotKeys == null) {
+      freezeHotKeys();
+    }
+  }
+
+  private void freezeHotKeys() {
+    hotKeys = new IntHashSet();
+    hotKeyRows = 0;
+    final double threshold = hotKeyRatio * sampledRows;
+    for (int i = 0; i < size; i++) {
+      final long guaranteedCount = counts[i] - errors[i];
+      if (guaranteedCount > 0 && guaranteedCount >= threshold) {
+        hotKeys.add(keys[i]);
+        hotKeyRows += counts[i];
+      }
+    }
+  }
+
+  /**
+   * @return true if the hash was detected as a hot key, always false while the rows are still sampled
+   */
+  public boolean isHot(int hash) {
+    return hotKeys != null && hotKeys.contains(hash);
+  }
+
+  public int getHotKeyCount() {
+    return hotKeys == null ? 0 : hotKeys.size();
+  }
+
+  /**
+   * @return the hot keys, sorted
+   */
+  public int[] getHotKeys() {
+    if (hotKeys == null) {
+      return new int[0];
+    }
+    final int[] result = hotKeys.toArray();
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * @return number of sampled rows that have one of the hot keys
+   */
+  public long getHotKeyRows() {
+    return hotKeyRows;
+  }
+
+  public long getSampledRows() {
+    return sampledRows;
+  }
+
+  /**
+   * @return ratio between the number of rows of the most loaded receiver and the average number of rows per
+   * receiver, 1 when the rows are evenly distributed
+   */
+  public double getImbalanceFactor() {
+    final long[] receiverRows = new long[numReceivers];
+    long total = 0;
+    for (int i = 0; i < batchRows.length; i++) {
+      receiverRows[i % numReceivers] += batchRows[i];
+      total += batchRows[i];
+    }
+    if (total == 0) {
+      return 1;
+    }
+    long max = 0;
+    for (long rows : receiverRows) {
+      max = Math.max(max, rows);
+    }
+    return (double) max * numReceivers / total;
+  }
+}
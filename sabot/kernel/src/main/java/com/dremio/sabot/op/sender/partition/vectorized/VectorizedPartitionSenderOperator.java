@@ -32,6 +32,7 @@ import com.carrotsearch.hppc.IntArrayList;
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.expression.SchemaPath;
 import com.dremio.common.util.Numbers;
+import com.dremio.common.utils.protos.QueryIdHelper;
 import com.dremio.exec.physical.config.HashPartitionSender;
 import com.dremio.exec.physical.config.MinorFragmentEndpoint;
 import com.dremio.exec.proto.ExecProtos;
@@ -70,6 +71,19 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
   // there is no more data to send (instead of at operator close).
   public static final TypeValidators.BooleanValidator DELAY_ALLOC_SEND_BATCHES = new TypeValidators.BooleanValidator("exec.op.partitioner.delay_alloc_send_batches", true);
 
+  // If set, sample the hash values of the first rows to detect the keys that account for a large share of the rows,
+  // and report them in the profile along with how unevenly the rows are spread across the receivers.
+  public static final TypeValidators.BooleanValidator SKEW_DETECTION = new TypeValidators.BooleanValidator("exec.op.partitioner.skew.detection", false);
+  public static final TypeValidators.PositiveLongValidator SKEW_SAMPLE_ROWS = new TypeValidators.PositiveLongValidator("exec.op.partitioner.skew.sample_rows", Integer.MAX_VALUE, 64 * 1024);
+  // share of the sampled rows a key must account for to be considered hot
+  public static final TypeValidators.RangeDoubleValidator SKEW_HOT_KEY_RATIO = new TypeValidators.RangeDoubleValidator("exec.op.partitioner.skew.hot_key_ratio", 0.001, 1, 0.05);
+  // number of receivers the rows of a hot key are spread across, when the exchange doesn't need the rows of a key
+  // to be on the same receiver
+  public static final TypeValidators.RangeLongValidator SKEW_HOT_KEY_FANOUT = new TypeValidators.RangeLongValidator("exec.op.partitioner.skew.hot_key_fanout", 1, 1024, 4);
+
+  // number of hash values tracked by the skew detection sketch
+  private static final int SKEW_SKETCH_SLOTS = 64;
+
   /** used to ensure outgoing batches creation and */
   private final Object batchCreationLock = new Object();
 
@@ -137,11 +151,16 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
   // if true, delay allocating send batches till the first batch arrives.
   private final boolean delayAllocSendBatches;
 
+  /** null if skew detection is disabled */
+  protected final SkewDetector skewDetector;
+
   /**
    * true if all receivers finished.
    */
   private volatile boolean nobodyListening = false;
 
+  private boolean skewStatsReported = false;
+
   public VectorizedPartitionSenderOperator(final OperatorContext context,
                                            final TunnelProvider tunnelProvider,
                                            final HashPartitionSender config) {
@@ -161,6 +180,9 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     modLookup = new OutgoingBatch[modSize];
     batches = new OutgoingBatch[2 * numReceivers];
     delayAllocSendBatches = context.getOptions().getOption(DELAY_ALLOC_SEND_BATCHES);
+    skewDetector = context.getOptions().getOption(SKEW_DETECTION) ?
+      new SkewDetector(SKEW_SKETCH_SLOTS, (int) context.getOptions().getOption(SKEW_SAMPLE_ROWS),
+        context.getOptions().getOption(SKEW_HOT_KEY_RATIO), numReceivers, batches.length) : null;
   }
 
   @Override
@@ -287,6 +309,7 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     stats.setLongStat(Metric.PRECOPY_NS, preCopyWatch.elapsed(NANOSECONDS));
     stats.setLongStat(Metric.FLUSH_NS, flushWatch.elapsed(NANOSECONDS));
     copyWatches.updateStats(stats);
+    updateSkewStats();
   }
 
   @Override
@@ -309,6 +332,27 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     switchStateToDone();
 
     stats.setLongStat(Metric.FLUSH_NS, flushWatch.elapsed(NANOSECONDS));
+    if (skewDetector != null) {
+      skewDetector.finish();
+      updateSkewStats();
+    }
+  }
+
+  private void updateSkewStats() {
+    if (skewDetector == null) {
+      return;
+    }
+    if (skewDetector.isDone() && !skewStatsReported) {
+      skewStatsReported = true;
+      stats.setLongStat(Metric.SKEW_HOT_KEYS, skewDetector.getHotKeyCount());
+      stats.setLongStat(Metric.SKEW_HOT_KEY_RECORDS, skewDetector.getHotKeyRows());
+      if (logger.isDebugEnabled() && skewDetector.getHotKeyCount() > 0) {
+        logger.debug("{}: {} of {} sampled records have one of the hot keys {}",
+          QueryIdHelper.getQueryIdentifier(context.getFragmentHandle()), skewDetector.getHotKeyRows(),
+          skewDetector.getSampledRows(), Arrays.toString(skewDetector.getHotKeys()));
+      }
+    }
+    stats.setDoubleStat(Metric.SKEW_IMBALANCE_FACTOR, skewDetector.getImbalanceFactor());
   }
 
   @Override
@@ -351,7 +395,12 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     stats.stopWait();
   }
 
-  protected OutgoingBatch getBatch(int partition, OutgoingBatch[] modLookup) {
+  /**
+   * @param hash hash value of the distribution key of the row
+   * @param partition partition of the row, derived from the hash
+   * @return the outgoing batch the row should be copied to
+   */
+  protected OutgoingBatch getBatch(int hash, int partition, OutgoingBatch[] modLookup) {
     return modLookup[partition];
   }
 
@@ -362,12 +411,17 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     final int mod = modSize - 1;
     final OutgoingBatch[] modLookup = this.modLookup;
     final OutgoingBatch[] batches = this.batches;
+    final SkewDetector skewDetector = this.skewDetector;
 
     //populate using the destination (batchIdx, rowIdx) for each incoming row
     final long max = srcAddr + numRowsToCopy*4;
     for (; srcAddr < max; srcAddr+=4, dstAddr+=4) {
-      final int partition = (PlatformDependent.getInt(srcAddr) & 0x7FFFFFFF) & mod; // abs(hash) % modSize
-      OutgoingBatch batch = getBatch(partition, modLookup);
+      final int hash = PlatformDependent.getInt(srcAddr);
+      final int partition = (hash & 0x7FFFFFFF) & mod; // abs(hash) % modSize
+      OutgoingBatch batch = getBatch(hash, partition, modLookup);
+      if (skewDetector != null) {
+        skewDetector.add(hash, batch.getBatchIdx());
+      }
 
       final int compound = batch.preCopyRow();
       PlatformDependent.putInt(dstAddr, compound);
@@ -42,6 +42,7 @@ import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.spi.TerminalOperator;
 import com.google.common.base.Function;
@@ -66,6 +67,7 @@ public class RoundRobinOperator extends BaseSender {
   private int currentTunnelsIndex;
   private int currentMinorFragmentsIndex;
   private final SenderLatencyTracker latencyTracker = new SenderLatencyTracker();
+  private final ExchangeCompressor compressor;
 
   private VectorAccessible incoming;
 
@@ -74,7 +76,9 @@ public class RoundRobinOperator extends BaseSender {
     BYTES_SENT,
     BATCHES_SENT,
     SUM_ACK_MILLIS,
-    MAX_ACK_MILLIS;
+    MAX_ACK_MILLIS,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION;
 
     @Override
     public int metricId() {
@@ -103,6 +107,14 @@ public class RoundRobinOperator extends BaseSender {
       tunnels.add(tunnelProvider.getExecTunnel(ep));
     }
 
+    boolean hasRemoteTunnel = false;
+    for (AccountingExecTunnel tunnel : tunnels) {
+      hasRemoteTunnel |= !tunnel.isInProcess();
+    }
+    this.compressor = hasRemoteTunnel
+      ? ExchangeCompressor.create(context, stats, Metric.BYTES_BEFORE_COMPRESSION, Metric.BYTES_AFTER_COMPRESSION)
+      : null;
+
     int destCount = dests.keySet().size();
     this.currentTunnelsIndex = ThreadLocalRandom.current().nextInt(destCount);
     this.currentMinorFragmentsIndex = ThreadLocalRandom.current().nextInt(minorFragments.get(currentTunnelsIndex).size());
@@ -177,16 +189,22 @@ public class RoundRobinOperator extends BaseSender {
         }
       }).toList();
 
+    final AccountingExecTunnel tunnel = tunnels.get(currentTunnelsIndex);
+    ArrowRecordBatch recordBatch = new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(),
+      buffers, NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false);
+    if (compressor != null && !tunnel.isInProcess()) {
+      recordBatch = compressor.compress(recordBatch);
+    }
     FragmentWritableBatch batch = new FragmentWritableBatch(
       handle.getQueryId(),
       handle.getMajorFragmentId(),
       handle.getMinorFragmentId(),
       config.getReceiverMajorFragmentId(),
-      new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers, NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false),
+      recordBatch,
       minorFragments.get(currentTunnelsIndex).get(currentMinorFragmentsIndex)
     );
     updateStats(batch);
-    tunnels.get(currentTunnelsIndex).sendRecordBatch(batch, latencyTracker.getLatencyObserver());
+    tunnel.sendRecordBatch(batch, latencyTracker.getLatencyObserver());
 
     currentMinorFragmentsIndex++;
     if (currentMinorFragmentsIndex >= minorFragments.get(currentTunnelsIndex).size()) {
@@ -31,6 +31,7 @@ import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.spi.TerminalOperator;
 import com.google.common.base.Preconditions;
@@ -45,6 +46,7 @@ public class SingleSenderOperator extends BaseSender {
     private final FragmentHandle handle;
     private final int recMajor;
     private final SenderLatencyTracker latencyTracker;
+    private final ExchangeCompressor compressor;
 
     private State state = State.NEEDS_SETUP;
     private VectorAccessible incoming;
@@ -53,7 +55,9 @@ public class SingleSenderOperator extends BaseSender {
       BYTES_SENT,
       BATCHES_SENT,
       SUM_ACK_MILLIS,
-      MAX_ACK_MILLIS;
+      MAX_ACK_MILLIS,
+      BYTES_BEFORE_COMPRESSION,
+      BYTES_AFTER_COMPRESSION;
 
       @Override
       public int metricId() {
@@ -74,6 +78,8 @@ public class SingleSenderOperator extends BaseSender {
       NodeEndpoint ep = config.getDestinations(context.getEndpointsIndex()).get(0).getEndpoint();
       this.tunnel = tunnelProvider.getExecTunnel(ep);
       this.latencyTracker = new SenderLatencyTracker();
+      this.compressor = ExchangeCompressor.create(context, tunnel, context.getStats(),
+        Metric.BYTES_BEFORE_COMPRESSION, Metric.BYTES_AFTER_COMPRESSION);
     }
 
     @Override
@@ -85,7 +91,8 @@ public class SingleSenderOperator extends BaseSender {
           handle.getMinorFragmentId(),
           recMajor,
           incoming,
-          oppositeHandle.getMinorFragmentId()
+          oppositeHandle.getMinorFragmentId(),
+          compressor
           );
       updateStats(batch);
       context.getStats().startWait();
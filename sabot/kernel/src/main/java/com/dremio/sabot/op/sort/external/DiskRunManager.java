@@ -21,6 +21,9 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.arrow.memory.BufferAllocator;
@@ -125,6 +128,10 @@ public class DiskRunManager implements AutoCloseable {
   private final double allocationDensity;
   private long compressionNanos;
   private long uncompressionNanos;
+  private final ExecutorService readAheadExecutor;
+  private final boolean readAhead;
+  private long readAheadWaitNanos;
+  private long readAheadBatches;
 
   private final CopierFactory copierFactory;
   private final OperatorStats operatorStats;
@@ -154,7 +161,8 @@ public class DiskRunManager implements AutoCloseable {
       ExternalSortTracer tracer,
       SpillService spillService,
       OperatorStats stats,
-      ExecutionControls executionControls
+      ExecutionControls executionControls,
+      ExecutorService readAheadExecutor
       ) throws Exception {
     try (RollbackCloseable rollback = new RollbackCloseable()) {
       this.targetRecordCount = targetRecordCount;
@@ -176,6 +184,10 @@ public class DiskRunManager implements AutoCloseable {
       this.useVectorCopier = optionManager.getOption(ExecConstants.EXTERNAL_SORT_VECTOR_COPIER);
       this.allocationDensity = optionManager.getOption(ExecConstants.EXTERNAL_SORT_SPILL_ALLOCATION_DENSITY);
       this.copierFactory = new FieldBufferCopierFactory(optionManager);
+      // read-ahead relies on the arrow encoding to load a batch straight into a standalone container.
+      this.readAheadExecutor = readAheadExecutor;
+      this.readAhead = readAheadExecutor != null && useArrowEncoding
+        && optionManager.getOption(ExecConstants.EXTERNAL_SORT_ENABLE_READ_AHEAD);
 
       if (compressSpilledBatch) {
         long reserve = VectorAccessibleSerializable.RAW_CHUNK_SIZE_TO_COMPRESS * 2;
@@ -755,11 +767,11 @@ public class DiskRunManager implements AutoCloseable {
     }
 
     long totalSizeNeeded = 0;
-    // for now we always read one batch from all disk runs, so we need to make sure we have enough memory reserved
-    // to allocate the largest batch per run
+    // we always read one batch from all disk runs (two with read-ahead), so we need to make sure we have enough memory
+    // reserved to allocate the largest batch per run
     for(DiskRun run : diskRuns){
       long batchSize = nextPowerOfTwo(run.largestBatch);
-      totalSizeNeeded += batchSize;
+      totalSizeNeeded += readAhead ? 2 * batchSize : batchSize;
     }
 
     // add the required space for the copy output. We use * 3 to manage against a really large vector.
@@ -895,7 +907,9 @@ public class DiskRunManager implements AutoCloseable {
      */
     private DiskRunIterator openRun(BufferAllocator copierAllocator, int batchId, ExpandableHyperContainer container) throws Exception{
       Preconditions.checkState(iterator == null);
-      final long memCapacity = nextPowerOfTwo(largestBatch);
+      final long batchCapacity = nextPowerOfTwo(largestBatch);
+      // the prefetched batch lives side by side with the batch being merged.
+      final long memCapacity = readAhead ? 2 * batchCapacity : batchCapacity;
       iterator = new DiskRunIterator(batchCount, spillFile, container, copierAllocator, memCapacity);
 
       return iterator;
@@ -923,6 +937,10 @@ public class DiskRunManager implements AutoCloseable {
     private int recordIndexMax;
     private final VectorContainer container;
 
+    // holds the batch being read in the background, when read-ahead is enabled.
+    private VectorContainer prefetchContainer;
+    private Future<?> pendingRead;
+
     /*
      * DiskRunIterator opens a spill file and loads batch(es) into memory when reading spill files.
      * As part of creation of iterator below, we load a single batch and if this IO fails, the
@@ -936,6 +954,9 @@ public class DiskRunManager implements AutoCloseable {
         this.container = rollback.add(VectorContainer.create(allocator, dataSchema));
         this.inputStream = rollback.add(spillFile.open(useArrowEncoding && compressSpilledBatch));
         this.batchIndexMax = batchCount;
+        if (readAhead) {
+          this.prefetchContainer = rollback.add(VectorContainer.create(allocator, dataSchema));
+        }
         loadNextBatch(true);
         hyperContainer.addBatch(this.container);
         rollback.commit();
@@ -952,6 +973,23 @@ public class DiskRunManager implements AutoCloseable {
       Preconditions.checkArgument(batchIndex + 1 < batchIndexMax, "You tried to go beyond end of available batches to read.");
       container.zeroVectors();
 
+      if (readAhead) {
+        if (first) {
+          inputStream.load(container, allocator);
+        } else {
+          awaitPendingRead();
+          prefetchContainer.transferOut(container);
+          container.setRecordCount(prefetchContainer.getRecordCount());
+          readAheadBatches++;
+        }
+        recordIndexMax = container.getRecordCount();
+        batchIndex++;
+        recordIndex = -1;
+        if (batchIndex + 1 < batchIndexMax) {
+          startPendingRead();
+        }
+        return;
+      }
 
       if(useArrowEncoding) {
         inputStream.load(container, allocator);
@@ -992,9 +1030,52 @@ public class DiskRunManager implements AutoCloseable {
       recordIndex = -1;
     }
 
+    /**
+     * Reads the next batch of the run into the prefetch container on the read-ahead executor. At most one read is
+     * outstanding per run, so the input stream and the prefetch container are never accessed concurrently.
+     */
+    private void startPendingRead() {
+      Preconditions.checkState(pendingRead == null, "Only one read-ahead is allowed per disk run.");
+      prefetchContainer.zeroVectors();
+      pendingRead = readAheadExecutor.submit(() -> {
+        inputStream.loadInBackground(prefetchContainer, allocator);
+        return null;
+      });
+    }
+
+    private void awaitPendingRead() throws IOException {
+      Preconditions.checkState(pendingRead != null, "No read-ahead is pending for this disk run.");
+      final Stopwatch watch = Stopwatch.createStarted();
+      try {
+        pendingRead.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for spilled batch to be read.", e);
+      } catch (ExecutionException e) {
+        Throwables.propagateIfPossible(e.getCause(), IOException.class);
+        throw new IOException("Failure while reading spilled batch.", e.getCause());
+      } finally {
+        pendingRead = null;
+        // only the time blocked on the background read is wait time of the operator
+        final long blockedNanos = watch.elapsed(TimeUnit.NANOSECONDS);
+        readAheadWaitNanos += blockedNanos;
+        if (operatorStats != null) {
+          operatorStats.moveProcessingToWait(blockedNanos);
+        }
+      }
+    }
+
     @Override
     public void close() throws Exception {
-      AutoCloseables.close(container, allocator, inputStream);
+      if (pendingRead != null) {
+        // the background read still uses the stream and the allocator, let it finish before releasing them.
+        try {
+          awaitPendingRead();
+        } catch (IOException e) {
+          logger.debug("Ignoring failure of read-ahead while closing disk run.", e);
+        }
+      }
+      AutoCloseables.close(container, prefetchContainer, allocator, inputStream);
     }
 
     public int getNextId() throws IOException{
@@ -1056,6 +1137,14 @@ public class DiskRunManager implements AutoCloseable {
     return spillCopyWatch.elapsed(TimeUnit.NANOSECONDS);
   }
 
+  public long getReadAheadWaitNanos() {
+    return readAheadWaitNanos;
+  }
+
+  public long getReadAheadBatches() {
+    return readAheadBatches;
+  }
+
   /**
    * Create configuration appropriate copier and monitor its use with stopwatch.
    * @param incoming
@@ -127,6 +127,7 @@ public class ExternalSortOperator implements SingleInputOperator, ShrinkableOper
   private int maxBatchesInMemory = 0;
   private int batchsizeMultiplier;
   private boolean enableSplaySort;
+  private boolean enableNormalizedKeySort;
   private boolean enableMicroSpill;
   private State prevState;
   private SortState prevSortState;
@@ -188,6 +189,7 @@ public class ExternalSortOperator implements SingleInputOperator, ShrinkableOper
       final int varFieldSizeEstimate = (int) options.getOption(ExecConstants.BATCH_VARIABLE_FIELD_SIZE_ESTIMATE);
       final boolean compressSpilledBatch = options.getOption(ExecConstants.EXTERNAL_SORT_COMPRESS_SPILL_FILES);
       this.enableSplaySort = options.getOption(ExecConstants.EXTERNAL_SORT_ENABLE_SPLAY_SORT);
+      this.enableNormalizedKeySort = options.getOption(ExecConstants.EXTERNAL_SORT_ENABLE_NORMALIZED_KEY_SORT);
       this.unconsumedRef = null;
       this.enableMicroSpill = options.getOption(ExecConstants.EXTERNAL_SORT_ENABLE_MICRO_SPILL);
       this.consumePendingIncomingBatch = false;
@@ -195,7 +197,8 @@ public class ExternalSortOperator implements SingleInputOperator, ShrinkableOper
       this.prevSortState = null;
 
       this.memoryRun = new MemoryRun(config, producer, context.getAllocator(), incoming.getSchema(), tracer,
-        batchsizeMultiplier, enableSplaySort, targetBatchSize, context.getExecutionControls());
+        batchsizeMultiplier, enableSplaySort, enableNormalizedKeySort, targetBatchSize, context.getExecutionControls(),
+        context.getStats());
       rollback.add(this.memoryRun);
 
       this.incoming = incoming;
@@ -208,7 +211,8 @@ public class ExternalSortOperator implements SingleInputOperator, ShrinkableOper
       this.diskRuns = new DiskRunManager(context.getConfig(), context.getOptions(), targetBatchSize, targetBatchSizeInBytes,
         context.getFragmentHandle(), config.getProps().getLocalOperatorId(), context.getClassProducer(), allocator,
         config.getOrderings(), incoming.getSchema(), compressSpilledBatch, tracer,
-        context.getSpillService(), context.getStats(), context.getExecutionControls());
+        context.getSpillService(), context.getStats(), context.getExecutionControls(),
+        options.getOption(ExecConstants.EXTERNAL_SORT_ENABLE_READ_AHEAD) ? context.getExecutor() : null);
       rollback.add(this.diskRuns);
 
       tracer.setTargetBatchSize(targetBatchSize);
@@ -529,6 +533,8 @@ public class ExternalSortOperator implements SingleInputOperator, ShrinkableOper
       stats.setLongStat(ExternalSortStats.Metric.OOM_ALLOCATE_COUNT, diskRuns.getOOMAllocateCount());
       stats.setLongStat(ExternalSortStats.Metric.OOM_COPY_COUNT, diskRuns.getOOMCopyCount());
       stats.setLongStat(ExternalSortStats.Metric.SPILL_COPY_NANOS, diskRuns.getSpillCopyNanos());
+      stats.setLongStat(ExternalSortStats.Metric.READ_AHEAD_BATCHES, diskRuns.getReadAheadBatches());
+      stats.setLongStat(ExternalSortStats.Metric.READ_AHEAD_WAIT_NANOS, diskRuns.getReadAheadWaitNanos());
     }
 
   }
@@ -543,7 +549,8 @@ public class ExternalSortOperator implements SingleInputOperator, ShrinkableOper
     try {
       memoryRun.closeToDisk(diskRuns);
       memoryRun = new MemoryRun(config, producer, allocator, incoming.getSchema(), tracer,
-        batchsizeMultiplier, enableSplaySort, targetBatchSize, context.getExecutionControls());
+        batchsizeMultiplier, enableSplaySort, enableNormalizedKeySort, targetBatchSize, context.getExecutionControls(),
+        context.getStats());
     } catch (Exception e) {
       throw UserException.dataWriteError(e)
         .message("Failure while attempting to spill sort data to disk.")
@@ -572,7 +579,8 @@ public class ExternalSortOperator implements SingleInputOperator, ShrinkableOper
 
   private void finishMicroSpilling() throws Exception {
     memoryRun = new MemoryRun(config, producer, allocator, incoming.getSchema(), tracer,
-      batchsizeMultiplier, enableSplaySort, targetBatchSize, context.getExecutionControls());
+      batchsizeMultiplier, enableSplaySort, enableNormalizedKeySort, targetBatchSize, context.getExecutionControls(),
+        context.getStats());
 
     if (consumePendingIncomingBatch) {
       Preconditions.checkState(this.unconsumedRef != null);
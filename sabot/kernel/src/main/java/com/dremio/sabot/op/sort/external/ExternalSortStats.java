@@ -53,6 +53,12 @@ public class ExternalSortStats {
 
     OOM_ALLOCATE_COUNT,
     OOM_COPY_COUNT,
+
+    READ_AHEAD_BATCHES,       // number of spilled batches loaded asynchronously ahead of the merge
+    READ_AHEAD_WAIT_NANOS,    // time the merge was blocked waiting for a read-ahead to complete
+
+    NORMALIZED_KEY_RECORDS,     // number of records sorted on a normalized prefix key
+    NORMALIZED_KEY_TIE_RECORDS, // number of those records whose prefix key was shared with other records
     ;
 
     private final UserBitShared.MetricDef.DisplayType displayType;
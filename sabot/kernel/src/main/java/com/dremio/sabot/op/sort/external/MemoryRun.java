@@ -37,6 +37,7 @@ import com.dremio.exec.record.selection.SelectionVector4;
 import com.dremio.exec.testing.ControlsInjector;
 import com.dremio.exec.testing.ControlsInjectorFactory;
 import com.dremio.exec.testing.ExecutionControls;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.copier.Copier;
 import com.dremio.sabot.op.copier.CopierOperator;
 import com.google.common.annotations.VisibleForTesting;
@@ -46,7 +47,7 @@ import com.google.common.collect.Lists;
 /**
  * Describes a set of ordered batches of data in memory. Sort each batch as it
  * is inserted using the Sorter.  Sorter can be configured to use QuickSort (by
- * default) or SplaySort.
+ * default), SplaySort or a radix sort on normalized keys.
  *
  * Memory Guarantees Targeted:
  * - Ensure that spilling can be done before accepting a new batch of records.
@@ -95,8 +96,10 @@ class MemoryRun implements AutoCloseable {
       ExternalSortTracer tracer,
       int batchsizeMultiplier,
       boolean useSplaySort,
+      boolean useNormalizedKeySort,
       int targetBatchSize,
-      ExecutionControls executionControls
+      ExecutionControls executionControls,
+      OperatorStats stats
       ) {
     this.schema = schema;
     this.sortConfig = sortConfig;
@@ -109,6 +112,8 @@ class MemoryRun implements AutoCloseable {
     try {
       if (useSplaySort) {
         this.sorter = new SplaySorter(sortConfig, classProducer, schema, allocator);
+      } else if (useNormalizedKeySort && NormalizedKeySorter.isSupported(sortConfig.getOrderings(), schema)) {
+        this.sorter = new NormalizedKeySorter(sortConfig, classProducer, schema, allocator, stats);
       } else {
         this.sorter = new QuickSorter(sortConfig, classProducer, schema, allocator);
       }
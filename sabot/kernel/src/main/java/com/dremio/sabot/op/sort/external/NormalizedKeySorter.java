@@ -0,0 +1,391 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.exec.exception.ClassTransformationException;
+import com.dremio.exec.exception.SchemaChangeException;
+import com.dremio.exec.expr.ClassGenerator;
+import com.dremio.exec.expr.ClassProducer;
+import com.dremio.exec.expr.CodeGenerator;
+import com.dremio.exec.physical.config.ExternalSort;
+import com.dremio.exec.record.ExpandableHyperContainer;
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.exec.record.selection.SelectionVector4;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Sorts records on a normalized, byte-comparable 8 byte prefix of the first sort key, and only falls back to the
+ * generated comparator for records whose prefixes are equal.
+ *
+ * - As each batch arrives, the first sort key is read once per record and encoded so that unsigned comparison of
+ *   the encoded value matches the requested ordering. Null keys are kept aside in their own list.
+ * - At final sort, the prefixes are ordered with an LSD radix sort (byte positions shared by every key are skipped),
+ *   and runs of equal prefixes are then ordered with the comparator when there are more sort keys.
+ *
+ * Only used when the first sort key is a plain reference to a fixed width integral column.
+ */
+public class NormalizedKeySorter implements Sorter {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(NormalizedKeySorter.class);
+
+  private static final ImmutableSet<MinorType> SUPPORTED_TYPES = ImmutableSet.of(
+    MinorType.INT, MinorType.BIGINT, MinorType.DATEMILLI, MinorType.TIMEMILLI, MinorType.TIMESTAMPMILLI);
+
+  private static final int KEY_WIDTH = 8;
+  private static final int INDEX_WIDTH = 4;
+  private static final int MIN_CAPACITY = 4096;
+
+  private final ExternalSort sortConfig;
+  private final ClassProducer classProducer;
+  private final Schema schema;
+  private final BufferAllocator allocator;
+  private final OperatorStats stats;
+  private final String keyName;
+  private final boolean descending;
+  private final boolean nullsFirst;
+  private final boolean resolveTies;
+
+  private NormalizedKeySorterInterface tieSorter;
+
+  // normalized keys and sv4 indexes of the non-null records, with scratch space for the radix passes.
+  private ArrowBuf keys;
+  private ArrowBuf indexes;
+  private ArrowBuf scratchKeys;
+  private ArrowBuf scratchIndexes;
+  // sv4 indexes of the records whose key is null.
+  private ArrowBuf nullIndexes;
+  private int capacity;
+  private int keyCount;
+  private int nullCount;
+
+  public NormalizedKeySorter(ExternalSort sortConfig, ClassProducer classProducer, Schema schema, BufferAllocator allocator,
+                             OperatorStats stats) {
+    Preconditions.checkArgument(isSupported(sortConfig.getOrderings(), schema), "Sort keys can't be normalized.");
+    this.sortConfig = sortConfig;
+    this.classProducer = classProducer;
+    this.schema = schema;
+    this.allocator = allocator;
+    this.stats = stats;
+
+    final Ordering first = sortConfig.getOrderings().get(0);
+    this.keyName = ((SchemaPath) first.getExpr()).getRootSegment().getPath();
+    this.descending = first.getDirection() == Direction.DESCENDING;
+    // nulls compare high, so they come last in an ascending sort and first in a descending one.
+    this.nullsFirst = first.nullsSortHigh() == descending;
+    this.resolveTies = sortConfig.getOrderings().size() > 1;
+
+    this.keys = allocator.getEmpty();
+    this.indexes = allocator.getEmpty();
+    this.scratchKeys = allocator.getEmpty();
+    this.scratchIndexes = allocator.getEmpty();
+    this.nullIndexes = allocator.getEmpty();
+  }
+
+  /**
+   * @return true if the first ordering is a plain column reference to a type that can be normalized into a prefix key
+   */
+  public static boolean isSupported(List<Ordering> orderings, Schema schema) {
+    if (orderings.isEmpty()) {
+      return false;
+    }
+    final LogicalExpression expr = orderings.get(0).getExpr();
+    if (!(expr instanceof SchemaPath) || !((SchemaPath) expr).isSimplePath()) {
+      return false;
+    }
+    final Field field = findField(schema, ((SchemaPath) expr).getRootSegment().getPath());
+    return field != null && SUPPORTED_TYPES.contains(MinorType.getMinorTypeForArrowType(field.getType()));
+  }
+
+  private static Field findField(Schema schema, String name) {
+    for (Field field : schema.getFields()) {
+      if (field.getName().equalsIgnoreCase(name)) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public boolean expandMemoryIfNecessary(int newRequiredSize) {
+    if (capacity >= newRequiredSize) {
+      return true;
+    }
+
+    int newCapacity = Math.max(capacity, MIN_CAPACITY);
+    while (newCapacity < newRequiredSize) {
+      newCapacity *= 2;
+    }
+
+    ArrowBuf newKeys = null;
+    ArrowBuf newIndexes = null;
+    ArrowBuf newScratchKeys = null;
+    ArrowBuf newScratchIndexes = null;
+    ArrowBuf newNullIndexes = null;
+    try {
+      newKeys = allocator.buffer((long) newCapacity * KEY_WIDTH);
+      newIndexes = allocator.buffer((long) newCapacity * INDEX_WIDTH);
+      newScratchKeys = allocator.buffer((long) newCapacity * KEY_WIDTH);
+      newScratchIndexes = allocator.buffer((long) newCapacity * INDEX_WIDTH);
+      newNullIndexes = allocator.buffer((long) newCapacity * INDEX_WIDTH);
+    } catch (OutOfMemoryException ex) {
+      AutoCloseables.closeNoChecked(newKeys);
+      AutoCloseables.closeNoChecked(newIndexes);
+      AutoCloseables.closeNoChecked(newScratchKeys);
+      AutoCloseables.closeNoChecked(newScratchIndexes);
+      AutoCloseables.closeNoChecked(newNullIndexes);
+      return false;
+    }
+
+    newKeys.setBytes(0, keys, 0, (long) keyCount * KEY_WIDTH);
+    newIndexes.setBytes(0, indexes, 0, (long) keyCount * INDEX_WIDTH);
+    newNullIndexes.setBytes(0, nullIndexes, 0, (long) nullCount * INDEX_WIDTH);
+    AutoCloseables.closeNoChecked(keys);
+    AutoCloseables.closeNoChecked(indexes);
+    AutoCloseables.closeNoChecked(scratchKeys);
+    AutoCloseables.closeNoChecked(scratchIndexes);
+    AutoCloseables.closeNoChecked(nullIndexes);
+
+    keys = newKeys;
+    indexes = newIndexes;
+    scratchKeys = newScratchKeys;
+    scratchIndexes = newScratchIndexes;
+    nullIndexes = newNullIndexes;
+    capacity = newCapacity;
+    return true;
+  }
+
+  @Override
+  public void setup(VectorAccessible batch) throws ClassTransformationException, SchemaChangeException, IOException {
+    // Compile sorting classes.
+    CodeGenerator<NormalizedKeySorterInterface> cg = classProducer.createGenerator(NormalizedKeySorterInterface.TEMPLATE_DEFINITION);
+    ClassGenerator<NormalizedKeySorterInterface> g = cg.getRoot();
+    final Sv4HyperContainer container = new Sv4HyperContainer(allocator, schema);
+    ExternalSortOperator.generateComparisons(g, container, sortConfig.getOrderings(), classProducer);
+    this.tieSorter = cg.getImplementationClass();
+    tieSorter.init(classProducer.getFunctionContext(), container);
+  }
+
+  @Override
+  public void addBatch(RecordBatchData data, BufferAllocator copyTargetAllocator) throws SchemaChangeException {
+    final int batchIndex = tieSorter.add(data);
+    final BaseFixedWidthVector keyVector = getKeyVector(data);
+
+    final SelectionVector2 incomingSv2 = data.getSv2();
+    final int recordCount = data.getRecordCount();
+    Preconditions.checkState(keyCount + nullCount + recordCount <= capacity, "Normalized key buffers were not expanded.");
+    for (int count = 0; count < recordCount; count++) {
+      final int recordIndex = incomingSv2 != null ? incomingSv2.getIndex(count) : count;
+      final int sv4Index = (batchIndex << 16) | (recordIndex & 65535);
+      if (keyVector.isNull(recordIndex)) {
+        nullIndexes.setInt((long) nullCount * INDEX_WIDTH, sv4Index);
+        nullCount++;
+        continue;
+      }
+
+      keys.setLong((long) keyCount * KEY_WIDTH, normalize(keyVector, recordIndex, descending));
+      indexes.setInt((long) keyCount * INDEX_WIDTH, sv4Index);
+      keyCount++;
+    }
+  }
+
+  /**
+   * Encodes the non null key of a record so that the unsigned order of the encoded values matches the ordering.
+   *
+   * @param vector a vector of one of the types accepted by {@link #isSupported(List, Schema)}
+   */
+  public static long normalize(BaseFixedWidthVector vector, int index, boolean descending) {
+    final ArrowBuf data = vector.getDataBuffer();
+    final long value = vector.getTypeWidth() == 4 ? data.getInt((long) index * 4) : data.getLong((long) index * 8);
+    // flip the sign bit so that unsigned order matches signed order, and invert all bits for descending order.
+    final long normalized = value ^ Long.MIN_VALUE;
+    return descending ? ~normalized : normalized;
+  }
+
+  private BaseFixedWidthVector getKeyVector(RecordBatchData data) {
+    for (VectorWrapper<?> w : data.getContainer()) {
+      if (w.getField().getName().equalsIgnoreCase(keyName)) {
+        return (BaseFixedWidthVector) w.getValueVector();
+      }
+    }
+    throw new IllegalStateException(String.format("Unable to find sort key %s in incoming batch.", keyName));
+  }
+
+  @Override
+  public ExpandableHyperContainer getHyperBatch() {
+    if (tieSorter != null) {
+      return tieSorter.getHyperBatch();
+    } else {
+      return null;
+    }
+  }
+
+  @Override
+  public int getHyperBatchSize() {
+    if (tieSorter != null) {
+      return tieSorter.getHyperBatch().size();
+    } else {
+      return 0;
+    }
+  }
+
+  @Override
+  public SelectionVector4 getFinalSort(BufferAllocator copyTargetAllocator, int targetBatchSize) {
+    final Stopwatch watch = Stopwatch.createStarted();
+
+    radixSort();
+    long tieRecords = resolveTies(indexes, keys, keyCount);
+    if (nullCount > 1) {
+      // all null keys tie on the first sort key.
+      tieRecords += nullCount;
+      if (resolveTies) {
+        tieSorter.sortRange(nullIndexes, 0, nullCount);
+      }
+    }
+
+    final int totalCount = keyCount + nullCount;
+    final SelectionVector4 finalSortedSV4 = new SelectionVector4(copyTargetAllocator.buffer(totalCount * 4L), totalCount, targetBatchSize);
+    int outputIndex = 0;
+    if (nullsFirst) {
+      outputIndex = copyIndexes(nullIndexes, nullCount, finalSortedSV4, outputIndex);
+    }
+    outputIndex = copyIndexes(indexes, keyCount, finalSortedSV4, outputIndex);
+    if (!nullsFirst) {
+      copyIndexes(nullIndexes, nullCount, finalSortedSV4, outputIndex);
+    }
+
+    if (stats != null) {
+      stats.addLongStat(ExternalSortStats.Metric.NORMALIZED_KEY_RECORDS, totalCount);
+      stats.addLongStat(ExternalSortStats.Metric.NORMALIZED_KEY_TIE_RECORDS, tieRecords);
+    }
+    logger.debug("Took {} us to final sort {} records ({} prefix ties) in {} batches",
+      watch.elapsed(TimeUnit.MICROSECONDS), totalCount, tieRecords, getHyperBatchSize());
+
+    return finalSortedSV4;
+  }
+
+  /**
+   * Least significant digit radix sort of the normalized keys, one byte per pass. On return {@link #keys} and
+   * {@link #indexes} hold the sorted order.
+   */
+  private void radixSort() {
+    if (keyCount < 2) {
+      return;
+    }
+
+    final int[][] histograms = new int[KEY_WIDTH][256];
+    for (int i = 0; i < keyCount; i++) {
+      final long key = keys.getLong((long) i * KEY_WIDTH);
+      for (int b = 0; b < KEY_WIDTH; b++) {
+        histograms[b][(int) (key >>> (b * 8)) & 0xFF]++;
+      }
+    }
+
+    final long firstKey = keys.getLong(0);
+    for (int b = 0; b < KEY_WIDTH; b++) {
+      final int[] histogram = histograms[b];
+      final int shift = b * 8;
+      if (histogram[(int) (firstKey >>> shift) & 0xFF] == keyCount) {
+        // every key has the same byte at this position, the pass wouldn't change the order.
+        continue;
+      }
+
+      // turn counts into starting offsets.
+      int offset = 0;
+      for (int i = 0; i < 256; i++) {
+        final int count = histogram[i];
+        histogram[i] = offset;
+        offset += count;
+      }
+
+      for (int i = 0; i < keyCount; i++) {
+        final long key = keys.getLong((long) i * KEY_WIDTH);
+        final int target = histogram[(int) (key >>> shift) & 0xFF]++;
+        scratchKeys.setLong((long) target * KEY_WIDTH, key);
+        scratchIndexes.setInt((long) target * INDEX_WIDTH, indexes.getInt((long) i * INDEX_WIDTH));
+      }
+
+      final ArrowBuf sortedKeys = scratchKeys;
+      scratchKeys = keys;
+      keys = sortedKeys;
+      final ArrowBuf sortedIndexes = scratchIndexes;
+      scratchIndexes = indexes;
+      indexes = sortedIndexes;
+    }
+  }
+
+  /**
+   * Finds the runs of equal prefix keys and, if there are further sort keys, orders each run with the comparator.
+   * @return the number of records that share their prefix with at least one other record
+   */
+  private long resolveTies(ArrowBuf sv4Indexes, ArrowBuf sortedKeys, int count) {
+    long tieRecords = 0;
+    int start = 0;
+    while (start < count) {
+      final long key = sortedKeys.getLong((long) start * KEY_WIDTH);
+      int end = start + 1;
+      while (end < count && sortedKeys.getLong((long) end * KEY_WIDTH) == key) {
+        end++;
+      }
+      if (end - start > 1) {
+        tieRecords += end - start;
+        if (resolveTies) {
+          tieSorter.sortRange(sv4Indexes, start, end);
+        }
+      }
+      start = end;
+    }
+    return tieRecords;
+  }
+
+  private static int copyIndexes(ArrowBuf source, int count, SelectionVector4 target, int outputIndex) {
+    for (int i = 0; i < count; i++) {
+      target.set(outputIndex++, source.getInt((long) i * INDEX_WIDTH));
+    }
+    return outputIndex;
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(keys, indexes, scratchKeys, scratchIndexes, nullIndexes);
+    keys = null;
+    indexes = null;
+    scratchKeys = null;
+    scratchIndexes = null;
+    nullIndexes = null;
+  }
+}
@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.function.Function;
 
 import org.apache.arrow.memory.ArrowBuf;
@@ -46,6 +47,8 @@ import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.service.spill.SpillDirectory;
 import com.dremio.service.spill.SpillService;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
 
 import net.jpountz.lz4.LZ4BlockInputStream;
 import net.jpountz.lz4.LZ4BlockOutputStream;
@@ -60,11 +63,21 @@ public class SpillManager implements AutoCloseable {
 
   static final String DREMIO_LOCAL_IMPL_STRING = "fs.dremio-local.impl";
 
+  /**
+   * Codec used for spill files that are created or opened as compressed.
+   */
+  public enum SpillCodec {
+    LZ4,
+    ZSTD
+  }
+
   private final String id;
   private final SpillService spillService;
   private final String caller;
   private final OperatorStats stats;
   private final boolean useDirectWritePathIfPossible;
+  private final SpillCodec codec;
+  private final int zstdLevel;
   private long appWriteBytes;
   private long appReadBytes;
   private long ioReadBytes;
@@ -92,8 +105,12 @@ public class SpillManager implements AutoCloseable {
     // load options
     if (optionManager != null) {
       this.useDirectWritePathIfPossible = optionManager.getOption(ExecConstants.EXTERNAL_SORT_DIRECT_WRITE);
+      this.codec = parseCodec(optionManager.getOption(ExecConstants.SPILL_COMPRESSION_CODEC));
+      this.zstdLevel = (int) optionManager.getOption(ExecConstants.SPILL_COMPRESSION_ZSTD_LEVEL);
     } else {
       this.useDirectWritePathIfPossible = ExecConstants.EXTERNAL_SORT_DIRECT_WRITE.getDefault().getBoolVal();
+      this.codec = SpillCodec.LZ4;
+      this.zstdLevel = (int) ExecConstants.SPILL_COMPRESSION_ZSTD_LEVEL.getDefault().getNumVal().longValue();
     }
 
     try {
@@ -105,10 +122,19 @@ public class SpillManager implements AutoCloseable {
     }
   }
 
+  private static SpillCodec parseCodec(String name) {
+    // name should not be null in production but it is easier to handle here for unit test mocks
+    return name == null ? SpillCodec.LZ4 : SpillCodec.valueOf(name.toUpperCase(Locale.ROOT));
+  }
+
   public String getId() {
     return id;
   }
 
+  public SpillCodec getCodec() {
+    return codec;
+  }
+
   public SpillFile getSpillFile(String fileName) throws RuntimeException {
     try {
       final SpillDirectory spillDirectory = spillService.getSpillSubdir(id);
@@ -204,7 +230,7 @@ public class SpillManager implements AutoCloseable {
       logger.debug("Failed to get inner wrapped stream, using fallback.", ex);
     }
     ABOutputStreamWithStats base = new ABOutputStreamWithStats(actualOutput);
-    ABOutputStreamWithStats top = compressed ? new ABOutputStreamWithStats(new LZ4BlockOutputStream(base)) : base;
+    ABOutputStreamWithStats top = compressed ? new ABOutputStreamWithStats(compressingStream(base)) : base;
     boolean useDirectWrite = useDirectWritePathIfPossible && !compressed && actualOutput instanceof WritesArrowBuf;
     return new SpillOutputStream(top, base, file, compressed, useDirectWrite);
   }
@@ -292,16 +318,38 @@ public class SpillManager implements AutoCloseable {
   private SpillInputStream createSpillInputStream(SpillFile file, boolean compressed) throws IOException {
     InputStream output = file.fs.open(file.path);
     InputStreamWithStats base = new InputStreamWithStats(output);
-    InputStreamWithStats top = compressed ? new InputStreamWithStats(new LZ4BlockInputStream(base)) : base;
+    InputStreamWithStats top = compressed ? new InputStreamWithStats(decompressingStream(base)) : base;
     return new SpillInputStream(top, base, file, compressed);
   }
 
+  private OutputStream compressingStream(OutputStream out) throws IOException {
+    switch (codec) {
+      case ZSTD:
+        return new ZstdOutputStream(out, zstdLevel);
+      case LZ4:
+      default:
+        return new LZ4BlockOutputStream(out);
+    }
+  }
+
+  private InputStream decompressingStream(InputStream in) throws IOException {
+    switch (codec) {
+      case ZSTD:
+        return new ZstdInputStream(in);
+      case LZ4:
+      default:
+        return new LZ4BlockInputStream(in);
+    }
+  }
+
   public class SpillInputStream extends FilterInputStream {
 
     private final InputStreamWithStats top;
     private final InputStreamWithStats base;
     private final SpillFile file;
     private boolean compressed;
+    // IO time of the loads that ran on another thread than the operator's
+    private long backgroundIONanos;
 
     private SpillInputStream(
         InputStreamWithStats top,
@@ -353,11 +401,22 @@ public class SpillManager implements AutoCloseable {
       serializable.readFromStream(top);
     }
 
+    /**
+     * Same as {@link #load(VectorContainer, BufferAllocator)}, for a load that runs on another thread than the
+     * operator's. Its IO time is not part of the operator's processing time, so it isn't moved to its wait time on
+     * close.
+     */
+    public void loadInBackground(VectorContainer container, BufferAllocator allocator) throws IOException {
+      final long ioNanos = getIOTime();
+      load(container, allocator);
+      backgroundIONanos += getIOTime() - ioNanos;
+    }
+
     @Override
     public void close() throws IOException {
       super.close();
       if(stats != null) {
-        stats.moveProcessingToWait(getIOTime());
+        stats.moveProcessingToWait(getIOTime() - backgroundIONanos);
       }
       ioReadWaitNanos += getIOTime();
       appReadBytes += getDecompressedBytes();
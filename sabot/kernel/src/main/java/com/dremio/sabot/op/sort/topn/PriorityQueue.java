@@ -20,12 +20,25 @@ import org.apache.arrow.memory.BufferAllocator;
 import com.dremio.exec.compile.TemplateClassDefinition;
 import com.dremio.exec.record.RecordBatchData;
 import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.exec.record.selection.SelectionVector4;
 import com.dremio.sabot.exec.context.FunctionContext;
 import com.dremio.sabot.op.sort.external.Sv4HyperContainer;
 
 public interface PriorityQueue extends AutoCloseable {
   void add(RecordBatchData batch);
+
+  /**
+   * adds the selected rows of batch to the queue.
+   * @param batch batch to add, the queue takes ownership of it
+   * @param selection indexes of the rows of batch to consider
+   */
+  void add(RecordBatchData batch, SelectionVector2 selection);
+
+  /**
+   * @return true if the heap holds limit rows, the root of the heap is then the worst row that will be output
+   */
+  boolean isFull();
   void init(Sv4HyperContainer hyperBatch, int limit, FunctionContext context, BufferAllocator allocator, boolean hasSv2, int maxSize);
   void generate();
   Sv4HyperContainer getHyperBatch();
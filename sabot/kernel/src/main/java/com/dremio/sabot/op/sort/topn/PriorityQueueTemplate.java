@@ -87,6 +87,11 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
 
   @Override
   public void add(RecordBatchData batch) throws SchemaChangeException{
+    add(batch, hasSv2 ? batch.getSv2() : null);
+  }
+
+  @Override
+  public void add(RecordBatchData batch, SelectionVector2 selection) throws SchemaChangeException{
     Stopwatch watch = Stopwatch.createStarted();
 
     hyperBatch.addBatch(batch.getContainer());
@@ -94,17 +99,14 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     doSetup(context, hyperBatch, null);
 
     int count = 0;
-    SelectionVector2 sv2 = null;
-    if (hasSv2) {
-      sv2 = batch.getSv2();
-    }
-    for (; queueSize < limit && count < batch.getRecordCount();  count++) {
-      heapSv4.set(queueSize, batchCount, hasSv2 ? sv2.getIndex(count) : count);
+    final int recordCount = selection != null ? selection.getCount() : batch.getRecordCount();
+    for (; queueSize < limit && count < recordCount;  count++) {
+      heapSv4.set(queueSize, batchCount, selection != null ? selection.getIndex(count) : count);
       queueSize++;
       siftUp();
     }
-    for (; count < batch.getRecordCount(); count++) {
-      heapSv4.set(limit, batchCount, hasSv2 ? sv2.getIndex(count) : count);
+    for (; count < recordCount; count++) {
+      heapSv4.set(limit, batchCount, selection != null ? selection.getIndex(count) : count);
       if (compare(limit, 0) < 0) {
         swap(limit, 0);
         siftDown();
@@ -112,11 +114,16 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     }
     batchCount++;
     if (hasSv2) {
-      sv2.clear();
+      batch.getSv2().clear();
     }
     logger.debug("Took {} us to add {} records", watch.elapsed(TimeUnit.MICROSECONDS), count);
   }
 
+  @Override
+  public boolean isFull() {
+    return queueSize > 0 && queueSize == limit;
+  }
+
   @Override
   public void generate() throws SchemaChangeException {
     Stopwatch watch = Stopwatch.createStarted();
@@ -16,6 +16,7 @@
 package com.dremio.sabot.op.sort.topn;
 
 import java.io.IOException;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -44,8 +45,10 @@ import com.dremio.exec.record.RecordBatchData;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.exec.record.selection.SelectionVector4;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.copier.Copier;
 import com.dremio.sabot.op.copier.CopierOperator;
 import com.dremio.sabot.op.sort.SortRecordBatchBuilder;
@@ -79,6 +82,11 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
   private PriorityQueue priorityQueue;
   private Copier copier;
 
+  // discards rows that can't enter the heap once it's full, null if disabled or not supported by the first ordering
+  private TopNThresholdFilter thresholdFilter;
+  private SelectionVector2 filterSv2;
+  private int filterSv2Capacity;
+
   public TopNOperator(OperatorContext context, TopN popConfig) {
     this.config = popConfig;
     this.context = context;
@@ -102,6 +110,13 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
 
     priorityQueue = createNewPriorityQueue(context.getClassProducer(), config.getOrderings());
     copier = CopierOperator.getGenerated4Copier(context.getClassProducer(), priorityQueue.getHyperBatch(), outgoing);
+    if (context.getOptions().getOption(ExecConstants.TOPN_ENABLE_THRESHOLD_FILTER) && !config.getOrderings().isEmpty()) {
+      thresholdFilter = TopNThresholdFilter.create(config.getOrderings().get(0), incoming);
+      if (thresholdFilter != null) {
+        filterSv2 = new SelectionVector2(context.getAllocator());
+      }
+    }
+    addDisplayStatsWithZeroValue(context, EnumSet.allOf(TopNStats.Metric.class));
     state = State.CAN_CONSUME;
     return outgoing;
   }
@@ -109,11 +124,18 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
   @Override
   public void consumeData(int records) throws Exception {
 
-    countSincePurge += incoming.getRecordCount();
+    if (thresholdFilter != null && priorityQueue.isFull()) {
+      final int selected = addQualifyingRows();
+      if (selected == 0) {
+        return;
+      }
+      countSincePurge += selected;
+    } else {
+      countSincePurge += incoming.getRecordCount();
+      priorityQueue.add(new RecordBatchData(incoming, context.getAllocator()));
+    }
     batchCount++;
 
-    priorityQueue.add(new RecordBatchData(incoming, context.getAllocator()));
-
     if (countSincePurge > config.getLimit() && batchCount > batchPurgeThreshold) {
       purge();
       countSincePurge = 0;
@@ -162,6 +184,33 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
     return outgoing.setAllCount(copied);
   }
 
+  /**
+   * adds the rows of incoming that can still displace a row of the full heap.
+   * @return number of rows added, the batch isn't retained when no row qualifies
+   */
+  private int addQualifyingRows() {
+    final SelectionVector2 incomingSv2 = incoming.getSchema().getSelectionVectorMode() == SelectionVectorMode.TWO_BYTE
+      ? incoming.getSelectionVector2() : null;
+    final int recordCount = incomingSv2 != null ? incomingSv2.getCount() : incoming.getRecordCount();
+    if (filterSv2Capacity < recordCount) {
+      filterSv2.allocateNew(recordCount);
+      filterSv2Capacity = recordCount;
+    }
+
+    thresholdFilter.setThreshold(priorityQueue.getHyperBatch(), priorityQueue.getHeapSv4().get(0));
+    final int selected = thresholdFilter.filter(incoming, incomingSv2, recordCount, filterSv2);
+
+    final OperatorStats stats = context.getStats();
+    stats.addLongStat(TopNStats.Metric.ROWS_FILTERED, recordCount - selected);
+    if (selected == 0) {
+      stats.addLongStat(TopNStats.Metric.BATCHES_SKIPPED, 1);
+      return 0;
+    }
+
+    priorityQueue.add(new RecordBatchData(incoming, context.getAllocator()), filterSv2);
+    return selected;
+  }
+
   private void purge() throws SchemaChangeException {
     final Stopwatch watch = Stopwatch.createStarted();
 
@@ -290,7 +339,7 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(outgoing, finalOrder, priorityQueue, copier);
+    AutoCloseables.close(outgoing, finalOrder, priorityQueue, copier, filterSv2);
   }
 
   public static class TopNCreator implements SingleInputOperator.Creator<TopN>{
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.topn;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.exec.record.TypedFieldId;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.sabot.op.sort.external.Sv4HyperContainer;
+
+/**
+ * Discards incoming rows that can't make it into a full TopN heap. The first sort key of the heap's boundary row
+ * (the worst row kept so far) is used as a scalar threshold: rows whose first key is strictly worse can't displace
+ * any row of the heap. Rows with an equal first key are kept and resolved by the generated comparator.
+ * <br>
+ * Only fixed width numeric and temporal first keys that are plain column references are supported.
+ */
+final class TopNThresholdFilter {
+
+  private enum KeyType {
+    INT,
+    BIGINT,
+    FLOAT4,
+    FLOAT8
+  }
+
+  private final TypedFieldId fieldId;
+  private final KeyType keyType;
+  private final boolean descending;
+  private final boolean nullsHigh;
+
+  private boolean thresholdNull;
+  private long longThreshold;
+  private double doubleThreshold;
+
+  private TopNThresholdFilter(TypedFieldId fieldId, KeyType keyType, Ordering ordering) {
+    this.fieldId = fieldId;
+    this.keyType = keyType;
+    this.descending = ordering.getDirection() == Direction.DESCENDING;
+    this.nullsHigh = ordering.nullsSortHigh();
+  }
+
+  /**
+   * @return a filter on the first ordering, or null if its expression or type isn't supported
+   */
+  static TopNThresholdFilter create(Ordering ordering, VectorAccessible incoming) {
+    if (!(ordering.getExpr() instanceof SchemaPath)) {
+      return null;
+    }
+    final TypedFieldId fieldId = incoming.getValueVectorId((SchemaPath) ordering.getExpr());
+    if (fieldId == null || fieldId.getFieldIds().length != 1) {
+      return null;
+    }
+
+    final ValueVector vector = incoming.getValueAccessorById(ValueVector.class, fieldId.getFieldIds()).getValueVector();
+    final KeyType keyType;
+    switch (vector.getMinorType()) {
+      case INT:
+      case DATEDAY:
+      case TIMEMILLI:
+        keyType = KeyType.INT;
+        break;
+      case BIGINT:
+      case DATEMILLI:
+      case TIMESTAMPMILLI:
+        keyType = KeyType.BIGINT;
+        break;
+      case FLOAT4:
+        keyType = KeyType.FLOAT4;
+        break;
+      case FLOAT8:
+        keyType = KeyType.FLOAT8;
+        break;
+      default:
+        return null;
+    }
+    return new TopNThresholdFilter(fieldId, keyType, ordering);
+  }
+
+  /**
+   * reads the threshold from the heap's boundary row.
+   * @param hyperBatch batches held by the heap
+   * @param sv4Index compound index of the boundary row
+   */
+  void setThreshold(Sv4HyperContainer hyperBatch, int sv4Index) {
+    final ValueVector[] vectors = hyperBatch.getValueAccessorById(ValueVector.class, fieldId.getFieldIds()).getValueVectors();
+    final ValueVector vector = vectors[sv4Index >>> 16];
+    final int index = sv4Index & 65535;
+
+    thresholdNull = vector.isNull(index);
+    if (thresholdNull) {
+      return;
+    }
+    final ArrowBuf data = vector.getDataBuffer();
+    switch (keyType) {
+      case INT:
+        longThreshold = data.getInt((long) index << 2);
+        break;
+      case BIGINT:
+        longThreshold = data.getLong((long) index << 3);
+        break;
+      case FLOAT4:
+        doubleThreshold = data.getFloat((long) index << 2);
+        break;
+      default:
+        doubleThreshold = data.getDouble((long) index << 3);
+    }
+  }
+
+  /**
+   * writes the indexes of the rows of incoming that may still qualify into output.
+   * @param incoming current batch
+   * @param incomingSv2 selection vector of the incoming batch, null if it has none
+   * @param recordCount number of rows of the batch, after applying incomingSv2
+   * @param output selection vector, must hold at least recordCount entries
+   * @return number of qualifying rows
+   */
+  int filter(VectorAccessible incoming, SelectionVector2 incomingSv2, int recordCount, SelectionVector2 output) {
+    final ValueVector vector = incoming.getValueAccessorById(ValueVector.class, fieldId.getFieldIds()).getValueVector();
+    final ArrowBuf validity = vector.getValidityBuffer();
+    final ArrowBuf data = vector.getDataBuffer();
+
+    int selected = 0;
+    for (int i = 0; i < recordCount; i++) {
+      final int index = incomingSv2 == null ? i : incomingSv2.getIndex(i);
+      final boolean isNull = ((validity.getByte(index >>> 3) >> (index & 7)) & 1) == 0;
+      final int compare;
+      if (isNull || thresholdNull) {
+        compare = isNull == thresholdNull ? 0 : (isNull == nullsHigh ? 1 : -1);
+      } else {
+        compare = compareToThreshold(data, index);
+      }
+      if ((descending ? -compare : compare) <= 0) {
+        output.setIndex(selected++, (char) index);
+      }
+    }
+    output.setRecordCount(selected);
+    return selected;
+  }
+
+  private int compareToThreshold(ArrowBuf data, int index) {
+    switch (keyType) {
+      case INT:
+        return Long.compare(data.getInt((long) index << 2), longThreshold);
+      case BIGINT:
+        return Long.compare(data.getLong((long) index << 3), longThreshold);
+      case FLOAT4:
+        return compare(data.getFloat((long) index << 2), doubleThreshold);
+      default:
+        return compare(data.getDouble((long) index << 3), doubleThreshold);
+    }
+  }
+
+  /**
+   * compares without ordering NaN or signed zeros, so such values are never discarded here.
+   */
+  private static int compare(double value, double threshold) {
+    if (value > threshold) {
+      return 1;
+    }
+    return value < threshold ? -1 : 0;
+  }
+}
@@ -20,6 +20,7 @@ import java.util.List;
 import javax.inject.Named;
 
 import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.BaseValueVector;
 import org.apache.arrow.vector.ValueVector;
 
@@ -50,6 +51,11 @@ public abstract class FrameSupportTemplate implements WindowFramer {
 
   private int frameLastRow;
 
+  private BufferAllocator allocator;
+  // copy of the last row of a frame that ends past the current batch. The batch it comes from may be spilled and
+  // reloaded into another batch's slot before the rows of the frame in the following batches are written.
+  private VectorContainer frameLast;
+
   // true when at least one window function needs to process all batches of a partition before passing any batch downstream
   private boolean requireFullPartition;
 
@@ -66,7 +72,8 @@ public abstract class FrameSupportTemplate implements WindowFramer {
     this.container = container;
     this.batches = batches;
     this.context = context;
-    internal = new VectorContainer(oContext.getAllocator());
+    allocator = oContext.getAllocator();
+    internal = new VectorContainer(allocator);
     allocateInternal();
 
     outputCount = 0;
@@ -260,7 +267,10 @@ public abstract class FrameSupportTemplate implements WindowFramer {
     long length = 0;
 
     // a single frame can include rows from multiple batches
-    // start processing first batch and, if necessary, move to next batches
+    // start processing first batch and, if necessary, move to next batches.
+    // once the frame ends, no row of the following batches can belong to it, so we stop there instead of reading
+    // batches that may have been spilled.
+    outer:
     for (VectorAccessible batch : batches) {
       setupEvaluatePeer(batch, container);
       final int recordCount = batch.getRecordCount();
@@ -269,11 +279,11 @@ public abstract class FrameSupportTemplate implements WindowFramer {
       for (int row = (batch == current) ? start : 0; row < recordCount; row++, length++) {
         if (unboundedFollowing) {
           if (length >= remainingRows) {
-            break;
+            break outer;
           }
         } else {
           if (!isPeer(start, current, row, batch)) {
-            break;
+            break outer;
           }
         }
 
@@ -283,11 +293,32 @@ public abstract class FrameSupportTemplate implements WindowFramer {
       }
     }
 
+    if (last != current) {
+      // the whole frame was aggregated in this pass, keep its last row so the rows of the frame in the following
+      // batches don't read the batch list again.
+      cacheFrameLast(last);
+      last = frameLast;
+      frameLastRow = 0;
+    }
     setupReadLastValue(last, container);
 
     return length;
   }
 
+  private void cacheFrameLast(final VectorAccessible last) {
+    if (frameLast == null) {
+      frameLast = VectorContainer.create(allocator, last.getSchema());
+    }
+    frameLast.zeroVectors();
+    frameLast.allocateNew();
+    int i = 0;
+    for (VectorWrapper<?> w : last) {
+      final ValueVector target = frameLast.getValueAccessorById(ValueVector.class, i++).getValueVector();
+      w.getValueVector().makeTransferPair(target).copyValueSafe(frameLastRow, 0);
+    }
+    frameLast.setAllCount(1);
+  }
+
   @Override
   public int getOutputCount() {
     return outputCount;
@@ -298,6 +329,9 @@ public abstract class FrameSupportTemplate implements WindowFramer {
   public void close() {
     logger.trace("clearing internal");
     internal.clear();
+    if (frameLast != null) {
+      frameLast.close();
+    }
   }
 
   /**
@@ -241,14 +241,16 @@ public abstract class NoFrameSupportTemplate implements WindowFramer {
     long length = 0;
 
     // a single frame can include rows from multiple batches
-    // start processing first batch and, if necessary, move to next batches
+    // start processing first batch and, if necessary, move to next batches.
+    // once a non peer row is found, no row of the following batches can be a peer, so we stop there.
+    outer:
     for (VectorAccessible batch : batches) {
       final int recordCount = batch.getRecordCount();
 
       // for every remaining row in the partition, count it if it's a peer row
       for (int row = (batch == current) ? start : 0; row < recordCount; row++, length++) {
         if (!isPeer(start, current, row, batch)) {
-          break;
+          break outer;
         }
       }
     }
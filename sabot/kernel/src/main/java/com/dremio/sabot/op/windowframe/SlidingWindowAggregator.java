@@ -0,0 +1,422 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.windowframe;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.FloatingPointVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.pojo.ArrowType.ArrowTypeID;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.exec.record.TypedFieldId;
+import com.dremio.exec.record.VectorAccessible;
+import com.google.common.base.Preconditions;
+
+/**
+ * Evaluates an aggregate over a ROWS BETWEEN n PRECEDING AND CURRENT ROW frame incrementally: every row is added to
+ * the running state when it enters the frame and removed from it when it leaves, so each output row costs O(1)
+ * amortized instead of O(n).<br>
+ * SUM, $SUM0, COUNT and AVG are invertible and keep running totals, MIN and MAX keep a monotonic deque of the rows
+ * that can still become the frame's extremum.<br>
+ * The rows kept for the frame are allocated from the operator's allocator. When the frame starts Long.MAX_VALUE rows
+ * back, no row ever leaves it and the aggregates are kept as running totals without storing any row.
+ */
+class SlidingWindowAggregator implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SlidingWindowAggregator.class);
+
+  enum Kind {
+    SUM,
+    SUM0,
+    COUNT,
+    AVG,
+    MIN,
+    MAX
+  }
+
+  private final Kind kind;
+  private final long precedingRows;
+  private final TypedFieldId inputId; // null when the argument is a constant, e.g. COUNT(*)
+  private final TypedFieldId outputId;
+  // true if rows can leave the frame, a partition can't have more than Long.MAX_VALUE rows
+  private final boolean sliding;
+
+  // values of the rows in the current frame with a null flag as tag, only used by invertible aggregates
+  private final RowQueue frame;
+  // candidate extrema of the current frame with their position as tag, only used by MIN and MAX
+  private final RowQueue candidates;
+
+  private ValueVector input;
+  private BaseFixedWidthVector output;
+  private boolean floatingPoint; // true if input values are stored as double bits
+
+  private long position; // number of rows of the current partition aggregated so far
+  private long nonNullCount;
+  private long longSum;
+  // sum of the finite values of the frame, with the compensation of its rounding errors (Neumaier summation)
+  private double doubleSum;
+  private double doubleCompensation;
+  // non finite values are counted apart, adding and then removing one of them can't restore a finite sum
+  private long nanCount;
+  private long positiveInfinityCount;
+  private long negativeInfinityCount;
+
+  SlidingWindowAggregator(Kind kind, long precedingRows, TypedFieldId inputId, TypedFieldId outputId,
+                          BufferAllocator allocator) {
+    Preconditions.checkArgument(precedingRows >= 0, "Invalid number of preceding rows %s", precedingRows);
+    this.kind = kind;
+    this.precedingRows = precedingRows;
+    this.inputId = inputId;
+    this.outputId = outputId;
+    this.sliding = precedingRows < Long.MAX_VALUE;
+    this.frame = new RowQueue(allocator);
+    this.candidates = new RowQueue(allocator);
+  }
+
+  static Kind kindOf(String functionName) {
+    switch (functionName.toLowerCase()) {
+      case "sum":
+        return Kind.SUM;
+      case "$sum0":
+        return Kind.SUM0;
+      case "count":
+        return Kind.COUNT;
+      case "avg":
+        return Kind.AVG;
+      case "min":
+        return Kind.MIN;
+      case "max":
+        return Kind.MAX;
+      default:
+        throw UserException.unsupportedError()
+          .message("Window function '%s' is not supported with a ROWS BETWEEN n PRECEDING frame", functionName)
+          .build(logger);
+    }
+  }
+
+  /**
+   * @return true if values of the given type can be aggregated by kind
+   */
+  static boolean isSupported(Kind kind, CompleteType type) {
+    if (kind == Kind.COUNT) {
+      return true;
+    }
+    final ArrowTypeID id = type.getType().getTypeID();
+    return id == ArrowTypeID.Int || id == ArrowTypeID.FloatingPoint;
+  }
+
+  /**
+   * Called once per batch, before aggregating any of its rows.
+   */
+  void setup(VectorAccessible incoming, VectorAccessible outgoing) {
+    input = inputId == null ? null : incoming.getValueAccessorById(ValueVector.class, inputId.getFieldIds()).getValueVector();
+    output = (BaseFixedWidthVector) outgoing.getValueAccessorById(ValueVector.class, outputId.getFieldIds()).getValueVector();
+    floatingPoint = input instanceof FloatingPointVector;
+    if (kind != Kind.COUNT && !floatingPoint && !(input instanceof BaseIntVector)) {
+      throw UserException.unsupportedError()
+        .message("Window function %s does not support input type %s with a ROWS BETWEEN n PRECEDING frame",
+          kind, input == null ? "constant" : input.getMinorType())
+        .build(logger);
+    }
+  }
+
+  /**
+   * Called at the start of every partition.
+   */
+  void reset() {
+    frame.clear();
+    candidates.clear();
+    position = 0;
+    nonNullCount = 0;
+    resetSums();
+  }
+
+  private void resetSums() {
+    longSum = 0;
+    doubleSum = 0;
+    doubleCompensation = 0;
+    nanCount = 0;
+    positiveInfinityCount = 0;
+    negativeInfinityCount = 0;
+  }
+
+  /**
+   * slides the frame so it ends at the given row and writes the aggregate of the frame.
+   * @param index row of the incoming batch
+   * @param outIndex row of the outgoing batch
+   */
+  void evaluate(int index, int outIndex) {
+    final boolean isNull = input != null && input.isNull(index);
+    final long value = isNull || kind == Kind.COUNT ? 0 : read(index);
+
+    if (kind == Kind.MIN || kind == Kind.MAX) {
+      if (!isNull) {
+        // older candidates that can't beat the new value will leave the frame first, they can never be the result
+        while (!candidates.isEmpty() && !precedes(candidates.lastValue(), value)) {
+          candidates.removeLast();
+        }
+        // when no row leaves the frame, only the best candidate can ever be the result
+        if (sliding || candidates.isEmpty()) {
+          candidates.addLast(value, position);
+        }
+      }
+      while (sliding && !candidates.isEmpty() && candidates.firstTag() < position - precedingRows) {
+        candidates.removeFirst();
+      }
+    } else {
+      if (!isNull) {
+        accumulate(value, 1);
+      }
+      // rows are only kept if they will leave the frame
+      if (sliding) {
+        frame.addLast(value, isNull ? 1 : 0);
+        if (frame.size() - 1 > precedingRows) {
+          if (frame.firstTag() == 0) {
+            accumulate(frame.firstValue(), -1);
+          }
+          frame.removeFirst();
+        }
+      }
+    }
+    position++;
+
+    write(outIndex);
+  }
+
+  private long read(int index) {
+    if (floatingPoint) {
+      return Double.doubleToRawLongBits(((FloatingPointVector) input).getValueAsDouble(index));
+    }
+    return ((BaseIntVector) input).getValueAsLong(index);
+  }
+
+  /**
+   * @return true if candidate must stay in front of value in the deque, i.e. it is strictly better than value
+   */
+  private boolean precedes(long candidate, long value) {
+    final int compare = floatingPoint
+      ? Double.compare(Double.longBitsToDouble(candidate), Double.longBitsToDouble(value))
+      : Long.compare(candidate, value);
+    return kind == Kind.MIN ? compare < 0 : compare > 0;
+  }
+
+  private void accumulate(long value, int sign) {
+    nonNullCount += sign;
+    if (nonNullCount == 0) {
+      // start from a clean state once the frame is empty, so floating point errors don't build up
+      resetSums();
+    } else if (floatingPoint) {
+      accumulateDouble(Double.longBitsToDouble(value), sign);
+    } else {
+      longSum += sign * value;
+    }
+  }
+
+  private void accumulateDouble(double value, int sign) {
+    if (Double.isNaN(value)) {
+      nanCount += sign;
+    } else if (value == Double.POSITIVE_INFINITY) {
+      positiveInfinityCount += sign;
+    } else if (value == Double.NEGATIVE_INFINITY) {
+      negativeInfinityCount += sign;
+    } else {
+      final double addend = sign * value;
+      final double sum = doubleSum + addend;
+      if (Math.abs(doubleSum) >= Math.abs(addend)) {
+        doubleCompensation += (doubleSum - sum) + addend;
+      } else {
+        doubleCompensation += (addend - sum) + doubleSum;
+      }
+      doubleSum = sum;
+    }
+  }
+
+  /**
+   * @return sum of the frame, as IEEE 754 would compute it for the non finite values
+   */
+  private double doubleSum() {
+    if (nanCount > 0 || (positiveInfinityCount > 0 && negativeInfinityCount > 0)) {
+      return Double.NaN;
+    } else if (positiveInfinityCount > 0) {
+      return Double.POSITIVE_INFINITY;
+    } else if (negativeInfinityCount > 0) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    return doubleSum + doubleCompensation;
+  }
+
+  private void write(int outIndex) {
+    switch (kind) {
+      case COUNT:
+        writeLong(outIndex, nonNullCount);
+        break;
+      case SUM:
+      case SUM0:
+        if (nonNullCount == 0 && kind == Kind.SUM) {
+          output.setNull(outIndex);
+        } else if (floatingPoint) {
+          writeDouble(outIndex, doubleSum());
+        } else {
+          writeLong(outIndex, longSum);
+        }
+        break;
+      case AVG:
+        if (nonNullCount == 0) {
+          output.setNull(outIndex);
+        } else {
+          writeDouble(outIndex, (floatingPoint ? doubleSum() : (double) longSum) / nonNullCount);
+        }
+        break;
+      default:
+        if (candidates.isEmpty()) {
+          output.setNull(outIndex);
+        } else if (floatingPoint) {
+          writeDouble(outIndex, Double.longBitsToDouble(candidates.firstValue()));
+        } else {
+          writeLong(outIndex, candidates.firstValue());
+        }
+    }
+  }
+
+  private void writeLong(int outIndex, long value) {
+    if (output instanceof FloatingPointVector) {
+      ((FloatingPointVector) output).setSafeWithPossibleTruncate(outIndex, value);
+    } else {
+      ((BaseIntVector) output).setWithPossibleTruncate(outIndex, value);
+    }
+  }
+
+  private void writeDouble(int outIndex, double value) {
+    if (output instanceof FloatingPointVector) {
+      ((FloatingPointVector) output).setSafeWithPossibleTruncate(outIndex, value);
+    } else {
+      ((BaseIntVector) output).setWithPossibleTruncate(outIndex, (long) value);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(frame, candidates);
+  }
+
+  /**
+   * growable circular buffer of (value, tag) pairs that can be consumed from both ends. Its buffers are allocated
+   * on first use.
+   */
+  private static final class RowQueue implements AutoCloseable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final BufferAllocator allocator;
+    private ArrowBuf values;
+    private ArrowBuf tags;
+    private int capacity;
+    private int head;
+    private int size;
+
+    RowQueue(BufferAllocator allocator) {
+      this.allocator = allocator;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    int size() {
+      return size;
+    }
+
+    void clear() {
+      head = 0;
+      size = 0;
+    }
+
+    void addLast(long value, long tag) {
+      if (size == capacity) {
+        grow();
+      }
+      final long offset = offset(head + size);
+      values.setLong(offset, value);
+      tags.setLong(offset, tag);
+      size++;
+    }
+
+    long firstValue() {
+      return values.getLong(offset(head));
+    }
+
+    long firstTag() {
+      return tags.getLong(offset(head));
+    }
+
+    long lastValue() {
+      return values.getLong(offset(head + size - 1));
+    }
+
+    void removeFirst() {
+      head = (head + 1) & (capacity - 1);
+      size--;
+    }
+
+    void removeLast() {
+      size--;
+    }
+
+    private long offset(int index) {
+      return (long) (index & (capacity - 1)) * Long.BYTES;
+    }
+
+    private void grow() {
+      final int newCapacity = capacity == 0 ? INITIAL_CAPACITY : capacity * 2;
+      final ArrowBuf newValues = allocator.buffer((long) newCapacity * Long.BYTES);
+      final ArrowBuf newTags;
+      try {
+        newTags = allocator.buffer((long) newCapacity * Long.BYTES);
+      } catch (RuntimeException e) {
+        newValues.close();
+        throw e;
+      }
+      if (size > 0) {
+        final int firstPart = Math.min(size, capacity - head);
+        copy(values, newValues, firstPart);
+        copy(tags, newTags, firstPart);
+      }
+      AutoCloseables.closeNoChecked(values);
+      AutoCloseables.closeNoChecked(tags);
+      values = newValues;
+      tags = newTags;
+      capacity = newCapacity;
+      head = 0;
+    }
+
+    private void copy(ArrowBuf from, ArrowBuf to, int firstPart) {
+      to.setBytes(0, from, (long) head * Long.BYTES, (long) firstPart * Long.BYTES);
+      to.setBytes((long) firstPart * Long.BYTES, from, 0, (long) (size - firstPart) * Long.BYTES);
+    }
+
+    @Override
+    public void close() throws Exception {
+      AutoCloseables.close(values, tags);
+      values = null;
+      tags = null;
+      capacity = 0;
+      clear();
+    }
+  }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.windowframe;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.utils.protos.QueryIdHelper;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.sort.external.SpillManager;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillInputStream;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillOutputStream;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+
+/**
+ * Holds the batches buffered by {@link WindowFrameOperator} for the partition(s) being processed.
+ *
+ * When spilling is enabled and the operator allocator runs low on headroom, batches in the middle of the list are
+ * written to disk, each in its own spill file. The framers only ever walk the list in order, so a spilled batch is
+ * read back on access into one of two reload containers that are used alternately: the batch returned by the previous
+ * {@link #get(int)} stays valid while the next one is loaded. The first two batches and the last one are never
+ * spilled, as they are used by the operator and the framers to detect partition and frame boundaries.
+ */
+class SpillableBatchList extends AbstractList<VectorContainer> implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SpillableBatchList.class);
+
+  // number of batches at the head of the list that are always kept in memory.
+  private static final int PINNED_HEAD = 2;
+
+  private final OperatorContext context;
+  private final BufferAllocator allocator;
+  private final boolean spillEnabled;
+  private final boolean compressSpill;
+  // spill when less than this fraction of the memory available to the operator is left.
+  private final double minHeadroomRatio;
+  private final List<Entry> entries = new ArrayList<>();
+
+  private final VectorContainer[] reloadSlots = new VectorContainer[2];
+  private final Entry[] reloadedEntries = new Entry[2];
+  private int nextSlot;
+
+  private BatchSchema schema;
+  private SpillManager spillManager;
+  private int spillFileCount;
+  private final Stopwatch spillWatch = Stopwatch.createUnstarted();
+  private long spillCount;
+  private long reloadCount;
+  private int inMemoryCount;
+  private int peakInMemory;
+  private int peakBuffered;
+
+  SpillableBatchList(OperatorContext context) {
+    this.context = context;
+    this.allocator = context.getAllocator();
+    this.spillEnabled = context.getOptions().getOption(ExecConstants.WINDOW_ENABLE_SPILL);
+    this.compressSpill = context.getOptions().getOption(ExecConstants.EXTERNAL_SORT_COMPRESS_SPILL_FILES);
+    this.minHeadroomRatio = context.getOptions().getOption(ExecConstants.WINDOW_SPILL_MIN_HEADROOM_RATIO);
+  }
+
+  /**
+   * A buffered batch, either held in memory or written to a spill file.
+   */
+  private static final class Entry {
+    private VectorContainer batch;
+    private SpillFile spillFile;
+  }
+
+  @Override
+  public boolean add(VectorContainer batch) {
+    if (schema == null) {
+      schema = batch.getSchema();
+    }
+    final Entry entry = new Entry();
+    entry.batch = batch;
+    entries.add(entry);
+    inMemoryCount++;
+    peakInMemory = Math.max(peakInMemory, inMemoryCount);
+    peakBuffered = Math.max(peakBuffered, entries.size());
+
+    if (spillEnabled && isUnderMemoryPressure()) {
+      spillAsNecessary();
+    }
+    return true;
+  }
+
+  @Override
+  public VectorContainer get(int index) {
+    final Entry entry = entries.get(index);
+    if (entry.batch != null) {
+      return entry.batch;
+    }
+
+    for (int i = 0; i < reloadSlots.length; i++) {
+      if (reloadedEntries[i] == entry) {
+        return reloadSlots[i];
+      }
+    }
+
+    final int slot = nextSlot;
+    nextSlot = (nextSlot + 1) % reloadSlots.length;
+    if (reloadSlots[slot] == null) {
+      reloadSlots[slot] = VectorContainer.create(allocator, schema);
+    }
+    reloadedEntries[slot] = null;
+    reloadSlots[slot].zeroVectors();
+    load(entry.spillFile, reloadSlots[slot]);
+    reloadedEntries[slot] = entry;
+    return reloadSlots[slot];
+  }
+
+  @Override
+  public VectorContainer remove(int index) {
+    final Entry entry = entries.remove(index);
+    final VectorContainer batch = entry.batch;
+    if (batch != null) {
+      inMemoryCount--;
+    } else {
+      forgetReloaded(entry);
+      AutoCloseables.closeNoChecked(entry.spillFile);
+    }
+
+    // the operator and the framers expect the head of the list to be directly accessible.
+    for (int i = 0; i < Math.min(PINNED_HEAD, entries.size()); i++) {
+      unspill(entries.get(i));
+    }
+    return batch;
+  }
+
+  @Override
+  public int size() {
+    return entries.size();
+  }
+
+  private boolean isUnderMemoryPressure() {
+    final double headroom = allocator.getHeadroom();
+    final double total = allocator.getAllocatedMemory() + headroom;
+    return total > 0 && headroom / total < minHeadroomRatio;
+  }
+
+  /**
+   * Spills in memory batches, starting from the end of the list as those are going to be accessed last, until the
+   * operator is out of memory pressure or there is nothing left to spill.
+   */
+  private void spillAsNecessary() {
+    for (int i = entries.size() - 2; i >= PINNED_HEAD && isUnderMemoryPressure(); i--) {
+      final Entry entry = entries.get(i);
+      if (entry.batch != null && entry.batch.getRecordCount() > 0) {
+        spill(entry);
+      }
+    }
+  }
+
+  private void spill(Entry entry) {
+    spillWatch.start();
+    try {
+      if (spillManager == null) {
+        final FragmentHandle handle = context.getFragmentHandle();
+        final String id = String.format("window-%s.%s.%s.%s", QueryIdHelper.getQueryId(handle.getQueryId()),
+          handle.getMajorFragmentId(), handle.getMinorFragmentId(), context.getStats().getOperatorId());
+        spillManager = new SpillManager(context.getConfig(), context.getOptions(), id, null,
+          context.getSpillService(), "window spilling", context.getStats());
+      }
+
+      final SpillFile spillFile = spillManager.getSpillFile(String.format("batch%05d", spillFileCount++));
+      try (SpillOutputStream out = spillFile.create(compressSpill)) {
+        out.writeBatch(entry.batch);
+      } catch (IOException e) {
+        AutoCloseables.closeNoChecked(spillFile);
+        throw UserException.dataWriteError(e)
+          .message("Failure while attempting to spill window partition data to disk.")
+          .build(logger);
+      }
+
+      entry.batch.close();
+      entry.batch = null;
+      entry.spillFile = spillFile;
+      inMemoryCount--;
+      spillCount++;
+    } finally {
+      spillWatch.stop();
+    }
+  }
+
+  private void unspill(Entry entry) {
+    if (entry.batch != null) {
+      return;
+    }
+
+    forgetReloaded(entry);
+    final VectorContainer batch = VectorContainer.create(allocator, schema);
+    load(entry.spillFile, batch);
+    AutoCloseables.closeNoChecked(entry.spillFile);
+    entry.spillFile = null;
+    entry.batch = batch;
+    inMemoryCount++;
+    peakInMemory = Math.max(peakInMemory, inMemoryCount);
+  }
+
+  private void load(SpillFile spillFile, VectorContainer target) {
+    Preconditions.checkNotNull(spillFile, "Batch was neither in memory nor spilled.");
+    try (SpillInputStream in = spillFile.open(compressSpill)) {
+      in.load(target, allocator);
+      reloadCount++;
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+        .message("Failure while reading spilled window partition data.")
+        .build(logger);
+    }
+  }
+
+  private void forgetReloaded(Entry entry) {
+    for (int i = 0; i < reloadedEntries.length; i++) {
+      if (reloadedEntries[i] == entry) {
+        reloadedEntries[i] = null;
+        reloadSlots[i].zeroVectors();
+      }
+    }
+  }
+
+  void updateStats(OperatorStats stats) {
+    stats.setLongStat(WindowFrameStats.Metric.SPILL_COUNT, spillCount);
+    stats.setLongStat(WindowFrameStats.Metric.RELOAD_COUNT, reloadCount);
+    stats.setLongStat(WindowFrameStats.Metric.SPILL_TIME_NANOS, spillWatch.elapsed(TimeUnit.NANOSECONDS));
+    stats.setLongStat(WindowFrameStats.Metric.PEAK_BATCHES_IN_MEMORY, peakInMemory);
+    stats.setLongStat(WindowFrameStats.Metric.PEAK_BATCHES_BUFFERED, peakBuffered);
+    if (spillManager != null) {
+      stats.setLongStat(WindowFrameStats.Metric.UNCOMPRESSED_BYTES_WRITTEN, spillManager.getAppWriteBytes());
+      stats.setLongStat(WindowFrameStats.Metric.IO_BYTES_WRITTEN, spillManager.getIOWriteBytes());
+      stats.setLongStat(WindowFrameStats.Metric.UNCOMPRESSED_BYTES_READ, spillManager.getAppReadBytes());
+      stats.setLongStat(WindowFrameStats.Metric.IO_BYTES_READ, spillManager.getIOReadBytes());
+      stats.setLongStat(WindowFrameStats.Metric.IO_WRITE_WAIT_NANOS, spillManager.getIOWriteWait());
+      stats.setLongStat(WindowFrameStats.Metric.IO_READ_WAIT_NANOS, spillManager.getIOReadWait());
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = new ArrayList<>();
+    for (Entry entry : entries) {
+      closeables.add(entry.batch);
+      closeables.add(entry.spillFile);
+    }
+    entries.clear();
+    closeables.add(reloadSlots[0]);
+    closeables.add(reloadSlots[1]);
+    closeables.add(spillManager);
+    AutoCloseables.close(closeables);
+  }
+}
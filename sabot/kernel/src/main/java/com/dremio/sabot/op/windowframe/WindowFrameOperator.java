@@ -18,7 +18,7 @@ package com.dremio.sabot.op.windowframe;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.EnumSet;
 import java.util.List;
 
 import org.apache.arrow.memory.OutOfMemoryException;
@@ -58,8 +58,9 @@ public class WindowFrameOperator implements SingleInputOperator {
 
   private final OperatorContext context;
   private final List<WindowFunction> functions = Lists.newArrayList();
+  private final List<SlidingWindowAggregator> slidingAggregators = Lists.newArrayList();
   private final WindowPOP config;
-  private final LinkedList<VectorContainer> batches = new LinkedList<>();
+  private final SpillableBatchList batches;
 
   private VectorAccessible incoming;
   private VectorContainer outgoing;
@@ -69,10 +70,12 @@ public class WindowFrameOperator implements SingleInputOperator {
   private WindowFramer[] framers;
 
   private boolean noMoreToConsume;
+  private boolean partitionContinues; // true if the first row of the current batch continues the previous partition
 
   public WindowFrameOperator(OperatorContext context, WindowPOP config) throws OutOfMemoryException {
     this.context = context;
     this.config = config;
+    this.batches = new SpillableBatchList(context);
   }
 
   @Override
@@ -84,6 +87,7 @@ public class WindowFrameOperator implements SingleInputOperator {
     createFramers(incoming);
     outgoing.buildSchema();
     outgoing.setInitialCapacity(context.getTargetBatchSize());
+    addDisplayStatsWithZeroValue(context, EnumSet.allOf(WindowFrameStats.Metric.class));
     state = State.CAN_CONSUME;
     return outgoing;
   }
@@ -123,6 +127,7 @@ public class WindowFrameOperator implements SingleInputOperator {
     }else if(!noMoreToConsume && !canDoWork()){
       state = State.CAN_CONSUME;
     }
+    batches.updateStats(context.getStats());
     return outgoing.getRecordCount();
   }
 
@@ -141,6 +146,10 @@ public class WindowFrameOperator implements SingleInputOperator {
       framer.doWork();
     }
 
+    if (!slidingAggregators.isEmpty() && recordCount > 0) {
+      computeSlidingAggregates(current, recordCount);
+    }
+
     // transfer "non aggregated" vectors
     for (VectorWrapper<?> vw : current) {
       ValueVector v = outgoing.addOrGet(vw.getField());
@@ -164,6 +173,31 @@ public class WindowFrameOperator implements SingleInputOperator {
     return recordCount;
   }
 
+  /**
+   * computes the sliding window aggregates of current batch. Their frame only contains preceding rows of the same
+   * partition, which the aggregators already saw.
+   */
+  private void computeSlidingAggregates(final VectorContainer current, final int recordCount) {
+    for (SlidingWindowAggregator aggregator : slidingAggregators) {
+      aggregator.setup(current, outgoing);
+    }
+
+    for (int row = 0; row < recordCount; row++) {
+      final boolean newPartition = row == 0
+        ? !partitionContinues
+        : !framers[0].isSamePartition(row - 1, current, row, current);
+      for (SlidingWindowAggregator aggregator : slidingAggregators) {
+        if (newPartition) {
+          aggregator.reset();
+        }
+        aggregator.evaluate(row, row);
+      }
+    }
+
+    partitionContinues = batches.size() > 1
+      && framers[0].isSamePartition(recordCount - 1, current, 0, batches.get(1));
+  }
+
   /**
    * @return true when all window functions are ready to process the current batch (it's the first batch currently
    * held in memory)
@@ -175,9 +209,9 @@ public class WindowFrameOperator implements SingleInputOperator {
       return false;
     }
 
-    final VectorAccessible current = batches.getFirst();
+    final VectorAccessible current = batches.get(0);
     final int currentSize = current.getRecordCount();
-    final VectorAccessible last = batches.getLast();
+    final VectorAccessible last = batches.get(batches.size() - 1);
     final int lastSize = last.getRecordCount();
 
     final boolean partitionEndReached = !framers[0].isSamePartition(currentSize - 1, current, lastSize - 1, last);
@@ -219,13 +253,16 @@ public class WindowFrameOperator implements SingleInputOperator {
     final ClassProducer producer = context.getClassProducer();
     // add aggregation vectors to the container, and materialize corresponding expressions
     for (final NamedExpression ne : config.getAggregations()) {
-      final WindowFunction winfun = WindowFunction.fromExpression(ne);
+      final WindowFunction winfun = WindowFunction.fromExpression(ne, config.getStart());
 
       // build the schema before each pass since we're going to use the outbound schema for value resolution.
       outgoing.buildSchema();
 
       if (winfun.materialize(ne, outgoing, producer)) {
         functions.add(winfun);
+        if (winfun instanceof WindowFunction.SlidingAggregate) {
+          slidingAggregators.add(((WindowFunction.SlidingAggregate) winfun).newAggregator(context.getAllocator()));
+        }
         requireFullPartition |= winfun.requiresFullPartition(config);
 
         if (winfun.supportsCustomFrames()) {
@@ -342,7 +379,8 @@ public class WindowFrameOperator implements SingleInputOperator {
     if (framers != null) {
       closeables.addAll(Arrays.asList(framers));
     }
-    closeables.addAll(batches);
+    closeables.add(batches);
+    closeables.addAll(slidingAggregators);
     AutoCloseables.close(closeables);
   }
 
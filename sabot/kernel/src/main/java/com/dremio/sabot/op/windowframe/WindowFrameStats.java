@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.windowframe;
+
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.proto.UserBitShared.MetricDef.AggregationType;
+import com.dremio.exec.proto.UserBitShared.MetricDef.DisplayType;
+import com.dremio.sabot.exec.context.MetricDef;
+
+public class WindowFrameStats {
+
+  public enum Metric implements MetricDef {
+    SPILL_COUNT(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of partition batches spilled to disk"),
+    RELOAD_COUNT(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of times a spilled partition batch was read back"),
+    SPILL_TIME_NANOS(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Time spent spilling partition batches"),
+    PEAK_BATCHES_IN_MEMORY, // maximum number of partition batches kept in memory
+    PEAK_BATCHES_BUFFERED,  // maximum number of partition batches buffered, in memory or on disk
+
+    UNCOMPRESSED_BYTES_WRITTEN,
+    IO_BYTES_WRITTEN,
+    UNCOMPRESSED_BYTES_READ,
+    IO_BYTES_READ,
+    IO_WRITE_WAIT_NANOS,
+    IO_READ_WAIT_NANOS,
+    ;
+
+    private final UserBitShared.MetricDef.DisplayType displayType;
+    private final UserBitShared.MetricDef.AggregationType aggregationType;
+    private final String displayCode;
+
+    Metric() {
+      this(UserBitShared.MetricDef.DisplayType.DISPLAY_NEVER, UserBitShared.MetricDef.AggregationType.SUM, "");
+    }
+
+    Metric(UserBitShared.MetricDef.DisplayType displayType, UserBitShared.MetricDef.AggregationType aggregationType, String displayCode) {
+      this.displayType = displayType;
+      this.aggregationType = aggregationType;
+      this.displayCode = displayCode;
+    }
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+
+    @Override
+    public UserBitShared.MetricDef.DisplayType getDisplayType() {
+      return this.displayType;
+    }
+
+    @Override
+    public UserBitShared.MetricDef.AggregationType getAggregationType() {
+      return this.aggregationType;
+    }
+
+    @Override
+    public String getDisplayCode() {
+      return this.displayCode;
+    }
+  }
+
+}
@@ -15,12 +15,14 @@
  */
 package com.dremio.sabot.op.windowframe;
 
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.types.pojo.Field;
 
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.expression.ErrorCollector;
 import com.dremio.common.expression.FunctionCall;
 import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
 import com.dremio.common.expression.ValueExpressions;
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.types.TypeProtos.MajorType;
@@ -72,6 +74,15 @@ public abstract class WindowFunction {
   }
 
   public static WindowFunction fromExpression(final NamedExpression expr) {
+    return fromExpression(expr, null);
+  }
+
+  /**
+   * @param expr window function call
+   * @param start lower bound of the window frame, if it's a bounded PRECEDING bound aggregates are evaluated
+   *              incrementally by a {@link SlidingAggregate}
+   */
+  public static WindowFunction fromExpression(final NamedExpression expr, final WindowPOP.Bound start) {
     if (!(expr.getExpr() instanceof FunctionCall)) {
       throw UserException.functionError()
               .message("Unsupported window function '%s'", expr.getExpr())
@@ -87,6 +98,25 @@ public abstract class WindowFunction {
       type = Type.AGGREGATE;
     }
 
+    if (start != null && start.isBoundedPreceding()) {
+      if (start.getOffset() == Long.MIN_VALUE) {
+        // offset of a bound that couldn't be resolved to a constant, see WindowPOP.newBound()
+        throw UserException.unsupportedError()
+          .message("Window frame offset of function '%s' must be a constant", name)
+          .build(logger);
+      }
+      switch (type) {
+        case AGGREGATE:
+          return new SlidingAggregate(-start.getOffset());
+        case FIRST_VALUE:
+          throw UserException.unsupportedError()
+            .message("FIRST_VALUE is not supported with a ROWS BETWEEN n PRECEDING frame")
+            .build(logger);
+        default:
+          break;
+      }
+    }
+
     switch (type) {
       case AGGREGATE:
         return new WindowAggregate();
@@ -195,6 +225,82 @@ public abstract class WindowFunction {
     }
   }
 
+  /**
+   * Aggregate over a ROWS BETWEEN n PRECEDING AND CURRENT ROW frame. Instead of generating code that aggregates the
+   * whole frame of every row, rows are fed to a {@link SlidingWindowAggregator} that adds each row when it enters the
+   * frame and removes it when it leaves. The operator drives the aggregator directly, no code is generated.
+   */
+  static class SlidingAggregate extends WindowAggregate {
+    private final long precedingRows;
+    private SlidingWindowAggregator.Kind kind;
+    private TypedFieldId inputId;
+    private TypedFieldId outputId;
+
+    SlidingAggregate(long precedingRows) {
+      this.precedingRows = precedingRows;
+    }
+
+    /**
+     * @param allocator allocator of the rows the aggregator keeps for the current frame
+     * @return new aggregator of the materialized function
+     */
+    SlidingWindowAggregator newAggregator(BufferAllocator allocator) {
+      return new SlidingWindowAggregator(kind, precedingRows, inputId, outputId, allocator);
+    }
+
+    @Override
+    boolean materialize(final NamedExpression ne, final VectorContainer batch, final ClassProducer producer) {
+      if (!super.materialize(ne, batch, producer)) {
+        return false;
+      }
+
+      final FunctionCall call = (FunctionCall) ne.getExpr();
+      final LogicalExpression argument = call.args.get(0);
+      kind = SlidingWindowAggregator.kindOf(call.getName());
+      inputId = argument instanceof SchemaPath ? batch.getValueVectorId((SchemaPath) argument) : null;
+      outputId = batch.getValueVectorId(ne.getRef());
+      return true;
+    }
+
+    @Override
+    public Field materialize(final NamedExpression ne, final BatchSchema schema, ErrorCollector collector, FunctionLookupContext context) {
+      final FunctionCall call = (FunctionCall) ne.getExpr();
+      final SlidingWindowAggregator.Kind kind = SlidingWindowAggregator.kindOf(call.getName());
+      final LogicalExpression argument = call.args.get(0);
+      if (argument instanceof SchemaPath) {
+        final LogicalExpression input = ExpressionTreeMaterializer.materialize(argument, schema, collector, context);
+        if (input != null && !SlidingWindowAggregator.isSupported(kind, input.getCompleteType())) {
+          throw UserException.unsupportedError()
+            .message("Window function '%s' does not support input type %s with a ROWS BETWEEN n PRECEDING frame",
+              call.getName(), input.getCompleteType())
+            .build(logger);
+        }
+      } else if (kind != SlidingWindowAggregator.Kind.COUNT) {
+        throw UserException.unsupportedError()
+          .message("Window function '%s' only supports column arguments with a ROWS BETWEEN n PRECEDING frame", call.getName())
+          .build(logger);
+      }
+
+      return super.materialize(ne, schema, collector, context);
+    }
+
+    @Override
+    void generateCode(ClassGenerator<WindowFramer> cg) {
+      // evaluated by SlidingWindowAggregator
+    }
+
+    @Override
+    public boolean requiresFullPartition(final WindowPOP pop) {
+      return false;
+    }
+
+    @Override
+    public boolean canDoWork(int numBatchesAvailable, WindowPOP pop, boolean frameEndReached, boolean partitionEndReached) {
+      // the frame of every row only contains rows that were already seen
+      return true;
+    }
+  }
+
   static class Ranking extends WindowFunction {
 
     protected TypedFieldId fieldId;
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.stealing;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+
+/**
+ * Handle of a task of the {@link WorkStealingTaskPool}.
+ * <p>
+ * Tasks are picked in the order of their virtual runtime: the time they ran divided by their share of the pool, so
+ * that the runnable tasks get cpu time in proportion of their shares. A task only counts in the share of its group while
+ * it is runnable, queued or running.
+ */
+final class StealableTask implements TaskHandle<AsyncTaskWrapper> {
+  // minimum share of a task, to bound the virtual runtime it is charged
+  private static final double MIN_SHARE = 1e-6;
+
+  private final WorkStealingTaskPool pool;
+  private final WeightedGroup group;
+  private final AsyncTaskWrapper task;
+  private final long weight;
+  private final AtomicBoolean runnable = new AtomicBoolean();
+
+  private volatile Worker worker;
+  private volatile long vruntime;
+
+  StealableTask(WorkStealingTaskPool pool, WeightedGroup group, AsyncTaskWrapper task, long weight) {
+    this.pool = pool;
+    this.group = group;
+    this.task = task;
+    this.weight = weight;
+  }
+
+  @Override
+  public AsyncTaskWrapper getTask() {
+    return task;
+  }
+
+  @Override
+  public void reEnqueue() {
+    pool.enqueue(this);
+  }
+
+  @Override
+  public int getThread() {
+    final Worker current = worker;
+    return current != null ? current.getIndex() : -1;
+  }
+
+  @Override
+  public int getCurrentTaskLoad() {
+    final Worker current = worker;
+    return current != null ? current.getLoad() : 0;
+  }
+
+  Worker getWorker() {
+    return worker;
+  }
+
+  /**
+   * Assigns the task to the given worker, and accounts it in the worker's tasks.
+   */
+  void setWorker(Worker newWorker) {
+    final Worker oldWorker = worker;
+    if (oldWorker == newWorker) {
+      return;
+    }
+    if (oldWorker != null) {
+      oldWorker.taskUnassigned();
+    }
+    if (newWorker != null) {
+      newWorker.taskAssigned();
+    }
+    worker = newWorker;
+  }
+
+  /**
+   * Accounts the task in its group when it is queued, and takes it out when it blocks or completes.
+   */
+  void setRunnable(boolean isRunnable) {
+    if (!runnable.compareAndSet(!isRunnable, isRunnable)) {
+      return;
+    }
+    if (isRunnable) {
+      group.taskAdded(weight);
+    } else {
+      group.taskRemoved(weight);
+    }
+  }
+
+  long getVruntime() {
+    return vruntime;
+  }
+
+  void setVruntime(long vruntime) {
+    this.vruntime = vruntime;
+  }
+
+  /**
+   * Charges the given run time to the task, scaled by its current share of the pool amongst the runnable tasks.
+   */
+  void charge(long runTimeNanos) {
+    final double share = group.getShare() * weight / Math.max(group.getActiveWeight(), weight);
+    vruntime += (long) (runTimeNanos / Math.max(share, MIN_SHARE));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s (vruntime %d, thread %d)", task.getState(), vruntime, getThread());
+  }
+}
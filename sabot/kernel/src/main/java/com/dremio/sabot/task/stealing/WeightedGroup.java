@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.stealing;
+
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+import com.google.common.base.Preconditions;
+
+/**
+ * A scheduling group of the {@link WorkStealingTaskPool}.
+ * <p>
+ * The groups form a tree, and each group is entitled to a share of its parent's share, proportional to its weight
+ * amongst the sibling groups that have runnable tasks. The share of a group is divided amongst its runnable tasks
+ * proportionally to their weights, so that blocked tasks don't hold on to a part of it.
+ */
+final class WeightedGroup implements SchedulingGroup<AsyncTaskWrapper> {
+  private final WorkStealingTaskPool pool;
+  private final WeightedGroup parent;
+  private final long weight;
+
+  // total weight of the runnable tasks, and of the child groups having runnable tasks
+  private long activeWeight;
+  private int numMembers;
+
+  WeightedGroup(WorkStealingTaskPool pool, WeightedGroup parent, long weight) {
+    Preconditions.checkArgument(weight > 0, "Group weight must be positive");
+    this.pool = pool;
+    this.parent = parent;
+    this.weight = weight;
+  }
+
+  @Override
+  public SchedulingGroup<AsyncTaskWrapper> addGroup(long weight, boolean weightBasedScheduler) {
+    // groups that are not weight based get the same share as their siblings
+    return new WeightedGroup(pool, this, weightBasedScheduler ? Math.max(weight, 1) : 1);
+  }
+
+  @Override
+  public TaskHandle<AsyncTaskWrapper> addTask(AsyncTaskWrapper task, long weight) {
+    // accounted once queued
+    return new StealableTask(pool, this, task, Math.max(weight, 1));
+  }
+
+  /**
+   * @return the fraction of the pool that the tasks of this group are entitled to
+   */
+  double getShare() {
+    if (parent == null) {
+      return 1.0;
+    }
+    final long siblingsWeight = parent.getActiveWeight();
+    return parent.getShare() * weight / Math.max(siblingsWeight, weight);
+  }
+
+  synchronized long getActiveWeight() {
+    return activeWeight;
+  }
+
+  /**
+   * Accounts a task becoming runnable, or a child group getting its first runnable task.
+   */
+  synchronized void taskAdded(long memberWeight) {
+    if (numMembers++ == 0 && parent != null) {
+      parent.taskAdded(weight);
+    }
+    activeWeight += memberWeight;
+  }
+
+  /**
+   * Accounts a task that blocked or completed, or a child group losing its last runnable task.
+   */
+  synchronized void taskRemoved(long memberWeight) {
+    activeWeight -= memberWeight;
+    if (--numMembers == 0 && parent != null) {
+      parent.taskRemoved(weight);
+    }
+  }
+}
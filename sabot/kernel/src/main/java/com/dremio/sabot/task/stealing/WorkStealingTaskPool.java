@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.stealing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.GroupManager;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.TaskPool;
+import com.dremio.sabot.task.TaskPoolFactory;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * A task pool running the tasks on a fixed number of worker threads, one per core by default.
+ * <p>
+ * Each worker has its own run queue, ordered by the virtual runtime of the tasks so that the runnable tasks get cpu
+ * time in proportion of the weights of their {@link SchedulingGroup}s, blocked tasks leaving their share to the others. A task runs for a time slice, or until it
+ * blocks, and is queued again when it becomes runnable, preferably on the same worker. Idle workers steal tasks from
+ * the most loaded ones.
+ * <p>
+ * To use it, set {@code dremio.task.pool.factory.class} to
+ * {@code com.dremio.sabot.task.stealing.WorkStealingTaskPool$Factory} in the configuration.
+ */
+public class WorkStealingTaskPool implements TaskPool, GroupManager<AsyncTaskWrapper> {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WorkStealingTaskPool.class);
+
+  /**
+   * Factory for {@code WorkStealingTaskPool}
+   */
+  public static final class Factory implements TaskPoolFactory {
+    @Override
+    public TaskPool newInstance(OptionManager options, DremioConfig config) {
+      final int numThreads = (int) options.getOption(ExecConstants.WORK_STEALING_NUM_THREADS);
+      return new WorkStealingTaskPool(numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors(),
+        TimeUnit.MILLISECONDS.toNanos(options.getOption(ExecConstants.WORK_STEALING_TIME_SLICE_MS)));
+    }
+  }
+
+  private final Worker[] workers;
+  private final WeightedGroup root = new WeightedGroup(this, null, 1);
+  private volatile boolean closed;
+
+  @VisibleForTesting
+  WorkStealingTaskPool(int numThreads, long timeSliceNanos) {
+    Preconditions.checkArgument(numThreads > 0, "The task pool needs at least one thread");
+    workers = new Worker[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      workers[i] = new Worker(this, i, timeSliceNanos);
+    }
+    for (Worker worker : workers) {
+      worker.start();
+    }
+    logger.info("Started work stealing task pool with {} threads", numThreads);
+  }
+
+  @Override
+  public void execute(AsyncTaskWrapper task) {
+    final SchedulingGroup<AsyncTaskWrapper> group = task.getSchedulingGroup();
+    // tasks created outside of this pool's groups share the root group
+    final WeightedGroup weightedGroup = group instanceof WeightedGroup ? (WeightedGroup) group : root;
+    final StealableTask handle = (StealableTask) weightedGroup.addTask(task, task.getTaskWeight());
+    task.setTaskHandle(handle);
+    enqueue(handle);
+  }
+
+  @Override
+  public SchedulingGroup<AsyncTaskWrapper> newGroup(long weight) {
+    return root.addGroup(weight, true);
+  }
+
+  @Override
+  public GroupManager<AsyncTaskWrapper> getGroupManager() {
+    return this;
+  }
+
+  @Override
+  public Iterable<ThreadInfo> getSlicingThreads() {
+    final List<ThreadInfo> infos = new ArrayList<>(workers.length);
+    for (Worker worker : workers) {
+      infos.add(worker.getThreadInfo());
+    }
+    return infos;
+  }
+
+  @Override
+  public boolean areAllThreadsAlive() {
+    for (Worker worker : workers) {
+      if (!worker.isAlive()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Queues a runnable task on the worker it last ran on, unless that worker is busier than the least loaded one.
+   */
+  void enqueue(StealableTask task) {
+    task.setRunnable(true);
+    final Worker leastLoaded = getLeastLoadedWorker();
+    final Worker previous = task.getWorker();
+    final Worker target = previous != null && previous.getLoad() <= leastLoaded.getLoad() + 1 ? previous : leastLoaded;
+    final boolean busy = target.getLoad() > 0;
+    target.push(task);
+    if (busy) {
+      // let an idle worker steal the task rather than wait for it
+      for (Worker worker : workers) {
+        if (worker != target && worker.isIdle()) {
+          LockSupport.unpark(worker);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Takes a queued task from the worker with the most tasks waiting.
+   *
+   * @return the task, or null if no worker has tasks waiting
+   */
+  StealableTask steal(Worker thief) {
+    Worker victim = null;
+    int victimQueueSize = 0;
+    // start at a random worker so that thieves spread over the victims with the same load
+    final int start = ThreadLocalRandom.current().nextInt(workers.length);
+    for (int i = 0; i < workers.length; i++) {
+      final Worker worker = workers[(start + i) % workers.length];
+      final int queueSize = worker.getQueueSize();
+      if (worker != thief && queueSize > victimQueueSize) {
+        victim = worker;
+        victimQueueSize = queueSize;
+      }
+    }
+    return victim != null ? victim.steal(thief) : null;
+  }
+
+  void taskDone(StealableTask task) {
+    task.setWorker(null);
+    task.setRunnable(false);
+  }
+
+  private Worker getLeastLoadedWorker() {
+    Worker leastLoaded = workers[0];
+    int minLoad = leastLoaded.getLoad();
+    for (int i = 1; i < workers.length && minLoad > 0; i++) {
+      final int load = workers[i].getLoad();
+      if (load < minLoad) {
+        leastLoaded = workers[i];
+        minLoad = load;
+      }
+    }
+    return leastLoaded;
+  }
+
+  @Override
+  public void close() throws Exception {
+    closed = true;
+    for (Worker worker : workers) {
+      worker.interrupt();
+    }
+    for (Worker worker : workers) {
+      worker.join(TimeUnit.SECONDS.toMillis(1));
+    }
+  }
+}
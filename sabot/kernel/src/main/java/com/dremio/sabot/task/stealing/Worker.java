@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.stealing;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.dremio.common.perf.StatsCollectionEligibilityRegistrar;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.BlockRun;
+import com.dremio.sabot.task.TaskPool.ThreadInfo;
+
+/**
+ * A worker thread of the {@link WorkStealingTaskPool}, with its own run queue.
+ * <p>
+ * The worker runs the task with the smallest virtual runtime of its queue for a time slice, or until the task blocks.
+ * When its queue is empty, it steals a task from the most loaded worker, and parks if there is none.
+ */
+final class Worker extends Thread {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(Worker.class);
+
+  // how long an idle worker parks before looking for tasks to steal again
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final WorkStealingTaskPool pool;
+  private final int index;
+  private final long timeSliceNanos;
+  private final PriorityQueue<StealableTask> runQueue = new PriorityQueue<>(
+    (t1, t2) -> Long.signum(t1.getVruntime() - t2.getVruntime()));
+
+  // number of tasks assigned to this worker, runnable or blocked
+  private final AtomicInteger numTasks = new AtomicInteger();
+  private final AtomicLong numSteals = new AtomicLong();
+  private volatile StealableTask running;
+  private volatile boolean idle;
+  // virtual runtime of the last task picked, the starting point of the tasks joining the queue
+  private volatile long clock;
+
+  Worker(WorkStealingTaskPool pool, int index, long timeSliceNanos) {
+    super("e" + index + "-ws");
+    setDaemon(true);
+    this.pool = pool;
+    this.index = index;
+    this.timeSliceNanos = timeSliceNanos;
+  }
+
+  int getIndex() {
+    return index;
+  }
+
+  /**
+   * @return the number of runnable tasks of this worker, including the one running
+   */
+  int getLoad() {
+    synchronized (runQueue) {
+      return runQueue.size() + (running != null ? 1 : 0);
+    }
+  }
+
+  boolean isIdle() {
+    return idle;
+  }
+
+  void taskAssigned() {
+    numTasks.incrementAndGet();
+  }
+
+  void taskUnassigned() {
+    numTasks.decrementAndGet();
+  }
+
+  /**
+   * Adds a runnable task to the queue of this worker, and wakes it up.
+   */
+  void push(StealableTask task) {
+    task.setWorker(this);
+    synchronized (runQueue) {
+      // a task doesn't get credit for the time it was not runnable
+      task.setVruntime(Math.max(task.getVruntime(), clock));
+      runQueue.add(task);
+    }
+    LockSupport.unpark(this);
+  }
+
+  /**
+   * Removes the best task of the queue, for another worker to run it.
+   *
+   * @return the task, or null if the queue has no task waiting
+   */
+  StealableTask steal(Worker thief) {
+    final StealableTask task;
+    synchronized (runQueue) {
+      task = runQueue.poll();
+    }
+    if (task != null) {
+      // keep the position of the task relative to the other tasks of its new queue
+      task.setVruntime(task.getVruntime() - clock + thief.clock);
+    }
+    return task;
+  }
+
+  int getQueueSize() {
+    synchronized (runQueue) {
+      return runQueue.size();
+    }
+  }
+
+  ThreadInfo getThreadInfo() {
+    return new ThreadInfo(getName(), index, -1, -1, numTasks.get(), getQueueSize(), (int) numSteals.get(), getId());
+  }
+
+  @Override
+  public void run() {
+    StatsCollectionEligibilityRegistrar.addSelf();
+    while (!pool.isClosed()) {
+      StealableTask task;
+      synchronized (runQueue) {
+        task = runQueue.poll();
+      }
+      if (task == null) {
+        task = pool.steal(this);
+        if (task != null) {
+          numSteals.incrementAndGet();
+          task.setWorker(this);
+        }
+      }
+      if (task == null) {
+        park();
+        continue;
+      }
+
+      // don't let a cancellation of the previous task leak into the next one
+      Thread.interrupted();
+      runSlice(task);
+    }
+  }
+
+  private void park() {
+    idle = true;
+    try {
+      if (getQueueSize() == 0) {
+        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+      }
+    } finally {
+      idle = false;
+    }
+  }
+
+  private void runSlice(StealableTask handle) {
+    final AsyncTaskWrapper task = handle.getTask();
+    clock = Math.max(clock, handle.getVruntime());
+    running = handle;
+    final long sliceStart = System.nanoTime();
+    try {
+      long runEnd;
+      do {
+        final String preRunName = task.getAsyncTask().preRunUpdate(getLoad());
+        final long runStart = System.nanoTime();
+        try {
+          task.run();
+        } finally {
+          runEnd = System.nanoTime();
+          task.getAsyncTask().postRunUpdate(runEnd - runStart, preRunName);
+        }
+      } while (task.getState() == AsyncTaskWrapper.State.RUNNABLE && runEnd - sliceStart < timeSliceNanos
+        && !pool.isClosed());
+      handle.charge(runEnd - sliceStart);
+    } catch (Throwable t) {
+      logger.error("Unhandled Exception in Fragment Thread.", t);
+      running = null;
+      pool.taskDone(handle);
+      return;
+    }
+    running = null;
+
+    switch (task.getState()) {
+      case BLOCKED_ON_DOWNSTREAM:
+      case BLOCKED_ON_UPSTREAM:
+      case BLOCKED_ON_SHARED_RESOURCE:
+        // the task is queued again once unblocked, possibly right away, so it leaves its share first
+        handle.setRunnable(false);
+        task.setAvailabilityCallback(new BlockRun(handle));
+        break;
+      case DONE:
+        pool.taskDone(handle);
+        try {
+          task.getCleaner().close();
+        } catch (Exception e) {
+          logger.error("Failure while cleaning up task {}", task, e);
+        }
+        break;
+      case RUNNABLE:
+      default:
+        push(handle);
+        break;
+    }
+  }
+}
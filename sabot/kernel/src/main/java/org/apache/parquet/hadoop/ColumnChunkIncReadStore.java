@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.PrimitiveIterator;
 
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
@@ -39,10 +41,15 @@ import org.apache.parquet.format.PageHeader;
 import org.apache.parquet.format.Util;
 import org.apache.parquet.format.converter.ParquetMetadataConverter;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
 
 import com.dremio.exec.store.parquet.BulkInputStream;
 import com.dremio.exec.store.parquet.InputStreamProvider;
+import com.dremio.exec.store.parquet.OffsetIndexProvider;
+import com.dremio.exec.store.parquet.ParquetReaderStats;
 import com.dremio.io.file.Path;
+import com.google.common.base.Preconditions;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.NettyArrowBuf;
@@ -57,6 +64,11 @@ public class ColumnChunkIncReadStore implements PageReadStore {
   private long rowCount;
   private InputStreamProvider inputStreamProvider;
 
+  // rows to read, when pages are skipped using the offset indexes
+  private RowRanges rowRanges;
+  private OffsetIndexProvider offsetIndexProvider;
+  private ParquetReaderStats stats;
+
   public ColumnChunkIncReadStore(long rowCount, CompressionCodecFactory codecFactory, BufferAllocator allocator,
       Path path, InputStreamProvider inputStreamProvider) {
     this.codecFactory = codecFactory;
@@ -69,8 +81,9 @@ public class ColumnChunkIncReadStore implements PageReadStore {
   public class SingleStreamColumnChunkIncPageReader extends ColumnChunkIncPageReader {
     private long lastPosition;
 
-    public SingleStreamColumnChunkIncPageReader(ColumnChunkMetaData metaData, ColumnDescriptor columnDescriptor, BulkInputStream in) throws IOException {
-      super(metaData, columnDescriptor, in);
+    public SingleStreamColumnChunkIncPageReader(ColumnChunkMetaData metaData, ColumnDescriptor columnDescriptor, BulkInputStream in,
+                                                OffsetIndex offsetIndex) throws IOException {
+      super(metaData, columnDescriptor, in, offsetIndex);
       lastPosition = in.getPos();
     }
 
@@ -117,13 +130,34 @@ public class ColumnChunkIncReadStore implements PageReadStore {
     // Release the dictionary page buffer in close
     private ByteBuf dictionaryPageUncompressed;
 
-    public ColumnChunkIncPageReader(ColumnChunkMetaData metaData, ColumnDescriptor columnDescriptor, BulkInputStream in) throws IOException {
+    // Set when only the pages overlapping rowRanges are read
+    private final OffsetIndex offsetIndex;
+    private final long valueCount;
+    private int pageIndex = 0;
+
+    public ColumnChunkIncPageReader(ColumnChunkMetaData metaData, ColumnDescriptor columnDescriptor, BulkInputStream in,
+                                    OffsetIndex offsetIndex) throws IOException {
       this.metaData = metaData;
       this.columnDescriptor = columnDescriptor;
       this.size = metaData.getTotalSize();
       this.fileOffset = metaData.getStartingPos();
       this.in = in;
       this.decompressor = codecFactory.getDecompressor(metaData.getCodec());
+      this.offsetIndex = offsetIndex;
+      if (offsetIndex == null) {
+        this.valueCount = metaData.getValueCount();
+      } else {
+        // columns are not repeated when pages are skipped, so there is one value per row
+        long count = 0;
+        for (int i = 0; i < offsetIndex.getPageCount(); i++) {
+          final long firstRow = offsetIndex.getFirstRowIndex(i);
+          final long lastRow = offsetIndex.getLastRowIndex(i, rowCount);
+          if (rowRanges.isOverlapping(firstRow, lastRow)) {
+            count += lastRow - firstRow + 1;
+          }
+        }
+        this.valueCount = count;
+      }
     }
 
     @Override
@@ -166,7 +200,7 @@ public class ColumnChunkIncReadStore implements PageReadStore {
 
     @Override
     public long getTotalValueCount() {
-      return metaData.getValueCount();
+      return valueCount;
     }
 
     @Override
@@ -174,6 +208,9 @@ public class ColumnChunkIncReadStore implements PageReadStore {
       PageHeader pageHeader = new PageHeader();
       try {
         releasePrevDataPageBuffers();
+        if (offsetIndex != null) {
+          return readNextOverlappingPage();
+        }
         while(valueReadSoFar < metaData.getValueCount()) {
           pageHeader = Util.readPageHeader(in.asSeekableInputStream());
           int uncompressedPageSize = pageHeader.getUncompressed_page_size();
@@ -237,6 +274,65 @@ public class ColumnChunkIncReadStore implements PageReadStore {
       }
     }
 
+    /**
+     * Reads the next data page overlapping the row ranges, seeking over the other ones.
+     */
+    private DataPage readNextOverlappingPage() throws IOException {
+      if (pageIndex == 0) {
+        // the dictionary page precedes the first data page, and is not part of the offset index
+        readDictionaryPage();
+      }
+      while (pageIndex < offsetIndex.getPageCount()) {
+        final int index = pageIndex++;
+        final long firstRow = offsetIndex.getFirstRowIndex(index);
+        final long lastRow = offsetIndex.getLastRowIndex(index, rowCount);
+        if (!rowRanges.isOverlapping(firstRow, lastRow)) {
+          stats.numPagesSkipped++;
+          stats.totalPageSkippedBytes += offsetIndex.getCompressedPageSize(index);
+          continue;
+        }
+
+        in.seek(offsetIndex.getOffset(index));
+        final PageHeader pageHeader = Util.readPageHeader(in.asSeekableInputStream());
+        final int pageRowCount = Math.toIntExact(lastRow - firstRow + 1);
+        switch (pageHeader.type) {
+          case DATA_PAGE:
+            valueReadSoFar += pageHeader.data_page_header.getNum_values();
+            ByteBuffer destBuffer = uncompressPage(pageHeader, true);
+            return new DataPageV1(
+              BytesInput.from(destBuffer, 0, pageHeader.uncompressed_page_size),
+              pageHeader.data_page_header.num_values,
+              pageHeader.uncompressed_page_size,
+              firstRow,
+              pageRowCount,
+              fromParquetStatistics(pageHeader.data_page_header.statistics, columnDescriptor.getType()),
+              parquetMetadataConverter.getEncoding(pageHeader.data_page_header.repetition_level_encoding),
+              parquetMetadataConverter.getEncoding(pageHeader.data_page_header.definition_level_encoding),
+              parquetMetadataConverter.getEncoding(pageHeader.data_page_header.encoding));
+          case DATA_PAGE_V2:
+            valueReadSoFar += pageHeader.data_page_header_v2.getNum_values();
+            destBuffer = uncompressPage(pageHeader, true);
+            final DataPageHeaderV2 dataHeaderV2 = pageHeader.getData_page_header_v2();
+            final int levelsSize = dataHeaderV2.getRepetition_levels_byte_length() + dataHeaderV2.getDefinition_levels_byte_length();
+            return DataPageV2.uncompressed(
+              dataHeaderV2.getNum_rows(),
+              dataHeaderV2.getNum_nulls(),
+              dataHeaderV2.getNum_values(),
+              firstRow,
+              BytesInput.from(destBuffer, 0, dataHeaderV2.getRepetition_levels_byte_length()),
+              BytesInput.from(destBuffer,
+                dataHeaderV2.getRepetition_levels_byte_length(),
+                dataHeaderV2.getDefinition_levels_byte_length()),
+              parquetMetadataConverter.getEncoding(dataHeaderV2.getEncoding()),
+              BytesInput.from(destBuffer, levelsSize, pageHeader.getUncompressed_page_size() - levelsSize),
+              fromParquetStatistics(dataHeaderV2.getStatistics(), columnDescriptor.getType()));
+          default:
+            throw new IOException("Offset index points to a page of type " + pageHeader.type);
+        }
+      }
+      return null;
+    }
+
     void close() {
       try {
         releasePrevDataPageBuffers();
@@ -321,12 +417,31 @@ public class ColumnChunkIncReadStore implements PageReadStore {
 
   private Map<ColumnDescriptor, ColumnChunkIncPageReader> columns = new HashMap<>();
 
+  /**
+   * Restricts the read to the given rows. Pages that don't overlap them are skipped using the offset indexes, and the
+   * column readers drop the other rows of the pages that are read.
+   * <p>
+   * Must be called before adding the columns, which must not be repeated and must all have an offset index.
+   */
+  public void setRowRanges(RowRanges rowRanges, OffsetIndexProvider offsetIndexProvider, ParquetReaderStats stats) {
+    Preconditions.checkState(columns.isEmpty(), "Row ranges must be set before adding columns");
+    this.rowRanges = rowRanges;
+    this.offsetIndexProvider = offsetIndexProvider;
+    this.stats = stats;
+  }
+
   public void addColumn(ColumnDescriptor descriptor, ColumnChunkMetaData metaData) throws IOException {
+    OffsetIndex offsetIndex = null;
+    if (rowRanges != null) {
+      offsetIndex = offsetIndexProvider.getOffsetIndex(metaData);
+      Preconditions.checkState(offsetIndex != null && descriptor.getMaxRepetitionLevel() == 0,
+        "Pages of column %s can't be skipped", metaData.getPath());
+    }
     final BulkInputStream in = inputStreamProvider.getStream(metaData);
     in.seek(metaData.getStartingPos());
     columns.put(descriptor, inputStreamProvider.isSingleStream()
-      ? new SingleStreamColumnChunkIncPageReader(metaData, descriptor, in)
-      : new ColumnChunkIncPageReader(metaData, descriptor, in));
+      ? new SingleStreamColumnChunkIncPageReader(metaData, descriptor, in, offsetIndex)
+      : new ColumnChunkIncPageReader(metaData, descriptor, in, offsetIndex));
   }
 
   public void close() throws IOException {
@@ -342,6 +457,11 @@ public class ColumnChunkIncReadStore implements PageReadStore {
 
   @Override
   public long getRowCount() {
-    return rowCount;
+    return rowRanges == null ? rowCount : rowRanges.rowCount();
+  }
+
+  @Override
+  public Optional<PrimitiveIterator.OfLong> getRowIndexes() {
+    return rowRanges == null ? Optional.empty() : Optional.of(rowRanges.iterator());
   }
 }
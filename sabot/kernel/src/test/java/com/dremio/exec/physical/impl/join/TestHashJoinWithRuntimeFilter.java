@@ -341,4 +341,46 @@ public class TestHashJoinWithRuntimeFilter extends PlanTestBase {
       test(sql);
     }
   }
+
+  @Test
+  public void test3wayJoinWithTransitiveKeys() throws Exception {
+    try (AutoCloseable withDisableJoinOpt = withOption(PlannerSettings.ENABLE_JOIN_OPTIMIZATION, false);
+      AutoCloseable withHashJoinSwap = withOption(PlannerSettings.HASH_JOIN_SWAP, false);
+      AutoCloseable withTransitive = withOption(PlannerSettings.ENABLE_TRANSITIVE_RUNTIME_FILTER, true)) {
+      // The filter built from regions lands on the nations2 scan directly and, through
+      // nations.N_REGIONKEY = nations2.N_REGIONKEY, on the far-side nations scan as well.
+      String sql = String.format(""
+        + "WITH\n"
+        + "nations AS (SELECT * FROM %s),\n"
+        + "regions AS (SELECT * FROM %s)\n"
+        + "SELECT *\n"
+        + "FROM nations\n"
+        + "JOIN nations AS nations2 ON nations.N_REGIONKEY = nations2.N_REGIONKEY\n"
+        + "JOIN regions ON nations2.N_REGIONKEY = regions.R_REGIONKEY", NATION, REGION);
+      String[] includedStrings = {"(?s)runtimeFilters=\\[[^\\]]*R_REGIONKEY->N_REGIONKEY.*"
+        + "runtimeFilters=\\[[^\\]]*R_REGIONKEY->N_REGIONKEY"};
+      testPlanMatchingPatterns(sql, includedStrings);
+      test(sql);
+    }
+  }
+
+  @Test
+  public void test3wayJoinWithTransitiveKeysDisabled() throws Exception {
+    try (AutoCloseable withDisableJoinOpt = withOption(PlannerSettings.ENABLE_JOIN_OPTIMIZATION, false);
+      AutoCloseable withHashJoinSwap = withOption(PlannerSettings.HASH_JOIN_SWAP, false);
+      AutoCloseable withTransitive = withOption(PlannerSettings.ENABLE_TRANSITIVE_RUNTIME_FILTER, false)) {
+      String sql = String.format(""
+        + "WITH\n"
+        + "nations AS (SELECT * FROM %s),\n"
+        + "regions AS (SELECT * FROM %s)\n"
+        + "SELECT *\n"
+        + "FROM nations\n"
+        + "JOIN nations AS nations2 ON nations.N_REGIONKEY = nations2.N_REGIONKEY\n"
+        + "JOIN regions ON nations2.N_REGIONKEY = regions.R_REGIONKEY", NATION, REGION);
+      String[] includedStrings = {"runtimeFilters=\\[[^\\]]*R_REGIONKEY->N_REGIONKEY"};
+      String excluded = "(?s)R_REGIONKEY->N_REGIONKEY.*R_REGIONKEY->N_REGIONKEY";
+      testPlanMatchingPatterns(sql, includedStrings, excluded);
+      test(sql);
+    }
+  }
 }
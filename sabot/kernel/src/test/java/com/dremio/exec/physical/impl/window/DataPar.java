@@ -263,4 +263,18 @@ class DataPar {
     }
   }
 
+  static DataPar[] dataB10P2(boolean pby) {
+    // partition rows 120, subs [1, 2, 3]
+    // partition rows 80, subs [3, 4, 5]
+    if (pby) {
+      return new Builder()
+              .partition(120).sub(1, 30).sub(2, 40).sub(3)
+              .partition(80).sub(3, 20).sub(4, 25).sub(5)
+              .build();
+    } else {
+      return new Builder()
+              .partition(200).sub(1, 30).sub(2, 40).sub(3, 70).sub(4, 25).sub(5)
+              .build();
+    }
+  }
 }
@@ -15,6 +15,7 @@
  */
 package com.dremio.exec.physical.impl.window;
 
+import static com.dremio.exec.physical.impl.window.DataPar.dataB10P2;
 import static com.dremio.exec.physical.impl.window.DataPar.dataB1P1;
 import static com.dremio.exec.physical.impl.window.DataPar.dataB1P2;
 import static com.dremio.exec.physical.impl.window.DataPar.dataB2P2;
@@ -23,10 +24,17 @@ import static com.dremio.exec.physical.impl.window.DataPar.dataB3P2;
 import static com.dremio.exec.physical.impl.window.DataPar.dataB4P4;
 import static com.dremio.exec.physical.impl.window.WindowGenerator.generateInput;
 import static com.dremio.exec.physical.impl.window.WindowGenerator.generateOutput;
+import static com.dremio.sabot.Fixtures.NULL_BIGINT;
 import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
 import static java.util.Collections.singletonList;
+import static org.apache.calcite.rel.RelFieldCollation.Direction.ASCENDING;
 import static org.apache.calcite.rel.RelFieldCollation.Direction.DESCENDING;
 import static org.apache.calcite.rel.RelFieldCollation.NullDirection.FIRST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -34,14 +42,18 @@ import java.util.List;
 
 import org.junit.Test;
 
+import com.dremio.common.exceptions.UserException;
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.logical.data.Order;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.WindowPOP;
 import com.dremio.exec.physical.config.WindowPOP.Bound;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.windowframe.WindowFrameOperator;
+import com.dremio.sabot.op.windowframe.WindowFrameStats;
 
 public class TestWindowOperator extends BaseTestOperator {
 
@@ -63,17 +75,23 @@ public class TestWindowOperator extends BaseTestOperator {
     return new WindowPOP(PROPS, null, withins, aggregations, orderings, false, new Bound(true, Long.MIN_VALUE), new Bound(false, 0));
   }
 
-  private void validateWindow(DataPar[] dataDef, boolean withPartitionBy, boolean withOrderBy) throws Exception {
+  private OperatorStats validateWindow(DataPar[] dataDef, boolean withPartitionBy, boolean withOrderBy, boolean splitInput) throws Exception {
     final WindowPOP window = createWindowPOP(withPartitionBy, withOrderBy);
-    final Table input = t(WindowGenerator.header, generateInput(dataDef));
-    validateSingle(window, WindowFrameOperator.class, input, generateOutput(dataDef, withOrderBy), 20);
+    final Table input = splitInput ?
+      Fixtures.split(WindowGenerator.header, 20, generateInput(dataDef)) : t(WindowGenerator.header, generateInput(dataDef));
+    return validateSingle(window, WindowFrameOperator.class, input, generateOutput(dataDef, withOrderBy), 20);
+  }
+
+  private List<OperatorStats> runTests(DataPar[] withPartitionDef, DataPar[] withoutPartitionDef, boolean splitInput) throws Exception {
+    return Arrays.asList(
+      validateWindow(withPartitionDef, true, true, splitInput),
+      validateWindow(withPartitionDef, true, false, splitInput),
+      validateWindow(withoutPartitionDef, false, true, splitInput),
+      validateWindow(withoutPartitionDef, false, false, splitInput));
   }
 
   private void runTests(DataPar[] withPartitionDef, DataPar[] withoutPartitionDef) throws Exception {
-    validateWindow(withPartitionDef, true, true);
-    validateWindow(withPartitionDef, true, false);
-    validateWindow(withoutPartitionDef, false, true);
-    validateWindow(withoutPartitionDef, false, false);
+    runTests(withPartitionDef, withoutPartitionDef, false);
   }
 
   @Test
@@ -106,6 +124,195 @@ public class TestWindowOperator extends BaseTestOperator {
     runTests(dataB4P4(true), dataB4P4(false));
   }
 
+  @Test
+  public void testB10P2WithSpill() throws Exception {
+    // the input is split in batches of 20 rows, so that partitions span up to 6 batches.
+    for (OperatorStats stats : runTests(dataB10P2(true), dataB10P2(false), true)) {
+      assertEquals(0, stats.getLongStat(WindowFrameStats.Metric.SPILL_COUNT));
+    }
+
+    // same expected results when spilling: a headroom ratio of 1 makes every batch in the middle of a partition
+    // spill as soon as it is buffered, and read back when the framers walk the partition.
+    try (AutoCloseable option = with(ExecConstants.WINDOW_ENABLE_SPILL, true);
+         AutoCloseable ratio = with(ExecConstants.WINDOW_SPILL_MIN_HEADROOM_RATIO, 1.0)) {
+      for (OperatorStats stats : runTests(dataB10P2(true), dataB10P2(false), true)) {
+        assertTrue(stats.getLongStat(WindowFrameStats.Metric.SPILL_COUNT) > 0);
+        assertTrue(stats.getLongStat(WindowFrameStats.Metric.RELOAD_COUNT) > 0);
+        assertTrue(stats.getLongStat(WindowFrameStats.Metric.IO_BYTES_WRITTEN) > 0);
+        assertTrue(stats.getLongStat(WindowFrameStats.Metric.IO_BYTES_READ) > 0);
+        assertTrue(stats.getLongStat(WindowFrameStats.Metric.PEAK_BATCHES_IN_MEMORY)
+          < stats.getLongStat(WindowFrameStats.Metric.PEAK_BATCHES_BUFFERED));
+      }
+    }
+  }
+
+  @Test
+  public void testUnboundedFollowingWithSpill() throws Exception {
+    // SELECT SUM(x), LAST_VALUE(x) OVER(PARTITION BY p ORDER BY id RANGE BETWEEN UNBOUNDED PRECEDING AND UNBOUNDED FOLLOWING)
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      Arrays.asList(n("sum(x)", "s"), n("last_value(x)", "lv")), // aggregations
+      singletonList(ordering("id", ASCENDING, FIRST)), // ordering
+      false, new Bound(true, Long.MIN_VALUE), new Bound(true, Long.MAX_VALUE));
+
+    final Table input = Fixtures.split(th("p", "id", "x"), 2,
+      tr(1L, 1L, 3L),
+      tr(1L, 2L, 1L),
+      tr(1L, 3L, 4L),
+      tr(1L, 4L, 1L),
+      tr(1L, 5L, 5L),
+      tr(1L, 6L, 9L),
+      tr(1L, 7L, 2L),
+      tr(2L, 1L, 10L),
+      tr(2L, 2L, 20L),
+      tr(2L, 3L, 30L));
+
+    final Table output = t(th("p", "id", "x", "s", "lv"),
+      tr(1L, 1L, 3L, 25L, 2L),
+      tr(1L, 2L, 1L, 25L, 2L),
+      tr(1L, 3L, 4L, 25L, 2L),
+      tr(1L, 4L, 1L, 25L, 2L),
+      tr(1L, 5L, 5L, 25L, 2L),
+      tr(1L, 6L, 9L, 25L, 2L),
+      tr(1L, 7L, 2L, 25L, 2L),
+      tr(2L, 1L, 10L, 60L, 30L),
+      tr(2L, 2L, 20L, 60L, 30L),
+      tr(2L, 3L, 30L, 60L, 30L));
+
+    // the frame of each partition is aggregated once, the batches written after the first one of the partition must
+    // not read the last row of the frame from a spilled batch whose reload slot was reused since.
+    try (AutoCloseable option = with(ExecConstants.WINDOW_ENABLE_SPILL, true);
+         AutoCloseable ratio = with(ExecConstants.WINDOW_SPILL_MIN_HEADROOM_RATIO, 1.0)) {
+      final OperatorStats stats = validateSingle(window, WindowFrameOperator.class, input, output, 2);
+      assertTrue(stats.getLongStat(WindowFrameStats.Metric.SPILL_COUNT) > 0);
+    }
+  }
+
+  @Test
+  public void testRowsBetweenPrecedingAndCurrentRow() throws Exception {
+    // SELECT SUM(x), MIN(x), MAX(x), COUNT(x) OVER(PARTITION BY p ORDER BY id ROWS BETWEEN 2 PRECEDING AND CURRENT ROW)
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      Arrays.asList(n("sum(x)", "s"), n("min(x)", "mn"), n("max(x)", "mx"), n("count(x)", "c")), // aggregations
+      singletonList(ordering("id", ASCENDING, FIRST)), // ordering
+      true, new Bound(false, -2), new Bound(false, 0));
+
+    final Table input = Fixtures.split(th("p", "id", "x"), 3,
+      tr(1L, 1L, 1L),
+      tr(1L, 2L, 5L),
+      tr(1L, 3L, NULL_BIGINT),
+      tr(1L, 4L, 2L),
+      tr(1L, 5L, 7L),
+      tr(2L, 1L, 3L),
+      tr(2L, 2L, NULL_BIGINT),
+      tr(3L, 1L, NULL_BIGINT));
+
+    final Table output = t(th("p", "id", "x", "s", "mn", "mx", "c"),
+      tr(1L, 1L, 1L, 1L, 1L, 1L, 1L),
+      tr(1L, 2L, 5L, 6L, 1L, 5L, 2L),
+      tr(1L, 3L, NULL_BIGINT, 6L, 1L, 5L, 2L),
+      tr(1L, 4L, 2L, 7L, 2L, 5L, 2L),
+      tr(1L, 5L, 7L, 9L, 2L, 7L, 2L),
+      tr(2L, 1L, 3L, 3L, 3L, 3L, 1L),
+      tr(2L, 2L, NULL_BIGINT, 3L, 3L, 3L, 1L),
+      tr(3L, 1L, NULL_BIGINT, NULL_BIGINT, NULL_BIGINT, NULL_BIGINT, 0L));
+
+    validateSingle(window, WindowFrameOperator.class, input, output, 3);
+  }
+
+  @Test
+  public void testRowsBetweenPrecedingAndCurrentRowWithDoubles() throws Exception {
+    // SELECT SUM(x), AVG(x) OVER(PARTITION BY p ORDER BY id ROWS BETWEEN 1 PRECEDING AND CURRENT ROW)
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      Arrays.asList(n("sum(x)", "s"), n("avg(x)", "a")), // aggregations
+      singletonList(ordering("id", ASCENDING, FIRST)), // ordering
+      true, new Bound(false, -1), new Bound(false, 0));
+
+    // non finite values must not stick to the sums once they leave the frame, and large values that leave the frame
+    // must not take the small ones with them
+    final Table input = Fixtures.split(th("p", "id", "x"), 3,
+      tr(1L, 1L, 1.0),
+      tr(1L, 2L, Double.POSITIVE_INFINITY),
+      tr(1L, 3L, 2.0),
+      tr(1L, 4L, 3.0),
+      tr(1L, 5L, Double.NaN),
+      tr(1L, 6L, 4.0),
+      tr(1L, 7L, 5.0),
+      tr(1L, 8L, Double.NEGATIVE_INFINITY),
+      tr(1L, 9L, Double.POSITIVE_INFINITY),
+      tr(1L, 10L, 6.0),
+      tr(1L, 11L, 7.0),
+      tr(2L, 1L, 1e16),
+      tr(2L, 2L, 1.0),
+      tr(2L, 3L, 1.0),
+      tr(2L, 4L, 1.0));
+
+    final Table output = t(th("p", "id", "x", "s", "a"),
+      tr(1L, 1L, 1.0, 1.0, 1.0),
+      tr(1L, 2L, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY),
+      tr(1L, 3L, 2.0, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY),
+      tr(1L, 4L, 3.0, 5.0, 2.5),
+      tr(1L, 5L, Double.NaN, Double.NaN, Double.NaN),
+      tr(1L, 6L, 4.0, Double.NaN, Double.NaN),
+      tr(1L, 7L, 5.0, 9.0, 4.5),
+      tr(1L, 8L, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY),
+      tr(1L, 9L, Double.POSITIVE_INFINITY, Double.NaN, Double.NaN),
+      tr(1L, 10L, 6.0, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY),
+      tr(1L, 11L, 7.0, 13.0, 6.5),
+      tr(2L, 1L, 1e16, 1e16, 1e16),
+      tr(2L, 2L, 1.0, 1e16, 5e15),
+      tr(2L, 3L, 1.0, 2.0, 1.0),
+      tr(2L, 4L, 1.0, 2.0, 1.0));
+
+    validateSingle(window, WindowFrameOperator.class, input, output, 3);
+  }
+
+  @Test
+  public void testRowsBetweenMaxPrecedingAndCurrentRow() throws Exception {
+    // ROWS BETWEEN 9223372036854775807 PRECEDING AND CURRENT ROW is a running aggregate of the partition
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      Arrays.asList(n("sum(x)", "s"), n("max(x)", "mx"), n("count(x)", "c")), // aggregations
+      singletonList(ordering("id", ASCENDING, FIRST)), // ordering
+      true, new Bound(false, -Long.MAX_VALUE), new Bound(false, 0));
+
+    final Table input = Fixtures.split(th("p", "id", "x"), 2,
+      tr(1L, 1L, 1L),
+      tr(1L, 2L, 5L),
+      tr(1L, 3L, NULL_BIGINT),
+      tr(1L, 4L, 2L),
+      tr(2L, 1L, 3L));
+
+    final Table output = t(th("p", "id", "x", "s", "mx", "c"),
+      tr(1L, 1L, 1L, 1L, 1L, 1L),
+      tr(1L, 2L, 5L, 6L, 5L, 2L),
+      tr(1L, 3L, NULL_BIGINT, 6L, 5L, 2L),
+      tr(1L, 4L, 2L, 8L, 5L, 3L),
+      tr(2L, 1L, 3L, 3L, 3L, 1L));
+
+    validateSingle(window, WindowFrameOperator.class, input, output, 2);
+  }
+
+  @Test
+  public void testRowsBetweenUnresolvedPrecedingIsRejected() throws Exception {
+    // Long.MIN_VALUE is the offset of a bound whose offset couldn't be resolved to a constant
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      singletonList(n("sum(x)", "s")), // aggregations
+      singletonList(ordering("id", ASCENDING, FIRST)), // ordering
+      true, new Bound(false, Long.MIN_VALUE), new Bound(false, 0));
+
+    final Table input = t(th("p", "id", "x"), tr(1L, 1L, 1L));
+    final Table output = t(th("p", "id", "x", "s"), tr(1L, 1L, 1L, 1L));
+    try {
+      validateSingle(window, WindowFrameOperator.class, input, output, 2);
+      fail("Window frame with an unresolved offset should be rejected");
+    } catch (UserException e) {
+      assertTrue(e.getMessage().contains("must be a constant"));
+    }
+  }
+
   @Test // DRILL-4657
   public void test4657() throws Exception {
     // SELECT row_number() OVER(ORDER BY position_id) rn, rank() OVER(ORDER BY position_id) rnk FROM dfs.\"%s/window/b3.p2\"
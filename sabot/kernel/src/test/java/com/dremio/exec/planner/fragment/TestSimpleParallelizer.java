@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.fragment;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.dremio.exec.maestro.AbstractMaestroObserver;
+import com.dremio.exec.physical.base.Exchange;
+import com.dremio.exec.physical.base.GroupScan;
+import com.dremio.exec.physical.config.HashToRandomExchange;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+
+/**
+ * Tests the endpoints {@link SimpleParallelizer} assigns the receivers of hash exchanges to, when
+ * planner.assignment.colocate_hash_receivers is set.
+ */
+public class TestSimpleParallelizer {
+  private static final NodeEndpoint N1 = newNodeEndpoint("node1");
+  private static final NodeEndpoint N2 = newNodeEndpoint("node2");
+  private static final NodeEndpoint N3 = newNodeEndpoint("node3");
+  private static final NodeEndpoint N4 = newNodeEndpoint("node4");
+  private static final List<NodeEndpoint> ACTIVE_ENDPOINTS = asList(N1, N2, N3, N4);
+
+  private static NodeEndpoint newNodeEndpoint(String address) {
+    return NodeEndpoint.newBuilder().setAddress(address).setFabricPort(30010).build();
+  }
+
+  private static SimpleParallelizer newParallelizer(boolean colocateHashReceivers) {
+    return new SimpleParallelizer(1, 5, 20, 1.2, AbstractMaestroObserver.NOOP, true, 1.5d, false,
+      colocateHashReceivers);
+  }
+
+  private static Wrapper newReceiver(Fragment receiver) {
+    final Wrapper wrapper = new Wrapper(receiver, 0);
+    wrapper.getStats().addCost(1000);
+    wrapper.getStats().addMinWidth(1);
+    wrapper.getStats().addMaxWidth(20);
+    return wrapper;
+  }
+
+  private static Wrapper newSender(Exchange exchange, Fragment receiver, int majorFragmentId,
+                                   List<NodeEndpoint> endpoints) throws Exception {
+    final Fragment sender = new Fragment();
+    sender.addSendExchange(exchange, receiver);
+    final Wrapper wrapper = new Wrapper(sender, majorFragmentId);
+    wrapper.overrideEndpoints(endpoints);
+    return wrapper;
+  }
+
+  @Test
+  public void hashReceiversUseSenderEndpoints() throws Exception {
+    final Fragment receiver = new Fragment();
+    final Wrapper receiverWrapper = newReceiver(receiver);
+    receiverWrapper.addFragmentDependency(newSender(mock(HashToRandomExchange.class), receiver, 1, asList(N1, N2, N1)));
+    receiverWrapper.addFragmentDependency(newSender(mock(HashToRandomExchange.class), receiver, 2, asList(N3, N1)));
+
+    final SimpleParallelizer parallelizer = newParallelizer(true);
+    assertThat(parallelizer.getCandidateEndpoints(receiverWrapper, ACTIVE_ENDPOINTS))
+      .containsExactly(N1, N2, N3);
+
+    SoftAffinityFragmentParallelizer.INSTANCE.parallelizeFragment(receiverWrapper, parallelizer,
+      parallelizer.getCandidateEndpoints(receiverWrapper, ACTIVE_ENDPOINTS));
+    assertThat(receiverWrapper.getAssignedEndpoints())
+      .hasSize(15)
+      .containsOnly(N1, N2, N3);
+  }
+
+  @Test
+  public void allEndpointsWhenDisabled() throws Exception {
+    final Fragment receiver = new Fragment();
+    final Wrapper receiverWrapper = newReceiver(receiver);
+    receiverWrapper.addFragmentDependency(newSender(mock(HashToRandomExchange.class), receiver, 1, asList(N1)));
+
+    assertThat(newParallelizer(false).getCandidateEndpoints(receiverWrapper, ACTIVE_ENDPOINTS))
+      .containsExactlyElementsOf(ACTIVE_ENDPOINTS);
+  }
+
+  @Test
+  public void allEndpointsForOtherExchanges() throws Exception {
+    final Fragment receiver = new Fragment();
+    final Wrapper receiverWrapper = newReceiver(receiver);
+    receiverWrapper.addFragmentDependency(newSender(mock(Exchange.class), receiver, 1, asList(N1)));
+
+    assertThat(newParallelizer(true).getCandidateEndpoints(receiverWrapper, ACTIVE_ENDPOINTS))
+      .containsExactlyElementsOf(ACTIVE_ENDPOINTS);
+  }
+
+  @Test
+  public void inactiveSenderEndpointsIgnored() throws Exception {
+    final Fragment receiver = new Fragment();
+    final Wrapper receiverWrapper = newReceiver(receiver);
+    receiverWrapper.addFragmentDependency(newSender(mock(HashToRandomExchange.class), receiver, 1,
+      asList(newNodeEndpoint("node5"), N2)));
+
+    assertThat(newParallelizer(true).getCandidateEndpoints(receiverWrapper, ACTIVE_ENDPOINTS))
+      .containsExactly(N2);
+
+    final Wrapper otherReceiverWrapper = newReceiver(receiver);
+    otherReceiverWrapper.addFragmentDependency(newSender(mock(HashToRandomExchange.class), receiver, 2,
+      Collections.singletonList(newNodeEndpoint("node5"))));
+    assertThat(newParallelizer(true).getCandidateEndpoints(otherReceiverWrapper, ACTIVE_ENDPOINTS))
+      .containsExactlyElementsOf(ACTIVE_ENDPOINTS);
+  }
+
+  @Test
+  public void hardAffinityKeepsAllEndpoints() throws Exception {
+    final Fragment receiver = new Fragment();
+    final Wrapper receiverWrapper = newReceiver(receiver);
+    final GroupScan groupScan = mock(GroupScan.class);
+    when(groupScan.getDistributionAffinity()).thenReturn(DistributionAffinity.HARD);
+    receiverWrapper.getStats().addSplits(groupScan, Collections.emptyList());
+    receiverWrapper.addFragmentDependency(newSender(mock(HashToRandomExchange.class), receiver, 1, asList(N1)));
+
+    assertThat(newParallelizer(true).getCandidateEndpoints(receiverWrapper, ACTIVE_ENDPOINTS))
+      .containsExactlyElementsOf(ACTIVE_ENDPOINTS);
+  }
+}
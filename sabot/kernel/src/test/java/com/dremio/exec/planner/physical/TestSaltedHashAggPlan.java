@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.physical;
+
+import org.junit.Test;
+
+import com.dremio.PlanTestBase;
+import com.dremio.exec.ExecConstants;
+import com.dremio.sabot.op.sender.partition.vectorized.VectorizedPartitionSenderOperator;
+
+/**
+ * Plan tests for the two phase hash aggregation with planner.hashagg.salt_hot_keys
+ */
+public class TestSaltedHashAggPlan extends PlanTestBase {
+
+  private static final String QUERY = "SELECT o_orderstatus, COUNT(*) cnt, SUM(o_totalprice) total,\n" +
+    "       MIN(o_orderdate) first_order, MAX(o_orderkey) last_key\n" +
+    "  FROM cp.\"tpch/orders.parquet\"\n" +
+    "  GROUP BY o_orderstatus";
+
+  @Test
+  public void testSaltedExchangeWithMergePhase() throws Exception {
+    try (AutoCloseable slice = withOption(ExecConstants.SLICE_TARGET_OPTION, 1);
+         AutoCloseable streamAgg = withOption(PlannerSettings.STREAMAGG, false);
+         AutoCloseable salt = withOption(PlannerSettings.HASH_AGG_SALT_HOT_KEYS, true)) {
+      // final aggregation <- hash exchange <- merge aggregation <- adaptive exchange <- partial aggregation
+      testPlanMatchingPatterns(QUERY, new String[]{
+          "(?s)HashAgg.*HashToRandomExchange.*HashAgg.*AdaptiveHashExchange.*HashAgg"
+        },
+        "StreamAgg");
+    }
+  }
+
+  @Test
+  public void testNoMergePhaseWithoutOption() throws Exception {
+    try (AutoCloseable slice = withOption(ExecConstants.SLICE_TARGET_OPTION, 1);
+         AutoCloseable streamAgg = withOption(PlannerSettings.STREAMAGG, false)) {
+      testPlanMatchingPatterns(QUERY, new String[]{"(?s)HashAgg.*HashToRandomExchange.*HashAgg"},
+        "AdaptiveHashExchange");
+    }
+  }
+
+  @Test
+  public void testNoMergePhaseForListAgg() throws Exception {
+    // listagg partial results cannot be merged twice
+    final String query = "SELECT o_orderstatus, LISTAGG(o_comment) comments\n" +
+      "  FROM cp.\"tpch/orders.parquet\"\n" +
+      "  GROUP BY o_orderstatus";
+    try (AutoCloseable slice = withOption(ExecConstants.SLICE_TARGET_OPTION, 1);
+         AutoCloseable streamAgg = withOption(PlannerSettings.STREAMAGG, false);
+         AutoCloseable salt = withOption(PlannerSettings.HASH_AGG_SALT_HOT_KEYS, true)) {
+      testPlanMatchingPatterns(query, new String[]{"HashAgg"},
+        "AdaptiveHashExchange");
+    }
+  }
+
+  @Test
+  public void testSameResultsWithSaltedHotKeys() throws Exception {
+    final String option = PlannerSettings.HASH_AGG_SALT_HOT_KEYS.getOptionName();
+    // the three order statuses are all hot keys of the partial aggregation output
+    try (AutoCloseable slice = withOption(ExecConstants.SLICE_TARGET_OPTION, 1);
+         AutoCloseable streamAgg = withOption(PlannerSettings.STREAMAGG, false);
+         AutoCloseable skew = withOption(VectorizedPartitionSenderOperator.SKEW_DETECTION, true);
+         AutoCloseable sample = withOption(VectorizedPartitionSenderOperator.SKEW_SAMPLE_ROWS, 1)) {
+      testBuilder()
+        .optionSettingQueriesForTestQuery("ALTER SESSION SET \"%s\" = true", option)
+        .optionSettingQueriesForBaseline("ALTER SESSION SET \"%s\" = false", option)
+        .unOrdered()
+        .sqlQuery(QUERY)
+        .sqlBaselineQuery(QUERY)
+        .go();
+    } finally {
+      test("ALTER SESSION RESET \"%s\"", option);
+    }
+  }
+}
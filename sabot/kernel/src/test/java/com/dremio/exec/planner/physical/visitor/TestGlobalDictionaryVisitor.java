@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.physical.visitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.plan.volcano.VolcanoPlanner;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.catalog.StoragePluginId;
+import com.dremio.exec.planner.physical.AggregatePrel.OperatorPhase;
+import com.dremio.exec.planner.physical.DictionaryLookupPrel;
+import com.dremio.exec.planner.physical.DistributionTrait.DistributionField;
+import com.dremio.exec.planner.physical.HashAggPrel;
+import com.dremio.exec.planner.physical.HashJoinPrel;
+import com.dremio.exec.planner.physical.HashToRandomExchangePrel;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.physical.ScreenPrel;
+import com.dremio.exec.planner.types.JavaTypeFactoryImpl;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.TableMetadata;
+import com.dremio.exec.store.parquet.ParquetScanPrel;
+import com.dremio.options.OptionResolver;
+import com.dremio.resource.ClusterResourceInformation;
+import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.DictionaryEncodedColumns;
+import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.ParquetDatasetXAttr;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.PhysicalDataset;
+import com.dremio.service.namespace.dataset.proto.ReadDefinition;
+import com.dremio.service.namespace.file.proto.FileConfig;
+import com.dremio.service.namespace.file.proto.FileType;
+import com.dremio.test.DremioTest;
+import com.dremio.test.specs.OptionResolverSpec;
+import com.dremio.test.specs.OptionResolverSpecBuilder;
+import com.google.common.collect.ImmutableList;
+
+import io.protostuff.ByteString;
+
+/**
+ * Unit test for {@link GlobalDictionaryVisitor}, with the dictionary encoded keys kept through hash exchanges and hash
+ * joins
+ */
+public class TestGlobalDictionaryVisitor {
+  private static final RelTraitSet traits = RelTraitSet.createEmpty().plus(Prel.PHYSICAL);
+  private static final RelDataTypeFactory typeFactory = JavaTypeFactoryImpl.INSTANCE;
+  private static final RexBuilder rexBuilder = new RexBuilder(typeFactory);
+  private static final BatchSchema SCHEMA = BatchSchema.newBuilder()
+    .addField(CompleteType.VARCHAR.toField("city"))
+    .addField(CompleteType.VARCHAR.toField("state"))
+    .build();
+
+  private final StoragePluginId pluginId = mock(StoragePluginId.class);
+  private RelOptCluster cluster;
+
+  @Before
+  public void setup() throws Exception {
+    OptionResolver optionResolver = OptionResolverSpecBuilder.build(new OptionResolverSpec());
+
+    ClusterResourceInformation info = mock(ClusterResourceInformation.class);
+    when(info.getExecutorNodeCount()).thenReturn(1);
+
+    final PlannerSettings plannerSettings =
+      new PlannerSettings(DremioTest.DEFAULT_SABOT_CONFIG, optionResolver, () -> info);
+    cluster = RelOptCluster.create(new VolcanoPlanner(plannerSettings), rexBuilder);
+  }
+
+  // Grouping on an encoded key distributes on its ids, and the key is only decoded above the aggregate
+  @Test
+  public void aggregateOverExchange() throws Exception {
+    final Prel input = newScreen(newAggregate(newExchange(newScan("/places/_dictionaries", 1), 0)));
+
+    final Prel encoded = GlobalDictionaryVisitor.useGlobalDictionaries(input, true);
+    assertTrue(encoded.getInput(0) instanceof DictionaryLookupPrel);
+    final HashToRandomExchangePrel exchange = find(encoded, HashToRandomExchangePrel.class).get(0);
+    assertTrue(exchange.getInput() instanceof ParquetScanPrel);
+    assertEquals(SqlTypeName.INTEGER, fieldType(exchange, 0));
+    assertEquals(1, find(encoded, DictionaryLookupPrel.class).size());
+
+    // the exchange distributes on values otherwise
+    final Prel decoded = GlobalDictionaryVisitor.useGlobalDictionaries(input, false);
+    final HashToRandomExchangePrel decodedExchange = find(decoded, HashToRandomExchangePrel.class).get(0);
+    assertTrue(decodedExchange.getInput() instanceof DictionaryLookupPrel);
+    assertEquals(SqlTypeName.VARCHAR, fieldType(decodedExchange, 0));
+  }
+
+  // Keys sharing a dictionary are distributed and compared as ids
+  @Test
+  public void joinOnSharedDictionary() throws Exception {
+    final Prel input = newScreen(newJoin(
+      newExchange(newScan("/places/_dictionaries", 1), 0),
+      newExchange(newScan("/places/_dictionaries", 1), 0),
+      equals(0, 2)));
+
+    final Prel encoded = GlobalDictionaryVisitor.useGlobalDictionaries(input, true);
+    final HashJoinPrel join = find(encoded, HashJoinPrel.class).get(0);
+    for (RelNode joinInput : join.getInputs()) {
+      assertTrue(joinInput instanceof HashToRandomExchangePrel);
+      assertTrue(joinInput.getInput(0) instanceof ParquetScanPrel);
+      assertEquals(SqlTypeName.INTEGER, fieldType(joinInput, 0));
+    }
+    assertEquals(Arrays.asList(SqlTypeName.INTEGER, SqlTypeName.INTEGER), operandTypes(join.getCondition()));
+    assertEquals(0, find(join, DictionaryLookupPrel.class).size());
+  }
+
+  // Keys of different dictionaries are decoded before the join
+  @Test
+  public void joinOnDifferentDictionaries() throws Exception {
+    final Prel input = newScreen(newJoin(
+      newScan("/places/_dictionaries", 1),
+      newScan("/places/_dictionaries", 1),
+      equals(0, 3)));
+
+    final Prel encoded = GlobalDictionaryVisitor.useGlobalDictionaries(input, true);
+    final HashJoinPrel join = find(encoded, HashJoinPrel.class).get(0);
+    for (RelNode joinInput : join.getInputs()) {
+      assertTrue(joinInput instanceof DictionaryLookupPrel);
+      assertTrue(joinInput.getInput(0) instanceof ParquetScanPrel);
+    }
+    assertEquals(Arrays.asList(SqlTypeName.VARCHAR, SqlTypeName.VARCHAR), operandTypes(join.getCondition()));
+  }
+
+  // Dictionaries of another version are not shared either
+  @Test
+  public void joinOnDifferentDictionaryVersions() throws Exception {
+    final Prel input = newScreen(newJoin(
+      newScan("/places/_dictionaries", 1),
+      newScan("/places/_dictionaries", 2),
+      equals(0, 2)));
+
+    final Prel encoded = GlobalDictionaryVisitor.useGlobalDictionaries(input, true);
+    final HashJoinPrel join = find(encoded, HashJoinPrel.class).get(0);
+    assertEquals(Arrays.asList(SqlTypeName.VARCHAR, SqlTypeName.VARCHAR), operandTypes(join.getCondition()));
+  }
+
+  // An input can't be distributed on ids when the other one is distributed on values: the inputs are visited again,
+  // with both exchanges distributing on values
+  @Test
+  public void joinReplannedOnValues() throws Exception {
+    final Prel input = newScreen(newJoin(
+      newExchange(newScan("/places/_dictionaries", 1), 0),
+      newExchange(newScan("/places/_dictionaries", 1), 1),
+      equals(0, 3)));
+
+    final Prel encoded = GlobalDictionaryVisitor.useGlobalDictionaries(input, true);
+    final HashJoinPrel join = find(encoded, HashJoinPrel.class).get(0);
+    for (RelNode joinInput : join.getInputs()) {
+      assertTrue(joinInput instanceof HashToRandomExchangePrel);
+      assertTrue(joinInput.getInput(0) instanceof DictionaryLookupPrel);
+    }
+    assertEquals(SqlTypeName.VARCHAR, fieldType(join.getLeft(), 0));
+    assertEquals(SqlTypeName.VARCHAR, fieldType(join.getRight(), 1));
+    assertEquals(Arrays.asList(SqlTypeName.VARCHAR, SqlTypeName.VARCHAR), operandTypes(join.getCondition()));
+  }
+
+  private static SqlTypeName fieldType(RelNode node, int index) {
+    return node.getRowType().getFieldList().get(index).getType().getSqlTypeName();
+  }
+
+  private static List<SqlTypeName> operandTypes(RexNode condition) {
+    final List<SqlTypeName> types = new ArrayList<>();
+    for (RexNode operand : ((RexCall) condition).getOperands()) {
+      types.add(operand.getType().getSqlTypeName());
+    }
+    return types;
+  }
+
+  private static <T extends RelNode> List<T> find(RelNode node, Class<T> clazz) {
+    final List<T> found = new ArrayList<>();
+    if (clazz.isInstance(node)) {
+      found.add(clazz.cast(node));
+    }
+    for (RelNode input : node.getInputs()) {
+      found.addAll(find(input, clazz));
+    }
+    return found;
+  }
+
+  private RexNode equals(int left, int right) {
+    final RelDataType varchar = typeFactory.createTypeWithNullability(typeFactory.createSqlType(SqlTypeName.VARCHAR), true);
+    return rexBuilder.makeCall(SqlStdOperatorTable.EQUALS, rexBuilder.makeInputRef(varchar, left),
+      rexBuilder.makeInputRef(varchar, right));
+  }
+
+  private Prel newScreen(Prel child) {
+    return new ScreenPrel(cluster, traits, child);
+  }
+
+  private Prel newAggregate(Prel child) throws Exception {
+    final ImmutableBitSet groupSet = ImmutableBitSet.of(0);
+    return HashAggPrel.create(cluster, traits, child, groupSet, ImmutableList.of(groupSet), ImmutableList.of(),
+      OperatorPhase.PHASE_1of1);
+  }
+
+  private Prel newExchange(Prel child, int field) {
+    return new HashToRandomExchangePrel(cluster, traits, child, ImmutableList.of(new DistributionField(field)));
+  }
+
+  private Prel newJoin(Prel left, Prel right, RexNode condition) {
+    return HashJoinPrel.create(cluster, traits, left, right, condition, null, JoinRelType.INNER);
+  }
+
+  private Prel newScan(String dictionaryRoot, long dictionaryVersion) {
+    final ParquetDatasetXAttr xAttr = ParquetDatasetXAttr.newBuilder()
+      .setDictionaryEncodedColumns(DictionaryEncodedColumns.newBuilder()
+        .setRootPath(dictionaryRoot)
+        .setVersion(dictionaryVersion)
+        .addColumns("city")
+        .addColumns("state"))
+      .build();
+    final TableMetadata metadata = mock(TableMetadata.class);
+    when(metadata.getName()).thenReturn(new NamespaceKey(ImmutableList.of("dfs", "places")));
+    when(metadata.getSchema()).thenReturn(SCHEMA);
+    when(metadata.getReadDefinition()).thenReturn(new ReadDefinition()
+      .setExtendedProperty(ByteString.copyFrom(xAttr.toByteArray())));
+    when(metadata.getDatasetConfig()).thenReturn(new DatasetConfig()
+      .setPhysicalDataset(new PhysicalDataset()
+        .setFormatSettings(new FileConfig().setType(FileType.PARQUET))));
+    when(metadata.getStoragePluginId()).thenReturn(pluginId);
+
+    final RelOptTable table = mock(RelOptTable.class);
+    when(table.getQualifiedName()).thenReturn(ImmutableList.of("dfs", "places"));
+    final List<SchemaPath> columns = ImmutableList.of(SchemaPath.getSimplePath("city"), SchemaPath.getSimplePath("state"));
+    return new ParquetScanPrel(cluster, traits, table, pluginId, metadata, columns, 1.0d, ImmutableList.of(), null,
+      null, false, ImmutableList.of());
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.physical.visitor;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortOrder;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.types.Types;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.PlanTestBase;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.planner.physical.PlannerSettings;
+
+/**
+ * Plan tests for {@link SortOrderStreamAggVisitor}
+ */
+public class TestSortOrderStreamAggVisitor extends PlanTestBase {
+  private static final String TABLE = "sort_order_stream_agg";
+
+  @Before
+  public void setUp() {
+    setSystemOption(ExecConstants.ENABLE_ICEBERG, "true");
+    setSystemOption(ExecConstants.CTAS_CAN_USE_ICEBERG, "true");
+  }
+
+  @After
+  public void cleanUp() {
+    setSystemOption(ExecConstants.ENABLE_ICEBERG,
+      ExecConstants.ENABLE_ICEBERG.getDefault().getBoolVal().toString());
+    setSystemOption(ExecConstants.CTAS_CAN_USE_ICEBERG, ExecConstants.CTAS_CAN_USE_ICEBERG.getDefault().getBoolVal().toString());
+    FileUtils.deleteQuietly(new File(getDfsTestTmpSchemaLocation(), TABLE));
+  }
+
+  @Test
+  public void testIdentitySortOrder() throws Exception {
+    createTable(builder -> builder.asc("a").asc("b"));
+    testStreamAgg("SELECT a, SUM(c) FROM dfs_test_hadoop.%s GROUP BY a", true);
+    testStreamAgg("SELECT b, a, SUM(c) FROM dfs_test_hadoop.%s GROUP BY b, a", true);
+  }
+
+  @Test
+  public void testTransformedSortOrder() throws Exception {
+    // files are sorted on the bucket of a, so equal values of a are not next to each other
+    createTable(builder -> builder.asc(Expressions.bucket("a", 4)).asc("b"));
+    testStreamAgg("SELECT a, SUM(c) FROM dfs_test_hadoop.%s GROUP BY a", false);
+  }
+
+  @Test
+  public void testIdentityAfterTransformedSortOrder() throws Exception {
+    createTable(builder -> builder.asc("a").asc(Expressions.truncate("b", 10)).asc("c"));
+    testStreamAgg("SELECT a, SUM(c) FROM dfs_test_hadoop.%s GROUP BY a", true);
+    testStreamAgg("SELECT a, b, SUM(c) FROM dfs_test_hadoop.%s GROUP BY a, b", false);
+  }
+
+  @Test
+  public void testKeysNotPrefixOfSortOrder() throws Exception {
+    createTable(builder -> builder.asc("a").asc("b"));
+    testStreamAgg("SELECT b, SUM(c) FROM dfs_test_hadoop.%s GROUP BY b", false);
+    testStreamAgg("SELECT a, c, SUM(b) FROM dfs_test_hadoop.%s GROUP BY a, c", false);
+  }
+
+  private static void createTable(UnaryOperator<SortOrder.Builder> sortOrder) throws Exception {
+    Schema schema = new Schema(
+      Types.NestedField.optional(1, "a", Types.IntegerType.get()),
+      Types.NestedField.optional(2, "b", Types.IntegerType.get()),
+      Types.NestedField.optional(3, "c", Types.IntegerType.get()));
+    new HadoopTables(new Configuration()).create(schema, PartitionSpec.unpartitioned(),
+      sortOrder.apply(SortOrder.builderFor(schema)).build(), Collections.emptyMap(),
+      new File(getDfsTestTmpSchemaLocation(), TABLE).getPath());
+    test("INSERT INTO dfs_test_hadoop.%s VALUES (1, 1, 1), (1, 2, 2), (2, 1, 3), (2, 2, 4)", TABLE);
+  }
+
+  private void testStreamAgg(String query, boolean expectStreamAgg) throws Exception {
+    try (AutoCloseable sortOrderAgg = withOption(PlannerSettings.STREAM_AGG_ON_ICEBERG_SORT_ORDER, true);
+         AutoCloseable streamAgg = withOption(PlannerSettings.STREAMAGG, false);
+         AutoCloseable sliceTarget = withOption(ExecConstants.SLICE_TARGET_OPTION, 1)) {
+      String sql = String.format(query, TABLE);
+      if (expectStreamAgg) {
+        // the files are already sorted on the keys, no sort is added for the stream aggregate
+        testPlanMatchingPatterns(sql, new String[] {"StreamAgg", "HashAgg"}, "Sort\\(");
+      } else {
+        testPlanMatchingPatterns(sql, new String[] {"HashAgg"}, "StreamAgg");
+      }
+
+      // same results as the hash aggregate planned without the sort order
+      final String option = PlannerSettings.STREAM_AGG_ON_ICEBERG_SORT_ORDER.getOptionName();
+      try {
+        testBuilder()
+          .optionSettingQueriesForTestQuery("ALTER SESSION SET \"%s\" = true", option)
+          .optionSettingQueriesForBaseline("ALTER SESSION SET \"%s\" = false", option)
+          .unOrdered()
+          .sqlQuery(sql)
+          .sqlBaselineQuery(sql)
+          .go();
+      } finally {
+        test("ALTER SESSION RESET \"%s\"", option);
+      }
+    }
+  }
+}
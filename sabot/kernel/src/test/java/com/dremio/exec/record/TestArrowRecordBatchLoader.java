@@ -15,12 +15,20 @@
  */
 package com.dremio.exec.record;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
 import org.apache.arrow.vector.complex.ListVector;
 import org.apache.arrow.vector.complex.impl.UnionListWriter;
 import org.apache.arrow.vector.complex.writer.BaseWriter.StructWriter;
 import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.FieldType;
 import org.junit.Rule;
 import org.junit.Test;
@@ -31,6 +39,7 @@ import com.dremio.test.AllocatorRule;
 import com.dremio.test.DremioTest;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.NettyArrowBuf;
 
 public class TestArrowRecordBatchLoader extends DremioTest {
   @Rule
@@ -100,4 +109,67 @@ public class TestArrowRecordBatchLoader extends DremioTest {
       System.out.println();
     }
   }
+
+  @Test
+  public void loadBuffersWithoutCopy() {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-arrow-record-batch-loader", 0, Long.MAX_VALUE);
+         VectorContainer container = newIntContainer(allocator)) {
+      final RawFragmentBatch rawFragmentBatch = newBatchFromBuffers(container);
+      container.zeroVectors();
+
+      try (ArrowRecordBatchLoader loader = new ArrowRecordBatchLoader(VectorContainer.create(allocator, container.getSchema()))) {
+        loader.load(rawFragmentBatch);
+        // released once by the caller and once by the consumer of the batch
+        rawFragmentBatch.close();
+        rawFragmentBatch.close();
+        assertNull(rawFragmentBatch.getBuffers());
+
+        assertEquals(3, loader.getRecordCount());
+        assertEquals(20, loader.getValueAccessorById(IntVector.class, 0).getValueVector().get(2));
+      }
+    }
+  }
+
+  @Test
+  public void copyBuffersToBody() {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-arrow-record-batch-loader", 0, Long.MAX_VALUE);
+         VectorContainer container = newIntContainer(allocator)) {
+      final RawFragmentBatch rawFragmentBatch = newBatchFromBuffers(container);
+      container.zeroVectors();
+
+      final long length = rawFragmentBatch.getByteCount();
+      assertEquals(length, rawFragmentBatch.getBody().readableBytes());
+      assertNull(rawFragmentBatch.getBuffers());
+
+      try (ArrowRecordBatchLoader loader = new ArrowRecordBatchLoader(VectorContainer.create(allocator, container.getSchema()))) {
+        loader.load(rawFragmentBatch);
+        rawFragmentBatch.close();
+        rawFragmentBatch.close();
+
+        assertEquals(3, loader.getRecordCount());
+        assertEquals(10, loader.getValueAccessorById(IntVector.class, 0).getValueVector().get(1));
+      }
+    }
+  }
+
+  private static VectorContainer newIntContainer(BufferAllocator allocator) {
+    final VectorContainer container = new VectorContainer(allocator);
+    final IntVector vector = container.addOrGet(Field.nullable("a", new ArrowType.Int(32, true)));
+    container.buildSchema();
+    vector.allocateNew(3);
+    for (int i = 0; i < 3; i++) {
+      vector.set(i, i * 10);
+    }
+    container.setAllCount(3);
+    return container;
+  }
+
+  private static RawFragmentBatch newBatchFromBuffers(VectorContainer container) {
+    final FragmentWritableBatch fragmentWritableBatch = FragmentWritableBatch.create(QueryId.getDefaultInstance(), 0, 0, 0, container, 0);
+    final List<ArrowBuf> buffers = new ArrayList<>();
+    for (ByteBuf buf : fragmentWritableBatch.getBuffers()) {
+      buffers.add(((NettyArrowBuf) buf).arrowBuf());
+    }
+    return new RawFragmentBatch(fragmentWritableBatch.getHeader(), buffers, null);
+  }
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.file.Path;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Tests for {@link DataCache} and {@link CachingAsyncByteReader}
+ */
+public class TestDataCache {
+  private static final byte[] DATA = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.UTF_8);
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private File directory;
+  private DataCache cache;
+
+  @Before
+  public void setup() throws Exception {
+    directory = new File(folder.getRoot(), "data_cache");
+    cache = new DataCache(directory.toPath(), 1024, Runnable::run);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    cache.close();
+  }
+
+  private static AsyncByteReader.FileKey key(String version) {
+    return AsyncByteReader.FileKey.of(Path.of("/bucket/t1/0.parquet"), version, AsyncByteReader.FileKey.FileType.PARQUET,
+      Arrays.asList("s3", "bucket", "t1"));
+  }
+
+  private static byte[] read(AsyncByteReader reader, long offset, int len) throws Exception {
+    final ByteBuf buf = Unpooled.buffer(len + 2);
+    try {
+      reader.readFully(offset, buf, 2, len).get();
+      final byte[] bytes = new byte[len];
+      buf.getBytes(2, bytes);
+      return bytes;
+    } finally {
+      buf.release();
+    }
+  }
+
+  @Test
+  public void admitsOnSecondMiss() throws Exception {
+    final CountingReader remote = new CountingReader();
+    final AsyncByteReader reader = new CachingAsyncByteReader(remote, key("1"), cache, Runnable::run);
+
+    for (int i = 0; i < 4; i++) {
+      assertArrayEquals(Arrays.copyOfRange(DATA, 4, 14), read(reader, 4, 10));
+    }
+
+    assertEquals("first two reads are misses", 2, remote.reads.get());
+    assertEquals(1, cache.getEntries());
+    assertEquals(10, cache.getSizeBytes());
+
+    final DataCache.DatasetStats stats = cache.getDatasetStats().iterator().next();
+    assertEquals("s3.bucket.t1", stats.getDataset());
+    assertEquals(2, stats.getHits());
+    assertEquals(2, stats.getMisses());
+    assertEquals(20, stats.getHitBytes());
+    assertEquals(20, stats.getMissBytes());
+    assertEquals(1, stats.getAdmissions());
+    assertEquals(1, stats.getRejections());
+    assertEquals(10, stats.getCachedBytes());
+  }
+
+  @Test
+  public void missesOnOtherVersionOrRange() throws Exception {
+    final CountingReader remote = new CountingReader();
+    final AsyncByteReader reader = new CachingAsyncByteReader(remote, key("1"), cache, Runnable::run);
+    read(reader, 0, 8);
+    read(reader, 0, 8);
+    read(reader, 0, 8);
+    assertEquals(2, remote.reads.get());
+
+    read(reader, 0, 9);
+    assertEquals(3, remote.reads.get());
+
+    read(new CachingAsyncByteReader(remote, key("2"), cache, Runnable::run), 0, 8);
+    assertEquals(4, remote.reads.get());
+  }
+
+  @Test
+  public void evictsBySize() throws Exception {
+    cache.setMaxSizeBytes(64);
+    final CountingReader remote = new CountingReader();
+    final AsyncByteReader reader = new CachingAsyncByteReader(remote, key("1"), cache, Runnable::run);
+    for (int offset = 0; offset < 32; offset += 4) {
+      read(reader, offset, 4);
+      read(reader, offset, 4);
+    }
+    cache.cleanUp();
+
+    assertTrue(cache.getSizeBytes() <= 64);
+    assertEquals(cache.getEntries(), directory.list().length);
+    assertEquals(cache.getSizeBytes(), cache.getDatasetStats().iterator().next().getCachedBytes());
+  }
+
+  @Test
+  public void skipsLargeRanges() throws Exception {
+    cache.setMaxSizeBytes(64);
+    final CountingReader remote = new CountingReader();
+    final AsyncByteReader reader = new CachingAsyncByteReader(remote, key("1"), cache, Runnable::run);
+    read(reader, 0, DATA.length);
+    read(reader, 0, DATA.length);
+    read(reader, 0, DATA.length);
+
+    assertEquals(3, remote.reads.get());
+    assertEquals(0, cache.getEntries());
+  }
+
+  @Test
+  public void dropsMissingFiles() throws Exception {
+    final CountingReader remote = new CountingReader();
+    final AsyncByteReader reader = new CachingAsyncByteReader(remote, key("1"), cache, Runnable::run);
+    read(reader, 0, 8);
+    read(reader, 0, 8);
+    for (File file : directory.listFiles()) {
+      assertTrue(file.delete());
+    }
+
+    assertArrayEquals(Arrays.copyOfRange(DATA, 0, 8), read(reader, 0, 8));
+    assertEquals(3, remote.reads.get());
+  }
+
+  @Test
+  public void unknownDataset() throws Exception {
+    final AsyncByteReader.FileKey fileKey = AsyncByteReader.FileKey.of(Path.of("/a"), "1",
+      AsyncByteReader.FileKey.FileType.OTHER);
+    read(new CachingAsyncByteReader(new CountingReader(), fileKey, cache, Runnable::run), 0, 1);
+    assertEquals("<unknown>", cache.getDatasetStats().iterator().next().getDataset());
+  }
+
+  @Test
+  public void readsHitsOnReader() throws Exception {
+    final Queue<Runnable> reads = new ArrayDeque<>();
+    final CountingReader remote = new CountingReader();
+    final AsyncByteReader reader = new CachingAsyncByteReader(remote, key("1"), cache, reads::add);
+    read(reader, 4, 10);
+    read(reader, 4, 10);
+    assertTrue("misses are read by the underlying reader", reads.isEmpty());
+
+    final ByteBuf buf = Unpooled.buffer(10);
+    try {
+      final CompletableFuture<Void> future = reader.readFully(4, buf, 0, 10);
+      assertFalse("cached range is read on the reader", future.isDone());
+      assertEquals(1, reads.size());
+
+      reads.remove().run();
+      future.get();
+      final byte[] bytes = new byte[10];
+      buf.getBytes(0, bytes);
+      assertArrayEquals(Arrays.copyOfRange(DATA, 4, 14), bytes);
+    } finally {
+      buf.release();
+    }
+    assertEquals(2, remote.reads.get());
+  }
+
+  @Test
+  public void writesOnWriter() throws Exception {
+    final Queue<Runnable> writes = new ArrayDeque<>();
+    try (DataCache deferred = new DataCache(new File(folder.getRoot(), "deferred").toPath(), 1024, writes::add)) {
+      final CountingReader remote = new CountingReader();
+      final AsyncByteReader reader = new CachingAsyncByteReader(remote, key("1"), deferred, Runnable::run);
+      read(reader, 4, 10);
+
+      final ByteBuf buf = Unpooled.buffer(10);
+      final CompletableFuture<Void> future = reader.readFully(4, buf, 0, 10);
+      assertTrue("read completes before the range is written", future.isDone());
+      assertEquals(1, writes.size());
+      assertEquals(0, deferred.getEntries());
+
+      // the buffer is reused by the caller once the read completes
+      buf.setBytes(0, new byte[10]);
+      buf.release();
+      writes.remove().run();
+
+      assertEquals(1, deferred.getEntries());
+      assertArrayEquals(Arrays.copyOfRange(DATA, 4, 14), read(reader, 4, 10));
+      assertEquals(2, remote.reads.get());
+    }
+  }
+
+  @Test
+  public void rejectsAfterWriterShutdown() throws Exception {
+    try (DataCache closed = new DataCache(new File(folder.getRoot(), "closed").toPath(), 1024, command -> {
+      throw new RejectedExecutionException();
+    })) {
+      final AsyncByteReader reader = new CachingAsyncByteReader(new CountingReader(), key("1"), closed, Runnable::run);
+      read(reader, 0, 8);
+      read(reader, 0, 8);
+      assertEquals(0, closed.getEntries());
+      assertFalse(closed.getDatasetStats().isEmpty());
+      assertEquals(2, closed.getDatasetStats().iterator().next().getRejections());
+    }
+  }
+
+  private static final class CountingReader implements AsyncByteReader {
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Override
+    public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+      reads.incrementAndGet();
+      dst.setBytes(dstOffset, DATA, (int) offset, len);
+      return completedFuture;
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.test.DremioTest;
+
+/**
+ * Tests for {@link ProjectingJsonInputStream}
+ */
+public class TestProjectingJsonInputStream extends DremioTest {
+
+  @Test
+  public void testDropsUnprojectedMembers() throws Exception {
+    assertProjected("{\"a\": 1,\"c\": 3}\n{\"c\": \"x\"}\n",
+      "{\"a\": 1, \"b\": 2, \"c\": 3}\n{\"b\": null, \"c\": \"x\"}\n", "a", "c");
+  }
+
+  @Test
+  public void testSkipsNestedValues() throws Exception {
+    assertProjected("{\"a\":{\"x\": [1, {\"y\": \"}\"}]}}",
+      "{\"b\": {\"k\": [\"]\", \"\\\"}\", {\"z\": []}]}, \"a\":{\"x\": [1, {\"y\": \"}\"}]}, \"d\": [[]]}", "a");
+  }
+
+  @Test
+  public void testNoProjectedMember() throws Exception {
+    assertProjected("{}{}", "{\"b\":1}{}", "a");
+  }
+
+  @Test
+  public void testCaseInsensitive() throws Exception {
+    assertProjected("{\"A\":1}", "{\"A\":1,\"b\":2}", "a");
+  }
+
+  @Test
+  public void testNestedProjection() throws Exception {
+    assertProjected("{\"a\":{\"b\":1,\"c\":2}}", "{\"a\":{\"b\":1,\"c\":2},\"c\":3}", "a.b");
+  }
+
+  @Test
+  public void testKeepsLineBreaks() throws Exception {
+    assertProjected("{\n\n\n\"c\":\n3}\n", "{\n\"a\": [1,\n2],\n\"c\":\n3}\n", "c");
+  }
+
+  @Test
+  public void testKeepsEscapedNames() throws Exception {
+    assertProjected("{\"a\\u0062\":1}", "{\"a\\u0062\":1}", "c");
+  }
+
+  @Test
+  public void testComments() throws Exception {
+    assertProjected("/* header */{\"c\":3 // end\n}", "/* header */{/* a */ \"a\": /* } */ 1, \"c\":3 // end\n}", "c");
+  }
+
+  @Test
+  public void testTopLevelArrayPassesThrough() throws Exception {
+    final String json = "[{\"a\":1,\"b\":2}]";
+    assertProjected(json, json, "a");
+  }
+
+  @Test
+  public void testUnquotedNamePassesThrough() throws Exception {
+    assertProjected("{\"a\":1,b:2}", "{\"a\":1,\"x\":0, b:2}", "a");
+    assertProjected("{b:2}", "{\"x\":0, b:2}", "a");
+  }
+
+  @Test
+  public void testMalformedContentIsKept() throws Exception {
+    assertProjected("{\"x\":}", "{\"x\":}", "a");
+    assertProjected("{\"a\":1,}", "{\"a\":1,}", "a");
+  }
+
+  @Test
+  public void testMalformedDroppedValueIsKept() throws Exception {
+    // the bytes of the dropped value read before the malformed content are given back to the parser
+    assertProjected("{\"a\":1,\"x\": [1,\n 2]]}", "{\"a\":1,\"x\": [1,\n 2]]}", "a");
+    assertProjected("{\"x\": \"abc\" / 2}", "{\"x\": \"abc\" / 2}", "a");
+  }
+
+  @Test
+  public void testTruncatedContentIsKept() throws Exception {
+    assertProjected("{\"a\":1,\"x\": {\"y\"", "{\"a\":1,\"x\": {\"y\"", "a");
+    assertProjected("{\"a\":1,\"xy", "{\"a\":1,\"xy", "a");
+  }
+
+  @Test
+  public void testLineBreaksOfDroppedValuesAreKept() throws Exception {
+    assertProjected("{\"a\":1\n}\n{\"a\":2}", "{\"a\":1, \"b\": [\"q\",\n\"r\"]}\n{\"a\":2}", "a");
+  }
+
+  @Test
+  public void testLongDroppedValue() throws Exception {
+    final StringBuilder value = new StringBuilder("[");
+    while (value.length() < 3 * ProjectingJsonInputStream.MAX_DROPPED_VALUE_REPLAY) {
+      value.append("\"abcdefghijklmnopqrstuvwxyz\",\n");
+    }
+    value.append("{\"y\": \"]}\"}]");
+    final String newLines = value.toString().replaceAll("[^\n]", "");
+
+    assertProjected("{\"a\":1" + newLines + "}\n{\"a\":2}", "{\"a\":1, \"b\": " + value + "}\n{\"a\":2}", "a");
+    assertProjected("{" + newLines + "\"a\":2}", "{\"b\": " + value + ", \"a\":2}", "a");
+  }
+
+  @Test
+  public void testMalformedLongDroppedValueFails() throws Exception {
+    final StringBuilder value = new StringBuilder("[");
+    while (value.length() < 2 * ProjectingJsonInputStream.MAX_DROPPED_VALUE_REPLAY) {
+      value.append("1,\n");
+    }
+    final String newLines = value.toString().replaceAll("[^\n]", "");
+
+    // the value is no longer held back, only its member name is given back to the parser
+    assertProjected("{\"a\":1" + newLines + ",\"b\":]}", "{\"a\":1,\"b\": " + value + "1]]}", "a");
+    assertProjected("{\"a\":1" + newLines + ",\"b\":/ 2]}", "{\"a\":1,\"b\": " + value + "1 / 2]}", "a");
+    assertProjected("{\"a\":1" + newLines + ",\"b\":", "{\"a\":1,\"b\": " + value, "a");
+  }
+
+  private static void assertProjected(String expected, String json, String... columns) throws IOException {
+    final byte[] bytes = json.getBytes(UTF_8);
+    assertEquals(expected, project(new ByteArrayInputStream(bytes), columns));
+
+    // member names and values split across reads
+    final InputStream oneByteAtATime = new ByteArrayInputStream(bytes) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, Math.min(len, 1));
+      }
+    };
+    assertEquals(expected, project(oneByteAtATime, columns));
+  }
+
+  private static String project(InputStream in, String... columns) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream projected = new ProjectingJsonInputStream(in,
+        Arrays.stream(columns).map(c -> SchemaPath.getCompoundPath(c.split("\\."))).collect(Collectors.toList()))) {
+      final byte[] buffer = new byte[7];
+      int read;
+      while ((read = projected.read(buffer, 0, buffer.length)) >= 0) {
+        out.write(buffer, 0, read);
+      }
+    }
+    return new String(out.toByteArray(), UTF_8);
+  }
+}
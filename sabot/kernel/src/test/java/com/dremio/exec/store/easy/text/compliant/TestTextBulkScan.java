@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.text.compliant;
+
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.dremio.BaseTestQuery;
+import com.dremio.exec.ExecConstants;
+import com.dremio.service.namespace.file.proto.TextFileConfig;
+
+/**
+ * Reads text files with store.text.bulk_scan.enabled on, and compares the results with the same query with the option
+ * off.
+ */
+@RunWith(Parameterized.class)
+public class TestTextBulkScan extends BaseTestQuery {
+  // values longer than the text reader's read buffer cross its boundaries at varying offsets
+  private static final String TMP_CSV_LARGE_VALUES = "bulk_scan_large_values.csv";
+  private static final int LARGE_VALUES_ROWS = 3000;
+
+  private static File tblPathLargeValues = null;
+
+  private final String table;
+  private final TextFileConfig fileFormat;
+
+  public TestTextBulkScan(String table, TextFileConfig fileFormat) {
+    this.table = table;
+    this.fileFormat = fileFormat;
+  }
+
+  @Parameterized.Parameters(name = "{index}: table: {0}, Table Options: {1} ")
+  public static Collection<Object[]> data() {
+    return Arrays.asList(new Object[][]{
+      {
+        // quoted values with quotes escaped by doubling them
+        "cp.\"store/text/quote_escape.csv\"",
+        new TextFileConfig().setExtractHeader(true).setLineDelimiter("\n")
+      },
+      {
+        // quoted values with quotes escaped by a backslash
+        "cp.\"store/text/custom_quote_escape.csv\"",
+        new TextFileConfig().setExtractHeader(true).setEscape("\\").setLineDelimiter("\n")
+      },
+      {
+        "cp.\"store/text/double_double_quote.csv\"",
+        new TextFileConfig().setExtractHeader(true).setEscape("\\").setLineDelimiter("\n")
+      },
+      {
+        "cp.\"store/text/unescaped_quote.csv\"",
+        new TextFileConfig().setExtractHeader(true).setEscape("'").setLineDelimiter("\n")
+      },
+      {
+        // CRLF line endings, also inside quoted values
+        "cp.\"store/text/WithQuotedCrLf.tbl\"",
+        new TextFileConfig().setExtractHeader(false).setFieldDelimiter("|").setLineDelimiter("\r\n")
+      },
+      {
+        // multi-byte field delimiters, which read every byte through the slow path
+        "cp.\"store/text/multi_char_field_delimiter.txt\"",
+        new TextFileConfig().setExtractHeader(true).setFieldDelimiter(",$").setLineDelimiter("\n")
+      },
+      {
+        "cp.\"store/text/broken_pipe.txt\"",
+        new TextFileConfig().setExtractHeader(true).setFieldDelimiter("¦").setLineDelimiter("\n")
+      },
+      {
+        "cp.\"store/text/custom_ld_inside_quoted.csv\"",
+        new TextFileConfig().setExtractHeader(true).setLineDelimiter("$")
+      },
+      {
+        "cp.\"store/text/space_padded_quoted_field.csv\"",
+        new TextFileConfig().setExtractHeader(true).setLineDelimiter("\n")
+      },
+      {
+        TEMP_SCHEMA + ".\"" + TMP_CSV_LARGE_VALUES + "\"",
+        new TextFileConfig().setExtractHeader(true).setLineDelimiter("\r\n")
+      }
+    });
+  }
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    setupDefaultTestCluster();
+    tblPathLargeValues = new File(getDfsTestTmpSchemaLocation(), TMP_CSV_LARGE_VALUES);
+    FileUtils.deleteQuietly(tblPathLargeValues);
+
+    try (Writer writer = new OutputStreamWriter(Files.newOutputStream(tblPathLargeValues.toPath()),
+      StandardCharsets.UTF_8)) {
+      writer.append("id,quoted,plain\r\n");
+      for (int i = 0; i < LARGE_VALUES_ROWS; i++) {
+        final String filler = filler(i);
+        writer.append(Integer.toString(i))
+          .append(",\"a \"\"quoted\"\" value, on\r\ntwo lines ")
+          .append(filler)
+          .append("\",plain ")
+          .append(filler)
+          .append("\r\n");
+      }
+    }
+  }
+
+  private static String filler(int row) {
+    final StringBuilder builder = new StringBuilder();
+    final int length = (row * 37) % 1000;
+    for (int i = 0; i < length; i++) {
+      builder.append(i % 97 == 0 ? 'é' : (char) ('a' + i % 26));
+    }
+    return builder.toString();
+  }
+
+  @AfterClass
+  public static void afterClass() throws Exception {
+    FileUtils.deleteQuietly(tblPathLargeValues);
+  }
+
+  @Test
+  public void testSameResultsWithoutBulkScan() throws Exception {
+    final String query = String.format("select * from table(%s (%s))", table, fileFormat.toTableOptions());
+    final String option = ExecConstants.TEXT_BULK_SCAN.getOptionName();
+    try {
+      testBuilder()
+        .optionSettingQueriesForTestQuery("ALTER SESSION SET \"%s\" = true", option)
+        .optionSettingQueriesForBaseline("ALTER SESSION SET \"%s\" = false", option)
+        .unOrdered()
+        .sqlQuery(query)
+        .sqlBaselineQuery(query)
+        .go();
+    } finally {
+      test("ALTER SESSION RESET \"%s\"", option);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.text.compliant;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.io.ArrowBufFSInputStream;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+
+/**
+ * Tests the bulk scanning of {@link TextInput}
+ */
+public class TestTextInput extends DremioTest {
+  private static final long[] STOP_PATTERNS = {TextInput.broadcast((byte) ','), TextInput.broadcast((byte) '\n')};
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-text-input", 0, Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  private void withInput(byte[] data, InputConsumer consumer) throws Exception {
+    try (ArrowBuf dataBuf = allocator.buffer(data.length);
+         ArrowBuf readBuf = allocator.buffer(1024)) {
+      dataBuf.setBytes(0, data);
+      dataBuf.writerIndex(data.length);
+      final TextInput input = new TextInput(new TextParsingSettings(), new ArrowBufFSInputStream(dataBuf), readBuf,
+        0, data.length);
+      input.start();
+      consumer.accept(input);
+    }
+  }
+
+  @Test
+  public void testScanRun() throws Exception {
+    withInput("abcdefghijklmnopqrst,uv\nwx".getBytes(UTF_8), input -> {
+      assertEquals(20, input.scanRun(STOP_PATTERNS));
+      input.consume(20);
+      assertEquals(2, input.nextChar()[0]);
+
+      assertEquals(2, input.scanRun(STOP_PATTERNS));
+      input.consume(2);
+      assertEquals(1, input.nextChar()[0]);
+
+      // the last byte of the buffer is left to nextChar()
+      assertEquals(1, input.scanRun(STOP_PATTERNS));
+      input.consume(1);
+      assertEquals('x', input.nextChar()[1]);
+    });
+  }
+
+  @Test
+  public void testScanRunMultiByteCharacters() throws Exception {
+    // the bytes of multi byte characters never match an ASCII pattern
+    withInput("ééééééééé,x".getBytes(UTF_8), input -> {
+      assertEquals(18, input.scanRun(STOP_PATTERNS));
+    });
+
+    // but their own bytes can be matched
+    final byte[] brokenPipe = "¦".getBytes(UTF_8);
+    withInput("abcdefghij¦x".getBytes(UTF_8), input -> {
+      assertEquals(10, input.scanRun(new long[] {TextInput.broadcast(brokenPipe[0])}));
+    });
+  }
+
+  @Test
+  public void testScanRunEveryPosition() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      final StringBuilder sb = new StringBuilder();
+      for (int j = 0; j < 20; j++) {
+        sb.append(j == i ? '\n' : 'a');
+      }
+      final int expected = i;
+      withInput(sb.append("bb").toString().getBytes(UTF_8), input -> assertEquals(expected, input.scanRun(STOP_PATTERNS)));
+    }
+  }
+
+  @FunctionalInterface
+  private interface InputConsumer {
+    void accept(TextInput input) throws Exception;
+  }
+}
@@ -28,6 +28,7 @@ import org.junit.Test;
 
 import com.dremio.BaseTestQuery;
 import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.proto.UserBitShared;
 import com.google.common.io.Resources;
 
@@ -52,6 +53,24 @@ public class TestJsonRecordReader extends BaseTestQuery {
 //    test("select z[0]  from cp.\"jsoninput/input2.json\" limit 10");
   }
 
+  @Test
+  public void testStructuralProjectionMatchesFullParse() throws Exception {
+    final String enable = "alter session set \"" + ExecConstants.JSON_STRUCTURAL_PROJECTION.getOptionName() + "\" = true";
+    final String disable = "alter session set \"" + ExecConstants.JSON_STRUCTURAL_PROJECTION.getOptionName() + "\" = false";
+    for (String query : new String[] {
+      "select \"integer\", \"float\" from cp.\"jsoninput/input2.json\"",
+      "select \"integer\", x['y'] as y, z[0]['orange'] as orange from cp.\"jsoninput/input2.json\""}) {
+      testBuilder()
+        .sqlQuery(query)
+        .optionSettingQueriesForTestQuery(enable)
+        .optionSettingQueriesForBaseline(disable)
+        .unOrdered()
+        .sqlBaselineQuery(query)
+        .build()
+        .run();
+    }
+  }
+
   @Test
   public void testContainingArray() throws Exception {
     test("select * from dfs.\"${WORKING_PATH}/src/test/resources/store/json/listdoc.json\"");
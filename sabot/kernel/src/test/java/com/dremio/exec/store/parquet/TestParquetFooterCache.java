@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.parquet.format.Util;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Tests for {@link ParquetFooterCache}
+ */
+public class TestParquetFooterCache {
+  private static final MessageType SCHEMA = MessageTypeParser.parseMessageType(
+    "message test { required int32 a; optional binary b; }");
+  private static final URI FS = URI.create("file:///");
+
+  private byte[] footerBytes;
+
+  @Before
+  public void setup() throws IOException {
+    final ParquetMetadata footer = new ParquetMetadata(
+      new FileMetaData(SCHEMA, Collections.emptyMap(), "test"), Collections.emptyList());
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Util.writeFileMetaData(ParquetFormatPlugin.parquetMetadataConverter.toParquetMetadata(1, footer), out);
+    footerBytes = out.toByteArray();
+    ParquetFooterCache.invalidateAll();
+    ParquetFooterCache.configure(options(1024 * 1024));
+  }
+
+  @After
+  public void cleanup() {
+    ParquetFooterCache.invalidateAll();
+    ParquetFooterCache.configure(options(ExecConstants.PARQUET_FOOTER_CACHE_SIZE.getDefault().getNumVal()));
+  }
+
+  private static OptionManager options(long maxSize) {
+    final OptionManager options = mock(OptionManager.class);
+    when(options.getOption(ExecConstants.PARQUET_FOOTER_CACHE_SIZE)).thenReturn(maxSize);
+    return options;
+  }
+
+  @Test
+  public void hitsOnSameVersion() throws Exception {
+    assertTrue(ParquetFooterCache.isEnabled(options(1024 * 1024)));
+    final CacheStats before = ParquetFooterCache.getStats();
+    final AtomicInteger loads = new AtomicInteger();
+
+    final ParquetMetadata first = ParquetFooterCache.getFooter(FS, "/a.parquet", 100, 1, () -> {
+      loads.incrementAndGet();
+      return footerBytes;
+    });
+    final ParquetMetadata second = ParquetFooterCache.getFooter(FS, "/a.parquet", 100, 1, () -> {
+      loads.incrementAndGet();
+      return footerBytes;
+    });
+
+    assertEquals(1, loads.get());
+    assertNotSame("every lookup should get its own copy", first, second);
+    assertEquals(SCHEMA, second.getFileMetaData().getSchema());
+    ParquetFooterCache.cleanUp();
+    assertEquals(footerBytes.length, ParquetFooterCache.getSizeBytes());
+
+    final CacheStats stats = ParquetFooterCache.getStats().minus(before);
+    assertEquals(1, stats.hitCount());
+    assertEquals(1, stats.missCount());
+  }
+
+  @Test
+  public void missesOnModifiedFile() throws Exception {
+    assertTrue(ParquetFooterCache.isEnabled(options(1024 * 1024)));
+    final AtomicInteger loads = new AtomicInteger();
+
+    ParquetFooterCache.getFooter(FS, "/a.parquet", 100, 1, () -> {
+      loads.incrementAndGet();
+      return footerBytes;
+    });
+    ParquetFooterCache.getFooter(FS, "/a.parquet", 100, 2, () -> {
+      loads.incrementAndGet();
+      return footerBytes;
+    });
+    ParquetFooterCache.getFooter(FS, "/a.parquet", 200, 2, () -> {
+      loads.incrementAndGet();
+      return footerBytes;
+    });
+
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void missesOnOtherFileSystem() throws Exception {
+    final AtomicInteger loads = new AtomicInteger();
+
+    ParquetFooterCache.getFooter(FS, "/a.parquet", 100, 1, () -> {
+      loads.incrementAndGet();
+      return footerBytes;
+    });
+    ParquetFooterCache.getFooter(URI.create("hdfs://namenode:8020"), "/a.parquet", 100, 1, () -> {
+      loads.incrementAndGet();
+      return footerBytes;
+    });
+
+    assertEquals(2, loads.get());
+    assertEquals(2, ParquetFooterCache.getEntries());
+  }
+
+  @Test
+  public void loaderFailure() throws Exception {
+    assertTrue(ParquetFooterCache.isEnabled(options(1024 * 1024)));
+    try {
+      ParquetFooterCache.getFooter(FS, "/a.parquet", 100, 1, () -> {
+        throw new IOException("boom");
+      });
+      fail("expected the loader failure to be propagated");
+    } catch (IOException e) {
+      assertEquals("boom", e.getMessage());
+    }
+    assertEquals(0, ParquetFooterCache.getEntries());
+  }
+
+  @Test
+  public void disabled() {
+    assertFalse(ParquetFooterCache.isEnabled(options(0)));
+    assertFalse(ParquetFooterCache.isEnabled(null));
+    assertEquals("checking the option should not resize the cache", 1024 * 1024, ParquetFooterCache.getMaxSizeBytes());
+  }
+
+  @Test
+  public void configureResizes() throws Exception {
+    ParquetFooterCache.configure(options(footerBytes.length));
+    assertEquals(footerBytes.length, ParquetFooterCache.getMaxSizeBytes());
+
+    ParquetFooterCache.getFooter(FS, "/a.parquet", 100, 1, () -> footerBytes);
+    ParquetFooterCache.getFooter(FS, "/b.parquet", 100, 1, () -> footerBytes);
+    ParquetFooterCache.cleanUp();
+    assertEquals(1, ParquetFooterCache.getEntries());
+    assertEquals(footerBytes.length, ParquetFooterCache.getSizeBytes());
+  }
+}
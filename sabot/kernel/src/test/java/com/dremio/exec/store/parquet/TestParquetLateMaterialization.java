@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.dremio.common.expression.FieldReference;
+import com.dremio.common.expression.FunctionCallFactory;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.expression.ValueExpressions;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.store.iceberg.IcebergTestTables;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests that late materialization in the rowwise parquet reader returns the same rows as a regular read, while only
+ * decoding the filter columns of the rows that don't match
+ */
+public class TestParquetLateMaterialization extends BaseTestUnifiedParquetReader {
+
+  private static final ParquetReaderOptions ROWWISE_READER_OPTIONS = ParquetReaderOptions.builder().build();
+
+  // data file has 2 row groups of 100 rows each, and contains product_id 0..199
+  private static final String DATA_WIDGET_00 = "widget/widget-00.parquet";
+
+  private static IcebergTestTables.Table table;
+
+  @BeforeClass
+  public static void setupTestData() {
+    table = IcebergTestTables.PRODUCTS_WITH_EQ_DELETES.get();
+  }
+
+  @AfterClass
+  public static void cleanupTestData() throws Exception {
+    table.close();
+  }
+
+  private static ParquetFilters filter(String function, int productId) {
+    final SchemaPath productIdCol = SchemaPath.getSimplePath("product_id");
+    final LogicalExpression expr = FunctionCallFactory.createExpression(function,
+      new FieldReference(productIdCol), ValueExpressions.getInt(productId));
+    return new ParquetFilters(ImmutableList.of(new ParquetFilterCondition(productIdCol, new ParquetFilterIface() {},
+      expr, 0)), null, null);
+  }
+
+  private List<String> read(ParquetFilters filters, boolean lateMaterialization) throws Exception {
+    final List<String> rows = new ArrayList<>();
+    try (AutoCloseable ignored = with(ExecConstants.PARQUET_LATE_MATERIALIZATION, lateMaterialization)) {
+      readAndValidate(
+        Path.of("file:" + table.getLocation() + "/data/" + DATA_WIDGET_00),
+        filters,
+        ImmutableList.of("product_id", "color"),
+        ROWWISE_READER_OPTIONS,
+        (rowGroupIndex, outputRowIndex, records, mutator) -> {
+          final IntVector productIds = (IntVector) mutator.getVector("product_id");
+          final VarCharVector colors = (VarCharVector) mutator.getVector("color");
+          for (int i = 0; i < records; i++) {
+            rows.add(productIds.getObject(i) + "," + colors.getObject(i));
+          }
+        });
+    }
+    return rows;
+  }
+
+  private long filteredRows() {
+    return context.getStats().getLongStat(ScanOperator.Metric.LATE_MATERIALIZATION_FILTERED_ROWS);
+  }
+
+  private long materializedRows() {
+    return context.getStats().getLongStat(ScanOperator.Metric.LATE_MATERIALIZATION_MATERIALIZED_ROWS);
+  }
+
+  @Test
+  public void testSelectiveFilter() throws Exception {
+    final List<String> expected = read(filter("less_than", 50), false);
+    assertThat(filteredRows()).isEqualTo(0);
+
+    final List<String> actual = read(filter("less_than", 50), true);
+    assertThat(actual).containsExactlyElementsOf(expected).hasSize(50);
+    assertThat(filteredRows()).isGreaterThan(0);
+    assertThat(materializedRows()).isEqualTo(50);
+  }
+
+  @Test
+  public void testNoMatchingRows() throws Exception {
+    assertThat(read(filter("less_than", 0), true)).isEmpty();
+    assertThat(filteredRows()).isGreaterThan(0);
+    assertThat(materializedRows()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.Test;
+
+import com.dremio.common.expression.FunctionCallFactory;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.expression.ValueExpressions;
+import com.dremio.sabot.exec.store.iceberg.proto.IcebergProtobuf;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tests for the conversion of pushed down filter conditions into parquet predicates, in {@link ParquetPageFilter}
+ */
+public class TestParquetPageFilter {
+  private static final MessageType SCHEMA = MessageTypeParser.parseMessageType(
+    "message test { " +
+      "required int32 a; " +
+      "optional int64 B; " +
+      "optional binary s (UTF8); " +
+      "optional binary raw; " +
+      "repeated int32 r; " +
+      "}");
+  private static final ParquetColumnResolver RESOLVER = new ParquetColumnDefaultResolver(Collections.emptyList());
+
+  private static ParquetFilterCondition condition(LogicalExpression expr) {
+    return new ParquetFilterCondition(SchemaPath.getSimplePath("a"), null, expr, 0);
+  }
+
+  private static LogicalExpression call(String name, LogicalExpression... args) {
+    return FunctionCallFactory.createExpression(name, args);
+  }
+
+  @Test
+  public void testComparisons() {
+    assertEquals(FilterApi.eq(FilterApi.intColumn("a"), 5),
+      ParquetPageFilter.toPredicate(Collections.singletonList(
+        condition(call("equal", SchemaPath.getSimplePath("a"), ValueExpressions.getInt(5)))), SCHEMA, RESOLVER));
+
+    // column names are matched case insensitively, literals on the left are mirrored
+    assertEquals(FilterApi.gt(FilterApi.longColumn("B"), 10L),
+      ParquetPageFilter.toPredicate(Collections.singletonList(
+        condition(call("less_than", ValueExpressions.getBigInt(10), SchemaPath.getSimplePath("b")))), SCHEMA, RESOLVER));
+
+    assertEquals(FilterApi.ltEq(FilterApi.binaryColumn("s"), Binary.fromString("x")),
+      ParquetPageFilter.toPredicate(Collections.singletonList(
+        condition(call("less_than_or_equal_to", SchemaPath.getSimplePath("s"), ValueExpressions.getChar("x")))), SCHEMA, RESOLVER));
+
+    assertEquals(FilterApi.notEq(FilterApi.intColumn("a"), null),
+      ParquetPageFilter.toPredicate(Collections.singletonList(
+        condition(call("isnotnull", SchemaPath.getSimplePath("a")))), SCHEMA, RESOLVER));
+  }
+
+  @Test
+  public void testUnsupported() {
+    // binary without a string annotation
+    assertNull(ParquetPageFilter.toPredicate(Collections.singletonList(
+      condition(call("equal", SchemaPath.getSimplePath("raw"), ValueExpressions.getChar("x")))), SCHEMA, RESOLVER));
+    // repeated column
+    assertNull(ParquetPageFilter.toPredicate(Collections.singletonList(
+      condition(call("equal", SchemaPath.getSimplePath("r"), ValueExpressions.getInt(1)))), SCHEMA, RESOLVER));
+    // unknown column
+    assertNull(ParquetPageFilter.toPredicate(Collections.singletonList(
+      condition(call("equal", SchemaPath.getSimplePath("z"), ValueExpressions.getInt(1)))), SCHEMA, RESOLVER));
+    // literal type does not match the column
+    assertNull(ParquetPageFilter.toPredicate(Collections.singletonList(
+      condition(call("equal", SchemaPath.getSimplePath("a"), ValueExpressions.getChar("1")))), SCHEMA, RESOLVER));
+  }
+
+  @Test
+  public void testBooleanOperators() {
+    final LogicalExpression eqA = call("equal", SchemaPath.getSimplePath("a"), ValueExpressions.getInt(1));
+    final LogicalExpression eqRaw = call("equal", SchemaPath.getSimplePath("raw"), ValueExpressions.getChar("x"));
+    final LogicalExpression gtB = call("greater_than", SchemaPath.getSimplePath("b"), ValueExpressions.getBigInt(2));
+
+    // unsupported arguments of an AND are dropped
+    assertEquals(FilterApi.and(FilterApi.eq(FilterApi.intColumn("a"), 1), FilterApi.gt(FilterApi.longColumn("B"), 2L)),
+      ParquetPageFilter.toPredicate(Collections.singletonList(
+        condition(FunctionCallFactory.createBooleanOperator("and", eqA, eqRaw, gtB))), SCHEMA, RESOLVER));
+
+    assertEquals(FilterApi.or(FilterApi.eq(FilterApi.intColumn("a"), 1), FilterApi.gt(FilterApi.longColumn("B"), 2L)),
+      ParquetPageFilter.toPredicate(Collections.singletonList(
+        condition(FunctionCallFactory.createBooleanOperator("or", eqA, gtB))), SCHEMA, RESOLVER));
+
+    // an OR is only usable when all its arguments are
+    assertNull(ParquetPageFilter.toPredicate(Collections.singletonList(
+      condition(FunctionCallFactory.createBooleanOperator("or", eqA, eqRaw))), SCHEMA, RESOLVER));
+  }
+
+  @Test
+  public void testRenamedColumns() {
+    // the table columns x and y were renamed from the file columns a and B, which are matched by field id
+    final ParquetColumnResolver resolver = new ParquetColumnIcebergResolver(Collections.emptyList(),
+      Arrays.asList(
+        IcebergProtobuf.IcebergSchemaField.newBuilder().setSchemaPath("x").setId(1).build(),
+        IcebergProtobuf.IcebergSchemaField.newBuilder().setSchemaPath("y").setId(2).build(),
+        IcebergProtobuf.IcebergSchemaField.newBuilder().setSchemaPath("a").setId(3).build()),
+      ImmutableMap.of("a", 1, "B", 2));
+
+    assertEquals(FilterApi.and(FilterApi.eq(FilterApi.intColumn("a"), 5), FilterApi.gt(FilterApi.longColumn("B"), 10L)),
+      ParquetPageFilter.toPredicate(Arrays.asList(
+        condition(call("equal", SchemaPath.getSimplePath("x"), ValueExpressions.getInt(5))),
+        condition(call("greater_than", SchemaPath.getSimplePath("y"), ValueExpressions.getBigInt(10)))), SCHEMA, resolver));
+
+    // the table column a is a new column, not the file column of the same name
+    assertNull(ParquetPageFilter.toPredicate(Collections.singletonList(
+      condition(call("equal", SchemaPath.getSimplePath("a"), ValueExpressions.getInt(5)))), SCHEMA, resolver));
+  }
+}
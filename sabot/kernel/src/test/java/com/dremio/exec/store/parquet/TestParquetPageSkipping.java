@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.page.DataPage;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.CodecFactory;
+import org.apache.parquet.hadoop.ColumnChunkIncReadStore;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.common.expression.FunctionCallFactory;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.expression.ValueExpressions;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.parquet.reader.ParquetDirectByteBufferAllocator;
+import com.dremio.sabot.exec.store.iceberg.proto.IcebergProtobuf;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tests that the pages outside of the row ranges computed by {@link ParquetPageFilter} are skipped by
+ * {@link ColumnChunkIncReadStore}, which is what the NUM_PAGES_PRUNED metric of the scan reports.
+ */
+public class TestParquetPageSkipping extends DremioTest {
+  private static final MessageType SCHEMA = MessageTypeParser.parseMessageType(
+    "message test { required int32 id; }");
+  private static final int ROW_COUNT = 10_000;
+  private static final int PAGE_ROW_COUNT = 1_000;
+
+  @ClassRule
+  public static final TemporaryFolder folder = new TemporaryFolder();
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private static Configuration conf;
+  private static FileSystem fs;
+  private static Path path;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    conf = new Configuration();
+    fs = HadoopFileSystem.getLocal(conf);
+    final File file = new File(folder.getRoot(), "pages.parquet");
+    path = Path.of(file.toURI());
+
+    final SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+    try (ParquetWriter<Group> writer =
+           ExampleParquetWriter.builder(new org.apache.hadoop.fs.Path(file.toURI()))
+             .withConf(conf)
+             .withType(SCHEMA)
+             .withDictionaryEncoding(false)
+             .withPageRowCountLimit(PAGE_ROW_COUNT)
+             .build()) {
+      for (int i = 0; i < ROW_COUNT; i++) {
+        writer.write(groups.newGroup().append("id", i));
+      }
+    }
+  }
+
+  private static ParquetFilterCondition condition(String column, String function, int value) {
+    final LogicalExpression expr = FunctionCallFactory.createExpression(function, SchemaPath.getSimplePath(column),
+      ValueExpressions.getInt(value));
+    return new ParquetFilterCondition(SchemaPath.getSimplePath(column), null, expr, 0);
+  }
+
+  @Test
+  public void testSkipPagesOfRenamedColumn() throws Exception {
+    final ParquetMetadata footer = SingletonParquetFooterCache.readFooter(fs, path, ParquetMetadataConverter.NO_FILTER,
+      ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR.getDefault().getNumVal());
+    final BlockMetaData block = footer.getBlocks().get(0);
+    final ColumnChunkMetaData chunk = block.getColumns().get(0);
+    final ColumnDescriptor descriptor = SCHEMA.getColumnDescription(new String[] {"id"});
+    final List<ColumnChunkMetaData> chunks = Collections.singletonList(chunk);
+
+    // the table column key was renamed from the file column id
+    final ParquetColumnResolver resolver = new ParquetColumnIcebergResolver(Collections.emptyList(),
+      Collections.singletonList(IcebergProtobuf.IcebergSchemaField.newBuilder().setSchemaPath("key").setId(1).build()),
+      ImmutableMap.of("id", 1));
+    final List<ParquetFilterCondition> conditions = Arrays.asList(
+      condition("key", "greater_than_or_equal_to", 5_000),
+      condition("key", "less_than", 5_200));
+
+    final ParquetReaderStats stats = new ParquetReaderStats();
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-page-skipping", 0, Long.MAX_VALUE);
+         BulkInputStream indexStream = BulkInputStream.wrap(Streams.wrap(fs.open(path)));
+         ColumnIndexProvider columnIndexProvider = new ColumnIndexProvider(indexStream, allocator, chunks);
+         OffsetIndexProvider offsetIndexProvider = new OffsetIndexProvider(indexStream, allocator, chunks);
+         InputStreamProvider inputStreamProvider = new SingleStreamProvider(fs, path, fs.getFileAttributes(path).size(),
+           ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR.getDefault().getNumVal(), false, null, null, false, null, null)) {
+      final RowRanges rowRanges = ParquetPageFilter.getRowRanges(conditions, footer.getFileMetaData().getSchema(),
+        resolver, block, columnIndexProvider, offsetIndexProvider);
+      assertNotNull(rowRanges);
+      assertTrue(rowRanges.rowCount() < ROW_COUNT);
+
+      final CompressionCodecFactory codecFactory = CodecFactory.createDirectCodecFactory(conf,
+        new ParquetDirectByteBufferAllocator(allocator), 0);
+      final ColumnChunkIncReadStore readStore = new ColumnChunkIncReadStore(block.getRowCount(), codecFactory,
+        allocator, path, inputStreamProvider);
+      try {
+        readStore.setRowRanges(rowRanges, offsetIndexProvider, stats);
+        readStore.addColumn(descriptor, chunk);
+
+        final PageReader pageReader = readStore.getPageReader(descriptor);
+        long pagesRead = 0;
+        long valuesRead = 0;
+        DataPage page;
+        while ((page = pageReader.readPage()) != null) {
+          pagesRead++;
+          valuesRead += page.getValueCount();
+        }
+
+        // only the pages overlapping the row ranges are read, all the others are skipped
+        final int pageCount = offsetIndexProvider.getOffsetIndex(chunk).getPageCount();
+        assertTrue(pageCount > 1);
+        assertEquals(rowRanges.rowCount(), valuesRead);
+        assertEquals(pageCount - pagesRead, stats.numPagesSkipped);
+        assertTrue(stats.numPagesSkipped > 0);
+        assertTrue(stats.totalPageSkippedBytes > 0);
+      } finally {
+        readStore.close();
+        codecFactory.release();
+      }
+    }
+  }
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.page.DataPage;
+import org.apache.parquet.column.page.DataPageV1;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.CodecFactory;
+import org.apache.parquet.hadoop.ColumnChunkIncReadStore;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.BaseTestQuery;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.store.parquet.VectoredReadStreamProvider.Range;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.FilterFileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.parquet.reader.ParquetDirectByteBufferAllocator;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for {@link VectoredReadStreamProvider}
+ */
+public class TestVectoredReadStreamProvider extends BaseTestQuery {
+  private static final String ENABLE = "alter session set \"" +
+    ExecConstants.PARQUET_VECTORED_READ.getOptionName() + "\" = true";
+  private static final String DISABLE = "alter session set \"" +
+    ExecConstants.PARQUET_VECTORED_READ.getOptionName() + "\" = false";
+  // the test files are small enough to be read with a single stream otherwise
+  private static final String MULTI_STREAM = "alter session set \"" +
+    ExecConstants.PARQUET_MULTI_STREAM_SIZE_LIMIT_ENABLE.getOptionName() + "\" = false";
+
+  private static final Configuration CONF = new Configuration();
+  private static final MessageType SCHEMA = MessageTypeParser.parseMessageType(
+    "message test { required int32 id; required binary name (UTF8); }");
+  private static final long MAX_FOOTER_LEN = ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR.getDefault().getNumVal();
+
+  private static AutoCloseable vectorization;
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @BeforeClass
+  public static void setUp() {
+    vectorization = disableParquetVectorization();
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    vectorization.close();
+  }
+
+  private void compare(String query, long maxGap, long maxBuffer) throws Exception {
+    testBuilder()
+      .sqlQuery(query)
+      .optionSettingQueriesForTestQuery(String.join(";", MULTI_STREAM, ENABLE,
+        "alter session set \"" + ExecConstants.PARQUET_VECTORED_READ_MAX_GAP.getOptionName() + "\" = " + maxGap,
+        "alter session set \"" + ExecConstants.PARQUET_VECTORED_READ_MAX_BUFFER.getOptionName() + "\" = " + maxBuffer))
+      .optionSettingQueriesForBaseline(DISABLE)
+      .unOrdered()
+      .sqlBaselineQuery(query)
+      .build()
+      .run();
+  }
+
+  @Test
+  public void testMergedRanges() throws Exception {
+    compare("select l_orderkey, l_shipmode, l_comment from cp.\"tpch/lineitem.parquet\" where l_partkey < 500",
+      1024 * 1024, 64 * 1024 * 1024);
+  }
+
+  @Test
+  public void testSeparateRanges() throws Exception {
+    compare("select l_orderkey, l_comment from cp.\"tpch/lineitem.parquet\"", 0, 64 * 1024 * 1024);
+  }
+
+  @Test
+  public void testBufferLimit() throws Exception {
+    // only some of the columns fit, the others are streamed
+    compare("select * from cp.\"tpch/lineitem.parquet\"", 1024 * 1024, 64 * 1024);
+  }
+
+  @Test
+  public void testReleaseReadRowGroups() throws Exception {
+    final FileSystem fs = HadoopFileSystem.getLocal(CONF);
+    final Path path = writeRowGroups();
+    final List<BlockMetaData> blocks = readFooter(fs, path).getBlocks();
+    long maxRowGroupBytes = 0;
+    for (BlockMetaData block : blocks) {
+      maxRowGroupBytes = Math.max(maxRowGroupBytes, totalSize(block));
+    }
+
+    try (BufferAllocator chunkAllocator = allocatorRule.newAllocator("test-vectored-read-chunks", 0, Long.MAX_VALUE);
+         BufferAllocator pageAllocator = allocatorRule.newAllocator("test-vectored-read-pages", 0, Long.MAX_VALUE)) {
+      final OperatorContext context = newContext(chunkAllocator);
+      final CompressionCodecFactory codecFactory = newCodecFactory(pageAllocator);
+
+      // the budget only holds a row group at a time
+      try (VectoredReadStreamProvider provider = newProvider(fs, path, context, maxRowGroupBytes)) {
+        final ParquetReaderStats stats = new ParquetReaderStats();
+        for (BlockMetaData block : blocks) {
+          final long vectoredReads = stats.numVectoredReads;
+          provider.prefetch(block.getColumns(), stats);
+          // fetched, although the budget held the previous row group
+          assertTrue(stats.numVectoredReads > vectoredReads);
+          assertTrue(provider.getBufferedBytes() > 0);
+
+          readPages(provider, block, codecFactory, pageAllocator);
+
+          // the chunks were read, so their buffers are released before the provider is closed
+          assertEquals(0, provider.getBufferedBytes());
+          assertEquals(0, chunkAllocator.getAllocatedMemory());
+        }
+      } finally {
+        codecFactory.release();
+      }
+    }
+  }
+
+  @Test
+  public void testReadAhead() throws Exception {
+    final FileSystem fs = HadoopFileSystem.getLocal(CONF);
+    final Path path = writeRowGroups();
+    final BlockMetaData block = readFooter(fs, path).getBlocks().get(0);
+
+    try (BufferAllocator chunkAllocator = allocatorRule.newAllocator("test-read-ahead-chunks", 0, Long.MAX_VALUE);
+         BufferAllocator pageAllocator = allocatorRule.newAllocator("test-read-ahead-pages", 0, Long.MAX_VALUE)) {
+      final OperatorContext context = newContext(chunkAllocator);
+      final CompressionCodecFactory codecFactory = newCodecFactory(pageAllocator);
+      final ReadAheadBudget budget = new ReadAheadBudget(Long.MAX_VALUE);
+
+      try {
+        final List<byte[]> expected;
+        try (InputStreamProvider provider = new StreamPerColumnProvider(fs, path, fs.getFileAttributes(path).size(),
+          MAX_FOOTER_LEN, null, context, false, null, null)) {
+          expected = readPages(provider, block, codecFactory, pageAllocator);
+        }
+
+        try (VectoredReadStreamProvider provider = newProvider(new AsyncFileSystem(fs), path, context,
+          Long.MAX_VALUE)) {
+          provider.readAhead(block.getColumns(), budget);
+          assertEquals(totalSize(block), budget.getReservedBytes());
+          verify(context.getStats()).addLongStat(ScanOperator.Metric.NUM_READ_AHEAD_SPLITS, 1);
+          verify(context.getStats()).addLongStat(ScanOperator.Metric.READ_AHEAD_BYTES, totalSize(block));
+
+          final List<byte[]> pages = readPages(provider, block, codecFactory, pageAllocator);
+          assertEquals(expected.size(), pages.size());
+          for (int i = 0; i < pages.size(); i++) {
+            assertArrayEquals(expected.get(i), pages.get(i));
+          }
+
+          // the chunks read ahead were read, so they are given back to the budget
+          assertEquals(0, budget.getReservedBytes());
+          assertEquals(0, chunkAllocator.getAllocatedMemory());
+        }
+      } finally {
+        codecFactory.release();
+      }
+    }
+  }
+
+  @Test
+  public void testReadAheadBudgetShared() throws Exception {
+    final FileSystem fs = new AsyncFileSystem(HadoopFileSystem.getLocal(CONF));
+    final Path path = writeRowGroups();
+    final List<BlockMetaData> blocks = new ArrayList<>(readFooter(fs, path).getBlocks());
+    // the larger row group first, so that none of the chunks of the other one fit in what it leaves of the budget
+    blocks.sort(Comparator.comparingLong(TestVectoredReadStreamProvider::totalSize).reversed());
+    final BlockMetaData first = blocks.get(0);
+    final BlockMetaData second = blocks.get(1);
+
+    try (BufferAllocator chunkAllocator = allocatorRule.newAllocator("test-read-ahead-chunks", 0, Long.MAX_VALUE);
+         BufferAllocator pageAllocator = allocatorRule.newAllocator("test-read-ahead-pages", 0, Long.MAX_VALUE)) {
+      final OperatorContext context = newContext(chunkAllocator);
+      final CompressionCodecFactory codecFactory = newCodecFactory(pageAllocator);
+      // each split could read ahead its row group on its own, but not both at once
+      final ReadAheadBudget budget = new ReadAheadBudget(totalSize(first));
+
+      try (VectoredReadStreamProvider firstSplit = newProvider(fs, path, context, Long.MAX_VALUE);
+           VectoredReadStreamProvider secondSplit = newProvider(fs, path, context, Long.MAX_VALUE)) {
+        firstSplit.readAhead(first.getColumns(), budget);
+        secondSplit.readAhead(second.getColumns(), budget);
+        assertEquals(totalSize(first), budget.getReservedBytes());
+        assertEquals(0, secondSplit.getBufferedBytes());
+        verify(context.getStats(), times(1)).addLongStat(ScanOperator.Metric.NUM_READ_AHEAD_SPLITS, 1);
+
+        // the budget is given back once the chunks of the first split are read
+        readPages(firstSplit, first, codecFactory, pageAllocator);
+        assertEquals(0, budget.getReservedBytes());
+        secondSplit.readAhead(second.getColumns(), budget);
+        assertEquals(totalSize(second), budget.getReservedBytes());
+        verify(context.getStats(), times(2)).addLongStat(ScanOperator.Metric.NUM_READ_AHEAD_SPLITS, 1);
+
+        readPages(secondSplit, second, codecFactory, pageAllocator);
+        assertEquals(0, budget.getReservedBytes());
+      } finally {
+        codecFactory.release();
+      }
+      assertEquals(0, chunkAllocator.getAllocatedMemory());
+    }
+  }
+
+  private Path writeRowGroups() throws IOException {
+    final File file = new File(folder.getRoot(), "row_groups.parquet");
+    final SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+    try (ParquetWriter<Group> writer =
+           ExampleParquetWriter.builder(new org.apache.hadoop.fs.Path(file.toURI()))
+             .withConf(CONF)
+             .withType(SCHEMA)
+             .withDictionaryEncoding(false)
+             .withRowGroupSize(64 * 1024)
+             .withPageRowCountLimit(1_000)
+             .build()) {
+      for (int i = 0; i < 50_000; i++) {
+        writer.write(groups.newGroup().append("id", i).append("name", "name-" + i));
+      }
+    }
+    return Path.of(file.toURI());
+  }
+
+  private static ParquetMetadata readFooter(FileSystem fs, Path path) throws IOException {
+    final ParquetMetadata footer = SingletonParquetFooterCache.readFooter(fs, path,
+      ParquetMetadataConverter.NO_FILTER, MAX_FOOTER_LEN);
+    assertTrue(footer.getBlocks().size() > 1);
+    return footer;
+  }
+
+  private static long totalSize(BlockMetaData block) {
+    return block.getColumns().stream().mapToLong(ColumnChunkMetaData::getTotalSize).sum();
+  }
+
+  private static OperatorContext newContext(BufferAllocator allocator) {
+    final OperatorContext context = mock(OperatorContext.class);
+    final OperatorStats stats = mock(OperatorStats.class);
+    when(context.getAllocator()).thenReturn(allocator);
+    when(context.getStats()).thenReturn(stats);
+    return context;
+  }
+
+  private static CompressionCodecFactory newCodecFactory(BufferAllocator allocator) {
+    return CodecFactory.createDirectCodecFactory(CONF, new ParquetDirectByteBufferAllocator(allocator), 0);
+  }
+
+  private static VectoredReadStreamProvider newProvider(FileSystem fs, Path path, OperatorContext context,
+                                                        long maxBufferBytes) throws IOException {
+    return new VectoredReadStreamProvider(fs, path, fs.getFileAttributes(path).size(), -1, null, MAX_FOOTER_LEN, null,
+      context, false, null, null, 0, maxBufferBytes);
+  }
+
+  /**
+   * Reads all the pages of the row group, and returns the bytes of its data pages.
+   */
+  private static List<byte[]> readPages(InputStreamProvider provider, BlockMetaData block,
+                                        CompressionCodecFactory codecFactory, BufferAllocator allocator)
+    throws IOException {
+    final List<byte[]> pages = new ArrayList<>();
+    final ColumnChunkIncReadStore readStore = new ColumnChunkIncReadStore(block.getRowCount(), codecFactory,
+      allocator, provider.getStreamPath(), provider);
+    try {
+      for (ColumnChunkMetaData chunk : block.getColumns()) {
+        final ColumnDescriptor descriptor = SCHEMA.getColumnDescription(chunk.getPath().toArray());
+        readStore.addColumn(descriptor, chunk);
+        final PageReader pageReader = readStore.getPageReader(descriptor);
+        DataPage page;
+        while ((page = pageReader.readPage()) != null) {
+          // copied, as the buffer of the page is released when reading the next one
+          pages.add(((DataPageV1) page).getBytes().toByteArray());
+        }
+      }
+    } finally {
+      readStore.close();
+    }
+    return pages;
+  }
+
+  /**
+   * Local file system with async reads, which are served from a thread of the common pool.
+   */
+  private static final class AsyncFileSystem extends FilterFileSystem {
+    private AsyncFileSystem(FileSystem fs) {
+      super(fs);
+    }
+
+    @Override
+    public boolean supportsAsync() {
+      return true;
+    }
+
+    @Override
+    public AsyncByteReader getAsyncByteReader(AsyncByteReader.FileKey fileKey, Map<String, String> options) {
+      return (offset, dst, dstOffset, len) -> CompletableFuture.runAsync(() -> {
+        try (FSInputStream in = open(fileKey.getPath())) {
+          final ByteBuffer buffer = dst.nioBuffer(dstOffset, len);
+          while (buffer.hasRemaining()) {
+            if (in.read(offset + buffer.position(), buffer) < 0) {
+              throw new EOFException();
+            }
+          }
+        } catch (IOException e) {
+          throw new CompletionException(e);
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testCoalesce() {
+    final List<Range> ranges = VectoredReadStreamProvider.coalesce(Arrays.asList(
+      new Range(1000, 100),
+      new Range(0, 100),
+      new Range(110, 50),
+      new Range(5000, 10)), 10, Integer.MAX_VALUE);
+
+    assertEquals(3, ranges.size());
+    assertRange(0, 160, 2, ranges.get(0));
+    assertRange(1000, 100, 1, ranges.get(1));
+    assertRange(5000, 10, 1, ranges.get(2));
+    assertEquals(110, ranges.get(0).getChunks().get(1).getStart());
+  }
+
+  @Test
+  public void testCoalesceMaxLength() {
+    final List<Range> ranges = VectoredReadStreamProvider.coalesce(Arrays.asList(
+      new Range(0, 100),
+      new Range(100, 100),
+      new Range(200, 100)), 0, 250);
+
+    assertEquals(2, ranges.size());
+    assertRange(0, 200, 2, ranges.get(0));
+    assertRange(200, 100, 1, ranges.get(1));
+  }
+
+  private static void assertRange(long start, long length, int chunks, Range range) {
+    assertEquals(start, range.getStart());
+    assertEquals(length, range.getLength());
+    assertEquals(chunks, range.getChunks().size());
+  }
+}
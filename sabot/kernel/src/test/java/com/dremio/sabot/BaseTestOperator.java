@@ -675,8 +675,8 @@ public class BaseTestOperator extends ExecTest {
     validateSingle(pop, clazz, generator, validator, batchSize, expectedCount);
   }
 
-  protected <T extends SingleInputOperator> void validateSingle(PhysicalOperator pop, Class<T> clazz, Generator.Creator input, RecordBatchValidator validator) throws Exception {
-    validateSingle(pop, clazz, input.toGenerator(getTestAllocator()), validator, DEFAULT_BATCH);
+  protected <T extends SingleInputOperator> OperatorStats validateSingle(PhysicalOperator pop, Class<T> clazz, Generator.Creator input, RecordBatchValidator validator) throws Exception {
+    return validateSingle(pop, clazz, input.toGenerator(getTestAllocator()), validator, DEFAULT_BATCH);
   }
 
   protected <T extends SingleInputOperator> OperatorStats validateSingle(PhysicalOperator pop, Class<T> clazz, Generator.Creator input, RecordBatchValidator validator, int batchSize) throws Exception {
@@ -755,9 +755,10 @@ public class BaseTestOperator extends ExecTest {
    * @param batchSize The target record batch size.
    * @param result The expected result.
    * @param isProduceRequired whether CAN_PRODUCE state should be called or not
+   * @return The stats of the operator.
    * @throws Exception
    */
-  protected <T extends DualInputOperator> void validateDual(
+  protected <T extends DualInputOperator> OperatorStats validateDual(
       PhysicalOperator pop,
       Class<T> clazz,
       Generator left,
@@ -767,13 +768,16 @@ public class BaseTestOperator extends ExecTest {
       boolean isProduceRequired) throws Exception {
 
     final List<RecordBatchData> data = new ArrayList<>();
+    OperatorStats stats;
     try(
         Generator leftGen = left;
         Generator rightGen = right;
         ){
 
       // op is added to closeable list and will be closed when test finished. no need to close here.
-      T op = newOperator(clazz, pop, batchSize);
+      Pair<T, OperatorStats> pair = newOperatorWithStats(clazz, pop, batchSize);
+      T op = pair.first;
+      stats = pair.second;
 
       final VectorAccessible output = op.setup(leftGen.getOutput(), right.getOutput());
 
@@ -819,6 +823,8 @@ public class BaseTestOperator extends ExecTest {
     } finally {
       AutoCloseables.close(data);
     }
+
+    return stats;
   }
 
   /**
@@ -830,9 +836,10 @@ public class BaseTestOperator extends ExecTest {
    * @param right The generator to provide the right input.
    * @param batchSize The target record batch size.
    * @param result The expected result.
+   * @return The stats of the operator.
    * @throws Exception
    */
-  protected <T extends DualInputOperator> void validateDual(
+  protected <T extends DualInputOperator> OperatorStats validateDual(
     PhysicalOperator pop,
     Class<T> clazz,
     Generator left,
@@ -840,7 +847,7 @@ public class BaseTestOperator extends ExecTest {
     int batchSize,
     Table result) throws Exception {
 
-    validateDual(pop, clazz, left, right, batchSize, result, true);
+    return validateDual(pop, clazz, left, right, batchSize, result, true);
   }
 
     public static void assertState(Operator operator, MasterState state){
@@ -19,6 +19,7 @@ import static com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType.FUNCTI
 import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -44,7 +45,9 @@ import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Fixtures.Table;
 import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.aggregate.hash.HashAggOperator;
+import com.dremio.sabot.op.aggregate.vectorized.HashAggStats;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
 import com.dremio.sabot.op.aggregate.vectorized.nospill.VectorizedHashAggOperatorNoSpill;
 import com.dremio.test.UserExceptionAssert;
@@ -947,4 +950,38 @@ public class TestHashAgg extends BaseTestOperator {
       .hasErrorType(FUNCTION)
       .hasMessageContaining("low-cardinality aggregations");
   }
+
+  @Test
+  public void preAggBypass() throws Exception {
+    // first 8 keys are unique (no reduction), followed by a single repeated key
+    final Table inputData = t(
+      th("x", "y"),
+      tr(1, 1), tr(2, 2), tr(3, 3), tr(4, 4),
+      tr(5, 5), tr(6, 6), tr(7, 7), tr(8, 8),
+      tr(9, 9), tr(10, 10), tr(100, 1), tr(100, 1),
+      tr(100, 1), tr(100, 1), tr(100, 1), tr(100, 1),
+      tr(100, 1), tr(100, 1), tr(100, 1), tr(100, 1)
+    );
+
+    final Table expected = t(
+      th("x", "sum", "cnt"),
+      tr(1, 1L, 1L), tr(2, 2L, 1L), tr(3, 3L, 1L), tr(4, 4L, 1L), tr(5, 5L, 1L),
+      tr(6, 6L, 1L), tr(7, 7L, 1L), tr(8, 8L, 1L), tr(9, 9L, 1L), tr(10, 10L, 1L),
+      tr(100, 10L, 10L))
+      .orderInsensitive();
+
+    final HashAggregate conf = new HashAggregate(OpProps.prototype(), null,
+      Arrays.asList(n("x")),
+      Arrays.asList(n("sum(y)", "sum"), n("count(y)", "cnt")),
+      true, true, 1f, 3968, true);
+
+    try (AutoCloseable options1 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_USE_SPILLING_OPERATOR, true);
+         AutoCloseable options2 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PREAGG_BYPASS, true);
+         AutoCloseable options3 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PREAGG_BYPASS_WINDOW, 4)) {
+      // windows of 4 records: the first two windows are flushed, the third one reduces enough to resume aggregation
+      final OperatorStats stats = validateSingle(conf, VectorizedHashAggOperator.class, inputData.toGenerator(allocator), expected, 2);
+      assertEquals(2, stats.getLongStat(HashAggStats.Metric.PREAGG_BYPASS_FLUSHES));
+      assertEquals(8, stats.getLongStat(HashAggStats.Metric.PREAGG_BYPASS_RECORDS));
+    }
+  }
 }
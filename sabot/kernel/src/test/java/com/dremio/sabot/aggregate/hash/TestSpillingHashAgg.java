@@ -24,6 +24,7 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.arrow.memory.BufferAllocator;
@@ -53,11 +54,14 @@ import com.dremio.sabot.CustomHashAggDataGeneratorDecimal;
 import com.dremio.sabot.CustomHashAggDataGeneratorLargeAccum;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.aggregate.vectorized.HashAggStats;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggSpillStats;
 import com.dremio.sabot.op.common.ht2.FieldVectorPair;
 import com.dremio.sabot.op.common.ht2.PivotBuilder;
 import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillCodec;
 import com.dremio.test.AllocatorRule;
 import com.dremio.test.UserExceptionAssert;
 
@@ -385,6 +389,31 @@ public class TestSpillingHashAgg extends BaseTestOperator {
     }
   }
 
+  /**
+   * Test spill of 3K rows with compressed spill files, once for each codec
+   * @throws Exception
+   */
+  @Test
+  public void testSpill3KCompressed() throws Exception {
+    final HashAggregate agg = getHashAggregate(1_000_000, 4_000_000, 990);
+    for (SpillCodec codec : SpillCodec.values()) {
+      try (AutoCloseable useSpillingAgg = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_USE_SPILLING_OPERATOR, true);
+           AutoCloseable maxHashTableBatchSizeBytes = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_MAX_BATCHSIZE_BYTES, 128 * 1024);
+           AutoCloseable compressSpill = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_COMPRESS_SPILL, true);
+           AutoCloseable spillCodec = with(ExecConstants.SPILL_COMPRESSION_CODEC, codec.name().toLowerCase(Locale.ROOT));
+           CustomHashAggDataGenerator generator = new CustomHashAggDataGenerator(3000, getTestAllocator(), true);
+           AutoCloseable options = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_MINIMIZE_DISTINCT_SPILLED_PARTITIONS, false)) {
+        Fixtures.Table table = generator.getExpectedGroupsAndAggregations();
+        final OperatorStats operatorStats = validateSingle(agg, VectorizedHashAggOperator.class, generator, table, 3000);
+        final VectorizedHashAggSpillStats stats = agg.getSpillStats();
+        assertTrue(codec + " spills", stats.getSpills() > 0);
+        assertTrue(codec + " bytes written", operatorStats.getLongStat(HashAggStats.Metric.SPILL_IO_BYTES_WRITTEN) > 0);
+        assertTrue(codec + " compression time", operatorStats.getLongStat(HashAggStats.Metric.SPILL_COMPRESSION_NANOS) > 0);
+        assertTrue(codec + " decompression time", operatorStats.getLongStat(HashAggStats.Metric.SPILL_DECOMPRESSION_NANOS) > 0);
+      }
+    }
+  }
+
   @Test
   public void testSpill3KWithLargeAccum() throws Exception {
     final int numAccum = 128;
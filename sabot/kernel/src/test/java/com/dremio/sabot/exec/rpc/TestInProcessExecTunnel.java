@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.record.ArrowRecordBatchLoader;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.sabot.exec.FragmentExecutors;
+import com.dremio.sabot.op.receiver.RawFragmentBatch;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+
+/**
+ * Tests the memory accounting of the batches handed over by {@link InProcessExecTunnel} without copying them.
+ */
+public class TestInProcessExecTunnel extends DremioTest {
+  private static final int RECORD_COUNT = 1000;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator senderAllocator;
+  private final List<BufferAllocator> receiverAllocators = new ArrayList<>();
+  // batches received by each minor fragment, as enqueued by the receivers
+  private final Map<Integer, RawFragmentBatch> receivedBatches = new HashMap<>();
+  private FragmentExecutors fragmentExecutors;
+
+  @Before
+  public void setUp() throws Exception {
+    senderAllocator = allocatorRule.newAllocator("test-in-process-exec-tunnel-sender", 0, Long.MAX_VALUE);
+    fragmentExecutors = mock(FragmentExecutors.class);
+    doAnswer(invocation -> {
+      final FragmentHandle handle = invocation.getArgument(0);
+      final IncomingDataBatch batch = invocation.getArgument(1);
+      // same as IncomingBuffers, the batch is closed once the receiver has enqueued it
+      try (RawFragmentBatch rawFragmentBatch =
+             batch.newRawFragmentBatch(receiverAllocators.get(handle.getMinorFragmentId()))) {
+        receivedBatches.put(handle.getMinorFragmentId(), rawFragmentBatch);
+      }
+      return null;
+    }).when(fragmentExecutors).handle(any(FragmentHandle.class), any(IncomingDataBatch.class));
+  }
+
+  @After
+  public void tearDown() {
+    for (BufferAllocator allocator : receiverAllocators) {
+      allocator.close();
+    }
+    senderAllocator.close();
+  }
+
+  @Test
+  public void transferToReceiver() throws Exception {
+    addReceivers(1);
+    final BatchSchema schema;
+    final long batchMemory;
+    final FragmentWritableBatch batch;
+    try (VectorContainer container = newContainer(senderAllocator)) {
+      schema = container.getSchema();
+      batch = FragmentWritableBatch.create(QueryId.getDefaultInstance(), 1, 0, 2, container, 0);
+      container.zeroVectors();
+      batchMemory = senderAllocator.getAllocatedMemory();
+    }
+
+    final RpcOutcomeListener<Ack> listener = send(batch);
+
+    // the receiver owns the memory of the vectors of the sender
+    assertEquals(0, senderAllocator.getAllocatedMemory());
+    assertEquals(batchMemory, receiverAllocators.get(0).getAllocatedMemory());
+
+    verify(listener, never()).success(any(), any());
+    consume(0, schema);
+    verify(listener, times(1)).success(any(), any());
+    assertEquals(0, receiverAllocators.get(0).getAllocatedMemory());
+  }
+
+  @Test
+  public void shareBetweenReceivers() throws Exception {
+    addReceivers(3);
+    final BatchSchema schema;
+    final long batchMemory;
+    final FragmentWritableBatch batch;
+    try (VectorContainer container = newContainer(senderAllocator)) {
+      schema = container.getSchema();
+      batch = new FragmentWritableBatch(QueryId.getDefaultInstance(), 1, 0, 2,
+        FragmentWritableBatch.getArrowRecordBatch(container), 0, 1, 2);
+      container.zeroVectors();
+      batchMemory = senderAllocator.getAllocatedMemory();
+    }
+
+    final RpcOutcomeListener<Ack> listener = send(batch);
+
+    // the memory is accounted once, to one of the receivers
+    assertEquals(0, senderAllocator.getAllocatedMemory());
+    assertEquals(batchMemory, getReceiversMemory());
+    int owners = 0;
+    for (BufferAllocator allocator : receiverAllocators) {
+      if (allocator.getAllocatedMemory() != 0) {
+        assertEquals(batchMemory, allocator.getAllocatedMemory());
+        owners++;
+      }
+    }
+    assertEquals(1, owners);
+
+    // the memory moves to the receivers still holding the buffers as the others release them
+    for (int i = 0; i < receiverAllocators.size(); i++) {
+      verify(listener, never()).success(any(), any());
+      consume(i, schema);
+      assertEquals(0, senderAllocator.getAllocatedMemory());
+      assertEquals(i == receiverAllocators.size() - 1 ? 0 : batchMemory, getReceiversMemory());
+    }
+    verify(listener, times(1)).success(any(), any());
+  }
+
+  private void addReceivers(int count) {
+    for (int i = 0; i < count; i++) {
+      receiverAllocators.add(allocatorRule.newAllocator("test-in-process-exec-tunnel-receiver-" + i, 0, Long.MAX_VALUE));
+    }
+  }
+
+  private long getReceiversMemory() {
+    long memory = 0;
+    for (BufferAllocator allocator : receiverAllocators) {
+      memory += allocator.getAllocatedMemory();
+    }
+    return memory;
+  }
+
+  @SuppressWarnings("unchecked")
+  private RpcOutcomeListener<Ack> send(FragmentWritableBatch batch) throws Exception {
+    final RpcOutcomeListener<Ack> listener = mock(RpcOutcomeListener.class);
+    new InProcessExecTunnel(fragmentExecutors, senderAllocator, true).sendRecordBatch(listener, batch);
+    verify(listener, never()).failed(any());
+    verify(fragmentExecutors, times(receiverAllocators.size()))
+      .handle(any(FragmentHandle.class), any(IncomingDataBatch.class));
+    for (int i = 0; i < receiverAllocators.size(); i++) {
+      verify(fragmentExecutors).handle(eq(FragmentHandle.newBuilder()
+        .setQueryId(QueryId.getDefaultInstance())
+        .setMajorFragmentId(2)
+        .setMinorFragmentId(i)
+        .build()), any(IncomingDataBatch.class));
+    }
+    return listener;
+  }
+
+  /**
+   * Loads the batch received by a minor fragment, checks its content and releases it.
+   */
+  private void consume(int minorFragmentId, BatchSchema schema) {
+    final RawFragmentBatch rawFragmentBatch = receivedBatches.remove(minorFragmentId);
+    assertNotNull(rawFragmentBatch);
+    final BufferAllocator allocator = receiverAllocators.get(minorFragmentId);
+    try (ArrowRecordBatchLoader loader = new ArrowRecordBatchLoader(allocator, schema)) {
+      loader.load(rawFragmentBatch);
+      rawFragmentBatch.sendOk();
+      rawFragmentBatch.close();
+
+      assertEquals(RECORD_COUNT, loader.getRecordCount());
+      final IntVector ints = loader.getValueAccessorById(IntVector.class, 0).getValueVector();
+      final VarCharVector strings = loader.getValueAccessorById(VarCharVector.class, 1).getValueVector();
+      for (int i = 0; i < RECORD_COUNT; i++) {
+        assertEquals(i, ints.get(i));
+        assertEquals("value-" + i, new String(strings.get(i), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  private static VectorContainer newContainer(BufferAllocator allocator) {
+    final VectorContainer container = new VectorContainer(allocator);
+    final IntVector ints = container.addOrGet(Field.nullable("a", new ArrowType.Int(32, true)));
+    final VarCharVector strings = container.addOrGet(Field.nullable("b", ArrowType.Utf8.INSTANCE));
+    container.buildSchema();
+    ints.allocateNew(RECORD_COUNT);
+    strings.allocateNew(RECORD_COUNT * 10, RECORD_COUNT);
+    for (int i = 0; i < RECORD_COUNT; i++) {
+      ints.set(i, i);
+      strings.setSafe(i, ("value-" + i).getBytes(StandardCharsets.UTF_8));
+    }
+    container.setAllCount(RECORD_COUNT);
+    return container;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.join.hash;
+
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.calcite.rel.core.JoinRelType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.options.OptionValue;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.join.hash.HashJoinOperator;
+import com.dremio.sabot.op.join.vhash.HashJoinStats;
+import com.dremio.sabot.op.join.vhash.spill.VectorizedSpillingHashJoinOperator;
+
+// Test join with build, spill & replay, with the build files of the next partition read ahead during replay.
+public class TestVHashJoinSpillReplayReadAhead extends TestVHashJoinSpill {
+  private final OptionManager options = testContext.getOptions();
+  private final int minReserve = VectorizedSpillingHashJoinOperator.MIN_RESERVE;
+
+  @Override
+  @Before
+  public void before() {
+    options.setOption(OptionValue.createBoolean(OptionValue.OptionType.SYSTEM, HashJoinOperator.ENABLE_SPILL.getOptionName(), true));
+    options.setOption(OptionValue.createLong(OptionValue.OptionType.SYSTEM, ExecConstants.TARGET_BATCH_RECORDS_MAX.getOptionName(), 65535));
+    options.setOption(OptionValue.createString(OptionValue.OptionType.SYSTEM, HashJoinOperator.TEST_SPILL_MODE.getOptionName(), "buildAndReplay"));
+    options.setOption(OptionValue.createLong(OptionValue.OptionType.SYSTEM, HashJoinOperator.NUM_PARTITIONS.getOptionName(), 4));
+    options.setOption(OptionValue.createBoolean(OptionValue.OptionType.SYSTEM, HashJoinOperator.REPLAY_READ_AHEAD.getOptionName(), true));
+    VectorizedSpillingHashJoinOperator.MIN_RESERVE = 7 * 1024 * 1024;
+  }
+
+  @Override
+  @After
+  public void after() {
+    options.setOption(HashJoinOperator.ENABLE_SPILL.getDefault());
+    options.setOption(ExecConstants.TARGET_BATCH_RECORDS_MAX.getDefault());
+    options.setOption(HashJoinOperator.TEST_SPILL_MODE.getDefault());
+    options.setOption(HashJoinOperator.NUM_PARTITIONS.getDefault());
+    options.setOption(HashJoinOperator.REPLAY_READ_AHEAD.getDefault());
+    VectorizedSpillingHashJoinOperator.MIN_RESERVE = minReserve;
+  }
+
+  @Test
+  public void readsBuildFilesAhead() throws Exception {
+    JoinInfo joinInfo = getJoinInfo(Arrays.asList(new JoinCondition("EQUALS", f("a"), f("b"))), JoinRelType.INNER);
+
+    final int numRows = 20_000;
+    final DataRow[] leftRows = new DataRow[numRows];
+    final DataRow[] rightRows = new DataRow[numRows];
+    final DataRow[] expectedRows = new DataRow[numRows];
+    for (int i = 0; i < numRows; i++) {
+      leftRows[i] = tr((long) i);
+      rightRows[i] = tr((long) i);
+      expectedRows[i] = tr((long) i, (long) i);
+    }
+
+    final Table left = t(th("a"), leftRows);
+    final Table right = t(th("b"), rightRows);
+    final Table expected = t(th("b", "a"), expectedRows).orderInsensitive();
+
+    OperatorStats stats = validateDual(
+      joinInfo.operator, joinInfo.clazz,
+      left.toGenerator(getTestAllocator()),
+      right.toGenerator(getTestAllocator()),
+      DEFAULT_BATCH, expected);
+
+    // every partition is spilled and replayed, the build files of the next one are read while one is replayed
+    assertTrue(stats.getLongStat(HashJoinStats.Metric.SPILL_REPLAY_COUNT) > 1);
+    assertTrue(stats.getLongStat(HashJoinStats.Metric.SPILL_RD_AHEAD_BYTES) > 0);
+  }
+}
@@ -1042,6 +1042,31 @@ public class VectorizedHashJoinOperatorTest {
         joinOp.close();
     }
 
+    @Test
+    public void testBloomFilterSizeFromNdvEstimate() {
+      RuntimeFilterProbeTarget target = new RuntimeFilterProbeTarget.Builder(1, 101)
+        .addPartitionKey("col1_build", "col1_probe").build();
+      RuntimeFilterInfo shuffleInfo = new RuntimeFilterInfo.Builder().isBroadcastJoin(false)
+        .setRuntimeFilterProbeTargets(ImmutableList.of(target))
+        .setBuildKeyNdvEstimate(100)
+        .build();
+      RuntimeFilterInfo broadcastInfo = new RuntimeFilterInfo.Builder().isBroadcastJoin(true)
+        .setRuntimeFilterProbeTargets(ImmutableList.of(target))
+        .setBuildKeyNdvEstimate(100)
+        .build();
+      OperatorContext opCtx = mockOpContext(FragmentHandle.newBuilder().setMinorFragmentId(1).build());
+
+      // Shuffle join pieces keep the max size unless ndv sizing is enabled.
+      assertEquals(PartitionColFilters.BLOOMFILTER_MAX_SIZE, RuntimeFilterUtil.getBloomFilterSize(opCtx, shuffleInfo, 10));
+      when(opCtx.getOptions().getOption(eq(ExecConstants.RUNTIME_FILTER_NDV_SIZING))).thenReturn(true);
+      assertEquals(BloomFilter.getOptimalSize(200), RuntimeFilterUtil.getBloomFilterSize(opCtx, shuffleInfo, 10));
+
+      // Broadcast joins prefer the local key count, and fall back to the estimate if it isn't known yet.
+      assertEquals(BloomFilter.getOptimalSize(10), RuntimeFilterUtil.getBloomFilterSize(opCtx, broadcastInfo, 10));
+      assertEquals(BloomFilter.getOptimalSize(1), RuntimeFilterUtil.getBloomFilterSize(opCtx, broadcastInfo, 0));
+      assertEquals(BloomFilter.getOptimalSize(200), RuntimeFilterUtil.getBloomFilterSize(opCtx, broadcastInfo, -1));
+    }
+
     private OutOfBandMessage runtimeFilterOOBFromMinorFragment(int sendingMinorFragment, ArrowBuf buf, String... col) {
         List<Integer> allFragments = Lists.newArrayList(1,2,3,4);
         allFragments.removeIf(val -> val == sendingMinorFragment);
@@ -18,6 +18,7 @@ package com.dremio.sabot.op.join.vhash.spill.partition.io;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -40,6 +41,7 @@ import org.mockito.stubbing.Answer;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.expression.BasePath;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.ExecTest;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.RecordBatchData;
@@ -47,6 +49,7 @@ import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.options.OptionManager;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Generator;
 import com.dremio.sabot.op.common.ht2.FieldVectorPair;
@@ -79,6 +82,7 @@ import io.netty.util.internal.PlatformDependent;
  */
 public class TestSpillSerDe extends ExecTest {
   private static SpillManager spillManager;
+  private static SpillManager zstdSpillManager;
 
   @BeforeClass
   public static void setup() throws Exception {
@@ -99,11 +103,16 @@ public class TestSpillSerDe extends ExecTest {
       }
     }).when(spillService).getSpillSubdir(any(String.class));
     spillManager = new SpillManager(ImmutableList.of(path.getName()), null, "test", spillService, "testSpill", null);
+
+    OptionManager zstdOptions = mock(OptionManager.class);
+    when(zstdOptions.getOption(ExecConstants.SPILL_COMPRESSION_CODEC)).thenReturn("zstd");
+    when(zstdOptions.getOption(ExecConstants.SPILL_COMPRESSION_ZSTD_LEVEL)).thenReturn(3L);
+    zstdSpillManager = new SpillManager(ImmutableList.of(path.getName()), zstdOptions, "testZstd", spillService, "testSpill", null);
   }
 
   @AfterClass
   public static void teardown() throws Exception {
-    AutoCloseables.close(spillManager);
+    AutoCloseables.close(spillManager, zstdSpillManager);
   }
 
   @Test
@@ -136,12 +145,21 @@ public class TestSpillSerDe extends ExecTest {
     check(GenerationDefinition.TpchTable.CUSTOMER, 0.1, 64_000, 4095, 1, "c_custkey");
   }
 
+  @Test
+  public void manyBatchesZstd() throws Exception {
+    check(zstdSpillManager, GenerationDefinition.TpchTable.CUSTOMER, 0.1, 64_000, 4095, 3);
+  }
+
   private void check(GenerationDefinition.TpchTable table, double scale, int pageSize, int batchSize, int numPivotColumns, String... columns) throws Exception {
+    check(spillManager, table, scale, pageSize, batchSize, numPivotColumns, columns);
+  }
+
+  private void check(SpillManager manager, GenerationDefinition.TpchTable table, double scale, int pageSize, int batchSize, int numPivotColumns, String... columns) throws Exception {
     Fixtures.Table expected = TpchGenerator.singleGenerator(table, scale, getAllocator(), columns).toTable(batchSize);
-    check(expected, pageSize, batchSize, numPivotColumns, TpchGenerator.singleGenerator(table, scale, allocator, columns));
+    check(manager, expected, pageSize, batchSize, numPivotColumns, TpchGenerator.singleGenerator(table, scale, allocator, columns));
   }
 
-  private void check(Fixtures.Table expected, int pageSize, int batchSize, int numPivotColumns, Generator generator) throws Exception {
+  private void check(SpillManager manager, Fixtures.Table expected, int pageSize, int batchSize, int numPivotColumns, Generator generator) throws Exception {
     final String fileName = "batches";
 
     try (AutoCloseables.RollbackCloseable rc = new AutoCloseables.RollbackCloseable(true)) {
@@ -163,7 +181,7 @@ public class TestSpillSerDe extends ExecTest {
       final PagePool pool = rc.add(new PagePool(getAllocator(), pageSize, 0));
 
       // stream data to spill file
-      SpillManager.SpillFile spillFile = streamToOutput(fileName, generator, batchSize, pivotDef,  unpivotedBitSet, pool);
+      SpillManager.SpillFile spillFile = streamToOutput(manager, fileName, generator, batchSize, pivotDef,  unpivotedBitSet, pool);
 
       // read back from the spill file
       List<SpillChunk> chunks = readAllFromInput(spillFile, generator.getOutput(), pivotDef, unpivotedBitSet, pool);
@@ -204,13 +222,13 @@ public class TestSpillSerDe extends ExecTest {
     }
   }
 
-  private SpillManager.SpillFile streamToOutput(String fileName, Generator generator, int batchSize, PivotDef pivotDef, ImmutableBitSet unpivotedColumns,
+  private SpillManager.SpillFile streamToOutput(SpillManager manager, String fileName, Generator generator, int batchSize, PivotDef pivotDef, ImmutableBitSet unpivotedColumns,
                                                 PagePool pool) throws Exception {
     try (ArrowBuf sv2Buf = getFilledSV2(getAllocator(), batchSize);
          FixedBlockVector pivotedFixed = new FixedBlockVector(getAllocator(), pivotDef.getBlockWidth());
          VariableBlockVector pivotedVariable = new VariableBlockVector(getAllocator(), pivotDef.getVariableCount())) {
 
-      try (SpillWriter writer = new SpillWriter(spillManager, new SpillSerializableImpl(), fileName, pool, sv2Buf,
+      try (SpillWriter writer = new SpillWriter(manager, new SpillSerializableImpl(), fileName, pool, sv2Buf,
            generator.getOutput(), unpivotedColumns, pivotedFixed, pivotedVariable)) {
         int records;
         while ((records = generator.next(batchSize)) != 0) {
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.receiver.merging;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link LoserTree}
+ */
+public class TestLoserTree {
+
+  /**
+   * Sorted inputs merged through the tree, an exhausted input is modeled as MAX_VALUE.
+   */
+  private static class Inputs implements LoserTree.Match {
+    private final int[][] values;
+    private final int[] positions;
+
+    Inputs(int[][] values) {
+      this.values = values;
+      this.positions = new int[values.length];
+    }
+
+    int current(int input) {
+      return positions[input] < values[input].length ? values[input][positions[input]] : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean beats(int left, int right) {
+      final int cmp = Integer.compare(current(left), current(right));
+      return cmp < 0 || (cmp == 0 && left < right);
+    }
+  }
+
+  private static int[] merge(int[][] values) {
+    final Inputs inputs = new Inputs(values);
+    final LoserTree tree = new LoserTree(values.length, inputs);
+    final int total = Arrays.stream(values).mapToInt(v -> v.length).sum();
+    final int[] out = new int[total];
+
+    tree.build();
+    for (int i = 0; i < total; i++) {
+      final int winner = tree.winner();
+      out[i] = inputs.current(winner);
+
+      // the runner up is the winner of the remaining inputs.
+      final int runnerUp = tree.runnerUp();
+      int expected = -1;
+      for (int j = 0; j < values.length; j++) {
+        if (j != winner && (expected < 0 || inputs.beats(j, expected))) {
+          expected = j;
+        }
+      }
+      assertEquals(expected, runnerUp);
+
+      inputs.positions[winner]++;
+      tree.replay();
+    }
+    return out;
+  }
+
+  @Test
+  public void mergeSortedInputs() {
+    final Random random = new Random(1234);
+    for (int size : new int[] {2, 3, 5, 8, 13}) {
+      final int[][] values = new int[size][];
+      for (int i = 0; i < size; i++) {
+        values[i] = random.ints(random.nextInt(100), 0, 50).sorted().toArray();
+      }
+      final int[] expected = Arrays.stream(values).flatMapToInt(Arrays::stream).sorted().toArray();
+      assertArrayEquals(expected, merge(values));
+    }
+  }
+
+  @Test
+  public void singleInput() {
+    assertArrayEquals(new int[] {1, 2, 3}, merge(new int[][] {{1, 2, 3}}));
+  }
+
+  @Test
+  public void tiesGoToLowerInput() {
+    final Inputs inputs = new Inputs(new int[][] {{7}, {7}, {7}});
+    final LoserTree tree = new LoserTree(3, inputs);
+    tree.build();
+    assertEquals(0, tree.winner());
+    assertEquals(1, tree.runnerUp());
+  }
+}
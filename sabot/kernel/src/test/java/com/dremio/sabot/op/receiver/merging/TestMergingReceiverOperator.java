@@ -0,0 +1,304 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.receiver.merging;
+
+import static org.apache.calcite.rel.RelFieldCollation.Direction.ASCENDING;
+import static org.apache.calcite.rel.RelFieldCollation.Direction.DESCENDING;
+import static org.apache.calcite.rel.RelFieldCollation.NullDirection.FIRST;
+import static org.apache.calcite.rel.RelFieldCollation.NullDirection.LAST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.Test;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.exec.physical.config.MergingReceiverPOP;
+import com.dremio.exec.proto.CoordExecRPC.MinorFragmentIndexEndpoint;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.receiver.RawFragmentBatch;
+import com.dremio.sabot.op.receiver.RawFragmentBatchProvider;
+import com.dremio.sabot.op.receiver.merging.MergingReceiverOperator.Metric;
+import com.dremio.sabot.op.spi.ProducerOperator;
+import com.google.common.base.Strings;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Tests {@link MergingReceiverOperator} with senders whose rows come in runs of varying lengths, split across batches,
+ * with empty batches and messages that are not there yet.
+ */
+public class TestMergingReceiverOperator extends BaseTestOperator {
+  private static final Field KEY = Field.nullable("k", ArrowType.Utf8.INSTANCE);
+  private static final Field NUMBER = Field.nullable("n", new ArrowType.Int(32, true));
+  private static final Field ID = Field.nullable("id", new ArrowType.Int(32, true));
+  private static final BatchSchema SCHEMA = BatchSchema.of(KEY, NUMBER, ID);
+
+  private static final int SENDERS = 5;
+  private static final int ROWS = 20_000;
+  private static final int OUTPUT_BATCH_SIZE = 1000;
+
+  /**
+   * A row sent by a sender. The id identifies the sender and the position of the row in its stream.
+   */
+  private static final class Row {
+    private final String key;
+    private final Integer number;
+    private int id;
+
+    private Row(String key, Integer number) {
+      this.key = key;
+      this.number = number;
+    }
+
+    @Override
+    public String toString() {
+      return key + "|" + number + "|" + id;
+    }
+  }
+
+  @Test
+  public void varcharRuns() throws Exception {
+    final List<Ordering> orderings = Arrays.asList(ordering(KEY.getName(), ASCENDING, LAST));
+    final Comparator<Row> comparator = Comparator.comparing(r -> r.key);
+    for (boolean bulkCopy : new boolean[] {true, false}) {
+      try (AutoCloseable ac = with(MergingReceiverOperator.BULK_COPY, bulkCopy)) {
+        final OperatorStats stats = check(orderings, comparator, new Random(1234));
+        if (bulkCopy) {
+          // long runs are copied at once, short ones row by row.
+          assertTrue(stats.getLongStat(Metric.BULK_COPIED_RECORDS) > 0);
+          assertTrue(stats.getLongStat(Metric.BULK_COPIED_RECORDS) < ROWS);
+        } else {
+          assertEquals(0, stats.getLongStat(Metric.BULK_COPIED_RECORDS));
+        }
+        assertEquals(0, stats.getLongStat(Metric.NORMALIZED_KEY_COMPARISONS));
+      }
+    }
+  }
+
+  @Test
+  public void normalizedFirstKey() throws Exception {
+    final List<Ordering> orderings = Arrays.asList(
+      ordering(NUMBER.getName(), DESCENDING, FIRST),
+      ordering(KEY.getName(), ASCENDING, LAST));
+    final Comparator<Row> comparator = Comparator
+      .comparing((Row r) -> r.number, Comparator.nullsFirst(Comparator.<Integer>reverseOrder()))
+      .thenComparing(r -> r.key);
+    for (boolean normalizedKey : new boolean[] {true, false}) {
+      try (AutoCloseable ac = with(MergingReceiverOperator.NORMALIZED_KEY, normalizedKey)) {
+        final OperatorStats stats = check(orderings, comparator, new Random(5678));
+        final long normalizedKeyComparisons = stats.getLongStat(Metric.NORMALIZED_KEY_COMPARISONS);
+        if (normalizedKey) {
+          // nulls and ties on the first key still go through the generated comparator.
+          assertTrue(normalizedKeyComparisons > 0);
+          assertTrue(normalizedKeyComparisons < stats.getLongStat(Metric.MERGE_COMPARISONS));
+        } else {
+          assertEquals(0, normalizedKeyComparisons);
+        }
+      }
+    }
+  }
+
+  /**
+   * Merges random sorted streams and compares the output with the rows sorted by the comparator. Rows that tie come
+   * from the lowest sender first, in the order that sender sent them.
+   *
+   * @return the stats of the operator
+   */
+  private OperatorStats check(List<Ordering> orderings, Comparator<Row> comparator, Random random) throws Exception {
+    final List<Row> rows = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      final int value = random.nextInt(ROWS / 4);
+      // keys of varying lengths, many of them repeated
+      rows.add(new Row(String.format("%05d", value) + Strings.repeat("x", value % 7),
+        random.nextInt(20) == 0 ? null : value % 500));
+    }
+    rows.sort(comparator);
+
+    // deal the sorted rows to the senders, alternating phases of long runs from the same sender and of rows that
+    // change sender almost every time. The last sender only sends empty batches.
+    final List<List<Row>> senderRows = new ArrayList<>();
+    for (int i = 0; i < SENDERS; i++) {
+      senderRows.add(new ArrayList<>());
+    }
+    int sender = 0;
+    for (int i = 0; i < ROWS; i++) {
+      final double switchProbability = (i / 1000) % 2 == 0 ? 0.02 : 0.8;
+      if (random.nextDouble() < switchProbability) {
+        sender = random.nextInt(SENDERS - 1);
+      }
+      final Row row = rows.get(i);
+      row.id = sender * ROWS + senderRows.get(sender).size();
+      senderRows.get(sender).add(row);
+    }
+
+    final List<String> expected = new ArrayList<>();
+    rows.stream()
+      .sorted(comparator.thenComparing(r -> r.id))
+      .forEach(r -> expected.add(r.toString()));
+
+    final RawFragmentBatchProvider[] providers = new RawFragmentBatchProvider[SENDERS];
+    final List<MinorFragmentIndexEndpoint> senders = new ArrayList<>();
+    try {
+      for (int i = 0; i < SENDERS; i++) {
+        providers[i] = newProvider(i, senderRows.get(i), random);
+        senders.add(MinorFragmentIndexEndpoint.newBuilder().setMinorFragmentId(i).setEndpointIndex(0).build());
+      }
+
+      final MergingReceiverPOP pop = new MergingReceiverPOP(PROPS, SCHEMA, 0, senders, false, orderings);
+      final Pair<MergingReceiverOperator, OperatorStats> pair =
+        newOperatorWithStats(MergingReceiverOperator.class, pop, OUTPUT_BATCH_SIZE, providers);
+      // the operator is closed with the test.
+      final MergingReceiverOperator op = pair.first;
+      final List<String> actual = new ArrayList<>();
+      int blocked = 0;
+      final VectorAccessible output = op.setup();
+      while (op.getState() != ProducerOperator.State.DONE) {
+        final int count = op.outputData();
+        if (count == 0 && op.getState() != ProducerOperator.State.DONE) {
+          blocked++;
+        }
+        read(output, count, actual);
+      }
+
+      assertTrue(blocked > 0);
+      assertEquals(expected, actual);
+      return pair.second;
+    } finally {
+      AutoCloseables.close(Arrays.asList(providers));
+    }
+  }
+
+  private static void read(VectorAccessible output, int count, List<String> rows) {
+    final VarCharVector keys = output.getValueAccessorById(VarCharVector.class, 0).getValueVector();
+    final IntVector numbers = output.getValueAccessorById(IntVector.class, 1).getValueVector();
+    final IntVector ids = output.getValueAccessorById(IntVector.class, 2).getValueVector();
+    for (int i = 0; i < count; i++) {
+      final Row row = new Row(new String(keys.get(i), StandardCharsets.UTF_8), numbers.getObject(i));
+      row.id = ids.get(i);
+      rows.add(row.toString());
+    }
+  }
+
+  /**
+   * Splits the rows of a sender into batches of random sizes, with empty batches and messages that have not arrived
+   * yet in between.
+   */
+  private ScriptedProvider newProvider(int senderId, List<Row> rows, Random random) {
+    final ScriptedProvider provider = new ScriptedProvider();
+    int position = 0;
+    while (position < rows.size()) {
+      if (random.nextInt(6) == 0) {
+        provider.script.add(null);
+      }
+      if (random.nextInt(6) == 0) {
+        provider.script.add(newBatch(senderId, rows.subList(position, position)));
+      }
+      final int end = Math.min(rows.size(), position + 1 + random.nextInt(400));
+      provider.script.add(newBatch(senderId, rows.subList(position, end)));
+      position = end;
+    }
+    if (rows.isEmpty()) {
+      provider.script.add(newBatch(senderId, rows));
+      provider.script.add(null);
+      provider.script.add(newBatch(senderId, rows));
+    }
+    return provider;
+  }
+
+  /**
+   * Builds the batch as it would be received from the sender.
+   */
+  private RawFragmentBatch newBatch(int senderId, List<Row> rows) {
+    try (VectorContainer container = new VectorContainer(getTestAllocator())) {
+      final VarCharVector keys = container.addOrGet(KEY);
+      final IntVector numbers = container.addOrGet(NUMBER);
+      final IntVector ids = container.addOrGet(ID);
+      container.buildSchema();
+      container.allocateNew();
+      for (int i = 0; i < rows.size(); i++) {
+        final Row row = rows.get(i);
+        keys.setSafe(i, row.key.getBytes(StandardCharsets.UTF_8));
+        if (row.number != null) {
+          numbers.setSafe(i, row.number);
+        } else {
+          numbers.setNull(i);
+        }
+        ids.setSafe(i, row.id);
+      }
+      container.setAllCount(rows.size());
+
+      final FragmentWritableBatch batch = FragmentWritableBatch.create(QueryId.getDefaultInstance(), 1, senderId, 0,
+        container, 0);
+      long length = 0;
+      for (ByteBuf buf : batch.getBuffers()) {
+        length += buf.readableBytes();
+      }
+      try (ArrowBuf body = getTestAllocator().buffer(length)) {
+        long offset = 0;
+        for (ByteBuf buf : batch.getBuffers()) {
+          final int bufLength = buf.readableBytes();
+          body.setBytes(offset, buf.nioBuffer(buf.readerIndex(), bufLength));
+          offset += bufLength;
+          buf.release();
+        }
+        body.writerIndex(length);
+        return new RawFragmentBatch(batch.getHeader(), body, null);
+      }
+    }
+  }
+
+  /**
+   * Hands out the batches of a sender in order. A null entry is a message that hasn't arrived yet.
+   */
+  private static final class ScriptedProvider implements RawFragmentBatchProvider {
+    private final List<RawFragmentBatch> script = new ArrayList<>();
+    private int position;
+
+    @Override
+    public RawFragmentBatch getNext() {
+      return position < script.size() ? script.get(position++) : null;
+    }
+
+    @Override
+    public boolean isStreamDone() {
+      return position == script.size();
+    }
+
+    @Override
+    public void close() throws Exception {
+      AutoCloseables.close(script.subList(position, script.size()));
+    }
+  }
+}
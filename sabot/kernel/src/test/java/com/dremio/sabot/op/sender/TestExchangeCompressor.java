@@ -0,0 +1,337 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.record.ArrowRecordBatchLoader;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.receiver.ExchangeDecompressor;
+import com.dremio.sabot.op.receiver.RawFragmentBatch;
+import com.dremio.sabot.op.sender.broadcast.BroadcastOperator.Metric;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Tests for {@link ExchangeCompressor} and {@link com.dremio.sabot.op.receiver.ExchangeDecompressor}
+ */
+public class TestExchangeCompressor extends DremioTest {
+  // order of the buffers of the batches of the test containers
+  private static final int INT_DATA = 1;
+  private static final int VARIABLE_WIDTH_DATA = 4;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+  private OperatorStats stats;
+
+  @Before
+  public void setUp() {
+    allocator = allocatorRule.newAllocator("test-exchange-compressor", 0, Long.MAX_VALUE);
+    stats = mock(OperatorStats.class);
+  }
+
+  @After
+  public void tearDown() {
+    allocator.close();
+  }
+
+  private ExchangeCompressor newCompressor(ExchangeCompressor.Codec codec, double minRatio) {
+    return new ExchangeCompressor(allocator, codec, 1, minRatio, stats, Metric.BYTES_BEFORE_COMPRESSION,
+      Metric.BYTES_AFTER_COMPRESSION);
+  }
+
+  @Test
+  public void roundTrip() {
+    for (ExchangeCompressor.Codec codec : new ExchangeCompressor.Codec[] {ExchangeCompressor.Codec.LZ4_FRAME,
+      ExchangeCompressor.Codec.ZSTD}) {
+      try (VectorContainer container = newContainer(4096, i -> i % 10, i -> "value-" + (i % 3))) {
+        final ArrowRecordBatch batch = FragmentWritableBatch.getArrowRecordBatch(container);
+        final long uncompressedSize = bodyLength(batch);
+        final ArrowRecordBatch compressed = newCompressor(codec, 1.2).compress(batch);
+        assertNotSame(batch, compressed);
+        final long compressedSize = bodyLength(compressed);
+        verify(stats).addLongStat(Metric.BYTES_BEFORE_COMPRESSION, uncompressedSize);
+        verify(stats).addLongStat(Metric.BYTES_AFTER_COMPRESSION, compressedSize);
+
+        assertRoundTrip(container, compressed);
+      }
+      stats = mock(OperatorStats.class);
+    }
+  }
+
+  @Test
+  public void createFromOptions() {
+    final OptionManager options = mock(OptionManager.class);
+    when(options.getOption(ExecConstants.EXCHANGE_COMPRESSION_ZSTD_LEVEL)).thenReturn(1L);
+    when(options.getOption(ExecConstants.EXCHANGE_COMPRESSION_MIN_RATIO)).thenReturn(1.2);
+    final OperatorContext context = mock(OperatorContext.class);
+    when(context.getOptions()).thenReturn(options);
+    when(context.getAllocator()).thenReturn(allocator);
+
+    // option values are stored in lower case
+    when(options.getOption(ExecConstants.EXCHANGE_COMPRESSION_CODEC)).thenReturn("none");
+    assertNull(ExchangeCompressor.create(context, stats, Metric.BYTES_BEFORE_COMPRESSION, Metric.BYTES_AFTER_COMPRESSION));
+
+    for (String codec : new String[] {"lz4_frame", "ZSTD"}) {
+      when(options.getOption(ExecConstants.EXCHANGE_COMPRESSION_CODEC)).thenReturn(codec);
+      final ExchangeCompressor compressor = ExchangeCompressor.create(context, stats,
+        Metric.BYTES_BEFORE_COMPRESSION, Metric.BYTES_AFTER_COMPRESSION);
+      assertNotNull(compressor);
+      try (VectorContainer container = newContainer(4096, i -> i % 10, i -> "value-" + (i % 3))) {
+        final ArrowRecordBatch batch = FragmentWritableBatch.getArrowRecordBatch(container);
+        final ArrowRecordBatch compressed = compressor.compress(batch);
+        assertNotSame(batch, compressed);
+        assertRoundTrip(container, compressed);
+      }
+    }
+  }
+
+  @Test
+  public void emptyBuffers() {
+    // the strings are empty, so is the data buffer of their vector
+    try (VectorContainer container = newContainer(4096, i -> 7, i -> "")) {
+      final ArrowRecordBatch compressed = newCompressor(ExchangeCompressor.Codec.LZ4_FRAME, 1.2)
+        .compress(FragmentWritableBatch.getArrowRecordBatch(container));
+      final ArrowBuf data = compressed.getBuffers().get(VARIABLE_WIDTH_DATA);
+      assertEquals(Long.BYTES, data.readableBytes());
+      assertEquals(0, data.getLong(0));
+      assertEquals(0, ExchangeCompressor.getUncompressedLength(data));
+
+      assertRoundTrip(container, compressed);
+    }
+  }
+
+  @Test
+  public void emptyBatch() {
+    try (VectorContainer container = newContainer(0, i -> 0, i -> "")) {
+      final ArrowRecordBatch batch = FragmentWritableBatch.getArrowRecordBatch(container);
+      // nothing to gain, the batch is sent as is
+      final ArrowRecordBatch sent = newCompressor(ExchangeCompressor.Codec.LZ4_FRAME, 1.2).compress(batch);
+      assertSame(batch, sent);
+      assertRoundTrip(container, sent);
+    }
+  }
+
+  @Test
+  public void incompressibleBuffer() {
+    final Random random = new Random(42);
+    // the ints compress well, the random bytes don't
+    try (VectorContainer container = newBinaryContainer(16 * 1024, i -> 1, random, 64)) {
+      final ArrowRecordBatch compressed = newCompressor(ExchangeCompressor.Codec.LZ4_FRAME, 1.0)
+        .compress(FragmentWritableBatch.getArrowRecordBatch(container));
+      final ArrowBuf ints = compressed.getBuffers().get(INT_DATA);
+      final ArrowBuf bytes = compressed.getBuffers().get(VARIABLE_WIDTH_DATA);
+      assertEquals(16 * 1024 * Integer.BYTES, ints.getLong(0));
+      assertEquals(-1L, bytes.getLong(0));
+      assertEquals(16 * 1024 * 64, bytes.readableBytes() - Long.BYTES);
+      assertEquals(16 * 1024 * 64, ExchangeCompressor.getUncompressedLength(bytes));
+
+      assertRoundTrip(container, compressed);
+    }
+  }
+
+  @Test
+  public void multipleBlocks() {
+    // 8MB of ints, more than the 4MB of an LZ4 frame block
+    final int count = 2 * 1024 * 1024;
+    for (ExchangeCompressor.Codec codec : new ExchangeCompressor.Codec[] {ExchangeCompressor.Codec.LZ4_FRAME,
+      ExchangeCompressor.Codec.ZSTD}) {
+      try (VectorContainer container = newContainer(count, i -> i % 1000, i -> i % 2 == 0 ? "a" : "b")) {
+        final ArrowRecordBatch compressed = newCompressor(codec, 1.2)
+          .compress(FragmentWritableBatch.getArrowRecordBatch(container));
+        final ArrowBuf ints = compressed.getBuffers().get(INT_DATA);
+        assertEquals((long) count * Integer.BYTES, ints.getLong(0));
+
+        assertRoundTrip(container, compressed);
+      }
+    }
+  }
+
+  @Test
+  public void ratioBackoff() {
+    final Random random = new Random(42);
+    final ExchangeCompressor compressor = newCompressor(ExchangeCompressor.Codec.LZ4_FRAME, 2.0);
+    try (VectorContainer incompressible = newBinaryContainer(1024, i -> random.nextInt(), random, 64);
+         VectorContainer compressible = newContainer(16 * 1024, i -> 1, i -> "value")) {
+      // not worth it, the next batch isn't compressed
+      assertNotCompressed(compressor, incompressible);
+      assertEquals(1, compressor.getSkippedBatches());
+      assertEquals(2, compressor.getBatchesToSkip());
+
+      // skipped, although it compresses well
+      assertNotCompressed(compressor, compressible);
+      assertEquals(0, compressor.getSkippedBatches());
+
+      // tried again, and compression is back on
+      final ArrowRecordBatch compressed = compressor.compress(FragmentWritableBatch.getArrowRecordBatch(compressible));
+      assertEquals(1, compressor.getBatchesToSkip());
+      compressed.close();
+
+      // the number of skipped batches doubles each time the data doesn't compress, up to a limit
+      int expectedSkipped = 1;
+      for (int attempt = 0; attempt < 10; attempt++) {
+        assertNotCompressed(compressor, incompressible);
+        assertEquals(expectedSkipped, compressor.getSkippedBatches());
+        for (int skipped = 0; skipped < expectedSkipped; skipped++) {
+          assertNotCompressed(compressor, compressible);
+        }
+        assertEquals(0, compressor.getSkippedBatches());
+        expectedSkipped = Math.min(64, expectedSkipped * 2);
+      }
+      assertEquals(64, compressor.getBatchesToSkip());
+    }
+  }
+
+  private static void assertNotCompressed(ExchangeCompressor compressor, VectorContainer container) {
+    final ArrowRecordBatch batch = FragmentWritableBatch.getArrowRecordBatch(container);
+    try {
+      assertSame(batch, compressor.compress(batch));
+    } finally {
+      batch.close();
+    }
+  }
+
+  /**
+   * Sends the batch as it would be to another node, then decompresses and loads it and compares it to the container.
+   */
+  private void assertRoundTrip(VectorContainer expected, ArrowRecordBatch sent) {
+    final FragmentWritableBatch writableBatch = new FragmentWritableBatch(QueryId.getDefaultInstance(), 0, 0, 0,
+      sent, 0);
+    final boolean compressed = sent.getBodyCompression().getCodec() != NoCompressionCodec.DEFAULT_BODY_COMPRESSION.getCodec();
+    final RawFragmentBatch received = receive(writableBatch);
+    final RecordBatch header = RecordBatch.getRootAsRecordBatch(
+      received.getHeader().getArrowRecordBatch().asReadOnlyByteBuffer());
+    if (compressed) {
+      assertNotNull(header.compression());
+    } else {
+      assertNull(header.compression());
+    }
+
+    final RawFragmentBatch decompressed = ExchangeDecompressor.decompress(received, allocator);
+    assertEquals(compressed, decompressed != received);
+    try (ArrowRecordBatchLoader loader = new ArrowRecordBatchLoader(
+      VectorContainer.create(allocator, expected.getSchema()))) {
+      loader.load(decompressed);
+      assertEquals(expected.getRecordCount(), loader.getRecordCount());
+      for (int field = 0; field < expected.getSchema().getFieldCount(); field++) {
+        final ValueVector expectedVector = expected.getValueAccessorById(ValueVector.class, field).getValueVector();
+        final ValueVector vector = loader.getValueAccessorById(ValueVector.class, field).getValueVector();
+        for (int i = 0; i < expected.getRecordCount(); i++) {
+          assertEquals(expectedVector.getObject(i), vector.getObject(i));
+        }
+      }
+    } finally {
+      decompressed.close();
+    }
+  }
+
+  /**
+   * Copies the buffers of the batch into a single body, as when they are received from another node.
+   */
+  private RawFragmentBatch receive(FragmentWritableBatch batch) {
+    long length = 0;
+    for (ByteBuf buf : batch.getBuffers()) {
+      length += buf.readableBytes();
+    }
+    try (ArrowBuf body = allocator.buffer(length)) {
+      long offset = 0;
+      for (ByteBuf buf : batch.getBuffers()) {
+        final int bufLength = buf.readableBytes();
+        body.setBytes(offset, buf.nioBuffer(buf.readerIndex(), bufLength));
+        offset += bufLength;
+        buf.release();
+      }
+      body.writerIndex(length);
+      return new RawFragmentBatch(batch.getHeader(), body, null);
+    }
+  }
+
+  private static long bodyLength(ArrowRecordBatch batch) {
+    return batch.getBuffers().stream().mapToLong(ArrowBuf::readableBytes).sum();
+  }
+
+  private VectorContainer newContainer(int count, IntUnaryOperator ints,
+                                       IntFunction<String> strings) {
+    final VectorContainer container = new VectorContainer(allocator);
+    final IntVector intVector = container.addOrGet(Field.nullable("i", new ArrowType.Int(32, true)));
+    final VarCharVector stringVector = container.addOrGet(Field.nullable("s", ArrowType.Utf8.INSTANCE));
+    container.buildSchema();
+    intVector.allocateNew(count);
+    stringVector.allocateNew();
+    for (int i = 0; i < count; i++) {
+      intVector.set(i, ints.applyAsInt(i));
+      stringVector.setSafe(i, strings.apply(i).getBytes(StandardCharsets.UTF_8));
+    }
+    container.setAllCount(count);
+    return container;
+  }
+
+  private VectorContainer newBinaryContainer(int count, IntUnaryOperator ints, Random random,
+                                             int bytesPerValue) {
+    final VectorContainer container = new VectorContainer(allocator);
+    final IntVector intVector = container.addOrGet(Field.nullable("i", new ArrowType.Int(32, true)));
+    final VarBinaryVector binaryVector = container.addOrGet(Field.nullable("b", ArrowType.Binary.INSTANCE));
+    container.buildSchema();
+    intVector.allocateNew(count);
+    binaryVector.allocateNew();
+    final byte[] value = new byte[bytesPerValue];
+    for (int i = 0; i < count; i++) {
+      intVector.set(i, ints.applyAsInt(i));
+      random.nextBytes(value);
+      binaryVector.setSafe(i, value);
+    }
+    container.setAllCount(count);
+    return container;
+  }
+}
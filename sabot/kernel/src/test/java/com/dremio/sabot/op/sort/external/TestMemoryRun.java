@@ -41,6 +41,7 @@ import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.CustomGenerator;
 import com.dremio.sabot.exec.context.BufferManagerImpl;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.copier.Copier;
 import com.dremio.sabot.op.copier.CopierOperator;
 
@@ -71,7 +72,7 @@ public class TestMemoryRun extends BaseTestOperator {
   public void testQuickSorterCloseToCopier() throws Exception {
     final ExternalSortTracer tracer = new ExternalSortTracer();
     try (MemoryRun memoryRun = new MemoryRun(externalSort, producer, allocator, generator.getSchema(), tracer,
-      2, false, 8192, mock(ExecutionControls.class))) {
+      2, false, false, 8192, mock(ExecutionControls.class), mock(OperatorStats.class))) {
       int totalAdded = addBatches(memoryRun);
       validateCloseToCopier(memoryRun, 100, totalAdded);
     }
@@ -81,7 +82,7 @@ public class TestMemoryRun extends BaseTestOperator {
   public void testQuickSorterCloseToDisk() throws Exception {
     final ExternalSortTracer tracer = new ExternalSortTracer();
     try (MemoryRun memoryRun = new MemoryRun(externalSort, producer, allocator, generator.getSchema(), tracer,
-      2, false, 8192, mock(ExecutionControls.class))) {
+      2, false, false, 8192, mock(ExecutionControls.class), mock(OperatorStats.class))) {
       int totalAdded = addBatches(memoryRun);
       validateCloseToDisk(memoryRun, totalAdded);
     }
@@ -91,7 +92,7 @@ public class TestMemoryRun extends BaseTestOperator {
   public void testSplayTreeCloseToCopier() throws Exception {
     final ExternalSortTracer tracer = new ExternalSortTracer();
     try (MemoryRun memoryRun = new MemoryRun(externalSort, producer, allocator, generator.getSchema(), tracer,
-      2, true, 8192, mock(ExecutionControls.class))) {
+      2, true, false, 8192, mock(ExecutionControls.class), mock(OperatorStats.class))) {
       int totalAdded = addBatches(memoryRun);
       validateCloseToCopier(memoryRun, 100, totalAdded);
     }
@@ -101,7 +102,27 @@ public class TestMemoryRun extends BaseTestOperator {
   public void testSplayTreeCloseToDisk() throws Exception {
     final ExternalSortTracer tracer = new ExternalSortTracer();
     try (MemoryRun memoryRun = new MemoryRun(externalSort, producer, allocator, generator.getSchema(), tracer,
-      2, true, 8192, mock(ExecutionControls.class))) {
+      2, true, false, 8192, mock(ExecutionControls.class), mock(OperatorStats.class))) {
+      int totalAdded = addBatches(memoryRun);
+      validateCloseToDisk(memoryRun, totalAdded);
+    }
+  }
+
+  @Test
+  public void testNormalizedKeySorterCloseToCopier() throws Exception {
+    final ExternalSortTracer tracer = new ExternalSortTracer();
+    try (MemoryRun memoryRun = new MemoryRun(externalSort, producer, allocator, generator.getSchema(), tracer,
+      2, false, true, 8192, mock(ExecutionControls.class), mock(OperatorStats.class))) {
+      int totalAdded = addBatches(memoryRun);
+      validateCloseToCopier(memoryRun, 100, totalAdded);
+    }
+  }
+
+  @Test
+  public void testNormalizedKeySorterCloseToDisk() throws Exception {
+    final ExternalSortTracer tracer = new ExternalSortTracer();
+    try (MemoryRun memoryRun = new MemoryRun(externalSort, producer, allocator, generator.getSchema(), tracer,
+      2, false, true, 8192, mock(ExecutionControls.class), mock(OperatorStats.class))) {
       int totalAdded = addBatches(memoryRun);
       validateCloseToDisk(memoryRun, totalAdded);
     }
@@ -120,7 +141,7 @@ public class TestMemoryRun extends BaseTestOperator {
   private void testStartMicroSpilling(boolean useSplaySort) throws Exception{
     final ExternalSortTracer tracer = new ExternalSortTracer();
     try (MemoryRun memoryRun = new MemoryRun(externalSort, producer, allocator, generator.getSchema(), tracer,
-      2, useSplaySort, 8192, mock(ExecutionControls.class))) {
+      2, useSplaySort, false, 8192, mock(ExecutionControls.class), mock(OperatorStats.class))) {
       final int totalAdded = addBatches(memoryRun);
       final DiskRunManager diskRunManager = mock(DiskRunManager.class);
 
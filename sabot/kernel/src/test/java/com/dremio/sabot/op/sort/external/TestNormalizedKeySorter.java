@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import static com.dremio.sabot.Fixtures.NULL_BIGINT;
+import static com.dremio.sabot.Fixtures.NULL_INT;
+import static com.dremio.sabot.Fixtures.NULL_TIMESTAMP;
+import static com.dremio.sabot.Fixtures.NULL_VARCHAR;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.apache.calcite.rel.RelFieldCollation.Direction.ASCENDING;
+import static org.apache.calcite.rel.RelFieldCollation.Direction.DESCENDING;
+import static org.apache.calcite.rel.RelFieldCollation.NullDirection.FIRST;
+import static org.apache.calcite.rel.RelFieldCollation.NullDirection.LAST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.LocalDateTime;
+import org.junit.Test;
+
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.physical.config.ExternalSort;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures;
+import com.dremio.sabot.Fixtures.Cell;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Fixtures.HeaderRow;
+import com.dremio.sabot.exec.context.OperatorStats;
+
+/**
+ * Sorts with {@link NormalizedKeySorter} on tables with many duplicate first keys, so that the order of the output
+ * depends on the tie breaking on the following keys, and checks the result against a sort done on the heap.
+ */
+public class TestNormalizedKeySorter extends BaseTestOperator {
+
+  private static final int ROWS = 10_000;
+  private static final int BATCH_SIZE = 1000;
+  private static final LocalDateTime EPOCH = Fixtures.ts("2020-01-01T00:00:00");
+
+  @Test
+  public void intKeyTiesOnBigIntAndVarchar() throws Exception {
+    final Random random = new Random(1);
+    final List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      rows.add(new Object[] {random.nextInt(7) - 3, (long) random.nextInt(50), "v" + random.nextInt(ROWS)});
+    }
+
+    validate(th("a", "b", "c"), new Cell[] {NULL_INT, NULL_BIGINT, NULL_VARCHAR}, rows,
+      Arrays.asList(ordering("a", ASCENDING, LAST), ordering("b", DESCENDING, LAST), ordering("c", ASCENDING, LAST)),
+      Comparator.<Object[], Integer>comparing(r -> (Integer) r[0])
+        .thenComparing(r -> (Long) r[1], Comparator.reverseOrder())
+        .thenComparing(r -> (String) r[2]));
+  }
+
+  @Test
+  public void bigIntKeyDescendingWithNulls() throws Exception {
+    final Random random = new Random(2);
+    final List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      // large magnitudes on both sides of zero exercise every byte of the normalized key.
+      final Long key = i % 10 == 0 ? null : (random.nextInt(20) - 10) * 1_000_000_000_000L;
+      rows.add(new Object[] {key, i});
+    }
+
+    for (boolean nullsFirst : new boolean[] {true, false}) {
+      final Comparator<Long> keyOrder = nullsFirst ?
+        Comparator.nullsFirst(Comparator.<Long>reverseOrder()) : Comparator.nullsLast(Comparator.<Long>reverseOrder());
+      validate(th("a", "b"), new Cell[] {NULL_BIGINT, NULL_INT}, new ArrayList<>(rows),
+        Arrays.asList(ordering("a", DESCENDING, nullsFirst ? FIRST : LAST), ordering("b", ASCENDING, LAST)),
+        Comparator.<Object[], Long>comparing(r -> (Long) r[0], keyOrder)
+          .thenComparing(r -> (Integer) r[1]));
+    }
+  }
+
+  @Test
+  public void timestampKeyWithNullsAndNullTies() throws Exception {
+    final Random random = new Random(3);
+    final List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      final LocalDateTime key = i % 7 == 0 ? null : EPOCH.plusHours(random.nextInt(24));
+      // nulls in the second key too, so that records with null first keys still need tie breaking.
+      final Integer tie = i % 3 == 0 ? null : random.nextInt(100);
+      rows.add(new Object[] {key, tie});
+    }
+
+    for (boolean nullsFirst : new boolean[] {true, false}) {
+      final Comparator<LocalDateTime> keyOrder = nullsFirst ?
+        Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()) : Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder());
+      validate(th("a", "b"), new Cell[] {NULL_TIMESTAMP, NULL_INT}, new ArrayList<>(rows),
+        Arrays.asList(ordering("a", ASCENDING, nullsFirst ? FIRST : LAST), ordering("b", DESCENDING, FIRST)),
+        Comparator.<Object[], LocalDateTime>comparing(r -> (LocalDateTime) r[0], keyOrder)
+          .thenComparing(r -> (Integer) r[1], Comparator.nullsFirst(Comparator.<Integer>reverseOrder())));
+    }
+  }
+
+  private void validate(HeaderRow header, Cell[] nullCells, List<Object[]> rows, List<Ordering> orderings,
+                        Comparator<Object[]> expectedOrder) throws Exception {
+    final DataRow[] input = toRows(rows, nullCells);
+    rows.sort(expectedOrder);
+    final DataRow[] expected = toRows(rows, nullCells);
+
+    try (AutoCloseable option = with(ExecConstants.EXTERNAL_SORT_ENABLE_SPLAY_SORT, false);
+         AutoCloseable normalizedKey = with(ExecConstants.EXTERNAL_SORT_ENABLE_NORMALIZED_KEY_SORT, true)) {
+      final ExternalSort sort = new ExternalSort(PROPS, null, orderings, false);
+      final OperatorStats stats = validateSingle(sort, ExternalSortOperator.class,
+        Fixtures.split(header, BATCH_SIZE, input), Fixtures.t(header, expected), BATCH_SIZE);
+
+      // make sure the records went through the normalized keys, and that the first key had ties to break.
+      assertEquals(rows.size(), stats.getLongStat(ExternalSortStats.Metric.NORMALIZED_KEY_RECORDS));
+      assertTrue(stats.getLongStat(ExternalSortStats.Metric.NORMALIZED_KEY_TIE_RECORDS) > 0);
+    }
+  }
+
+  private static DataRow[] toRows(List<Object[]> rows, Cell[] nullCells) {
+    final DataRow[] dataRows = new DataRow[rows.size()];
+    for (int i = 0; i < dataRows.length; i++) {
+      final Object[] row = rows.get(i);
+      final Object[] values = new Object[row.length];
+      for (int j = 0; j < row.length; j++) {
+        values[j] = row[j] == null ? nullCells[j] : row[j];
+      }
+      dataRows[i] = tr(values);
+    }
+    return dataRows;
+  }
+}
@@ -193,6 +193,31 @@ public class TestSortOp extends BaseTestOperator {
     }
   }
 
+  @Test
+  public void testQuickSorterSpillSortWithReadAhead() throws Exception {
+    try (AutoCloseable option = with(ExecConstants.EXTERNAL_SORT_ENABLE_SPLAY_SORT, false);
+         AutoCloseable readAhead = with(ExecConstants.EXTERNAL_SORT_ENABLE_READ_AHEAD, true)) {
+      ExternalSort sort = new ExternalSort(PROPS.cloneWithNewReserve(1_000_000), null, singletonList(ordering(ID.getName(), ASCENDING, FIRST)), false);
+      sort.getProps().setMemLimit(2_000_000); // this can't go below sort's initialAllocation (20K)
+      Fixtures.Table table = generator.getExpectedSortedTable();
+      OperatorStats stats = validateSingle(sort, ExternalSortOperator.class, generator, table, 1000);
+
+      assertTrue(stats.getLongStat(ExternalSortStats.Metric.SPILL_COUNT) > 0);
+      assertTrue(stats.getLongStat(ExternalSortStats.Metric.READ_AHEAD_BATCHES) > 0);
+    }
+  }
+
+  @Test
+  public void testNormalizedKeySpillSort() throws Exception {
+    try (AutoCloseable option = with(ExecConstants.EXTERNAL_SORT_ENABLE_SPLAY_SORT, false);
+         AutoCloseable normalizedKey = with(ExecConstants.EXTERNAL_SORT_ENABLE_NORMALIZED_KEY_SORT, true)) {
+      ExternalSort sort = new ExternalSort(PROPS.cloneWithNewReserve(1_000_000), null, singletonList(ordering(ID.getName(), ASCENDING, FIRST)), false);
+      sort.getProps().setMemLimit(2_000_000); // this can't go below sort's initialAllocation (20K)
+      Fixtures.Table table = generator.getExpectedSortedTable();
+      validateSingle(sort, ExternalSortOperator.class, generator, table, 1000);
+    }
+  }
+
   @Test
   public void testMicroSpillBatches() throws Exception {
     try (AutoCloseable option = with(ExecConstants.EXTERNAL_SORT_ENABLE_MICRO_SPILL, true)) {
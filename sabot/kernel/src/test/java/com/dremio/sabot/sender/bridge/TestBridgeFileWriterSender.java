@@ -31,6 +31,7 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import com.dremio.common.AutoCloseables;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.cache.VectorAccessibleSerializable;
 import com.dremio.exec.physical.config.BridgeFileWriterSender;
 import com.dremio.exec.planner.fragment.EndpointsIndex;
@@ -48,7 +49,10 @@ import com.dremio.sabot.exec.rpc.AccountingFileTunnel;
 import com.dremio.sabot.exec.rpc.FileStreamManager;
 import com.dremio.sabot.exec.rpc.FileTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.receiver.ExchangeDecompressor;
+import com.dremio.sabot.op.receiver.RawFragmentBatch;
 import com.dremio.sabot.op.sender.BridgeFileWriterSenderOperator;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sort.external.SpillManager;
 import com.dremio.sabot.threads.sharedres.SharedResource;
 
@@ -76,6 +80,22 @@ public class TestBridgeFileWriterSender extends BaseTestOperator {
     }
   }
 
+  @Test
+  public void compressedLz4() throws Exception {
+    try (AutoCloseable codec = with(ExecConstants.EXCHANGE_COMPRESSION_CODEC, ExchangeCompressor.Codec.LZ4_FRAME.name());
+         AutoCloseable ratio = with(ExecConstants.EXCHANGE_COMPRESSION_MIN_RATIO, 1.0)) {
+      check(GenerationDefinition.TpchTable.CUSTOMER, 0.1, DEFAULT_BATCH);
+    }
+  }
+
+  @Test
+  public void compressedZstd() throws Exception {
+    try (AutoCloseable codec = with(ExecConstants.EXCHANGE_COMPRESSION_CODEC, ExchangeCompressor.Codec.ZSTD.name());
+         AutoCloseable ratio = with(ExecConstants.EXCHANGE_COMPRESSION_MIN_RATIO, 1.0)) {
+      check(GenerationDefinition.TpchTable.CUSTOMER, 0.1, DEFAULT_BATCH);
+    }
+  }
+
   private void check(GenerationDefinition.TpchTable table, double scale, int batchSize) throws Exception {
     Fixtures.Table expected = TpchGenerator.singleGenerator(table, scale, getAllocator()).toTable(batchSize);
     try (Generator generator = TpchGenerator.singleGenerator(table, scale, getTestAllocator())) {
@@ -178,7 +198,10 @@ public class TestBridgeFileWriterSender extends BaseTestOperator {
         // load container
         VectorContainer container = VectorContainer.create(getTestAllocator(), schema);
         ArrowRecordBatchLoader batchLoader = new ArrowRecordBatchLoader(container);
-        batchLoader.load(fileMessage.getRecordBatch(), body);
+        try (RawFragmentBatch batch = ExchangeDecompressor.decompress(
+          new RawFragmentBatch(fileMessage.getRecordBatch(), body, null), getTestAllocator())) {
+          batchLoader.load(batch);
+        }
 
         // add to list of record batches
         fileBatches.add(new RecordBatchData(container, getTestAllocator()));
@@ -15,13 +15,23 @@
  */
 package com.dremio.sabot.sender.broadcast;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
+import org.apache.arrow.flatbuf.BodyCompression;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.types.Types.MinorType;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.FieldType;
@@ -29,16 +39,21 @@ import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.BroadcastSender;
 import com.dremio.exec.planner.fragment.EndpointsIndex;
 import com.dremio.exec.proto.CoordExecRPC.MinorFragmentIndexEndpoint;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.record.ArrowRecordBatchLoader;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.FragmentWritableBatch;
 import com.dremio.exec.record.SchemaBuilder;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.receiver.ExchangeDecompressor;
+import com.dremio.sabot.op.receiver.RawFragmentBatch;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.broadcast.BroadcastOperator;
 
 import io.airlift.tpch.GenerationDefinition.TpchTable;
@@ -89,6 +104,90 @@ public class TestBroadcastSender extends BaseTestOperator {
     }
   }
 
+  @Test
+  public void compressForRemoteTunnelsOnly() throws Exception {
+    final NodeEndpoint local = NodeEndpoint.newBuilder().setAddress("a").setFabricPort(1).build();
+    final NodeEndpoint remote = NodeEndpoint.newBuilder().setAddress("b").setFabricPort(2).build();
+    EndpointsIndex endpointsIndex = new EndpointsIndex(Arrays.asList(local, remote));
+
+    final List<RawFragmentBatch> localBatches = new ArrayList<>();
+    final List<RawFragmentBatch> remoteBatches = new ArrayList<>();
+    final AccountingExecTunnel localTunnel = newTunnel(true, localBatches);
+    final AccountingExecTunnel remoteTunnel = newTunnel(false, remoteBatches);
+    final TunnelProvider provider = mock(TunnelProvider.class);
+    when(provider.getExecTunnel(local)).thenReturn(localTunnel);
+    when(provider.getExecTunnel(remote)).thenReturn(remoteTunnel);
+
+    final BatchSchema schema;
+    try (AutoCloseable codec = with(ExecConstants.EXCHANGE_COMPRESSION_CODEC, ExchangeCompressor.Codec.LZ4_FRAME.name());
+         TpchGenerator g = TpchGenerator.singleGenerator(TpchTable.CUSTOMER, 0.1, getTestAllocator())) {
+      schema = g.getOutput().getSchema();
+      BroadcastSender sender = new BroadcastSender(PROPS, schema, null, 1,
+          Arrays.asList(
+            MinorFragmentIndexEndpoint.newBuilder().setMinorFragmentId(1).setEndpointIndex(0).build(),
+            MinorFragmentIndexEndpoint.newBuilder().setMinorFragmentId(2).setEndpointIndex(1).build()
+          )
+      );
+      try (BroadcastOperator op = newOperator(BroadcastOperator.class, sender, DEFAULT_BATCH, endpointsIndex, provider)) {
+        op.setup(g.getOutput());
+        op.consumeData(g.next(DEFAULT_BATCH));
+        op.noMoreToConsume();
+      }
+    }
+
+    assertEquals(1, localBatches.size());
+    assertEquals(1, remoteBatches.size());
+    try (RawFragmentBatch localBatch = localBatches.get(0);
+         RawFragmentBatch remoteBatch = ExchangeDecompressor.decompress(remoteBatches.get(0), getTestAllocator());
+         ArrowRecordBatchLoader localLoader = new ArrowRecordBatchLoader(getTestAllocator(), schema);
+         ArrowRecordBatchLoader remoteLoader = new ArrowRecordBatchLoader(getTestAllocator(), schema)) {
+      // the batch is compressed once, and only sent compressed out of the process
+      assertNull(compression(localBatch));
+      assertNotSame(remoteBatches.get(0), remoteBatch);
+      assertTrue(remoteBatch.getCompressedByteCount() < remoteBatch.getByteCount());
+
+      localLoader.load(localBatch);
+      remoteLoader.load(remoteBatch);
+      assertEquals(DEFAULT_BATCH, localLoader.getRecordCount());
+      assertEquals(localLoader.getRecordCount(), remoteLoader.getRecordCount());
+      for (int field = 0; field < schema.getFieldCount(); field++) {
+        final ValueVector localVector = localLoader.getValueAccessorById(ValueVector.class, field).getValueVector();
+        final ValueVector remoteVector = remoteLoader.getValueAccessorById(ValueVector.class, field).getValueVector();
+        for (int i = 0; i < localLoader.getRecordCount(); i++) {
+          assertEquals(localVector.getObject(i), remoteVector.getObject(i));
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates a tunnel that keeps the batches it is sent, copied into a single body as when received from another node.
+   */
+  private AccountingExecTunnel newTunnel(boolean inProcess, List<RawFragmentBatch> batches) {
+    final AccountingExecTunnel tunnel = mock(AccountingExecTunnel.class);
+    when(tunnel.isInProcess()).thenReturn(inProcess);
+    doAnswer(invocation -> {
+      final FragmentWritableBatch batch = invocation.getArgument(0);
+      try (ArrowBuf body = getTestAllocator().buffer(batch.getByteCount())) {
+        long offset = 0;
+        for (ByteBuf b : batch.getBuffers()) {
+          body.setBytes(offset, b.nioBuffer(b.readerIndex(), b.readableBytes()));
+          offset += b.readableBytes();
+          b.release();
+        }
+        body.writerIndex(offset);
+        batches.add(new RawFragmentBatch(batch.getHeader(), body, null));
+      }
+      return null;
+    }).when(tunnel).sendRecordBatch(any(FragmentWritableBatch.class), any());
+    return tunnel;
+  }
+
+  private static BodyCompression compression(RawFragmentBatch batch) {
+    return RecordBatch.getRootAsRecordBatch(batch.getHeader().getArrowRecordBatch().asReadOnlyByteBuffer())
+      .compression();
+  }
+
   public BatchSchema getSchema() {
     SchemaBuilder builder = BatchSchema.newBuilder()
       .addField(new Field("n_nationKey", new FieldType(true, MinorType.BIGINT.getType(), null), null))
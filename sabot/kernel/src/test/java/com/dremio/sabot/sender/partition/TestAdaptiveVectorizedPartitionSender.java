@@ -15,6 +15,9 @@
  */
 package com.dremio.sabot.sender.partition;
 
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
@@ -39,13 +42,18 @@ import com.dremio.exec.planner.fragment.EndpointsIndex;
 import com.dremio.exec.proto.CoordExecRPC.MinorFragmentIndexEndpoint;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.proto.ExecProtos;
+import com.dremio.exec.proto.UserBitShared.MetricValue;
+import com.dremio.exec.proto.UserBitShared.OperatorProfile;
 import com.dremio.exec.record.FragmentWritableBatch;
 import com.dremio.options.OptionValue;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.CustomGenerator;
+import com.dremio.sabot.Fixtures;
+import com.dremio.sabot.Generator;
 import com.dremio.sabot.exec.fragment.OutOfBandMessage;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.sender.partition.PartitionSenderOperator;
 import com.dremio.sabot.op.sender.partition.vectorized.AdaptiveVectorizedPartitionSenderOperator;
 import com.dremio.sabot.op.sender.partition.vectorized.VectorizedPartitionSenderOperator;
 import com.dremio.sabot.op.spi.TerminalOperator;
@@ -144,6 +152,80 @@ public class TestAdaptiveVectorizedPartitionSender extends BaseTestOperator {
     test(partitionCount, expectedRows, true, false);
   }
 
+  @Test
+  public void testHotKeySalting() throws Exception {
+    final int sampleRows = 1000;
+    final int fanout = 2;
+    final int rows = 6000;
+    testContext.getOptions().setOption(OptionValue.createBoolean(OptionValue.OptionType.SYSTEM,
+      VectorizedPartitionSenderOperator.SKEW_DETECTION.getOptionName(), true));
+    testContext.getOptions().setOption(OptionValue.createLong(OptionValue.OptionType.SYSTEM,
+      VectorizedPartitionSenderOperator.SKEW_SAMPLE_ROWS.getOptionName(), sampleRows));
+    testContext.getOptions().setOption(OptionValue.createLong(OptionValue.OptionType.SYSTEM,
+      VectorizedPartitionSenderOperator.SKEW_HOT_KEY_FANOUT.getOptionName(), fanout));
+    try {
+      // every other row has the hot key 0, which hashes to receiver 0. The other rows have 100 distinct keys that
+      // all hash to receiver 2, each of them far below the hot key ratio.
+      final Fixtures.DataRow[] data = new Fixtures.DataRow[rows];
+      for (int i = 0; i < rows; i++) {
+        final int k = i / 2;
+        data[i] = tr(i % 2 == 0 ? 0 : 32 * (k % 10) + 2 + 3 * ((k / 10) % 10));
+      }
+      final Fixtures.Table table = t(th("ID"), data);
+
+      final int[] rowCountPerFragment = new int[NUM_FRAGMENTS];
+      final OperatorProfile profile;
+      try (Generator skewedGenerator = table.toGenerator(getTestAllocator())) {
+        HashPartitionSender sender = new HashPartitionSender(PROPS, skewedGenerator.getOutput().getSchema(), null,
+          1, getIndexEndpoints(), f("ID"), true);
+
+        AdaptiveVectorizedPartitionSenderOperator op = newOperator(AdaptiveVectorizedPartitionSenderOperator.class,
+          sender, DEFAULT_BATCH, new EndpointsIndex(getEndpoints()), countingTunnelProvider(rowCountPerFragment));
+        op.setup(skewedGenerator.getOutput());
+        op.getOperatorContext().getStats().startProcessing();
+
+        int count;
+        while (op.getState() != TerminalOperator.State.DONE && (count = skewedGenerator.next(DEFAULT_BATCH)) != 0) {
+          assertState(op, TerminalOperator.State.CAN_CONSUME);
+          op.consumeData(count);
+        }
+        op.noMoreToConsume();
+        profile = op.getOperatorContext().getStats().getProfile();
+      }
+
+      // the hot key rows sampled before it was detected stay on its own receiver, the next ones are spread over
+      // the fanout receivers starting from it
+      final int hotRows = rows / 2;
+      final int saltedRows = hotRows - sampleRows / 2;
+      assertEquals(sampleRows / 2 + saltedRows / fanout, rowCountPerFragment[0]);
+      assertEquals(saltedRows / fanout, rowCountPerFragment[1]);
+      // the other keys stay on their hash receiver
+      assertEquals(rows - hotRows, rowCountPerFragment[2]);
+
+      assertEquals(saltedRows, getMetric(profile, PartitionSenderOperator.Metric.SKEW_SALTED_RECORDS).getLongValue());
+      assertEquals(1, getMetric(profile, PartitionSenderOperator.Metric.SKEW_HOT_KEYS).getLongValue());
+      // receiver 2 gets half of the rows
+      assertEquals(1.5, getMetric(profile, PartitionSenderOperator.Metric.SKEW_IMBALANCE_FACTOR).getDoubleValue(), 0.0);
+    } finally {
+      testContext.getOptions().setOption(OptionValue.createBoolean(OptionValue.OptionType.SYSTEM,
+        VectorizedPartitionSenderOperator.SKEW_DETECTION.getOptionName(),
+        VectorizedPartitionSenderOperator.SKEW_DETECTION.getDefault().getBoolVal()));
+      testContext.getOptions().setOption(OptionValue.createLong(OptionValue.OptionType.SYSTEM,
+        VectorizedPartitionSenderOperator.SKEW_SAMPLE_ROWS.getOptionName(),
+        VectorizedPartitionSenderOperator.SKEW_SAMPLE_ROWS.getDefault().getNumVal()));
+      testContext.getOptions().setOption(OptionValue.createLong(OptionValue.OptionType.SYSTEM,
+        VectorizedPartitionSenderOperator.SKEW_HOT_KEY_FANOUT.getOptionName(),
+        VectorizedPartitionSenderOperator.SKEW_HOT_KEY_FANOUT.getDefault().getNumVal()));
+    }
+  }
+
+  private static MetricValue getMetric(OperatorProfile profile, PartitionSenderOperator.Metric metric) {
+    return profile.getMetricList().stream()
+      .filter(m -> m.getMetricId() == metric.metricId())
+      .findFirst()
+      .orElseThrow(() -> new AssertionError(metric + " is not in the profile"));
+  }
+
   private void test(int partitionCount, int expectedRows, boolean createMsg) throws Exception {
     test(partitionCount, expectedRows, createMsg, createMsg);
   }
@@ -156,25 +238,8 @@ public class TestAdaptiveVectorizedPartitionSender extends BaseTestOperator {
 
     final int[] rowCountPerFragment = new int[NUM_FRAGMENTS];
 
-    final AccountingExecTunnel tunnel = mock(AccountingExecTunnel.class);
-    doAnswer(new Answer<Void>(){
-      @Override
-      public Void answer(InvocationOnMock invocation) throws Throwable {
-        final FragmentWritableBatch batch = (FragmentWritableBatch) invocation.getArguments()[0];
-        for (int fragId : batch.getHeader().getReceivingMinorFragmentIdList()) {
-          rowCountPerFragment[fragId] += batch.getRecordCount();
-        }
-        for(ByteBuf b : batch.getBuffers()){
-          b.release();
-        }
-        return null;
-      }}).when(tunnel).sendRecordBatch(any(FragmentWritableBatch.class), any());
-
-    final TunnelProvider provider = mock(TunnelProvider.class);
-    when(provider.getExecTunnel(any(NodeEndpoint.class))).thenReturn(tunnel);
-
     AdaptiveVectorizedPartitionSenderOperator op = newOperator(AdaptiveVectorizedPartitionSenderOperator.class, sender, DEFAULT_BATCH,
-      new EndpointsIndex(getEndpoints()), provider);
+      new EndpointsIndex(getEndpoints()), countingTunnelProvider(rowCountPerFragment));
 
     // force to do dop adjustment
     op.setForceAdjustDop(true);
@@ -222,6 +287,29 @@ public class TestAdaptiveVectorizedPartitionSender extends BaseTestOperator {
     assertEquals(expectedRows, sentRowCount);
   }
 
+  /**
+   * @return a tunnel provider whose tunnel counts the rows sent to each minor fragment
+   */
+  private static TunnelProvider countingTunnelProvider(final int[] rowCountPerFragment) {
+    final AccountingExecTunnel tunnel = mock(AccountingExecTunnel.class);
+    doAnswer(new Answer<Void>(){
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        final FragmentWritableBatch batch = (FragmentWritableBatch) invocation.getArguments()[0];
+        for (int fragId : batch.getHeader().getReceivingMinorFragmentIdList()) {
+          rowCountPerFragment[fragId] += batch.getRecordCount();
+        }
+        for(ByteBuf b : batch.getBuffers()){
+          b.release();
+        }
+        return null;
+      }}).when(tunnel).sendRecordBatch(any(FragmentWritableBatch.class), any());
+
+    final TunnelProvider provider = mock(TunnelProvider.class);
+    when(provider.getExecTunnel(any(NodeEndpoint.class))).thenReturn(tunnel);
+    return provider;
+  }
+
   public List<MinorFragmentIndexEndpoint> getIndexEndpoints() {
     List<MinorFragmentIndexEndpoint> l = new ArrayList<>();
     for (int i = 0; i < NUM_FRAGMENTS; i++) {
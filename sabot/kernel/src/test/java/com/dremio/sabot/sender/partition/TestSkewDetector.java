@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.sender.partition;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.dremio.sabot.op.sender.partition.vectorized.SkewDetector;
+
+/**
+ * Tests for {@link SkewDetector}
+ */
+public class TestSkewDetector {
+
+  @Test
+  public void detectsHotKeys() {
+    final SkewDetector detector = new SkewDetector(8, 10_000, 0.05, 4, 4);
+    for (int i = 0; i < 10_000; i++) {
+      final int hash;
+      if (i % 2 == 0) {
+        hash = 42;
+      } else if (i % 5 == 1) {
+        hash = -7;
+      } else {
+        // unique keys, more than the sketch can track
+        hash = 1000 + i;
+      }
+      detector.add(hash, Math.floorMod(hash, 4));
+    }
+
+    assertTrue(detector.isDone());
+    assertArrayEquals(new int[]{-7, 42}, detector.getHotKeys());
+    assertTrue(detector.isHot(42));
+    assertFalse(detector.isHot(1001));
+    assertEquals(6_000, detector.getHotKeyRows());
+  }
+
+  @Test
+  public void noHotKeysWhenUniform() {
+    final SkewDetector detector = new SkewDetector(8, 1_000, 0.1, 4, 4);
+    for (int i = 0; i < 1_000; i++) {
+      detector.add(i, i % 4);
+    }
+
+    assertEquals(0, detector.getHotKeyCount());
+    assertEquals(1.0, detector.getImbalanceFactor(), 0.0);
+  }
+
+  @Test
+  public void hotKeysAreKnownOnlyOnceSampled() {
+    final SkewDetector detector = new SkewDetector(8, 1_000, 0.1, 2, 2);
+    for (int i = 0; i < 100; i++) {
+      detector.add(1, 0);
+    }
+    assertFalse(detector.isDone());
+    assertFalse(detector.isHot(1));
+
+    detector.finish();
+    assertTrue(detector.isHot(1));
+    assertEquals(2.0, detector.getImbalanceFactor(), 0.0);
+  }
+
+  @Test
+  public void foldsBatchRowsPerReceiver() {
+    // two outgoing batches per receiver, batch i is sent to receiver i % 2
+    final SkewDetector detector = new SkewDetector(8, 1_000, 0.1, 2, 4);
+    for (int i = 0; i < 100; i++) {
+      detector.add(i, 0);
+      detector.add(i, 2);
+      detector.add(i, 1);
+      detector.add(i, 1);
+    }
+    assertEquals(1.0, detector.getImbalanceFactor(), 0.0);
+
+    for (int i = 0; i < 200; i++) {
+      detector.add(i, 2);
+    }
+    // receiver 0 got 400 of the 600 rows
+    assertEquals(4.0 / 3, detector.getImbalanceFactor(), 1e-9);
+  }
+}
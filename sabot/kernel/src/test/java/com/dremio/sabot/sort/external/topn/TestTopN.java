@@ -15,10 +15,12 @@
  */
 package com.dremio.sabot.sort.external.topn;
 
+import static com.dremio.sabot.Fixtures.NULL_INT;
 import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.tb;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
 
 import java.util.Collections;
 import java.util.Properties;
@@ -32,7 +34,9 @@ import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.TopN;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.sort.topn.TopNOperator;
+import com.dremio.sabot.op.sort.topn.TopNStats;
 
 public class TestTopN extends BaseTestOperator {
 
@@ -108,5 +112,54 @@ public class TestTopN extends BaseTestOperator {
     validateSingle(topn, TopNOperator.class, input, output);
   }
 
+  @Test
+  public void topNDataWithThresholdFilter() throws Exception {
+    // once the heap is full, the threshold filter discards 2 and the trailing null of the third batch before they
+    // reach the heap, then every row of the last batch, which loses to the 7 at the boundary.
+    Table input = t(
+      th("c0"),
+      tb(
+        tr(5),
+        tr(1)
+      ),
+      tb(
+        tr(9),
+        tr(NULL_INT),
+        tr(3)
+      ),
+      tb(
+        tr(2),
+        tr(7),
+        tr(NULL_INT),
+        tr(9),
+        tr(4)
+      ),
+      tb(
+        tr(6),
+        tr(NULL_INT),
+        tr(1)
+      )
+    );
+
+    Table output = t(
+      th("c0"),
+      tr(9),
+      tr(9),
+      tr(7)
+    );
+
+    TopN topn = new TopN(PROPS, null, 3, Collections.singletonList(ordering("c0", Direction.DESCENDING, NullDirection.LAST)), false);
+    try (AutoCloseable option = with(ExecConstants.TOPN_ENABLE_THRESHOLD_FILTER, true)) {
+      final OperatorStats stats = validateSingle(topn, TopNOperator.class, input, output);
+      assertEquals(5, stats.getLongStat(TopNStats.Metric.ROWS_FILTERED));
+      assertEquals(1, stats.getLongStat(TopNStats.Metric.BATCHES_SKIPPED));
+    }
 
+    // same results without the filter, every row goes through the heap
+    try (AutoCloseable option = with(ExecConstants.TOPN_ENABLE_THRESHOLD_FILTER, false)) {
+      final OperatorStats stats = validateSingle(topn, TopNOperator.class, input, output);
+      assertEquals(0, stats.getLongStat(TopNStats.Metric.ROWS_FILTERED));
+      assertEquals(0, stats.getLongStat(TopNStats.Metric.BATCHES_SKIPPED));
+    }
+  }
 }
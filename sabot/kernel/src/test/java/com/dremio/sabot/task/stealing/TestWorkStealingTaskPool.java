@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.stealing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.dremio.sabot.task.AsyncTask;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.Task;
+import com.dremio.sabot.task.TaskDescriptor;
+import com.dremio.sabot.task.TaskPool;
+import com.dremio.sabot.threads.AvailabilityCallback;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+
+/**
+ * Tests for {@link WorkStealingTaskPool}
+ */
+public class TestWorkStealingTaskPool {
+
+  /**
+   * Base of the test tasks, which don't track their blocked durations.
+   */
+  private abstract static class TestTask implements AsyncTask {
+    protected volatile Task.State state = Task.State.RUNNABLE;
+
+    @Override
+    public void refreshState() {
+      state = Task.State.RUNNABLE;
+    }
+
+    @Override
+    public Task.State getState() {
+      return state;
+    }
+
+    @Override
+    public SharedResourceType getFirstBlockedResource() {
+      return null;
+    }
+
+    @Override
+    public void updateSleepDuration(long duration) {
+    }
+
+    @Override
+    public void updateBlockedOnDownstreamDuration(long duration) {
+    }
+
+    @Override
+    public void updateBlockedOnUpstreamDuration(long duration) {
+    }
+
+    @Override
+    public void updateBlockedOnMemoryDuration(long duration) {
+    }
+
+    @Override
+    public void addBlockedOnSharedResourceDuration(SharedResourceType resource, long duration) {
+    }
+
+    @Override
+    public void setTaskDescriptor(TaskDescriptor descriptor) {
+    }
+  }
+
+  /**
+   * Task running a number of times, and blocking on upstream every other run if requested.
+   */
+  private static final class CountingTask extends TestTask {
+    private final int numRuns;
+    private final boolean block;
+    private volatile int runs;
+
+    private CountingTask(int numRuns, boolean block) {
+      this.numRuns = numRuns;
+      this.block = block;
+    }
+
+    @Override
+    public void run() {
+      runs++;
+      if (runs == numRuns) {
+        state = Task.State.DONE;
+      } else if (block && runs % 2 == 0) {
+        state = Task.State.BLOCKED_ON_UPSTREAM;
+      }
+    }
+
+    @Override
+    public void setWakeupCallback(AvailabilityCallback callback) {
+      // unblock from another thread
+      new Thread(callback::nowAvailable).start();
+    }
+  }
+
+  /**
+   * Task spinning on the cpu for a while on each run until stopped, or blocked on upstream until stopped.
+   */
+  private static final class SpinningTask extends TestTask {
+    private static final long RUN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final boolean blocked;
+    private final AtomicReference<AvailabilityCallback> callback = new AtomicReference<>();
+    private volatile boolean stopped;
+    private volatile long runTimeNanos;
+
+    private SpinningTask(boolean blocked) {
+      this.blocked = blocked;
+    }
+
+    @Override
+    public void run() {
+      if (stopped) {
+        state = Task.State.DONE;
+        return;
+      }
+      if (blocked) {
+        state = Task.State.BLOCKED_ON_UPSTREAM;
+        return;
+      }
+      final long start = System.nanoTime();
+      long now = start;
+      while (now - start < RUN_NANOS) {
+        now = System.nanoTime();
+      }
+      runTimeNanos += now - start;
+    }
+
+    @Override
+    public void setWakeupCallback(AvailabilityCallback callback) {
+      this.callback.set(callback);
+      if (stopped) {
+        wakeUp();
+      }
+    }
+
+    private void stop() {
+      stopped = true;
+      wakeUp();
+    }
+
+    private void wakeUp() {
+      final AvailabilityCallback current = callback.getAndSet(null);
+      if (current != null) {
+        current.nowAvailable();
+      }
+    }
+  }
+
+  @Test
+  public void testRunsAllTasks() throws Exception {
+    final int numTasks = 50;
+    final CountDownLatch done = new CountDownLatch(numTasks);
+    final List<CountingTask> tasks = new ArrayList<>();
+    try (WorkStealingTaskPool pool = new WorkStealingTaskPool(4, TimeUnit.MILLISECONDS.toNanos(1))) {
+      final SchedulingGroup<AsyncTaskWrapper> group = pool.getGroupManager().newGroup(10).addGroup(5, true);
+      for (int i = 0; i < numTasks; i++) {
+        final CountingTask task = new CountingTask(100, i % 2 == 0);
+        tasks.add(task);
+        pool.execute(new AsyncTaskWrapper(1 + i % 3, group, task, done::countDown, Integer.MAX_VALUE));
+      }
+
+      assertTrue("tasks did not complete", done.await(30, TimeUnit.SECONDS));
+      assertTrue(pool.areAllThreadsAlive());
+      int numThreads = 0;
+      for (TaskPool.ThreadInfo info : pool.getSlicingThreads()) {
+        assertEquals(0, info.numTasks);
+        numThreads++;
+      }
+      assertEquals(4, numThreads);
+    }
+    for (CountingTask task : tasks) {
+      assertEquals(100, task.runs);
+    }
+  }
+
+  @Test
+  public void testGroupShares() throws Exception {
+    try (WorkStealingTaskPool pool = new WorkStealingTaskPool(1, TimeUnit.MILLISECONDS.toNanos(1))) {
+      final WeightedGroup heavy = (WeightedGroup) pool.newGroup(3);
+      final WeightedGroup light = (WeightedGroup) pool.newGroup(1);
+      final WeightedGroup idle = (WeightedGroup) pool.newGroup(100);
+
+      heavy.taskAdded(1);
+      light.taskAdded(1);
+      assertEquals(0.75, heavy.getShare(), 1e-9);
+      assertEquals(0.25, light.getShare(), 1e-9);
+
+      // groups without tasks don't take a share
+      idle.taskAdded(1);
+      idle.taskRemoved(1);
+      assertEquals(0.75, heavy.getShare(), 1e-9);
+
+      // groups that are not weight based share their parent's share equally
+      final WeightedGroup first = (WeightedGroup) heavy.addGroup(10, false);
+      final WeightedGroup second = (WeightedGroup) heavy.addGroup(1000, false);
+      first.taskAdded(1);
+      second.taskAdded(1);
+      heavy.taskRemoved(1);
+      assertEquals(0.375, first.getShare(), 1e-9);
+      assertEquals(0.375, second.getShare(), 1e-9);
+    }
+  }
+
+  @Test
+  public void testCpuSplit() throws Exception {
+    final CountDownLatch done = new CountDownLatch(3);
+    try (WorkStealingTaskPool pool = new WorkStealingTaskPool(1, TimeUnit.MILLISECONDS.toNanos(1))) {
+      final SchedulingGroup<AsyncTaskWrapper> heavy = pool.newGroup(3);
+      final SchedulingGroup<AsyncTaskWrapper> light = pool.newGroup(1);
+      final SpinningTask heavyTask = new SpinningTask(false);
+      final SpinningTask lightTask = new SpinningTask(false);
+      // blocked all along, so the running task of the heavy group gets the whole share of its group
+      final SpinningTask blockedTask = new SpinningTask(true);
+      pool.execute(new AsyncTaskWrapper(1, heavy, blockedTask, done::countDown, Integer.MAX_VALUE));
+      pool.execute(new AsyncTaskWrapper(1, heavy, heavyTask, done::countDown, Integer.MAX_VALUE));
+      pool.execute(new AsyncTaskWrapper(1, light, lightTask, done::countDown, Integer.MAX_VALUE));
+
+      Thread.sleep(2_000);
+      heavyTask.stop();
+      lightTask.stop();
+      blockedTask.stop();
+      assertTrue("tasks did not complete", done.await(30, TimeUnit.SECONDS));
+
+      final double heavyFraction = (double) heavyTask.runTimeNanos / (heavyTask.runTimeNanos + lightTask.runTimeNanos);
+      assertEquals(0.75, heavyFraction, 0.05);
+    }
+  }
+}
@@ -78,9 +78,41 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
    * @return the total size of the data
    */
   public int load(RawFragmentBatch batch) {
+    final List<ArrowBuf> buffers = batch.getBuffers();
+    if (buffers != null) {
+      return load(batch.getHeader(), buffers);
+    }
     return load(batch.getHeader(), batch.getBody());
   }
 
+  /**
+   * Loads the data of a batch received as a list of buffers into Vectors in VectorContainer, without copying them.
+   * @return the total size of the data
+   */
+  public int load(FragmentRecordBatch header, List<ArrowBuf> buffers) {
+    container.zeroVectors();
+    long size = 0;
+    try {
+      RecordBatch recordBatch = RecordBatch.getRootAsRecordBatch(header.getArrowRecordBatch().asReadOnlyByteBuffer());
+      if (recordBatch.length() > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("record batch length too big: " + recordBatch.length());
+      }
+      valueCount = (int)recordBatch.length();
+      if (valueCount == 0) {
+        return 0;
+      }
+      for (ArrowBuf buf : buffers) {
+        size += buf.readableBytes();
+      }
+      load(recordBatch, container, buffers);
+    } catch (final Throwable cause) {
+      container.zeroVectors();
+      throw cause;
+    }
+    container.setRecordCount(valueCount);
+    return LargeMemoryUtil.checkedCastToInt(size);
+  }
+
   public int load(FragmentRecordBatch header, ArrowBuf body) {
     container.zeroVectors();
     int size = 0;
@@ -115,17 +147,7 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
   public static ArrowRecordBatch deserializeRecordBatch(RecordBatch recordBatchFB,
                                                         ArrowBuf body) throws IOException {
     // Now read the body
-    int nodesLength = recordBatchFB.nodesLength();
-    List<ArrowFieldNode> nodes = new ArrayList<>();
-    for (int i = 0; i < nodesLength; ++i) {
-      FieldNode node = recordBatchFB.nodes(i);
-      if ((int)node.length() != node.length() ||
-        (int)node.nullCount() != node.nullCount()) {
-        throw new IOException("Cannot currently deserialize record batches with " +
-          "node length larger than Int.MAX_VALUE");
-      }
-      nodes.add(new ArrowFieldNode((int)node.length(), (int)node.nullCount()));
-    }
+    List<ArrowFieldNode> nodes = deserializeFieldNodes(recordBatchFB);
     List<ArrowBuf> buffers = new ArrayList<>();
     for (int i = 0; i < recordBatchFB.buffersLength(); ++i) {
       Buffer bufferFB = recordBatchFB.buffers(i);
@@ -143,7 +165,22 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
     return arrowRecordBatch;
   }
 
-  public static void load(RecordBatch recordBatch, VectorAccessible vectorAccessible, ArrowBuf body) {
+  private static List<ArrowFieldNode> deserializeFieldNodes(RecordBatch recordBatchFB) throws IOException {
+    int nodesLength = recordBatchFB.nodesLength();
+    List<ArrowFieldNode> nodes = new ArrayList<>();
+    for (int i = 0; i < nodesLength; ++i) {
+      FieldNode node = recordBatchFB.nodes(i);
+      if ((int)node.length() != node.length() ||
+        (int)node.nullCount() != node.nullCount()) {
+        throw new IOException("Cannot currently deserialize record batches with " +
+          "node length larger than Int.MAX_VALUE");
+      }
+      nodes.add(new ArrowFieldNode((int)node.length(), (int)node.nullCount()));
+    }
+    return nodes;
+  }
+
+  private static void load(VectorAccessible vectorAccessible, Iterator<ArrowFieldNode> nodes, Iterator<ArrowBuf> buffers) {
     List<Field> fields = vectorAccessible.getSchema().getFields();
     List<FieldVector> fieldVectors = FluentIterable.from(vectorAccessible)
       .transform(new Function<VectorWrapper<?>, FieldVector>() {
@@ -152,18 +189,32 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
           return (FieldVector) wrapper.getValueVector();
         }
       }).toList();
+    for (int i = 0; i < fields.size(); ++i) {
+      loadBuffers(fieldVectors.get(i), fields.get(i), buffers, nodes);
+    }
+    if (buffers.hasNext()) {
+      throw new IllegalArgumentException("not all buffers were consumed. " + buffers);
+    }
+  }
+
+  public static void load(RecordBatch recordBatch, VectorAccessible vectorAccessible, ArrowBuf body) {
     try {
       ArrowRecordBatch arrowRecordBatch = deserializeRecordBatch(recordBatch, body);
-      Iterator<ArrowFieldNode> nodes = arrowRecordBatch.getNodes().iterator();
-      Iterator<ArrowBuf> buffers = arrowRecordBatch.getBuffers().iterator();
-      for (int i = 0; i < fields.size(); ++i) {
-        Field field = fields.get(i);
-        FieldVector fieldVector = fieldVectors.get(i);
-        loadBuffers(fieldVector, field, buffers, nodes);
-      }
-      if (buffers.hasNext()) {
-        throw new IllegalArgumentException("not all buffers were consumed. " + buffers);
-      }
+      load(vectorAccessible, arrowRecordBatch.getNodes().iterator(), arrowRecordBatch.getBuffers().iterator());
+    } catch (IOException e) {
+      throw new RuntimeException("could not deserialize batch for " + vectorAccessible.getSchema(), e);
+    }
+  }
+
+  /**
+   * Loads the buffers of a batch as they are, skipping the body slicing. The buffers are expected
+   * to be in the order of the flatbuffer descriptors.
+   */
+  public static void load(RecordBatch recordBatch, VectorAccessible vectorAccessible, List<ArrowBuf> buffers) {
+    checkArgument(buffers.size() == recordBatch.buffersLength(), "expected %s buffers, got %s",
+      recordBatch.buffersLength(), buffers.size());
+    try {
+      load(vectorAccessible, deserializeFieldNodes(recordBatch).iterator(), buffers.iterator());
     } catch (IOException e) {
       throw new RuntimeException("could not deserialize batch for " + vectorAccessible.getSchema(), e);
     }
@@ -15,6 +15,7 @@
  */
 package com.dremio.sabot.op.receiver;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.arrow.memory.ArrowBuf;
@@ -25,14 +26,27 @@ import com.dremio.sabot.exec.rpc.AckSender;
 public class RawFragmentBatch implements AutoCloseable {
 
   private final FragmentRecordBatch header;
-  private final ArrowBuf body;
+  private ArrowBuf body;
+  // buffers handed over as is by a sender in the same process, null once they've been copied to the body
+  private List<ArrowBuf> buffers;
+  // number of references held on each of the buffers, carried over to the body when they are copied
+  private int bufferReferences;
   private final AckSender sender;
+  private final long compressedByteCount;
   private final AtomicBoolean ackSent = new AtomicBoolean(false);
 
   public RawFragmentBatch(FragmentRecordBatch header, ArrowBuf body, AckSender sender) {
+    this(header, body, sender, 0);
+  }
+
+  /**
+   * @param compressedByteCount size of the body as it was received when it has been decompressed, 0 otherwise
+   */
+  public RawFragmentBatch(FragmentRecordBatch header, ArrowBuf body, AckSender sender, long compressedByteCount) {
     this.header = header;
     this.sender = sender;
     this.body = body;
+    this.compressedByteCount = compressedByteCount;
     if (body != null) {
       body.getReferenceManager().retain(1);
     }
@@ -40,24 +54,84 @@ public class RawFragmentBatch implements AutoCloseable {
     ackSent.set(sender == null);
   }
 
+  /**
+   * Creates a batch from the buffers of the vectors of a sender running in the same process, without copying them into
+   * a single body. The buffers must be in the order of the buffers of the header's record batch.
+   *
+   * As with a transferred body, the batch takes over the reference the caller holds on each buffer and retains one
+   * more, so it has to be closed once by the caller and once by the consumer of the batch.
+   */
+  public RawFragmentBatch(FragmentRecordBatch header, List<ArrowBuf> buffers, AckSender sender) {
+    this(header, (ArrowBuf) null, sender, 0);
+    this.buffers = buffers;
+    this.bufferReferences = 2;
+    for (ArrowBuf buf : buffers) {
+      buf.getReferenceManager().retain(1);
+    }
+  }
+
   public FragmentRecordBatch getHeader() {
     return header;
   }
 
-  public ArrowBuf getBody() {
+  /**
+   * Returns the body of the batch. If the batch was created from a list of buffers, they are copied into a single
+   * body the first time it is requested, prefer {@link #getBuffers()} when the buffers can be used as is.
+   */
+  public synchronized ArrowBuf getBody() {
+    if (buffers == null) {
+      return body;
+    }
+    if (!buffers.isEmpty()) {
+      final long length = getLength(buffers);
+      final ArrowBuf newBody = buffers.get(0).getReferenceManager().getAllocator().buffer(length);
+      long offset = 0;
+      for (ArrowBuf buf : buffers) {
+        final long bufLength = buf.readableBytes();
+        newBody.setBytes(offset, buf, buf.readerIndex(), bufLength);
+        offset += bufLength;
+      }
+      newBody.writerIndex(length);
+      if (bufferReferences > 1) {
+        newBody.getReferenceManager().retain(bufferReferences - 1);
+      }
+      body = newBody;
+    }
+    releaseBuffers(bufferReferences);
     return body;
   }
 
+  /**
+   * @return the buffers of the batch if it was created from a list of buffers that haven't been copied into a body,
+   * null otherwise
+   */
+  public synchronized List<ArrowBuf> getBuffers() {
+    return buffers;
+  }
+
   @Override
   public String toString() {
     return "RawFragmentBatch [header=" + header + ", body=" + body + "]";
   }
 
   @Override
-  public void close() {
+  public synchronized void close() {
     if (body != null) {
       body.close();
     }
+    if (buffers != null) {
+      releaseBuffers(1);
+    }
+  }
+
+  private void releaseBuffers(int references) {
+    for (ArrowBuf buf : buffers) {
+      buf.getReferenceManager().release(references);
+    }
+    bufferReferences -= references;
+    if (bufferReferences == 0) {
+      buffers = null;
+    }
   }
 
   public AckSender getSender() {
@@ -70,10 +144,28 @@ public class RawFragmentBatch implements AutoCloseable {
     }
   }
 
-  public long getByteCount() {
+  public synchronized long getByteCount() {
+    if (buffers != null) {
+      return getLength(buffers);
+    }
     return body == null ? 0 : body.readableBytes();
   }
 
+  private static long getLength(List<ArrowBuf> buffers) {
+    long length = 0;
+    for (ArrowBuf buf : buffers) {
+      length += buf.readableBytes();
+    }
+    return length;
+  }
+
+  /**
+   * @return the size of the body as it was received if it was compressed by the sender, 0 otherwise
+   */
+  public long getCompressedByteCount() {
+    return compressedByteCount;
+  }
+
   public boolean isAckSent() {
     return ackSent.get();
   }
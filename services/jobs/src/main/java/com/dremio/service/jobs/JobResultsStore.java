@@ -33,6 +33,7 @@ import com.dremio.datastore.api.LegacyIndexedStore;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.record.RecordBatchHolder;
 import com.dremio.exec.store.JobResultsStoreConfig;
+import com.dremio.exec.store.easy.arrow.ArrowBatchCache;
 import com.dremio.exec.store.easy.arrow.ArrowFileMetadata;
 import com.dremio.exec.store.easy.arrow.ArrowFileMetadataValidator;
 import com.dremio.exec.store.easy.arrow.ArrowFileReader;
@@ -57,11 +58,16 @@ import com.google.common.collect.Sets;
 public class JobResultsStore implements Service {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(JobResultsStore.class);
 
+  // Size of the cache of recently served result batches, 0 to disable it
+  private static final long BATCH_CACHE_SIZE_BYTES =
+      Long.getLong("dremio.jobs.results.batch_cache_size_bytes", 64 * 1024 * 1024);
+
   private final String storageName;
   private final Path jobStoreLocation;
   private final FileSystem dfs;
   private final BufferAllocator allocator;
   private final LegacyIndexedStore<JobId, JobResult> store;
+  private final ArrowBatchCache batchCache;
 
   public JobResultsStore(
       final JobResultsStoreConfig resultsStoreConfig,
@@ -75,6 +81,7 @@ public class JobResultsStore implements Service {
 
     this.store = store;
     this.allocator = allocator;
+    this.batchCache = BATCH_CACHE_SIZE_BYTES > 0 ? new ArrowBatchCache(allocator, BATCH_CACHE_SIZE_BYTES) : null;
   }
 
   /**
@@ -97,6 +104,9 @@ public class JobResultsStore implements Service {
 
   public boolean cleanup(JobId jobId) {
     final Path jobOutputDir = getJobOutputDir(jobId);
+    if (batchCache != null) {
+      batchCache.invalidate(jobOutputDir);
+    }
     try {
       if (doesQueryResultsDirExists(jobOutputDir, jobId)) {
         deleteQueryResults(jobOutputDir, true, jobId);
@@ -249,7 +259,7 @@ public class JobResultsStore implements Service {
                                                     BufferAllocator allocator,
                                                     long fileOffset,
                                                     long fileLimit) throws IOException {
-    try(ArrowFileReader fileReader = new ArrowFileReader(dfs, jobOutputDir, arrowFileMetadata, allocator)) {
+    try(ArrowFileReader fileReader = new ArrowFileReader(dfs, jobOutputDir, arrowFileMetadata, allocator, batchCache)) {
       return fileReader.read(fileOffset, fileLimit);
     }
   }
@@ -352,6 +362,9 @@ public class JobResultsStore implements Service {
 
   @Override
   public void close() throws Exception {
+    if (batchCache != null) {
+      batchCache.close();
+    }
   }
 
   protected Set<NodeEndpoint> getNodeEndpoints(JobId jobId) {
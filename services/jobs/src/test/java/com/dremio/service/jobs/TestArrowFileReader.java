@@ -27,6 +27,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -67,6 +68,7 @@ import com.dremio.exec.store.RecordWriter.WriteStatsListener;
 import com.dremio.exec.store.dfs.FileSystemPlugin;
 import com.dremio.exec.store.dfs.easy.EasyFormatPlugin;
 import com.dremio.exec.store.dfs.easy.EasyWriter;
+import com.dremio.exec.store.easy.arrow.ArrowBatchCache;
 import com.dremio.exec.store.easy.arrow.ArrowFileFormat;
 import com.dremio.exec.store.easy.arrow.ArrowFileMetadata;
 import com.dremio.exec.store.easy.arrow.ArrowFileReader;
@@ -377,6 +379,84 @@ public class TestArrowFileReader extends DremioTest {
     }
   }
 
+  @Test
+  public void readingMultiBatchFileWithBatchCache() throws Exception {
+    List<VectorContainer> containers = Lists.newArrayList();
+    try (final BufferAllocator allocator = allocatorRule.newAllocator("test-arrow-file-reader", 0, Long.MAX_VALUE);
+         final ArrowBatchCache batchCache = new ArrowBatchCache(allocator, 1024 * 1024)) {
+      containers.add(createBatch(5, testBitVector(allocator), testVarCharVector(allocator)));
+      containers.add(createBatch(5, testBitVector(allocator), testVarCharVector(allocator)));
+      containers.add(createBatch(5, testBitVector(allocator), testVarCharVector(allocator)));
+
+      Path basePath = new Path(dateGenFolder.getRoot().getPath());
+      ArrowFileMetadata metadata = writeArrowFile(containers.toArray(new VectorContainer[3]));
+      try(ArrowFileReader reader = new ArrowFileReader(HadoopFileSystem.getLocal(FS_CONF), com.dremio.io.file.Path.of(basePath.toUri()), metadata, allocator, batchCache)) {
+        List<RecordBatchHolder> batchHolders = getRecords(reader, 2, 11, allocator);
+        assertEquals(3, batchHolders.size());
+        releaseBatches(batchHolders);
+      }
+
+      // the batches read above are served from the cache
+      assertTrue(new File(dateGenFolder.getRoot(), metadata.getPath()).delete());
+      try(ArrowFileReader reader = new ArrowFileReader(HadoopFileSystem.getLocal(FS_CONF), com.dremio.io.file.Path.of(basePath.toUri()), metadata, allocator, batchCache)) {
+        List<RecordBatchHolder> batchHolders = getRecords(reader, 7, 5, allocator);
+        assertEquals(2, batchHolders.size());
+
+        verifyBatchHolder(batchHolders.get(0), 2, 5);
+        VectorContainer batchContainer = batchHolders.get(0).getData().getContainer();
+        assertEquals(TEST_BIT_VALUES.subList(2, 5), getBitValues(batchContainer, 2, 5));
+        assertEquals(TEST_VARCHAR_VALUES.subList(2, 5), getVarCharValues(batchContainer, 2, 5));
+
+        verifyBatchHolder(batchHolders.get(1), 0, 2);
+        batchContainer = batchHolders.get(1).getData().getContainer();
+        assertEquals(TEST_BIT_VALUES.subList(0, 2), getBitValues(batchContainer, 0, 2));
+        assertEquals(TEST_VARCHAR_VALUES.subList(0, 2), getVarCharValues(batchContainer, 0, 2));
+
+        releaseBatches(batchHolders);
+      }
+    } finally {
+      for(VectorContainer container : containers) {
+        if (container != null) {
+          container.clear();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void cachedBatchesAreNotModifiedByReaders() throws Exception {
+    List<VectorContainer> containers = Lists.newArrayList();
+    try (final BufferAllocator allocator = allocatorRule.newAllocator("test-arrow-file-reader", 0, Long.MAX_VALUE);
+         final ArrowBatchCache batchCache = new ArrowBatchCache(allocator, 1024 * 1024)) {
+      containers.add(createBatch(5, testBitVector(allocator), testVarCharVector(allocator)));
+
+      Path basePath = new Path(dateGenFolder.getRoot().getPath());
+      ArrowFileMetadata metadata = writeArrowFile(containers.toArray(new VectorContainer[1]));
+      try(ArrowFileReader reader = new ArrowFileReader(HadoopFileSystem.getLocal(FS_CONF), com.dremio.io.file.Path.of(basePath.toUri()), metadata, allocator, batchCache)) {
+        List<RecordBatchHolder> batchHolders = getRecords(reader, 0, 5, allocator);
+        // consumers may write to the vectors they are given
+        BitVector bitVector = batchHolders.get(0).getData().getContainer().getValueAccessorById(BitVector.class, 0).getValueVector();
+        for (int i = 0; i < 5; i++) {
+          bitVector.setSafe(i, 1);
+        }
+        releaseBatches(batchHolders);
+      }
+
+      // the cached batch still has the values of the file
+      try(ArrowFileReader reader = new ArrowFileReader(HadoopFileSystem.getLocal(FS_CONF), com.dremio.io.file.Path.of(basePath.toUri()), metadata, allocator, batchCache)) {
+        List<RecordBatchHolder> batchHolders = getRecords(reader, 0, 5, allocator);
+        assertEquals(TEST_BIT_VALUES.subList(0, 5), getBitValues(batchHolders.get(0).getData().getContainer(), 0, 5));
+        releaseBatches(batchHolders);
+      }
+    } finally {
+      for(VectorContainer container : containers) {
+        if (container != null) {
+          container.clear();
+        }
+      }
+    }
+  }
+
   /** Helper method which creates a test bit vector */
   private static BitVector testBitVector(BufferAllocator allocator) {
     BitVector colBitV = new BitVector("colBit", allocator);